@@ -1,7 +1,10 @@
 package com.dataart.tmurzenkov.cassandra.configuration;
 
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineEnforcement;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.cassandra.config.CassandraSessionFactoryBean;
 import org.springframework.data.cassandra.config.java.AbstractCassandraConfiguration;
@@ -9,25 +12,37 @@ import org.springframework.data.cassandra.core.CassandraAdminOperations;
 import org.springframework.data.cassandra.core.CassandraAdminTemplate;
 import org.springframework.data.cassandra.repository.config.EnableCassandraRepositories;
 
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+
 /**
  * Cassandra spring data configuration to work with dao that are located at
- * com.dataart.tmurzenkov.cassandra.dao.hotel .
+ * com.dataart.tmurzenkov.cassandra.dao.hotel . Disabled in the {@link Profiles#IN_MEMORY} profile.
  *
  * @author tmurzenkov
  */
 @EnableCassandraRepositories(
         basePackages = "com.dataart.tmurzenkov.cassandra.dao")
 @Configuration
+@Profile(NOT_IN_MEMORY)
 @PropertySource(value = {"classpath:/application.properties"})
 public class CassandraConfiguration extends AbstractCassandraConfiguration {
     @Value("${cassandra.contactpoints}")
     protected String contactPoints;
     @Value("${cassandra.keyspace.hotel}")
     private String hotelKeySpace;
+    @Autowired
+    private DeadlineEnforcement deadlineEnforcement;
 
+    /**
+     * Configures the template of the daos over the session that cuts the read timeout of the statements down to the
+     * deadline of the request.
+     *
+     * @return {@link CassandraAdminOperations}
+     * @throws Exception if the session or the converter cannot be created
+     */
     @Override
     public CassandraAdminOperations cassandraTemplate() throws Exception {
-        return new CassandraAdminTemplate(session().getObject(), cassandraConverter());
+        return new CassandraAdminTemplate(deadlineEnforcement.wrap(session().getObject()), cassandraConverter());
     }
 
     @Override
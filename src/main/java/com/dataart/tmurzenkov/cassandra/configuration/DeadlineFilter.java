@@ -0,0 +1,128 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineEnforcement;
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
+import com.dataart.tmurzenkov.cassandra.model.dto.ErrorDto;
+import com.dataart.tmurzenkov.cassandra.model.exception.DeadlineExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.DEADLINE_EXCEEDED;
+import static com.dataart.tmurzenkov.cassandra.util.StringUtils.isEmpty;
+import static java.util.Map.Entry.comparingByKey;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Starts the {@link RequestDeadline} of the request, so its dao calls and statements are given the time left till the
+ * client gives up and no more. The deadline is taken from the X-Request-Deadline header, the epoch milliseconds the
+ * client waits for the response till. The request without the header is given the budget of its endpoint, the
+ * deadline.endpoint.millis list of the path prefixes and milliseconds, e.g. /api/add/reservation=3000, or the
+ * deadline.default.millis one, no deadline if it is 0. The request come after its deadline is rejected with 504
+ * before it takes a request thread waiting for the data base. The deadline is not carried to the streamed response
+ * body, it is written as long as the client reads it.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+    /**
+     * Header of the epoch milliseconds of the deadline.
+     */
+    public static final String REQUEST_DEADLINE = "X-Request-Deadline";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadlineFilter.class);
+    @Autowired
+    private DeadlineEnforcement deadlineEnforcement;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${deadline.default.millis:0}")
+    private long defaultBudgetMillis;
+    private Map<String, Long> endpointBudgets = new LinkedHashMap<>();
+
+    /**
+     * Sets the budgets of the requests without the header by their endpoint, the longest matching prefix wins.
+     *
+     * @param endpointBudgets comma separated path prefix=milliseconds pairs, relative to the context path
+     */
+    @Value("${deadline.endpoint.millis:}")
+    public void setEndpointBudgets(String endpointBudgets) {
+        final Map<String, Long> budgets = new LinkedHashMap<>();
+        if (!isEmpty(endpointBudgets)) {
+            for (String endpointBudget : endpointBudgets.split(",")) {
+                final String[] pathAndMillis = endpointBudget.trim().split("=");
+                if (2 != pathAndMillis.length) {
+                    throw new IllegalArgumentException("Expected path=millis, got " + endpointBudget);
+                }
+                budgets.put(pathAndMillis[0].trim(), Long.valueOf(pathAndMillis[1].trim()));
+            }
+        }
+        this.endpointBudgets = new LinkedHashMap<>();
+        budgets.entrySet().stream()
+                .sorted(comparingByKey(Comparator.comparingInt(String::length).reversed()))
+                .forEach(budget -> this.endpointBudgets.put(budget.getKey(), budget.getValue()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        final OptionalLong budgetMillis = budgetMillis(request);
+        if (!budgetMillis.isPresent()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final boolean expired = budgetMillis.getAsLong() <= 0;
+        deadlineEnforcement.onRequest(expired);
+        if (expired) {
+            reject(request, response);
+            return;
+        }
+        RequestDeadline.start(budgetMillis.getAsLong());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            deadlineEnforcement.onCompleted();
+            RequestDeadline.clear();
+        }
+    }
+
+    private OptionalLong budgetMillis(HttpServletRequest request) {
+        final String deadline = request.getHeader(REQUEST_DEADLINE);
+        if (!isEmpty(deadline)) {
+            try {
+                return OptionalLong.of(Long.parseLong(deadline.trim()) - System.currentTimeMillis());
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Ignoring the malformed deadline '{}' of the request '{}'", deadline, request.getRequestURI());
+            }
+        }
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        final long budget = endpointBudgets.entrySet().stream()
+                .filter(endpointBudget -> path.startsWith(endpointBudget.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(defaultBudgetMillis);
+        return budget > 0 ? OptionalLong.of(budget) : OptionalLong.empty();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LOGGER.debug("Rejecting the request '{}' come after its deadline", request.getRequestURI());
+        response.setStatus(GATEWAY_TIMEOUT.value());
+        response.setContentType(APPLICATION_JSON_VALUE);
+        final DeadlineExceededException e = new DeadlineExceededException("The deadline of the request passed before it came");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorDto(e, DEADLINE_EXCEEDED));
+    }
+}
@@ -0,0 +1,268 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_LENGTH;
+import static org.springframework.http.HttpHeaders.VARY;
+
+/**
+ * Compresses the response body with gzip if the client accepts it and the body is not smaller than the configured
+ * size. The body is buffered until the size is reached, so the small responses are sent as is with the content length.
+ * The responses written after the request is put into the async mode, i.e. NDJSON streams, are never compressed, the
+ * client has to get every line as soon as it is written. The same goes for the responses written by a non blocking
+ * {@link WriteListener}: the listener is registered with the stream of the container, which decides when the writes
+ * are ready.
+ *
+ * @author tmurzenkov
+ */
+public class GzipFilter extends OncePerRequestFilter {
+    /**
+     * Default minimal size of the body in bytes to compress.
+     */
+    public static final int DEFAULT_MIN_SIZE = 1024;
+    private static final Logger LOGGER = LoggerFactory.getLogger(GzipFilter.class);
+    private static final String GZIP = "gzip";
+    private int minSize = DEFAULT_MIN_SIZE;
+
+    /**
+     * Sets the minimal size of the body in bytes to compress, can be set by the init parameter of the filter.
+     *
+     * @param minSize size in bytes
+     */
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(VARY, ACCEPT_ENCODING);
+        if (!acceptsGzip(request) || "HEAD".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final GzipResponseWrapper responseWrapper = new GzipResponseWrapper(request, response, minSize);
+        filterChain.doFilter(request, responseWrapper);
+        if (!request.isAsyncStarted()) {
+            responseWrapper.finish();
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        final String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
+        return null != acceptEncoding && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+
+    /**
+     * Buffers the body until it either reaches the minimal size and goes to gzip or the request is completed.
+     */
+    private static final class GzipResponseWrapper extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final int minSize;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target = buffer;
+        private boolean decided;
+        private boolean compressing;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        GzipResponseWrapper(HttpServletRequest request, HttpServletResponse response, int minSize) {
+            super(response);
+            this.request = request;
+            this.minSize = minSize;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (null != writer) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            if (null == outputStream) {
+                outputStream = new BufferingOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (null != outputStream && null == writer) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            if (null == writer) {
+                outputStream = new BufferingOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (isPassingThrough()) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (isPassingThrough()) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (isPassingThrough() || !CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (isPassingThrough() || !CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (null != writer) {
+                writer.flush();
+            }
+            if (decided) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (!decided) {
+                buffer.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (!decided) {
+                buffer.reset();
+            }
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (null != writer) {
+                writer.flush();
+            }
+            if (compressing) {
+                ((GZIPOutputStream) target).finish();
+            }
+            if (decided) {
+                target.flush();
+                return;
+            }
+            decided = true;
+            target = getResponse().getOutputStream();
+            if (buffer.size() > 0) {
+                super.setContentLength(buffer.size());
+                buffer.writeTo(target);
+            }
+        }
+
+        private boolean isPassingThrough() {
+            return decided && !compressing;
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!decided) {
+                if (request.isAsyncStarted()) {
+                    decided = true;
+                    target = getResponse().getOutputStream();
+                } else if (buffer.size() + length >= minSize) {
+                    decided = true;
+                    target = startGzip();
+                }
+            }
+            target.write(bytes, offset, length);
+        }
+
+        private ServletOutputStream passThrough() {
+            if (compressing) {
+                throw new IllegalStateException("The body of '" + request.getRequestURI()
+                        + "' is already compressed, the non blocking writes have to start before the body does");
+            }
+            try {
+                final ServletOutputStream containerStream = getResponse().getOutputStream();
+                if (!decided) {
+                    decided = true;
+                    target = containerStream;
+                    if (buffer.size() > 0) {
+                        buffer.writeTo(containerStream);
+                    }
+                }
+                return containerStream;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write the body of '" + request.getRequestURI() + "'", e);
+            }
+        }
+
+        private OutputStream startGzip() throws IOException {
+            LOGGER.debug("Compressing the response of '{}' with gzip", request.getRequestURI());
+            compressing = true;
+            super.setHeader(CONTENT_ENCODING, GZIP);
+            final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(getResponse().getOutputStream());
+            buffer.writeTo(gzipOutputStream);
+            return gzipOutputStream;
+        }
+
+        /**
+         * Servlet output stream that delegates to the response wrapper.
+         */
+        private final class BufferingOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                GzipResponseWrapper.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (decided) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return !decided || compressing || ((ServletOutputStream) target).isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                passThrough().setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+
+/**
+ * Replaces the {@link CassandraConfiguration} in the {@link Profiles#IN_MEMORY} profile. No cluster is connected, the
+ * daos are served by the in-memory implementations of com.dataart.tmurzenkov.cassandra.dao.inmemory .
+ *
+ * @author tmurzenkov
+ */
+@Configuration
+@Profile(IN_MEMORY)
+@PropertySource(value = {"classpath:/application.properties"})
+public class InMemoryConfiguration {
+}
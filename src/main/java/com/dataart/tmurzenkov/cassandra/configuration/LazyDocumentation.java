@@ -0,0 +1,88 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.PRODUCTION;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Defers the scan of the controllers the Swagger documentation is generated by from the refresh of the context to the
+ * first request of the documentation. The {@link DocumentationPluginsBootstrapper} is replaced by the listener which
+ * only keeps the refresh event, and the scan is run with the kept event by the first request intercepted.
+ *
+ * @author tmurzenkov
+ */
+@Component
+@Profile(PRODUCTION)
+public class LazyDocumentation extends HandlerInterceptorAdapter implements BeanPostProcessor {
+    /**
+     * Paths of the Swagger documentation, which need the scan to be over.
+     */
+    public static final String[] DOCUMENTATION_PATHS = {"/v2/api-docs", "/swagger-resources"};
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazyDocumentation.class);
+    @Autowired(required = false)
+    private StartupTimings startupTimings;
+    private DocumentationPluginsBootstrapper bootstrapper;
+    private volatile ContextRefreshedEvent refreshedEvent;
+    private volatile boolean documented;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DocumentationPluginsBootstrapper)) {
+            return bean;
+        }
+        bootstrapper = (DocumentationPluginsBootstrapper) bean;
+        return new DeferredScan();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!documented) {
+            document();
+        }
+        return true;
+    }
+
+    /**
+     * Scans the controllers, unless they are scanned already or the context is not refreshed yet.
+     */
+    public synchronized void document() {
+        if (documented || refreshedEvent == null) {
+            return;
+        }
+        final long start = System.nanoTime();
+        bootstrapper.onApplicationEvent(refreshedEvent);
+        documented = true;
+        if (startupTimings != null) {
+            startupTimings.recordPhase("swagger documentation (lazy)", start);
+        }
+        LOGGER.info("The Swagger documentation is generated in {} ms", NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Stands for the {@link DocumentationPluginsBootstrapper} in the context and keeps the refresh event for the scan.
+     */
+    private final class DeferredScan implements ApplicationListener<ContextRefreshedEvent> {
+        @Override
+        public void onApplicationEvent(ContextRefreshedEvent event) {
+            refreshedEvent = event;
+        }
+    }
+}
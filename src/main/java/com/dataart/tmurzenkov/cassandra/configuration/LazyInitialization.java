@@ -0,0 +1,56 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.PRODUCTION;
+import static org.springframework.util.StringUtils.commaDelimitedListToStringArray;
+
+/**
+ * Makes the beans not needed to serve the traffic lazy, so they are created by their first use instead of the refresh
+ * of the context. The beans are picked by the prefixes of their class names listed by the lazy.init.classes property.
+ * The bean post processors and the listeners are still created by the refresh, whatever their class.
+ *
+ * @author tmurzenkov
+ */
+@Component
+@Profile(PRODUCTION)
+public class LazyInitialization implements BeanFactoryPostProcessor, EnvironmentAware {
+    private static final String DEFAULT_LAZY_CLASSES = "springfox.,"
+            + "com.dataart.tmurzenkov.cassandra.controller.MetricsController,"
+            + "com.dataart.tmurzenkov.cassandra.controller.FaultInjectionController";
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        final String[] lazyClasses = commaDelimitedListToStringArray(environment.getProperty("lazy.init.classes", DEFAULT_LAZY_CLASSES));
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            final BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (isLazy(beanDefinition.getBeanClassName(), lazyClasses)) {
+                beanDefinition.setLazyInit(true);
+            }
+        }
+    }
+
+    private static boolean isLazy(String beanClassName, String[] lazyClasses) {
+        if (beanClassName == null) {
+            return false;
+        }
+        for (String lazyClass : lazyClasses) {
+            if (!lazyClass.trim().isEmpty() && beanClassName.startsWith(lazyClass.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
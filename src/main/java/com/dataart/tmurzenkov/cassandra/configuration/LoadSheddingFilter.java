@@ -0,0 +1,155 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.dao.limit.AdaptiveConcurrencyLimit;
+import com.dataart.tmurzenkov.cassandra.model.dto.ErrorDto;
+import com.dataart.tmurzenkov.cassandra.model.exception.ServiceOverloadedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.FaultUris.ADMIN;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.ReadinessUris.READINESS;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.SERVICE_OVERLOADED;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Sheds the requests above the {@link AdaptiveConcurrencyLimit} with 503 and the Retry-After header before they take a
+ * request thread waiting for the data base. The bookings may use the whole limit, the other requests only its share,
+ * so the searches are shed first. The request let in holds its place until it is completed, the streamed or async one until
+ * its async processing is. The readiness, the metrics and the admin requests are never shed nor counted, the service
+ * has to be observed and operated most of all when it is overloaded. Registered by the {@link WebContextInitialization}
+ * through a delegating filter proxy, as it is a bean of the dispatcher context.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadSheddingFilter.class);
+    @Autowired
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${limit.retry.after.seconds:1}")
+    private int retryAfterSeconds = 1;
+    private List<String> priorityPaths = asList(ADD_BOOKING, ASYNC_ADD_BOOKING);
+    private List<String> exemptPaths = asList(READINESS, METRICS, ADMIN);
+
+    /**
+     * Sets the paths of the requests that may use the whole limit.
+     *
+     * @param priorityPaths list of the path prefixes, relative to the context path
+     */
+    public void setPriorityPaths(List<String> priorityPaths) {
+        this.priorityPaths = priorityPaths;
+    }
+
+    /**
+     * Sets the paths of the requests that are never shed.
+     *
+     * @param exemptPaths list of the path prefixes, relative to the context path
+     */
+    public void setExemptPaths(List<String> exemptPaths) {
+        this.exemptPaths = exemptPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return startsWithAny(request, exemptPaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!concurrencyLimit.tryAcquire(isPriority(request))) {
+            shed(request, response);
+            return;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(released));
+            } else {
+                release(released);
+            }
+        }
+    }
+
+    private boolean isPriority(HttpServletRequest request) {
+        return startsWithAny(request, priorityPaths);
+    }
+
+    private static boolean startsWithAny(HttpServletRequest request, List<String> paths) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().anyMatch(path::startsWith);
+    }
+
+    private void shed(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LOGGER.debug("Shedding the request '{}' above the concurrency limit", request.getRequestURI());
+        final String message = format("The service is overloaded, retry after %d seconds", retryAfterSeconds);
+        response.setStatus(SERVICE_UNAVAILABLE.value());
+        response.setHeader(RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(APPLICATION_JSON_VALUE);
+        final ServiceOverloadedException e = new ServiceOverloadedException(message, retryAfterSeconds);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorDto(e, SERVICE_OVERLOADED));
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            concurrencyLimit.release();
+        }
+    }
+
+    /**
+     * Releases the place of the streamed request once its async processing is over, whichever way.
+     */
+    private final class ReleasingListener implements AsyncListener {
+        private final AtomicBoolean released;
+
+        private ReleasingListener(AtomicBoolean released) {
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.EventSink;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.FileEventSink;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.InMemoryEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+import static java.lang.String.format;
+
+/**
+ * Configures the {@link EventSink} the booking events of the outbox are published to, chosen by the outbox.sink
+ * property: {@link #FILE_SINK} appends them to the outbox.sink.file, {@link #MEMORY_SINK} queues them in memory for
+ * the consumers within the process, up to outbox.sink.memory.capacity events.
+ *
+ * @author tmurzenkov
+ */
+@Configuration
+public class OutboxConfiguration {
+    /**
+     * Value of the outbox.sink property which publishes the events to the local file.
+     */
+    public static final String FILE_SINK = "file";
+    /**
+     * Value of the outbox.sink property which publishes the events to the in-memory queue.
+     */
+    public static final String MEMORY_SINK = "memory";
+    private static final int DEFAULT_MEMORY_CAPACITY = 10000;
+    @Value("${outbox.sink:file}")
+    private String sink = FILE_SINK;
+    @Value("${outbox.sink.file:booking-events.ndjson}")
+    private String file;
+    @Value("${outbox.sink.memory.capacity:10000}")
+    private int memoryCapacity = DEFAULT_MEMORY_CAPACITY;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Creates the sink of the booking events.
+     *
+     * @return {@link EventSink}
+     */
+    @Bean
+    public EventSink bookingEventSink() {
+        if (FILE_SINK.equals(sink)) {
+            return new FileEventSink(Paths.get(file), objectMapper);
+        }
+        if (MEMORY_SINK.equals(sink)) {
+            return new InMemoryEventSink(memoryCapacity);
+        }
+        throw new IllegalArgumentException(format("Unknown outbox.sink '%s', expected '%s' or '%s'", sink, FILE_SINK, MEMORY_SINK));
+    }
+}
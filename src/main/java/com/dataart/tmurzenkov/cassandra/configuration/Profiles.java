@@ -0,0 +1,15 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+/**
+ * Names of the spring profiles of the application. A profile is activated by the spring.profiles.active system
+ * property or the servlet context parameter, e.g. -Dspring.profiles.active=inmemory,faults . The production profile
+ * defers the Swagger documentation and the beans not needed to serve the traffic till their first use.
+ *
+ * @author tmurzenkov
+ */
+public interface Profiles {
+    String IN_MEMORY = "inmemory";
+    String NOT_IN_MEMORY = "!" + IN_MEMORY;
+    String FAULT_INJECTION = "faults";
+    String PRODUCTION = "production";
+}
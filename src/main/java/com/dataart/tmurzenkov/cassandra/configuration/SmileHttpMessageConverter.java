@@ -0,0 +1,28 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE;
+
+/**
+ * Reads and writes the binary Jackson Smile format. Spring Web 4.3 does not ship such converter. Being binary, the
+ * content type is written without the charset.
+ *
+ * @author tmurzenkov
+ */
+public class SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper {@link ObjectMapper} created with the {@link SmileFactory}
+     */
+    public SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, APPLICATION_SMILE);
+        Assert.isInstanceOf(SmileFactory.class, objectMapper.getFactory(), "SmileFactory required");
+        setDefaultCharset(null);
+    }
+}
@@ -0,0 +1,126 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BeanStartup;
+import com.dataart.tmurzenkov.cassandra.model.dto.StartupReport;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Times the phases of the refresh of the context and the creation of every bean. A bean is timed from its
+ * instantiation till its initialization is over; the time spent on the creation of its dependencies is counted in its
+ * total time, but not in its own one.
+ *
+ * @author tmurzenkov
+ */
+public class StartupTimings {
+    /**
+     * Name the timings are registered in the bean factory by.
+     */
+    public static final String STARTUP_TIMINGS = "startupTimings";
+    private final ThreadLocal<Deque<Creation>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<String, BeanStartup> beans = new LinkedHashMap<>();
+    private final BeanPostProcessor beanTimer = new BeanTimer();
+    private volatile long refreshNanos;
+
+    /**
+     * Returns the post processor timing the creation of the beans, meant to be added to the bean factory before any
+     * bean is created.
+     *
+     * @return {@link BeanPostProcessor}
+     */
+    public BeanPostProcessor getBeanTimer() {
+        return beanTimer;
+    }
+
+    /**
+     * Records the phase of the startup begun at the given time.
+     *
+     * @param phase      name of the phase
+     * @param startNanos {@link System#nanoTime()} the phase begun at
+     */
+    public synchronized void recordPhase(String phase, long startNanos) {
+        phaseNanos.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    /**
+     * Records the refresh of the context begun at the given time.
+     *
+     * @param startNanos {@link System#nanoTime()} the refresh begun at
+     */
+    public void recordRefresh(long startNanos) {
+        refreshNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Builds the report of the startup with the given number of the beans slowest to create.
+     *
+     * @param slowestBeans number of the beans to report
+     * @return {@link StartupReport}
+     */
+    public synchronized StartupReport getReport(int slowestBeans) {
+        final Map<String, Long> phases = new LinkedHashMap<>();
+        phaseNanos.forEach((phase, nanos) -> phases.put(phase, toMillis(nanos)));
+        final List<BeanStartup> slowest = beans.values().stream()
+                .sorted(comparingLong(BeanStartup::getSelfMillis).thenComparingLong(BeanStartup::getMillis).reversed())
+                .limit(slowestBeans)
+                .collect(toList());
+        return new StartupReport(toMillis(refreshNanos), phases, beans.size(), new ArrayList<>(slowest));
+    }
+
+    private static long toMillis(long nanos) {
+        return NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Times the creation of the beans by the nesting of their instantiations on the creating thread.
+     */
+    private final class BeanTimer extends InstantiationAwareBeanPostProcessorAdapter {
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+            creations.get().push(new Creation(beanName));
+            return null;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            final Deque<Creation> stack = creations.get();
+            if (stack.isEmpty() || !stack.peek().beanName.equals(beanName)) {
+                return bean;
+            }
+            final Creation creation = stack.pop();
+            final long totalNanos = System.nanoTime() - creation.startNanos;
+            if (!stack.isEmpty()) {
+                stack.peek().dependencyNanos += totalNanos;
+            }
+            synchronized (StartupTimings.this) {
+                beans.put(beanName, new BeanStartup(beanName, toMillis(totalNanos), toMillis(totalNanos - creation.dependencyNanos)));
+            }
+            return bean;
+        }
+    }
+
+    /**
+     * Creation of the bean in progress.
+     */
+    private static final class Creation {
+        private final String beanName;
+        private final long startNanos = System.nanoTime();
+        private long dependencyNanos;
+
+        private Creation(String beanName) {
+            this.beanName = beanName;
+        }
+    }
+}
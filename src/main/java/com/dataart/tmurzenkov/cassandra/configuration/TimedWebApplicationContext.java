@@ -0,0 +1,73 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.StartupTimings.STARTUP_TIMINGS;
+
+/**
+ * Web application context which times the phases of its refresh and the creation of its beans with the
+ * {@link StartupTimings}, registered in it by the {@link StartupTimings#STARTUP_TIMINGS} name, and logs the report of
+ * the refresh once it is over.
+ *
+ * @author tmurzenkov
+ */
+public class TimedWebApplicationContext extends AnnotationConfigWebApplicationContext {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimedWebApplicationContext.class);
+    private static final int DEFAULT_REPORTED_BEANS = 20;
+    private final StartupTimings startupTimings = new StartupTimings();
+
+    @Override
+    public void refresh() {
+        final long start = System.nanoTime();
+        super.refresh();
+        startupTimings.recordRefresh(start);
+        final int reportedBeans = getEnvironment().getProperty("startup.report.beans", Integer.class, DEFAULT_REPORTED_BEANS);
+        LOGGER.info("The context is refreshed: {}", startupTimings.getReport(reportedBeans));
+    }
+
+    @Override
+    protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) {
+        final long start = System.nanoTime();
+        super.loadBeanDefinitions(beanFactory);
+        startupTimings.recordPhase("bean definitions", start);
+    }
+
+    @Override
+    protected void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        super.postProcessBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(startupTimings.getBeanTimer());
+        beanFactory.registerSingleton(STARTUP_TIMINGS, startupTimings);
+    }
+
+    @Override
+    protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
+        final long start = System.nanoTime();
+        super.invokeBeanFactoryPostProcessors(beanFactory);
+        startupTimings.recordPhase("configuration classes and component scan", start);
+    }
+
+    @Override
+    protected void registerBeanPostProcessors(ConfigurableListableBeanFactory beanFactory) {
+        final long start = System.nanoTime();
+        super.registerBeanPostProcessors(beanFactory);
+        startupTimings.recordPhase("bean post processors", start);
+    }
+
+    @Override
+    protected void finishBeanFactoryInitialization(ConfigurableListableBeanFactory beanFactory) {
+        final long start = System.nanoTime();
+        super.finishBeanFactoryInitialization(beanFactory);
+        startupTimings.recordPhase("singletons", start);
+    }
+
+    @Override
+    protected void finishRefresh() {
+        final long start = System.nanoTime();
+        super.finishRefresh();
+        startupTimings.recordPhase("refresh listeners", start);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the virtual threads of the JDK 21+ by the reflection, as the application is built for the JDK 8. On the
+ * older JDKs no virtual thread factory is available and the callers fall back to the platform threads.
+ *
+ * @author tmurzenkov
+ */
+public final class VirtualThreads {
+    /**
+     * Value of the execution.mode property which runs the blocking calls of the application on the virtual threads.
+     */
+    public static final String VIRTUAL = "virtual";
+    /**
+     * Value of the execution.mode property which runs the blocking calls of the application on the thread pools.
+     */
+    public static final String PLATFORM = "platform";
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the JDK runs the virtual threads.
+     *
+     * @return true if it does
+     */
+    public static boolean isAvailable() {
+        return factory("probe-").isPresent();
+    }
+
+    /**
+     * Creates the factory of the virtual threads named by the prefix and the sequence number.
+     *
+     * @param namePrefix prefix of the names of the threads
+     * @return {@link Optional} of {@link ThreadFactory}, empty if the JDK does not run the virtual threads
+     */
+    public static Optional<ThreadFactory> factory(String namePrefix) {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            final Method name = builderType.getMethod("name", String.class, long.class);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(name.invoke(builder, namePrefix, 0L)));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
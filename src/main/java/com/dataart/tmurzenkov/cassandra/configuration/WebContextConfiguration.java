@@ -1,20 +1,41 @@
 package com.dataart.tmurzenkov.cassandra.configuration;
 
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.DefaultServletHandlerConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.LazyDocumentation.DOCUMENTATION_PATHS;
+import static com.dataart.tmurzenkov.cassandra.configuration.VirtualThreads.VIRTUAL;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
+import static java.util.Collections.singletonList;
 
 /**
  * Configures the {@link WebContextConfiguration}.
@@ -26,6 +47,19 @@ import java.util.List;
 @Import({SwaggerConfiguration.class, CassandraConfiguration.class})
 @ComponentScan("com.dataart.tmurzenkov.cassandra")
 public class WebContextConfiguration extends WebMvcConfigurerAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebContextConfiguration.class);
+    @Value("${streaming.pool.size:8}")
+    private int streamingPoolSize;
+    @Value("${streaming.timeout.millis:60000}")
+    private long streamingTimeout;
+    @Value("${bucket.read.pool.size:16}")
+    private int bucketReadPoolSize;
+    @Value("${fanout.pool.size:16}")
+    private int fanOutPoolSize;
+    @Value("${execution.mode:platform}")
+    private String executionMode;
+    @Autowired(required = false)
+    private LazyDocumentation lazyDocumentation;
 
     /**
      * Enables the default servlet handling.
@@ -51,16 +85,127 @@ public class WebContextConfiguration extends WebMvcConfigurerAdapter {
                 .addResourceLocations("classpath:/META-INF/resources/webjars/");
     }
 
+    /**
+     * Generates the Swagger documentation by its first request, when it is deferred.
+     *
+     * @param registry {@link InterceptorRegistry}
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (lazyDocumentation != null) {
+            registry.addInterceptor(lazyDocumentation).addPathPatterns(DOCUMENTATION_PATHS);
+        }
+    }
+
+    /**
+     * Shares the {@link ObjectMapper} of the JSON converter, registers the converter that writes the errors of the
+     * newline delimited JSON requests and the Smile converter used when the client accepts the binary format.
+     *
+     * @param converters list of {@link HttpMessageConverter}
+     */
     @Override
     public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
         for (HttpMessageConverter<?> converter : converters) {
             if (converter instanceof MappingJackson2HttpMessageConverter) {
                 MappingJackson2HttpMessageConverter jsonMessageConverter = (MappingJackson2HttpMessageConverter) converter;
-                ObjectMapper objectMapper = jsonMessageConverter.getObjectMapper();
-                objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                jsonMessageConverter.setObjectMapper(objectMapper());
                 break;
             }
         }
+        MappingJackson2HttpMessageConverter ndjsonMessageConverter = new MappingJackson2HttpMessageConverter(objectMapper());
+        ndjsonMessageConverter.setSupportedMediaTypes(singletonList(APPLICATION_NDJSON));
+        converters.add(ndjsonMessageConverter);
+        converters.add(new SmileHttpMessageConverter(smileObjectMapper()));
+    }
+
+    /**
+     * Writes the streamed responses in the bounded thread pool.
+     *
+     * @param configurer {@link AsyncSupportConfigurer}
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingTaskExecutor()).setDefaultTimeout(streamingTimeout);
+    }
+
+    /**
+     * Configures the object mapper used by the JSON converters.
+     *
+     * @return {@link ObjectMapper}
+     */
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    /**
+     * Configures the object mapper used by the Smile converter. Dates are kept as numeric arrays, as the binary format
+     * is meant for the clients that do not read the payload as text.
+     *
+     * @return {@link ObjectMapper}
+     */
+    @Bean
+    public ObjectMapper smileObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        Jackson2ObjectMapperBuilder.json().configure(objectMapper);
+        return objectMapper;
+    }
+
+    /**
+     * Configures the executor of the streamed responses.
+     *
+     * @return {@link AsyncTaskExecutor}
+     */
+    @Bean
+    public AsyncTaskExecutor streamingTaskExecutor() {
+        return taskExecutor("streaming-", streamingPoolSize, null);
+    }
+
+    /**
+     * Configures the executor of the parallel month bucket reads of the booked rooms. The reads run with the deadline
+     * of the request that submits them.
+     *
+     * @return {@link AsyncTaskExecutor}
+     */
+    @Bean
+    public AsyncTaskExecutor bucketReadTaskExecutor() {
+        return taskExecutor("bucket-read-", bucketReadPoolSize, RequestDeadline::propagate);
+    }
+
+    /**
+     * Configures the executor of the independent reads the services fan out per request, e.g. per hotel of the city.
+     * Kept apart from the {@link #bucketReadTaskExecutor()}, as the fanned out reads submit the bucket reads and wait for
+     * them. The reads run with the deadline of the request that submits them.
+     *
+     * @return {@link AsyncTaskExecutor}
+     */
+    @Bean
+    public AsyncTaskExecutor fanOutTaskExecutor() {
+        return taskExecutor("fan-out-", fanOutPoolSize, RequestDeadline::propagate);
+    }
+
+    /**
+     * Creates the fixed thread pool, or a virtual thread per task in the virtual execution mode. The virtual threads are
+     * not pooled nor limited, the concurrency of the dao calls they make is limited by the bulkheads of the daos.
+     */
+    private AsyncTaskExecutor taskExecutor(String threadNamePrefix, int poolSize, TaskDecorator taskDecorator) {
+        if (VIRTUAL.equals(executionMode)) {
+            final Optional<ThreadFactory> virtualThreads = VirtualThreads.factory(threadNamePrefix);
+            if (virtualThreads.isPresent()) {
+                final SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(virtualThreads.get());
+                executor.setTaskDecorator(taskDecorator);
+                return executor;
+            }
+            LOGGER.warn("The JDK {} runs no virtual threads, the '{}' tasks run on the pool of {} threads",
+                    System.getProperty("java.version"), threadNamePrefix, poolSize);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
     }
 
     /**
@@ -1,11 +1,15 @@
 package com.dataart.tmurzenkov.cassandra.configuration;
 
 import org.springframework.web.WebApplicationInitializer;
-import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FrameworkServlet;
 
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletRegistration;
+import java.util.EnumSet;
 
 /**
  * Web application initialization logic.
@@ -15,12 +19,29 @@ import javax.servlet.ServletRegistration;
 public class WebContextInitialization implements WebApplicationInitializer {
     @Override
     public void onStartup(ServletContext servletContext){
-        AnnotationConfigWebApplicationContext appContext = new AnnotationConfigWebApplicationContext();
+        TimedWebApplicationContext appContext = new TimedWebApplicationContext();
         appContext.register(WebContextConfiguration.class);
 
         ServletRegistration.Dynamic dispatcher = servletContext
                 .addServlet("dispatcher", new DispatcherServlet(appContext));
         dispatcher.setLoadOnStartup(1);
+        dispatcher.setAsyncSupported(true);
         dispatcher.addMapping("/");
+
+        DelegatingFilterProxy deadlineFilterProxy = new DelegatingFilterProxy("deadlineFilter");
+        deadlineFilterProxy.setContextAttribute(FrameworkServlet.SERVLET_CONTEXT_PREFIX + "dispatcher");
+        FilterRegistration.Dynamic deadlineFilter = servletContext.addFilter("deadlineFilter", deadlineFilterProxy);
+        deadlineFilter.setAsyncSupported(true);
+        deadlineFilter.addMappingForServletNames(EnumSet.of(DispatcherType.REQUEST), false, "dispatcher");
+
+        DelegatingFilterProxy loadSheddingFilterProxy = new DelegatingFilterProxy("loadSheddingFilter");
+        loadSheddingFilterProxy.setContextAttribute(FrameworkServlet.SERVLET_CONTEXT_PREFIX + "dispatcher");
+        FilterRegistration.Dynamic loadSheddingFilter = servletContext.addFilter("loadSheddingFilter", loadSheddingFilterProxy);
+        loadSheddingFilter.setAsyncSupported(true);
+        loadSheddingFilter.addMappingForServletNames(EnumSet.of(DispatcherType.REQUEST), false, "dispatcher");
+
+        FilterRegistration.Dynamic gzipFilter = servletContext.addFilter("gzipFilter", new GzipFilter());
+        gzipFilter.setAsyncSupported(true);
+        gzipFilter.addMappingForServletNames(EnumSet.of(DispatcherType.REQUEST), false, "dispatcher");
     }
 }
@@ -0,0 +1,168 @@
+package com.dataart.tmurzenkov.cassandra.controller;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.service.BookingService;
+import com.dataart.tmurzenkov.cassandra.service.HotelService;
+import com.dataart.tmurzenkov.cassandra.service.RoomService;
+import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiParam;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CONFLICT;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CREATED;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.FOUND;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_FOUND;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_MODIFIED;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.callAsync;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.unwrap;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.VARY;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+/**
+ * Async variant of the searches and the booking. The request thread of the servlet container sends the first
+ * statements by the async methods of the services and is given back right away, the request is left open till the
+ * statements are answered and the response is written by the thread of the driver that completed the last of them.
+ * No thread waits for the data base, so the number of the requests in progress is bounded by the bulkheads of the daos
+ * and not by the threads. The same caches, the isolation of the daos, the statuses and the errors apply as to the
+ * {@link HotelController}, the {@link RoomController} and the {@link BookingController}. The deadline of the request
+ * cuts down the statements sent by the request thread only, the statements sent once another one is answered are sent
+ * with the whole timeout. The base uri of the links is resolved on the request thread, the only one the current
+ * request is bound to.
+ *
+ * @author tmurzenkov
+ */
+@RestController
+@Api(value = "Async operations", description = "REST API to search and book the rooms without holding the request thread. ")
+public class AsyncController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncController.class);
+    @Autowired
+    private HotelService hotelServiceImpl;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ServiceResourceAssembler<Hotel, Class<HotelController>> hotelResourceAssembler;
+    @Autowired
+    private ServiceResourceAssembler<Room, Class<RoomController>> roomResourceAssembler;
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    /**
+     * Gets all hotels in the city. Answers with not modified right away if the client already has the actual version
+     * of the hotels.
+     *
+     * @param city       city name
+     * @param webRequest {@link ServletWebRequest}
+     * @return {@link DeferredResult} of {@link ResponseEntity} with the list of the {@link Hotel}
+     */
+    @ApiOperation(value = "Finds all hotels in the city.", notes = "Finds all hotels in the city without holding the request thread. ")
+    @RequestMapping(path = ASYNC_HOTELS_IN_THE_CITY, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = FOUND, message = "Found all hotels for the city name. "),
+            @ApiResponse(code = NOT_MODIFIED, message = "The hotels for the city name are not modified. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found all hotels for the city name. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public DeferredResult<ResponseEntity<List<Resource<Hotel>>>> getAllHotelsInTheCity(
+            @ApiParam(value = "Name of the city", required = true) @PathVariable("city") String city, ServletWebRequest webRequest) {
+        LOGGER.info("Going to look for all hotels in the city '{}' asynchronously", city);
+        webRequest.getResponse().addHeader(VARY, ACCEPT);
+        if (webRequest.checkNotModified(resourceVersions.cityTag(city))) {
+            LOGGER.info("The hotels in the city '{}' are not modified", city);
+            return null;
+        }
+        final ServiceResourceAssembler<Hotel, Class<HotelController>> assembler =
+                hotelResourceAssembler.withController(HotelController.class);
+        final String baseUri = assembler.resolveBaseUri();
+        return defer(() -> hotelServiceImpl.findAllHotelsInTheCityAsync(city).thenApply(hotels -> assembler.toResource(hotels, baseUri)),
+                HttpStatus.FOUND);
+    }
+
+    /**
+     * Finds free rooms by hotel id and within time interval.
+     *
+     * @param searchRequest {@link SearchRequest}
+     * @return {@link DeferredResult} of {@link ResponseEntity} with the list of the {@link Resource} of {@link Room}
+     */
+    @ApiOperation(value = "Finds free rooms.", notes = "Finds free rooms by hotel id without holding the request thread. ")
+    @RequestMapping(path = ASYNC_GET_FREE_ROOMS, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = FOUND, message = "Found free rooms in the hotel. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found free rooms in the hotel. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public DeferredResult<ResponseEntity<List<Resource<Room>>>> findFreeRooms(@RequestBody @Valid SearchRequest searchRequest) {
+        LOGGER.info("Going to find the free rooms asynchronously for the following request: '{}'", searchRequest);
+        final ServiceResourceAssembler<Room, Class<RoomController>> assembler =
+                roomResourceAssembler.withController(RoomController.class);
+        final String baseUri = assembler.resolveBaseUri();
+        return defer(() -> roomService.findFreeRoomsInTheHotelAsync(searchRequest).thenApply(rooms -> assembler.toResource(rooms, baseUri)),
+                HttpStatus.FOUND);
+    }
+
+    /**
+     * Books the room by the registered user id, hotel id, start date, end date, room number.
+     *
+     * @param bookingRequest {@link BookingRequest}
+     * @return {@link DeferredResult} of {@link ResponseEntity} with the {@link Resource} of {@link BookingRequest}
+     */
+    @ApiOperation(value = "Books the room.", notes = "Books the room without holding the request thread. ")
+    @RequestMapping(path = ASYNC_ADD_BOOKING, method = POST,
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = CREATED, message = "The room has been booked successfully. "),
+            @ApiResponse(code = CONFLICT, message = "The room is already booked. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public DeferredResult<ResponseEntity<Resource<BookingRequest>>> bookRoom(@RequestBody @Valid BookingRequest bookingRequest) {
+        LOGGER.info("New asynchronous reservation request is issued '{}'", bookingRequest);
+        return defer(() -> bookingService.performBookingAsync(bookingRequest).thenApply(Resource::new), HttpStatus.CREATED);
+    }
+
+    /**
+     * Starts the async call and answers the request once it completes. The exception the call fails with is handed
+     * over as is, so it is answered by the same exception handler as the exception of the synchronous call.
+     */
+    private <T> DeferredResult<ResponseEntity<T>> defer(Supplier<CompletableFuture<T>> call, HttpStatus status) {
+        final DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+        callAsync(call).whenComplete((body, e) -> {
+            if (null == e) {
+                result.setResult(new ResponseEntity<>(body, status));
+            } else {
+                result.setErrorResult(unwrap(e));
+            }
+        });
+        return result;
+    }
+}
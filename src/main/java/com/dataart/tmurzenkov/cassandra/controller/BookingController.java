@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CONFLICT;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
@@ -46,7 +47,9 @@ public class BookingController {
      */
     @ApiOperation(value = "Books the room.",
             notes = "Books the room by the registered user id, hotel id, start date, end date, room number.")
-    @RequestMapping(path = ADD_BOOKING, method = POST, consumes = "application/json", produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = ADD_BOOKING, method = POST,
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseStatus(CREATED)
     @ApiResponses({
             @ApiResponse(code = HttpStatus.CREATED, message = "The room has been booked successfully. "),
@@ -0,0 +1,84 @@
+package com.dataart.tmurzenkov.cassandra.controller;
+
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjector;
+import com.dataart.tmurzenkov.cassandra.model.dto.FaultRule;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiParam;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.FAULT_INJECTION;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CREATED;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NO_CONTENT;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.OK;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.FaultUris.FAULTS;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.web.bind.annotation.RequestMethod.DELETE;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+/**
+ * Controls the latency and the failures injected into the daos at runtime. Available in the
+ * {@link com.dataart.tmurzenkov.cassandra.configuration.Profiles#FAULT_INJECTION} profile only.
+ *
+ * @author tmurzenkov
+ */
+@RestController
+@Profile(FAULT_INJECTION)
+@Api(value = "Fault injection operations", description = "REST API to inject latency and failures into the daos. ")
+public class FaultInjectionController {
+    @Autowired
+    private FaultInjector faultInjector;
+
+    /**
+     * Returns the installed fault rules.
+     *
+     * @return list of {@link FaultRule}
+     */
+    @ApiOperation(value = "Gets the fault rules.", notes = "Gets the fault rules applied to the dao calls. ")
+    @RequestMapping(path = FAULTS, method = GET, produces = APPLICATION_JSON_VALUE)
+    @ApiResponses({@ApiResponse(code = OK, message = "Found the fault rules. ")})
+    public List<FaultRule> getFaultRules() {
+        return faultInjector.getRules();
+    }
+
+    /**
+     * Installs the fault rule, replacing the rule of the same dao and method.
+     *
+     * @param faultRule {@link FaultRule}
+     * @return installed {@link FaultRule}
+     */
+    @ApiOperation(value = "Installs the fault rule.", notes = "Installs the fault rule, replacing the rule of the same dao and method. ")
+    @RequestMapping(path = FAULTS, method = POST, produces = APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiResponses({
+            @ApiResponse(code = CREATED, message = "Successfully installed the fault rule. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid fault rule. ")})
+    public FaultRule addFaultRule(@ApiParam(value = "Fault rule dto. ", required = true) @RequestBody @Valid FaultRule faultRule) {
+        faultInjector.install(faultRule);
+        return faultRule;
+    }
+
+    /**
+     * Removes all fault rules.
+     */
+    @ApiOperation(value = "Removes the fault rules.", notes = "Removes all fault rules, the daos are not affected any more. ")
+    @RequestMapping(path = FAULTS, method = DELETE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @ApiResponses({@ApiResponse(code = NO_CONTENT, message = "Successfully removed the fault rules. ")})
+    public void clearFaultRules() {
+        faultInjector.clear();
+    }
+}
@@ -5,6 +5,7 @@ import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.service.GuestService;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiParam;
 import com.wordnik.swagger.annotations.ApiOperation;
@@ -15,11 +16,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.Resource;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
@@ -27,6 +30,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_FOUND;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_GUEST;
@@ -34,6 +38,8 @@ import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ROOMS_BY
 import static com.dataart.tmurzenkov.cassandra.util.DateUtils.format;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.FOUND;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
@@ -51,6 +57,8 @@ public class GuestController {
     private ServiceResourceAssembler<Guest, Class<GuestController>> resourceAssembler;
     @Autowired
     private GuestService guestService;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     /**
      * Registers the new {@link Guest} in the hotel system.
@@ -60,7 +68,7 @@ public class GuestController {
      */
     @ApiOperation(value = "Adds new hotel guest to the system.",
             notes = "Adds new hotel guest to the system and returns the location header. ")
-    @RequestMapping(path = ADD_GUEST, method = POST, produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = ADD_GUEST, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseStatus(CREATED)
     @ApiResponses({
             @ApiResponse(code = HttpStatus.CREATED, message = "Registered a new guest information. "),
@@ -74,27 +82,35 @@ public class GuestController {
     }
 
     /**
-     * Finds all booked rooms for the given guest id and date.
+     * Finds all booked rooms for the given guest id and date. Answers with not modified if the client already has the
+     * actual version of the rooms booked by the guest, in that case the rooms are not read from the data base.
      *
      * @param guestId       {@link UUID}
      * @param dateToLookFor {@link Date}
-     * @return {@link List} of {@link RoomByHotelAndDate}
+     * @param webRequest    {@link ServletWebRequest}
+     * @return {@link ResponseEntity} with the list of {@link RoomByHotelAndDate}
      */
     @ApiOperation(value = "Gets booked rooms for the guest id and specific date. ",
             notes = "Gets booked rooms for the guest id and specific date. ")
-    @RequestMapping(path = ROOMS_BY_GUEST_AND_DATE, method = GET, produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = ROOMS_BY_GUEST_AND_DATE, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ApiResponses({
             @ApiResponse(code = HttpStatus.FOUND, message = "Found the booked rooms. "),
+            @ApiResponse(code = HttpStatus.NOT_MODIFIED, message = "The booked rooms are not modified. "),
             @ApiResponse(code = NOT_FOUND, message = "No booked rooms were found. "),
             @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
-    @ResponseStatus(FOUND)
-    public List<RoomByHotelAndDate> bookedRoomsByGuest(
+    public ResponseEntity<List<RoomByHotelAndDate>> bookedRoomsByGuest(
             @ApiParam(required = true, value = "The UUID representation of the guest id. ")
             @PathVariable("guestId") @Valid UUID guestId,
             @PathVariable("date")
             @ApiParam(required = true, value = "Specific date to look at the booked rooms. ")
-            @DateTimeFormat(pattern = "yyyy-MM-dd") @Valid LocalDate dateToLookFor) {
+            @DateTimeFormat(pattern = "yyyy-MM-dd") @Valid LocalDate dateToLookFor,
+            ServletWebRequest webRequest) {
         LOGGER.info("Started looking for free rooms for the guest id '{}' and date '{}'", guestId, format(dateToLookFor));
-        return guestService.findBookedRoomsForTheGuestIdAndDate(guestId, dateToLookFor);
+        webRequest.getResponse().addHeader(VARY, ACCEPT);
+        if (webRequest.checkNotModified(resourceVersions.guestTag(guestId))) {
+            LOGGER.info("The rooms booked by the guest '{}' are not modified", guestId);
+            return null;
+        }
+        return new ResponseEntity<>(guestService.findBookedRoomsForTheGuestIdAndDate(guestId, dateToLookFor), FOUND);
     }
 }
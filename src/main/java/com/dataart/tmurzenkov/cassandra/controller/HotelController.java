@@ -1,8 +1,13 @@
 package com.dataart.tmurzenkov.cassandra.controller;
 
+import com.dataart.tmurzenkov.cassandra.model.dto.NearbyHotel;
+import com.dataart.tmurzenkov.cassandra.model.dto.ProximitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
 import com.dataart.tmurzenkov.cassandra.service.HotelService;
+import com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
 import com.wordnik.swagger.annotations.ApiResponses;
@@ -20,17 +25,32 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON_VALUE;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.ADD_HOTEL;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_NEARBY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.TYPEAHEAD;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CREATED;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.FOUND;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_FOUND;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_MODIFIED;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.OK;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
 
 /**
  * Hotel REST controller.
@@ -45,25 +65,97 @@ public class HotelController {
     private HotelService hotelServiceImpl;
     @Autowired
     private ServiceResourceAssembler<Hotel, Class<HotelController>> resourceAssembler;
+    @Autowired
+    private NdjsonResourceWriter ndjsonResourceWriter;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     /**
-     * Gets all hotels in the city.
+     * Gets all hotels in the city. Answers with not modified if the client already has the actual version of the
+     * hotels, in that case the hotels are not read from the data base.
      *
-     * @param city city name
-     * @return list of the {@link Hotel}
+     * @param city       city name
+     * @param webRequest {@link ServletWebRequest}
+     * @return {@link ResponseEntity} with the list of the {@link Hotel}
      */
     @ApiOperation(value = "Finds all hotels in the city.", notes = "Finds all hotels in the city. ")
-    @RequestMapping(path = HOTELS_IN_THE_CITY, method = GET, produces = APPLICATION_JSON_VALUE)
-    @ResponseStatus(value = HttpStatus.FOUND)
+    @RequestMapping(path = HOTELS_IN_THE_CITY, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ApiResponses({
             @ApiResponse(code = FOUND, message = "Found all hotels for the city name. "),
+            @ApiResponse(code = NOT_MODIFIED, message = "The hotels for the city name are not modified. "),
             @ApiResponse(code = NOT_FOUND, message = "Not found all hotels for the city name. "),
             @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
-    public List<Resource<Hotel>> getAllHotelsInTheCity(@ApiParam(value = "Name of the city", required = true)
-                                                       @PathVariable("city") String city) {
+    public ResponseEntity<List<Resource<Hotel>>> getAllHotelsInTheCity(@ApiParam(value = "Name of the city", required = true)
+                                                                       @PathVariable("city") String city,
+                                                                       ServletWebRequest webRequest) {
         LOGGER.info("Going to look for all hotels in the city '{}'", city);
+        webRequest.getResponse().addHeader(VARY, ACCEPT);
+        if (webRequest.checkNotModified(resourceVersions.cityTag(city))) {
+            LOGGER.info("The hotels in the city '{}' are not modified", city);
+            return null;
+        }
         List<Hotel> allHotelsInTheCity = hotelServiceImpl.findAllHotelsInTheCity(city);
-        return resourceAssembler.toResource(allHotelsInTheCity);
+        return new ResponseEntity<>(resourceAssembler.withController(HotelController.class).toResource(allHotelsInTheCity),
+                HttpStatus.FOUND);
+    }
+
+    /**
+     * Streams all hotels in the city as newline delimited JSON.
+     *
+     * @param city city name
+     * @return {@link ResponseEntity} with the {@link StreamingResponseBody}
+     */
+    @ApiOperation(value = "Streams all hotels in the city.", notes = "Streams all hotels in the city, one hotel per line. ")
+    @RequestMapping(path = HOTELS_IN_THE_CITY, method = GET, produces = APPLICATION_NDJSON_VALUE)
+    @ApiResponses({
+            @ApiResponse(code = FOUND, message = "Found all hotels for the city name. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found all hotels for the city name. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public ResponseEntity<StreamingResponseBody> streamAllHotelsInTheCity(@ApiParam(value = "Name of the city", required = true)
+                                                                          @PathVariable("city") String city) {
+        LOGGER.info("Going to stream all hotels in the city '{}'", city);
+        Stream<Hotel> allHotelsInTheCity = hotelServiceImpl.streamAllHotelsInTheCity(city);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .contentType(APPLICATION_NDJSON)
+                .body(ndjsonResourceWriter.write(resourceAssembler.withController(HotelController.class), allHotelsInTheCity));
+    }
+
+    /**
+     * Finds the hotels nearest to the point, the nearest first.
+     *
+     * @param searchRequest {@link ProximitySearchRequest}
+     * @return {@link List} of {@link NearbyHotel}
+     */
+    @ApiOperation(value = "Finds the hotels near the point.", notes = "Finds the hotels nearest to the latitude and longitude. ")
+    @RequestMapping(path = HOTELS_NEARBY, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "Found the hotels near the point, the nearest first. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found hotels within the search radius. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public List<NearbyHotel> findHotelsNearby(@RequestBody @Valid ProximitySearchRequest searchRequest) {
+        LOGGER.info("Going to find the hotels for the following request: '{}'", searchRequest);
+        return hotelServiceImpl.findHotelsNearby(searchRequest);
+    }
+
+    /**
+     * Completes the typed prefix to the names of the cities and the hotels from the in-memory index, without reading
+     * the data base.
+     *
+     * @param prefix typed prefix of the name
+     * @param limit  max number of the suggestions
+     * @return {@link List} of {@link Suggestion}, the cities first
+     */
+    @ApiOperation(value = "Completes the typed name.", notes = "Completes the typed prefix to the names of the cities and the hotels. ")
+    @RequestMapping(path = TYPEAHEAD, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "The cities and the hotels the prefix is completed to, possibly none. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public List<Suggestion> suggest(@ApiParam(value = "Typed prefix of the name", required = true)
+                                    @RequestParam("prefix") String prefix,
+                                    @ApiParam(value = "Max number of the suggestions")
+                                    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        LOGGER.debug("Going to complete the prefix '{}' to at most '{}' names", prefix, limit);
+        return hotelServiceImpl.suggest(prefix, limit);
     }
 
     /**
@@ -73,7 +165,7 @@ public class HotelController {
      * @return {@link ResponseEntity} with the location header.
      */
     @ApiOperation(value = "Adds new hotel to the system.", notes = "Adds new hotel to the system and returns the location header. ")
-    @RequestMapping(path = ADD_HOTEL, method = RequestMethod.POST, produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = ADD_HOTEL, method = RequestMethod.POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
     @ApiResponses({
             @ApiResponse(code = CREATED, message = "Successfully added hotel to the system. "),
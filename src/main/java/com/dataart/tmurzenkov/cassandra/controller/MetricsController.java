@@ -0,0 +1,124 @@
+package com.dataart.tmurzenkov.cassandra.controller;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineEnforcement;
+import com.dataart.tmurzenkov.cassandra.dao.isolation.DaoIsolation;
+import com.dataart.tmurzenkov.cassandra.dao.limit.AdaptiveConcurrencyLimit;
+import com.dataart.tmurzenkov.cassandra.model.dto.CacheStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.ConcurrencyLimitStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.DaoIsolationStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.DeadlineStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.ExistenceFilterStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.OutboxStatistics;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.OutboxRelay;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.CONCURRENCY_LIMIT_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.DAO_ISOLATION_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.DEADLINE_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.EXISTENCE_FILTER_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.FREE_ROOMS_CACHE_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.OUTBOX_METRICS;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+/**
+ * Exposes the runtime metrics of the reservation system.
+ *
+ * @author tmurzenkov
+ */
+@RestController
+@Api(value = "Metrics operations", description = "REST API to read the runtime metrics of the reservation system. ")
+public class MetricsController {
+    @Autowired
+    private FreeRoomsCache freeRoomsCache;
+    @Autowired
+    private ExistenceFilters existenceFilters;
+    @Autowired
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    @Autowired
+    private DaoIsolation daoIsolation;
+    @Autowired
+    private DeadlineEnforcement deadlineEnforcement;
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    /**
+     * Returns the hit/miss statistics of the free rooms cache.
+     *
+     * @return {@link CacheStatistics}
+     */
+    @ApiOperation(value = "Gets the free rooms cache statistics.", notes = "Gets the hit/miss statistics of the free rooms cache. ")
+    @RequestMapping(path = FREE_ROOMS_CACHE_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public CacheStatistics freeRoomsCacheStatistics() {
+        return freeRoomsCache.getStatistics();
+    }
+
+    /**
+     * Returns the lookup statistics of the existence filters.
+     *
+     * @return {@link ExistenceFilterStatistics} by the filter name
+     */
+    @ApiOperation(value = "Gets the existence filters statistics.",
+            notes = "Gets the number of existence checks answered without the data base. ")
+    @RequestMapping(path = EXISTENCE_FILTER_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public Map<String, ExistenceFilterStatistics> existenceFilterStatistics() {
+        return existenceFilters.getStatistics();
+    }
+
+    /**
+     * Returns the state of the adaptive concurrency limit.
+     *
+     * @return {@link ConcurrencyLimitStatistics}
+     */
+    @ApiOperation(value = "Gets the concurrency limit statistics.",
+            notes = "Gets the current limit of the concurrent requests and the numbers of the requests let in and shed. ")
+    @RequestMapping(path = CONCURRENCY_LIMIT_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public ConcurrencyLimitStatistics concurrencyLimitStatistics() {
+        return concurrencyLimit.getStatistics();
+    }
+
+    /**
+     * Returns the state of the bulkheads and the circuit breakers of the daos.
+     *
+     * @return {@link DaoIsolationStatistics} by the dao name
+     */
+    @ApiOperation(value = "Gets the dao isolation statistics.",
+            notes = "Gets the calls in progress and rejected by the bulkhead and the circuit state of every dao called. ")
+    @RequestMapping(path = DAO_ISOLATION_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public Map<String, DaoIsolationStatistics> daoIsolationStatistics() {
+        return daoIsolation.getStatistics();
+    }
+
+    /**
+     * Returns the numbers of the requests with the deadline and of the work abandoned as it passed.
+     *
+     * @return {@link DeadlineStatistics}
+     */
+    @ApiOperation(value = "Gets the request deadline statistics.",
+            notes = "Gets the numbers of the requests rejected or completed after their deadline and of the dao calls abandoned. ")
+    @RequestMapping(path = DEADLINE_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public DeadlineStatistics deadlineStatistics() {
+        return deadlineEnforcement.getStatistics();
+    }
+
+    /**
+     * Returns the numbers of the booking events published by the outbox relay and its lag.
+     *
+     * @return {@link OutboxStatistics}
+     */
+    @ApiOperation(value = "Gets the outbox relay statistics.",
+            notes = "Gets the numbers of the booking events published and the publish failures, the throughput and the lag. ")
+    @RequestMapping(path = OUTBOX_METRICS, method = GET, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public OutboxStatistics outboxStatistics() {
+        return outboxRelay.getStatistics();
+    }
+}
@@ -0,0 +1,76 @@
+package com.dataart.tmurzenkov.cassandra.controller;
+
+import com.dataart.tmurzenkov.cassandra.configuration.StartupTimings;
+import com.dataart.tmurzenkov.cassandra.model.dto.StartupReport;
+import com.dataart.tmurzenkov.cassandra.model.dto.WarmUpReport;
+import com.dataart.tmurzenkov.cassandra.warmup.StartupWarmUp;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_FOUND;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.OK;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.SERVICE_UNAVAILABLE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.ReadinessUris.READINESS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.ReadinessUris.STARTUP;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+/**
+ * Tells the load balancer whether the instance is warmed up and ready for the traffic, and reports the time its
+ * startup took.
+ *
+ * @author tmurzenkov
+ */
+@RestController
+@Api(value = "Readiness operations", description = "REST API to check the readiness of the instance. ")
+public class ReadinessController {
+    private static final int DEFAULT_REPORTED_BEANS = 20;
+    @Autowired
+    private StartupWarmUp startupWarmUp;
+    @Autowired(required = false)
+    private StartupTimings startupTimings;
+    @Value("${startup.report.beans:20}")
+    private int reportedBeans = DEFAULT_REPORTED_BEANS;
+
+    /**
+     * Returns the readiness of the instance with the report of its warm-up.
+     *
+     * @return {@link ResponseEntity} with {@link WarmUpReport}, 503 status until the warm-up is over
+     */
+    @ApiOperation(value = "Gets the readiness of the instance.",
+            notes = "Gets the readiness of the instance and the time every step of its startup warm-up took. ")
+    @RequestMapping(path = READINESS, method = GET, produces = APPLICATION_JSON_VALUE)
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "The instance is ready. "),
+            @ApiResponse(code = SERVICE_UNAVAILABLE, message = "The instance is warming up. ")})
+    public ResponseEntity<WarmUpReport> readiness() {
+        final WarmUpReport report = startupWarmUp.getReport();
+        return new ResponseEntity<>(report, report.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Returns the time the refresh of the context took by its phases, with the beans slowest to create.
+     *
+     * @return {@link ResponseEntity} with {@link StartupReport}, 404 status when the context is not timed
+     */
+    @ApiOperation(value = "Gets the startup report of the instance.",
+            notes = "Gets the time the refresh of the context took by its phases, with the beans slowest to create. ")
+    @RequestMapping(path = STARTUP, method = GET, produces = APPLICATION_JSON_VALUE)
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "The startup is reported. "),
+            @ApiResponse(code = NOT_FOUND, message = "The startup of the context is not timed. ")})
+    public ResponseEntity<StartupReport> startup() {
+        if (startupTimings == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(startupTimings.getReport(reportedBeans), HttpStatus.OK);
+    }
+}
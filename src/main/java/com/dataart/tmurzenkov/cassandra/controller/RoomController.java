@@ -1,9 +1,12 @@
 package com.dataart.tmurzenkov.cassandra.controller;
 
+import com.dataart.tmurzenkov.cassandra.model.dto.CitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.HotelAvailability;
 import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.service.RoomService;
+import com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
@@ -14,20 +17,29 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON_VALUE;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE_VALUE;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.CREATED;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.FOUND;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.NOT_FOUND;
 import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.BAD_REQUEST;
+import static com.dataart.tmurzenkov.cassandra.controller.status.HttpStatus.OK;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_AVAILABILITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_AVAILABILITY_IN_THE_CITY;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.Uris.ADD_ROOM;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -46,6 +58,8 @@ public class RoomController {
     private ServiceResourceAssembler<Room, Class<RoomController>> resourceAssembler;
     @Autowired
     private RoomService roomService;
+    @Autowired
+    private NdjsonResourceWriter ndjsonResourceWriter;
 
     /**
      * Adds new hotel room to the system.
@@ -55,7 +69,7 @@ public class RoomController {
      */
     @ApiOperation(value = "Adds new room to the system.",
             notes = "Adds new hotel room to the system and returns the location header. ")
-    @RequestMapping(path = ADD_ROOM, method = RequestMethod.POST, produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = ADD_ROOM, method = RequestMethod.POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
     @ApiResponses({
             @ApiResponse(code = CREATED, message = "Add room to the hotel. "),
@@ -73,7 +87,7 @@ public class RoomController {
      * @return {@link List} of {@link Resource} of {@link RoomByHotelAndDate}
      */
     @ApiOperation(value = "Finds free rooms.", notes = "Finds free rooms by hotel id")
-    @RequestMapping(path = GET_FREE_ROOMS, method = POST, produces = APPLICATION_JSON_VALUE)
+    @RequestMapping(path = GET_FREE_ROOMS, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     @ResponseStatus(HttpStatus.FOUND)
     @ApiResponses({
             @ApiResponse(code = FOUND, message = "Found free rooms in the hotel. "),
@@ -82,6 +96,59 @@ public class RoomController {
     public List<Resource<Room>> findFreeRooms(@RequestBody @Valid SearchRequest searchRequest) {
         LOGGER.info("Going to find the free rooms for the following request: '{}'", searchRequest);
         Set<Room> freeRooms = roomService.findFreeRoomsInTheHotel(searchRequest);
-        return resourceAssembler.toResource(freeRooms);
+        return resourceAssembler.withController(RoomController.class).toResource(freeRooms);
+    }
+
+    /**
+     * Streams free rooms by hotel id and within time interval as newline delimited JSON.
+     *
+     * @param searchRequest {@link SearchRequest}
+     * @return {@link ResponseEntity} with the {@link StreamingResponseBody}
+     */
+    @ApiOperation(value = "Streams free rooms.", notes = "Streams free rooms by hotel id, one room per line. ")
+    @RequestMapping(path = GET_FREE_ROOMS, method = POST, produces = APPLICATION_NDJSON_VALUE)
+    @ApiResponses({
+            @ApiResponse(code = FOUND, message = "Found free rooms in the hotel. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found free rooms in the hotel. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public ResponseEntity<StreamingResponseBody> streamFreeRooms(@RequestBody @Valid SearchRequest searchRequest) {
+        LOGGER.info("Going to stream the free rooms for the following request: '{}'", searchRequest);
+        Stream<Room> freeRooms = roomService.streamFreeRoomsInTheHotel(searchRequest);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .contentType(APPLICATION_NDJSON)
+                .body(ndjsonResourceWriter.write(resourceAssembler.withController(RoomController.class), freeRooms));
+    }
+
+    /**
+     * Counts the rooms of the hotel free for the whole time interval, answers whether the hotel is sold out.
+     *
+     * @param searchRequest {@link SearchRequest}
+     * @return {@link HotelAvailability}
+     */
+    @ApiOperation(value = "Counts free rooms.", notes = "Counts the rooms free for the whole period by hotel id, without listing them. ")
+    @RequestMapping(path = GET_AVAILABILITY, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "Counted free rooms in the hotel, none if it is sold out. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public HotelAvailability findAvailability(@RequestBody @Valid SearchRequest searchRequest) {
+        LOGGER.info("Going to count the free rooms for the following request: '{}'", searchRequest);
+        return roomService.findAvailability(searchRequest);
+    }
+
+    /**
+     * Ranks the hotels of the city by the rooms free for the whole time interval.
+     *
+     * @param searchRequest {@link CitySearchRequest}
+     * @return {@link List} of {@link HotelAvailability}, the most available first
+     */
+    @ApiOperation(value = "Ranks hotels by free rooms.", notes = "Ranks the hotels of the city by the rooms free for the whole period. ")
+    @RequestMapping(path = GET_AVAILABILITY_IN_THE_CITY, method = POST, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    @ApiResponses({
+            @ApiResponse(code = OK, message = "Ranked the hotels of the city, the sold out ones go last. "),
+            @ApiResponse(code = NOT_FOUND, message = "Not found hotels in the city. "),
+            @ApiResponse(code = BAD_REQUEST, message = "Invalid type of the parameters. ")})
+    public List<HotelAvailability> rankHotelsInTheCity(@RequestBody @Valid CitySearchRequest searchRequest) {
+        LOGGER.info("Going to rank the hotels for the following request: '{}'", searchRequest);
+        return roomService.rankHotelsInTheCity(searchRequest);
     }
 }
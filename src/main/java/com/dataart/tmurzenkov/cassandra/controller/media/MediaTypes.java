@@ -0,0 +1,15 @@
+package com.dataart.tmurzenkov.cassandra.controller.media;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Holds the media types that are not defined by the {@link MediaType}.
+ *
+ * @author tmurzenkov
+ */
+public interface MediaTypes {
+    String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    MediaType APPLICATION_NDJSON = MediaType.valueOf(APPLICATION_NDJSON_VALUE);
+    String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+}
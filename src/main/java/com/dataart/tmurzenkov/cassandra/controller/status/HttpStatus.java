@@ -6,9 +6,13 @@ package com.dataart.tmurzenkov.cassandra.controller.status;
  * @author tmurzenkov
  */
 public interface HttpStatus {
+    int OK = 200;
     int CREATED = 201;
+    int NO_CONTENT = 204;
     int FOUND = 302;
+    int NOT_MODIFIED = 304;
     int BAD_REQUEST = 400;
     int NOT_FOUND = 404;
     int CONFLICT = 409;
+    int SERVICE_UNAVAILABLE = 503;
 }
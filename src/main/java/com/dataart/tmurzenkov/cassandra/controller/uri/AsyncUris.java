@@ -0,0 +1,12 @@
+package com.dataart.tmurzenkov.cassandra.controller.uri;
+
+/**
+ * {@link com.dataart.tmurzenkov.cassandra.controller.AsyncController} controller REST api URIs.
+ *
+ * @author tmurzenkov
+ */
+public interface AsyncUris {
+    String ASYNC_HOTELS_IN_THE_CITY = "/api/async/get/{city}";
+    String ASYNC_GET_FREE_ROOMS = "/api/async/get/freerooms/";
+    String ASYNC_ADD_BOOKING = "/api/async/add/reservation";
+}
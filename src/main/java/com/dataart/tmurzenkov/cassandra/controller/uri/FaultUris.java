@@ -0,0 +1,11 @@
+package com.dataart.tmurzenkov.cassandra.controller.uri;
+
+/**
+ * {@link com.dataart.tmurzenkov.cassandra.controller.FaultInjectionController} controller REST api URIs.
+ *
+ * @author tmurzenkov
+ */
+public interface FaultUris {
+    String ADMIN = "/api/admin";
+    String FAULTS = "/api/admin/faults";
+}
@@ -8,4 +8,6 @@ package com.dataart.tmurzenkov.cassandra.controller.uri;
 public interface HotelUris {
     String HOTELS_IN_THE_CITY = "/api/get/{city}";
     String ADD_HOTEL = "/api/add/hotel";
+    String HOTELS_NEARBY = "/api/get/hotels/nearby/";
+    String TYPEAHEAD = "/api/get/typeahead/";
 }
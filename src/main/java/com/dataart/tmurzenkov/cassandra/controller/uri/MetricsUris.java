@@ -0,0 +1,16 @@
+package com.dataart.tmurzenkov.cassandra.controller.uri;
+
+/**
+ * {@link com.dataart.tmurzenkov.cassandra.controller.MetricsController} controller REST api URIs.
+ *
+ * @author tmurzenkov
+ */
+public interface MetricsUris {
+    String METRICS = "/api/get/metrics";
+    String FREE_ROOMS_CACHE_METRICS = "/api/get/metrics/cache/freerooms";
+    String EXISTENCE_FILTER_METRICS = "/api/get/metrics/cache/existence";
+    String CONCURRENCY_LIMIT_METRICS = "/api/get/metrics/limit";
+    String DAO_ISOLATION_METRICS = "/api/get/metrics/dao";
+    String DEADLINE_METRICS = "/api/get/metrics/deadline";
+    String OUTBOX_METRICS = "/api/get/metrics/outbox";
+}
@@ -0,0 +1,11 @@
+package com.dataart.tmurzenkov.cassandra.controller.uri;
+
+/**
+ * {@link com.dataart.tmurzenkov.cassandra.controller.ReadinessController} controller REST api URIs.
+ *
+ * @author tmurzenkov
+ */
+public interface ReadinessUris {
+    String READINESS = "/api/get/readiness";
+    String STARTUP = "/api/get/readiness/startup";
+}
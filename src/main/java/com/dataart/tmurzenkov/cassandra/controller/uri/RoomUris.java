@@ -8,4 +8,6 @@ package com.dataart.tmurzenkov.cassandra.controller.uri;
 public interface RoomUris {
     String ADD_ROOM = "/api/add/room";
     String GET_FREE_ROOMS = "/api/get/freerooms/";
+    String GET_AVAILABILITY = "/api/get/availability/";
+    String GET_AVAILABILITY_IN_THE_CITY = "/api/get/availability/city/";
 }
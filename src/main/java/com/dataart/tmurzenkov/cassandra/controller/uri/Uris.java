@@ -5,5 +5,5 @@ package com.dataart.tmurzenkov.cassandra.controller.uri;
  *
  * @author tmurzenkov
  */
-public interface Uris extends GuestUris, RoomUris, HotelUris {
+public interface Uris extends GuestUris, RoomUris, HotelUris, MetricsUris {
 }
@@ -0,0 +1,40 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dao to write the rows of the booking together with its event of the outbox, so either all of them are stored or
+ * none is, and no booking is stored without its event.
+ *
+ * @author tmurzenkov
+ */
+public interface BookingBatchDao {
+    /**
+     * Inserts the rows of the booking and its event in one logged batch.
+     *
+     * @param guestAndDate      {@link RoomByGuestAndDate} of the booking
+     * @param hotelAndDate      {@link RoomByHotelAndDate} of the booking
+     * @param event             {@link BookingEvent} of the booking
+     * @param bookingTtlSeconds time to live of the rows of the booking in seconds, 0 if they do not expire
+     * @param eventTtlSeconds   time to live of the event in seconds, 0 if it does not expire
+     */
+    void insertBooking(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate, BookingEvent event,
+                       int bookingTtlSeconds, int eventTtlSeconds);
+
+    /**
+     * Inserts the rows of the booking and its event in one logged batch without blocking the calling thread.
+     *
+     * @param guestAndDate      {@link RoomByGuestAndDate} of the booking
+     * @param hotelAndDate      {@link RoomByHotelAndDate} of the booking
+     * @param event             {@link BookingEvent} of the booking
+     * @param bookingTtlSeconds time to live of the rows of the booking in seconds, 0 if they do not expire
+     * @param eventTtlSeconds   time to live of the event in seconds, 0 if it does not expire
+     * @return {@link CompletableFuture} completed once the batch is written
+     */
+    CompletableFuture<Void> insertBookingAsync(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate, BookingEvent event,
+                                               int bookingTtlSeconds, int eventTtlSeconds);
+}
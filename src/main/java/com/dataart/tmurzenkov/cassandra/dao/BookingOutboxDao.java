@@ -0,0 +1,13 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+
+/**
+ * {@link BookingEvent} dao of the outbox. Implemented by spring during the context initialization. The events are
+ * written by the {@link BookingBatchDao} in the batch of their booking, read by the {@link BookingOutboxDaoCustom}.
+ *
+ * @author tmurzenkov
+ */
+public interface BookingOutboxDao extends CassandraRepository<BookingEvent>, BookingOutboxDaoCustom {
+}
@@ -0,0 +1,25 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads of the {@link BookingOutboxDao} that need their own consistency level, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface BookingOutboxDaoCustom {
+    /**
+     * Finds the events of the bucket after the given one, in the order of their creation. The events are read at the
+     * same consistency level the {@link BookingBatchDao} writes them, so every written event is read.
+     *
+     * @param bucket bucket of the events, minutes since the epoch
+     * @param after  id of the last event read, exclusive
+     * @param upTo   id of the newest event to read, inclusive
+     * @param limit  max number of the events
+     * @return {@link List} of {@link BookingEvent}
+     */
+    List<BookingEvent> findEventsAfter(long bucket, UUID after, UUID upTo, int limit);
+}
@@ -0,0 +1,18 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+/**
+ * Dao to insert the entities only if there is no row with the same primary key, so the check and the insert are done
+ * in one round trip and no concurrent insert can be overwritten.
+ *
+ * @author tmurzenkov
+ */
+public interface ConditionalInsertDao {
+    /**
+     * Inserts the entity into its table with the IF NOT EXISTS condition.
+     *
+     * @param entity entity mapped to the table
+     * @param <T>    generic type
+     * @return true if the entity was inserted, false if the row with the same primary key already exists
+     */
+    <T> boolean insertIfNotExists(T entity);
+}
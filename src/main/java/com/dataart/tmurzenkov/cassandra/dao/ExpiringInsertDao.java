@@ -0,0 +1,31 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dao to insert the entities with a time to live, so the rows are dropped by the compaction once they are expired
+ * instead of being deleted one by one.
+ *
+ * @author tmurzenkov
+ */
+public interface ExpiringInsertDao {
+    /**
+     * Inserts the entity into its table with the USING TTL clause.
+     *
+     * @param entity     entity mapped to the table
+     * @param ttlSeconds time to live of the row in seconds, must be positive
+     * @param <T>        generic type
+     * @return inserted entity
+     */
+    <T> T insertWithTtl(T entity, int ttlSeconds);
+
+    /**
+     * Inserts the entity into its table without blocking the calling thread.
+     *
+     * @param entity     entity mapped to the table
+     * @param ttlSeconds time to live of the row in seconds, 0 if it does not expire
+     * @param <T>        generic type
+     * @return {@link CompletableFuture} of the inserted entity
+     */
+    <T> CompletableFuture<T> insertWithTtlAsync(T entity, int ttlSeconds);
+}
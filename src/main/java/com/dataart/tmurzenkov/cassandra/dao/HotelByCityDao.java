@@ -11,7 +11,7 @@ import java.util.List;
  *
  * @author tmurzenkov
  */
-public interface HotelByCityDao extends CassandraRepository<HotelByCity> {
+public interface HotelByCityDao extends CassandraRepository<HotelByCity>, HotelByCityDaoCustom {
     /**
      * Finds all {@link HotelByCity} for the given city name.
      *
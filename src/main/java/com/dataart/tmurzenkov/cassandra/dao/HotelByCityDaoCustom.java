@@ -0,0 +1,22 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous reads of the {@link HotelByCityDao}, the statements are sent by the driver without blocking the calling
+ * thread, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface HotelByCityDaoCustom {
+    /**
+     * Finds all {@link HotelByCity} for the given city name.
+     *
+     * @param cityName {@link String}
+     * @return {@link CompletableFuture} of the {@link List} of {@link HotelByCity}
+     */
+    CompletableFuture<List<HotelByCity>> findAllHotelIdsInTheCityAsync(String cityName);
+}
@@ -0,0 +1,23 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByGeohash;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+
+import java.util.List;
+
+/**
+ * {@link HotelByGeohash} dao. Implemented by spring during the context initialization.
+ *
+ * @author tmurzenkov
+ */
+public interface HotelByGeohashDao extends CassandraRepository<HotelByGeohash> {
+    /**
+     * Finds all {@link HotelByGeohash} of the given geohash cell.
+     *
+     * @param geohash {@link String} geohash of the cell
+     * @return {@link List} of {@link HotelByGeohash}
+     */
+    @Query("select * from hotels_by_geohash where geohash = ?0")
+    List<HotelByGeohash> findAllHotelsInTheCell(String geohash);
+}
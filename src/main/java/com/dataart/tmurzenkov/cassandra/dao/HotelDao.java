@@ -6,6 +6,7 @@ import org.springframework.data.cassandra.repository.Query;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Cassandra Spring data repository to persists the {@link Hotel} entity.
@@ -13,7 +14,7 @@ import java.util.UUID;
  *
  * @author tmurzenkov
  */
-public interface HotelDao extends CassandraRepository<Hotel> {
+public interface HotelDao extends CassandraRepository<Hotel>, HotelDaoCustom {
 
     /**
      * Finds one hotel by its id.
@@ -32,4 +33,14 @@ public interface HotelDao extends CassandraRepository<Hotel> {
      */
     @Query("select * from hotels where hotel_id in (?0)")
     List<Hotel> findHotelInformationByIds(List<UUID> hotelIds);
+
+    /**
+     * Streams all hotel information by the provided list of of their ids. The rows are fetched from the driver result
+     * set page by page while the stream is consumed.
+     *
+     * @param hotelIds list of hotel id {@link UUID}
+     * @return {@link Stream} of {@link Hotel}
+     */
+    @Query("select * from hotels where hotel_id in (?0)")
+    Stream<Hotel> streamHotelInformationByIds(List<UUID> hotelIds);
 }
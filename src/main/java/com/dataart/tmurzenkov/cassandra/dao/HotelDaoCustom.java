@@ -0,0 +1,31 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous reads of the {@link HotelDao}, the statements are sent by the driver without blocking the calling
+ * thread, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface HotelDaoCustom {
+    /**
+     * Finds one hotel by its id.
+     *
+     * @param hotelId {@link UUID}
+     * @return {@link CompletableFuture} of the {@link Hotel}, of null if there is none
+     */
+    CompletableFuture<Hotel> findOneAsync(UUID hotelId);
+
+    /**
+     * Finds all hotel information by the provided list of of their ids.
+     *
+     * @param hotelIds list of hotel id {@link UUID}
+     * @return {@link CompletableFuture} of the list of {@link Hotel}
+     */
+    CompletableFuture<List<Hotel>> findHotelInformationByIdsAsync(List<UUID> hotelIds);
+}
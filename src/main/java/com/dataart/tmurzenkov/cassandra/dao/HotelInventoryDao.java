@@ -0,0 +1,28 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import java.util.UUID;
+
+/**
+ * Dao of the counters of the rooms of the hotels. A counter is incremented once the room is inserted, it is not
+ * idempotent, so a timed out increment is not retried and the counter is checked by the
+ * {@link com.dataart.tmurzenkov.cassandra.migration.HotelOccupancyCheck}.
+ *
+ * @author tmurzenkov
+ */
+public interface HotelInventoryDao {
+    /**
+     * Counts the rooms of the hotel.
+     *
+     * @param hotelId {@link UUID}
+     * @return number of the rooms, 0 if none was added
+     */
+    long countRooms(UUID hotelId);
+
+    /**
+     * Adds the rooms to the counter of the hotel.
+     *
+     * @param hotelId {@link UUID}
+     * @param rooms   number of the added rooms, negative to remove them
+     */
+    void addRooms(UUID hotelId, long rooms);
+}
@@ -0,0 +1,229 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.failedFuture;
+import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Dao of the {@link HotelOccupancy} bitmaps. A bitmap is shared by all the bookings of the hotel for the night, so it is
+ * never overwritten blindly: the booked rooms are added and removed by the compare and set of the whole cell, retried
+ * against the value the failed one has seen. The async variants send the same statements without blocking the calling
+ * thread, the retries are sent by the thread that completed the failed attempt.
+ *
+ * @author tmurzenkov
+ */
+public interface HotelOccupancyDao {
+    /**
+     * Finds the occupancy of the hotel for the night.
+     *
+     * @param hotelId {@link UUID}
+     * @param date    {@link LocalDate}
+     * @return {@link HotelOccupancy} or null if no room is booked
+     */
+    HotelOccupancy findOccupancy(UUID hotelId, LocalDate date);
+
+    /**
+     * Finds the occupancy of the hotel for the night without blocking the calling thread.
+     *
+     * @param hotelId {@link UUID}
+     * @param date    {@link LocalDate}
+     * @return {@link CompletableFuture} of the {@link HotelOccupancy}, of null if no room is booked
+     */
+    CompletableFuture<HotelOccupancy> findOccupancyAsync(UUID hotelId, LocalDate date);
+
+    /**
+     * Finds the occupancies of the hotel for the date range, both ends inclusive.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return list of {@link HotelOccupancy} in the date order, the nights with no booked room are missing
+     */
+    List<HotelOccupancy> findAllForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end);
+
+    /**
+     * Finds the occupancies of the hotel for the date range, both ends inclusive, without blocking the calling thread.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return {@link CompletableFuture} of the list of {@link HotelOccupancy} in the date order
+     */
+    CompletableFuture<List<HotelOccupancy>> findAllForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start, LocalDate end);
+
+    /**
+     * Counts the booked rooms of the hotel for the date range, both ends inclusive, without reading the bitmaps.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return number of the booked rooms by the night, the nights with no booked room are missing
+     */
+    SortedMap<LocalDate, Integer> countBookedRooms(UUID hotelId, LocalDate start, LocalDate end);
+
+    /**
+     * Writes the updated occupancy if the cell still holds the expected one.
+     *
+     * @param expected   {@link HotelOccupancy} read before, null if there was no cell
+     * @param updated    {@link HotelOccupancy} to write
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @return the updated occupancy if written, otherwise the current one or null if there is no cell
+     */
+    HotelOccupancy compareAndSet(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds);
+
+    /**
+     * Writes the updated occupancy if the cell still holds the expected one, without blocking the calling thread.
+     *
+     * @param expected   {@link HotelOccupancy} read before, null if there was no cell
+     * @param updated    {@link HotelOccupancy} to write
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @return {@link CompletableFuture} of the updated occupancy if written, otherwise of the current one or of null
+     */
+    CompletableFuture<HotelOccupancy> compareAndSetAsync(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds);
+
+    /**
+     * Adds the booked rooms to the occupancy of the hotel for the night. The rooms are added only if any of them is not
+     * booked yet, so of the concurrent bookings of the same room only one sets its bit.
+     *
+     * @param hotelId    {@link UUID}
+     * @param date       {@link LocalDate}
+     * @param rooms      {@link BitSet} of the booked room numbers
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @param attempts   maximum number of the compare and set attempts
+     * @return true if this call set the bits of the rooms, false if all of them were booked already
+     * @throws IllegalStateException if the cell kept changing concurrently for all the attempts
+     */
+    default boolean occupy(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attempts) {
+        HotelOccupancy current = findOccupancy(hotelId, date);
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            if (null != current && current.isBooked(rooms)) {
+                return false;
+            }
+            final HotelOccupancy updated = null == current ? new HotelOccupancy(hotelId, date, rooms) : current.withRooms(rooms);
+            final HotelOccupancy written = compareAndSet(current, updated, ttlSeconds);
+            if (written == updated) {
+                return true;
+            }
+            current = written;
+        }
+        if (null != current && current.isBooked(rooms)) {
+            return false;
+        }
+        throw new IllegalStateException(format("Occupancy of the hotel '%s' for %s kept changing for %d attempts",
+                hotelId, date, attempts));
+    }
+
+    /**
+     * Removes the rooms from the occupancy of the hotel for the night, e.g. of a booking whose rows were not written.
+     * The cell is kept with the empty bitmap if no room is left.
+     *
+     * @param hotelId    {@link UUID}
+     * @param date       {@link LocalDate}
+     * @param rooms      {@link BitSet} of the room numbers
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @param attempts   maximum number of the compare and set attempts
+     * @throws IllegalStateException if the cell kept changing concurrently for all the attempts
+     */
+    default void release(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attempts) {
+        HotelOccupancy current = findOccupancy(hotelId, date);
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            if (null == current || !current.getBookedRooms().intersects(rooms)) {
+                return;
+            }
+            current = compareAndSet(current, current.withoutRooms(rooms), ttlSeconds);
+        }
+        if (null != current && current.getBookedRooms().intersects(rooms)) {
+            throw new IllegalStateException(format("Occupancy of the hotel '%s' for %s kept changing for %d attempts",
+                    hotelId, date, attempts));
+        }
+    }
+
+    /**
+     * Adds the booked rooms to the occupancy of the hotel for the night as the {@link #occupy} does, without blocking
+     * the calling thread.
+     *
+     * @param hotelId    {@link UUID}
+     * @param date       {@link LocalDate}
+     * @param rooms      {@link BitSet} of the booked room numbers
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @param attempts   maximum number of the compare and set attempts
+     * @return {@link CompletableFuture} of true if this call set the bits of the rooms, of false if all of them were
+     * booked already, failed by the {@link IllegalStateException} if the cell kept changing for all the attempts
+     */
+    default CompletableFuture<Boolean> occupyAsync(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attempts) {
+        return findOccupancyAsync(hotelId, date).thenCompose(current -> occupyAsync(hotelId, date, rooms, ttlSeconds, attempts, current));
+    }
+
+    /**
+     * Removes the rooms from the occupancy of the hotel for the night as the {@link #release} does, without blocking
+     * the calling thread.
+     *
+     * @param hotelId    {@link UUID}
+     * @param date       {@link LocalDate}
+     * @param rooms      {@link BitSet} of the room numbers
+     * @param ttlSeconds TTL of the cell, 0 to keep it forever
+     * @param attempts   maximum number of the compare and set attempts
+     * @return {@link CompletableFuture} completed once the rooms are removed, failed by the
+     * {@link IllegalStateException} if the cell kept changing for all the attempts
+     */
+    default CompletableFuture<Void> releaseAsync(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attempts) {
+        return findOccupancyAsync(hotelId, date).thenCompose(current -> releaseAsync(hotelId, date, rooms, ttlSeconds, attempts, current));
+    }
+
+    /**
+     * Makes the attempts left of the {@link #occupyAsync(UUID, LocalDate, BitSet, int, int)} against the current cell.
+     *
+     * @param hotelId      {@link UUID}
+     * @param date         {@link LocalDate}
+     * @param rooms        {@link BitSet} of the room numbers
+     * @param ttlSeconds   TTL of the cell, 0 to keep it forever
+     * @param attemptsLeft number of the compare and set attempts left
+     * @param current      current {@link HotelOccupancy} of the night, null if there is none
+     * @return {@link CompletableFuture} of true if this call set the bits of the rooms
+     */
+    default CompletableFuture<Boolean> occupyAsync(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attemptsLeft,
+                                                   HotelOccupancy current) {
+        if (null != current && current.isBooked(rooms)) {
+            return completedFuture(false);
+        }
+        if (0 == attemptsLeft) {
+            return failedFuture(new IllegalStateException(format("Occupancy of the hotel '%s' for %s kept changing", hotelId, date)));
+        }
+        final HotelOccupancy updated = null == current ? new HotelOccupancy(hotelId, date, rooms) : current.withRooms(rooms);
+        return compareAndSetAsync(current, updated, ttlSeconds).thenCompose(written -> written == updated
+                ? completedFuture(true)
+                : occupyAsync(hotelId, date, rooms, ttlSeconds, attemptsLeft - 1, written));
+    }
+
+    /**
+     * Makes the attempts left of the {@link #releaseAsync(UUID, LocalDate, BitSet, int, int)} against the current cell.
+     *
+     * @param hotelId      {@link UUID}
+     * @param date         {@link LocalDate}
+     * @param rooms        {@link BitSet} of the room numbers
+     * @param ttlSeconds   TTL of the cell, 0 to keep it forever
+     * @param attemptsLeft number of the compare and set attempts left
+     * @param current      current {@link HotelOccupancy} of the night, null if there is none
+     * @return {@link CompletableFuture} completed once the rooms are removed
+     */
+    default CompletableFuture<Void> releaseAsync(UUID hotelId, LocalDate date, BitSet rooms, int ttlSeconds, int attemptsLeft,
+                                                 HotelOccupancy current) {
+        if (null == current || !current.getBookedRooms().intersects(rooms)) {
+            return completedFuture(null);
+        }
+        if (0 == attemptsLeft) {
+            return failedFuture(new IllegalStateException(format("Occupancy of the hotel '%s' for %s kept changing", hotelId, date)));
+        }
+        return compareAndSetAsync(current, current.withoutRooms(rooms), ttlSeconds)
+                .thenCompose(written -> releaseAsync(hotelId, date, rooms, ttlSeconds, attemptsLeft - 1, written));
+    }
+}
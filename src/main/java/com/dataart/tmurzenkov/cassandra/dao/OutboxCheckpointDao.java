@@ -0,0 +1,12 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.OutboxCheckpoint;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+
+/**
+ * {@link OutboxCheckpoint} dao. Implemented by spring during the context initialization.
+ *
+ * @author tmurzenkov
+ */
+public interface OutboxCheckpointDao extends CassandraRepository<OutboxCheckpoint> {
+}
@@ -13,7 +13,7 @@ import java.util.UUID;
  *
  * @author tmurzenkov
  */
-public interface RoomByGuestAndDateDao extends CassandraRepository<RoomByGuestAndDate> {
+public interface RoomByGuestAndDateDao extends CassandraRepository<RoomByGuestAndDate>, RoomByGuestAndDateDaoCustom {
 
     /**
      * Selects/finds all instances of the {@link RoomByGuestAndDate} for the specified guest id and reservation date.
@@ -0,0 +1,22 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous reads of the {@link RoomByGuestAndDateDao}, the statements are sent by the driver without blocking the
+ * calling thread, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface RoomByGuestAndDateDaoCustom {
+    /**
+     * Checks whether the booking exists.
+     *
+     * @param id {@link MapId} as returned by the {@link RoomByGuestAndDate#getCompositeId()}
+     * @return {@link CompletableFuture} of true if it does
+     */
+    CompletableFuture<Boolean> existsAsync(MapId id);
+}
@@ -11,13 +11,27 @@ import java.util.UUID;
 
 /**
  * Cassandra Spring data repository to persists the {@link RoomByHotelAndDate} entity.
- * Will be implemented during the application context initialization.
+ * Will be implemented during the application context initialization. A read is bounded by a month bucket, the
+ * periods spanning several months are read by the {@link com.dataart.tmurzenkov.cassandra.dao.impl.RoomByHotelAndDateRouter}.
  *
  * @author tmurzenkov
  */
-public interface RoomByHotelAndDateDao extends CassandraRepository<RoomByHotelAndDate> {
+public interface RoomByHotelAndDateDao extends CassandraRepository<RoomByHotelAndDate>, RoomByHotelAndDateDaoCustom {
     /**
-     * Finds all rooms for the give hotel id and date range.
+     * Finds all rooms for the give hotel id and date range within the month bucket.
+     *
+     * @param hotelId {@link UUID}
+     * @param month   first day of the month, {@link LocalDate}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return list of {@link RoomByHotelAndDate}
+     */
+    @Query("select * from room_by_hotel_and_month where hotel_id = ?0 and month = ?1 and date >= ?2 and date <= ?3")
+    Set<RoomByHotelAndDate> findAllRoomsForHotelIdAndMonth(UUID hotelId, LocalDate month, LocalDate start, LocalDate end);
+
+    /**
+     * Finds all rooms for the give hotel id and date range in the room_by_hotel_and_date table partitioned by the hotel
+     * only, read while its rows are migrated to the month buckets. The month of the found rows is not set.
      *
      * @param hotelId {@link UUID}
      * @param start   {@link LocalDate}
@@ -25,5 +39,5 @@ public interface RoomByHotelAndDateDao extends CassandraRepository<RoomByHotelAn
      * @return list of {@link RoomByHotelAndDate}
      */
     @Query("select * from room_by_hotel_and_date where hotel_id = ?0 and date >= ?1 and date <= ?2")
-    Set<RoomByHotelAndDate> findAllRoomsForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end);
+    Set<RoomByHotelAndDate> findAllLegacyRoomsForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end);
 }
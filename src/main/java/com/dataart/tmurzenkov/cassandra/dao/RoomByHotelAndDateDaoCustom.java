@@ -0,0 +1,40 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous reads of the {@link RoomByHotelAndDateDao}, the statements are sent by the driver without blocking the
+ * calling thread, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface RoomByHotelAndDateDaoCustom {
+    /**
+     * Finds all rooms for the give hotel id and date range within the month bucket.
+     *
+     * @param hotelId {@link UUID}
+     * @param month   first day of the month, {@link LocalDate}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return {@link CompletableFuture} of the set of {@link RoomByHotelAndDate}
+     */
+    CompletableFuture<Set<RoomByHotelAndDate>> findAllRoomsForHotelIdAndMonthAsync(UUID hotelId, LocalDate month,
+                                                                                  LocalDate start, LocalDate end);
+
+    /**
+     * Finds all rooms for the give hotel id and date range in the room_by_hotel_and_date table partitioned by the hotel
+     * only. The month of the found rows is not set.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return {@link CompletableFuture} of the set of {@link RoomByHotelAndDate}
+     */
+    CompletableFuture<Set<RoomByHotelAndDate>> findAllLegacyRoomsForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start,
+                                                                                         LocalDate end);
+}
@@ -6,13 +6,14 @@ import org.springframework.data.cassandra.repository.Query;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Spring data repository to work with {@link Room}.
  *
  * @author tmurzenkov
  */
-public interface RoomDao extends CassandraRepository<Room> {
+public interface RoomDao extends CassandraRepository<Room>, RoomDaoCustom {
     /**
      * Finds all rooms for the given hotel id.
      *
@@ -21,4 +22,14 @@ public interface RoomDao extends CassandraRepository<Room> {
      */
     @Query("select * from room_by_hotel where hotel_id = ?0")
     Set<Room> findAllRoomsByHotelId(UUID hotelId);
+
+    /**
+     * Streams all rooms for the given hotel id. The rows are fetched from the driver result set page by page while
+     * the stream is consumed.
+     *
+     * @param hotelId {@link UUID}
+     * @return {@link Stream} of the rooms
+     */
+    @Query("select * from room_by_hotel where hotel_id = ?0")
+    Stream<Room> streamAllRoomsByHotelId(UUID hotelId);
 }
@@ -0,0 +1,32 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous reads of the {@link RoomDao}, the statements are sent by the driver without blocking the calling
+ * thread, so they are not derived by spring.
+ *
+ * @author tmurzenkov
+ */
+public interface RoomDaoCustom {
+    /**
+     * Finds all rooms for the given hotel id.
+     *
+     * @param hotelId {@link UUID}
+     * @return {@link CompletableFuture} of the set of found rooms
+     */
+    CompletableFuture<Set<Room>> findAllRoomsByHotelIdAsync(UUID hotelId);
+
+    /**
+     * Checks whether the room exists.
+     *
+     * @param id {@link MapId} as returned by the {@link Room#getCompositeId()}
+     * @return {@link CompletableFuture} of true if it does
+     */
+    CompletableFuture<Boolean> existsAsync(MapId id);
+}
@@ -0,0 +1,30 @@
+package com.dataart.tmurzenkov.cassandra.dao.deadline;
+
+import com.dataart.tmurzenkov.cassandra.dao.intercept.AbstractDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.isolation.DaoIsolationPostProcessor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every dao of com.dataart.tmurzenkov.cassandra.dao, so its calls are abandoned by the
+ * {@link DeadlineEnforcement} once the deadline of the request passed, until the request starts writing. The
+ * interceptor goes in front of the isolation, so the abandoned calls take no place in the bulkhead of the dao.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class DeadlineDaoPostProcessor extends AbstractDaoPostProcessor {
+    @Autowired
+    private DeadlineEnforcement deadlineEnforcement;
+
+    @Override
+    public int getOrder() {
+        return DaoIsolationPostProcessor.ORDER + 1;
+    }
+
+    @Override
+    protected Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        return deadlineEnforcement.invoke(dao, invocation);
+    }
+}
@@ -0,0 +1,177 @@
+package com.dataart.tmurzenkov.cassandra.dao.deadline;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.DeadlineStatistics;
+import com.dataart.tmurzenkov.cassandra.model.exception.DeadlineExceededException;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Abandons the work of the request once its {@link RequestDeadline} passes. The dao call is not started after the
+ * deadline, the call failed after the deadline passed during it fails with the {@link DeadlineExceededException}
+ * instead of the failure of the data base. Every statement of the wrapped session is sent with the read timeout cut
+ * down to the time left till the deadline, so the driver gives up on it when the client does, and is not sent at all
+ * once the deadline passed. The statements of the threads without the deadline are sent as they are.
+ * <p>
+ * The deadline is checked only before the first write of the request: a dao call that is not a read starts the writes,
+ * from then on the dao calls and the statements of the request are neither abandoned nor cut down, so a booking
+ * written by several statements is not left half written by the deadline passed in between. The writes that failed
+ * fail with their own failure, for the caller to undo what was written.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class DeadlineEnforcement {
+    private static final int UNSET_READ_TIMEOUT = Integer.MIN_VALUE;
+    private static final List<String> READ_PREFIXES = asList("find", "get", "count", "exists", "stream");
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder expiredOnArrival = new LongAdder();
+    private final LongAdder completedLate = new LongAdder();
+    private final LongAdder abandonedStatements = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> abandonedCalls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> timedOutCalls = new ConcurrentHashMap<>();
+
+    /**
+     * Records the request come with the deadline.
+     *
+     * @param expired whether the deadline passed before the request came
+     */
+    public void onRequest(boolean expired) {
+        requests.increment();
+        if (expired) {
+            expiredOnArrival.increment();
+        }
+    }
+
+    /**
+     * Records the request completed by the current thread, late if its deadline passed.
+     */
+    public void onCompleted() {
+        if (RequestDeadline.isExpired()) {
+            completedLate.increment();
+        }
+    }
+
+    /**
+     * Proceeds with the dao call if the deadline of the request has not passed yet.
+     *
+     * @param dao        simple name of the dao interface
+     * @param invocation {@link MethodInvocation}
+     * @return result of the call
+     * @throws Throwable the failure of the call
+     * @throws DeadlineExceededException if the deadline passed before or during the read, or before the first write
+     */
+    public Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        if (RequestDeadline.isWriting()) {
+            return invocation.proceed();
+        }
+        if (RequestDeadline.isExpired()) {
+            counter(abandonedCalls, dao).increment();
+            throw new DeadlineExceededException(format("The deadline of the request passed before the call of %s", dao));
+        }
+        if (!isRead(invocation.getMethod())) {
+            RequestDeadline.startWriting();
+            return invocation.proceed();
+        }
+        try {
+            return invocation.proceed();
+        } catch (DataAccessException e) {
+            if (!RequestDeadline.isExpired()) {
+                throw e;
+            }
+            counter(timedOutCalls, dao).increment();
+            throw new DeadlineExceededException(format("The deadline of the request passed during the call of %s", dao), e);
+        }
+    }
+
+    /**
+     * Wraps the session, so its statements are sent with the read timeout of the time left till the deadline.
+     *
+     * @param session {@link Session}
+     * @return {@link Session}
+     */
+    public Session wrap(Session session) {
+        final int readTimeoutMillis = session.getCluster().getConfiguration().getSocketOptions().getReadTimeoutMillis();
+        final ProxyFactory proxyFactory = new ProxyFactory(session);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            final String method = invocation.getMethod().getName();
+            final Object[] arguments = invocation.getArguments();
+            if (!RequestDeadline.isSet() || RequestDeadline.isWriting() || 0 == arguments.length
+                    || !"execute".equals(method) && !"executeAsync".equals(method)) {
+                return invocation.proceed();
+            }
+            final Statement statement = toStatement(arguments);
+            final long remainingMillis = RequestDeadline.getRemainingMillis();
+            if (0 == remainingMillis) {
+                abandonedStatements.increment();
+                throw new DeadlineExceededException("The deadline of the request passed before the statement was sent");
+            }
+            if (remainingMillis < effectiveReadTimeout(statement, readTimeoutMillis)) {
+                statement.setReadTimeoutMillis((int) remainingMillis);
+            }
+            return "execute".equals(method) ? session.execute(statement) : session.executeAsync(statement);
+        });
+        return (Session) proxyFactory.getProxy();
+    }
+
+    /**
+     * Returns the numbers of the requests with the deadline and of the work abandoned.
+     *
+     * @return {@link DeadlineStatistics}
+     */
+    public DeadlineStatistics getStatistics() {
+        return new DeadlineStatistics(requests.sum(), expiredOnArrival.sum(), completedLate.sum(), abandonedStatements.sum(),
+                sums(abandonedCalls), sums(timedOutCalls));
+    }
+
+    private static boolean isRead(Method method) {
+        return READ_PREFIXES.stream().anyMatch(method.getName()::startsWith);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Statement toStatement(Object[] arguments) {
+        if (arguments[0] instanceof Statement) {
+            return (Statement) arguments[0];
+        }
+        final String query = (String) arguments[0];
+        if (1 == arguments.length) {
+            return new SimpleStatement(query);
+        }
+        return arguments[1] instanceof Map
+                ? new SimpleStatement(query, (Map<String, Object>) arguments[1])
+                : new SimpleStatement(query, (Object[]) arguments[1]);
+    }
+
+    private static long effectiveReadTimeout(Statement statement, int sessionReadTimeoutMillis) {
+        final int readTimeoutMillis = UNSET_READ_TIMEOUT == statement.getReadTimeoutMillis()
+                ? sessionReadTimeoutMillis
+                : statement.getReadTimeoutMillis();
+        return readTimeoutMillis <= 0 ? Long.MAX_VALUE : readTimeoutMillis;
+    }
+
+    private static LongAdder counter(ConcurrentMap<String, LongAdder> counters, String dao) {
+        return counters.computeIfAbsent(dao, name -> new LongAdder());
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        final Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((dao, counter) -> sums.put(dao, counter.sum()));
+        return sums;
+    }
+}
@@ -0,0 +1,123 @@
+package com.dataart.tmurzenkov.cassandra.dao.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request handled by the current thread, started by the deadline filter and read by the dao calls
+ * and the statements down the service layer. The threads without the deadline are not limited. The tasks handed to
+ * the other threads carry the deadline along when decorated by {@link #propagate(Runnable)}. Once the request started
+ * writing, the deadline no longer abandons its work, so the writes of the request are not left half done.
+ *
+ * @author tmurzenkov
+ */
+public final class RequestDeadline {
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> WRITING = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Starts the deadline of the current thread.
+     *
+     * @param budgetMillis milliseconds left till the deadline
+     */
+    public static void start(long budgetMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        WRITING.remove();
+    }
+
+    /**
+     * Clears the deadline of the current thread.
+     */
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+        WRITING.remove();
+    }
+
+    /**
+     * Marks the request of the current thread as started writing, if it has the deadline.
+     */
+    public static void startWriting() {
+        if (isSet()) {
+            WRITING.set(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Is the request writing? True if the current thread has the deadline and started writing.
+     *
+     * @return true if it is
+     */
+    public static boolean isWriting() {
+        return null != WRITING.get();
+    }
+
+    /**
+     * Is the deadline set? True if the current thread has one.
+     *
+     * @return true if it is
+     */
+    public static boolean isSet() {
+        return null != DEADLINE_NANOS.get();
+    }
+
+    /**
+     * Is the deadline passed? False if the current thread has none.
+     *
+     * @return true if it is
+     */
+    public static boolean isExpired() {
+        final Long deadline = DEADLINE_NANOS.get();
+        return null != deadline && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns the milliseconds left till the deadline, rounded up, so only the passed deadline has none left.
+     *
+     * @return milliseconds, {@link Long#MAX_VALUE} if the current thread has no deadline
+     */
+    public static long getRemainingMillis() {
+        final Long deadline = DEADLINE_NANOS.get();
+        if (null == deadline) {
+            return Long.MAX_VALUE;
+        }
+        final long remainingNanos = deadline - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : (remainingNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Decorates the task, so it runs with the deadline of the thread that submits it.
+     *
+     * @param task {@link Runnable}
+     * @return {@link Runnable}
+     */
+    public static Runnable propagate(Runnable task) {
+        final Long deadline = DEADLINE_NANOS.get();
+        if (null == deadline) {
+            return task;
+        }
+        final Boolean writing = WRITING.get();
+        return () -> {
+            final Long previous = DEADLINE_NANOS.get();
+            final Boolean previousWriting = WRITING.get();
+            DEADLINE_NANOS.set(deadline);
+            restore(WRITING, writing);
+            try {
+                task.run();
+            } finally {
+                restore(DEADLINE_NANOS, previous);
+                restore(WRITING, previousWriting);
+            }
+        };
+    }
+
+    private static <T> void restore(ThreadLocal<T> threadLocal, T value) {
+        if (null == value) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(value);
+        }
+    }
+}
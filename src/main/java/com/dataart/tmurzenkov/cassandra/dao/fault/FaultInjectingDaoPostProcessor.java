@@ -0,0 +1,33 @@
+package com.dataart.tmurzenkov.cassandra.dao.fault;
+
+import com.dataart.tmurzenkov.cassandra.dao.intercept.AbstractDaoPostProcessor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.FAULT_INJECTION;
+
+/**
+ * Wraps every dao of com.dataart.tmurzenkov.cassandra.dao, the Cassandra repositories as well as the in-memory ones,
+ * so its calls go through the {@link FaultInjector}. Only the methods of the dao interface are intercepted. It goes
+ * before the other dao post processors, so their interceptors see the injected faults as the faults of the dao.
+ *
+ * @author tmurzenkov
+ */
+@Component
+@Profile(FAULT_INJECTION)
+public class FaultInjectingDaoPostProcessor extends AbstractDaoPostProcessor {
+    @Autowired
+    private FaultInjector faultInjector;
+
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    protected Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        return faultInjector.invoke(dao, invocation);
+    }
+}
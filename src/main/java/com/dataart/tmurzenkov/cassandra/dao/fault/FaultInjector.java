@@ -0,0 +1,160 @@
+package com.dataart.tmurzenkov.cassandra.dao.fault;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.FaultRule;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.ReadTimeoutException;
+import com.datastax.driver.core.exceptions.UnavailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cassandra.support.CassandraExceptionTranslator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.FAULT_INJECTION;
+import static com.dataart.tmurzenkov.cassandra.model.dto.FaultRule.ANY;
+import static com.datastax.driver.core.ConsistencyLevel.LOCAL_ONE;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keeps the {@link FaultRule}s installed at runtime and applies them to the dao calls intercepted by the
+ * {@link FaultInjectingDaoPostProcessor}. The rule of the dao method wins over the rule of the whole dao, which wins
+ * over the rule of all daos. The failures are the driver exceptions translated the way the Cassandra templates
+ * translate them, so the callers see exactly what a struggling cluster would give them.
+ *
+ * @author tmurzenkov
+ */
+@Component
+@Profile(FAULT_INJECTION)
+public class FaultInjector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FaultInjector.class);
+    private final CassandraExceptionTranslator exceptionTranslator = new CassandraExceptionTranslator();
+    private final ConcurrentMap<String, InjectedFault> faults = new ConcurrentHashMap<>();
+
+    /**
+     * Installs the rule, replacing the rule of the same dao and method.
+     *
+     * @param rule {@link FaultRule}
+     */
+    public void install(FaultRule rule) {
+        if (rule.getMinLatencyMillis() > rule.getMaxLatencyMillis()) {
+            throw new IllegalArgumentException(format("The min latency must not be greater than the max latency. Rule: '%s'", rule));
+        }
+        if (rule.getTimeoutProbability() + rule.getUnavailableProbability() > 1d) {
+            throw new IllegalArgumentException(format("The failure probabilities must not sum up to more than one. Rule: '%s'", rule));
+        }
+        LOGGER.info("Installing the fault rule '{}'", rule);
+        faults.put(key(rule.getDao(), null == rule.getMethod() ? ANY : rule.getMethod()), new InjectedFault(rule));
+    }
+
+    /**
+     * Returns the installed rules.
+     *
+     * @return list of {@link FaultRule}
+     */
+    public List<FaultRule> getRules() {
+        return faults.values().stream().map(fault -> fault.rule).collect(toList());
+    }
+
+    /**
+     * Removes all rules, the dao calls are not delayed and do not fail any more.
+     */
+    public void clear() {
+        LOGGER.info("Removing all fault rules");
+        faults.clear();
+    }
+
+    /**
+     * Applies the rule of the dao method, if any, and proceeds with the call.
+     *
+     * @param dao        simple name of the dao interface
+     * @param invocation {@link MethodInvocation}
+     * @return result of the call
+     * @throws Throwable the injected failure or the failure of the call
+     */
+    public Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        final String method = invocation.getMethod().getName();
+        final InjectedFault fault = find(dao, method);
+        if (null != fault) {
+            fault.apply(dao, method);
+        }
+        return invocation.proceed();
+    }
+
+    private InjectedFault find(String dao, String method) {
+        if (faults.isEmpty()) {
+            return null;
+        }
+        InjectedFault fault = faults.get(key(dao, method));
+        if (null == fault) {
+            fault = faults.get(key(dao, ANY));
+        }
+        return null == fault ? faults.get(key(ANY, ANY)) : fault;
+    }
+
+    private static String key(String dao, String method) {
+        return dao + '.' + method;
+    }
+
+    private static boolean isWrite(String method) {
+        return method.startsWith("insert") || method.startsWith("save") || method.startsWith("delete");
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Installed rule with its own random source, seeded if the rule asks for a repeatable sequence of faults.
+     */
+    private final class InjectedFault {
+        private final FaultRule rule;
+        private final Random seededRandom;
+
+        InjectedFault(FaultRule rule) {
+            this.rule = rule;
+            this.seededRandom = null == rule.getSeed() ? null : new Random(rule.getSeed());
+        }
+
+        void apply(String dao, String method) {
+            final Random random = null == seededRandom ? ThreadLocalRandom.current() : seededRandom;
+            final double failure = random.nextDouble();
+            final boolean slow = random.nextDouble() < rule.getSlowProbability();
+            final long latency = slow ? rule.getSlowLatencyMillis() : rule.getMinLatencyMillis()
+                    + (long) (random.nextDouble() * (rule.getMaxLatencyMillis() - rule.getMinLatencyMillis() + 1));
+            if (failure < rule.getUnavailableProbability()) {
+                throw failure(dao, method, new UnavailableException(LOCAL_ONE, 1, 0));
+            }
+            if (failure < rule.getUnavailableProbability() + rule.getTimeoutProbability()) {
+                sleep(rule.getTimeoutMillis());
+                throw failure(dao, method, isWrite(method)
+                        ? new WriteTimeoutException(LOCAL_ONE, "insertIfNotExists".equals(method) ? WriteType.CAS : WriteType.SIMPLE, 0, 1)
+                        : new ReadTimeoutException(LOCAL_ONE, 0, 1, false));
+            }
+            sleep(latency);
+        }
+
+        private RuntimeException failure(String dao, String method, DriverException e) {
+            LOGGER.debug("Injecting '{}' into {}.{}", e.getMessage(), dao, method);
+            final DataAccessException translated = exceptionTranslator.translateExceptionIfPossible(e);
+            return null == translated ? e : translated;
+        }
+    }
+}
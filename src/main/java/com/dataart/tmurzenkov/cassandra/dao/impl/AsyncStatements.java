@@ -0,0 +1,131 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Select;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.cassandra.support.CassandraExceptionTranslator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.data.cassandra.mapping.CassandraPersistentEntity;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Sends the statements of the daos by the executeAsync of the driver and completes the {@link CompletableFuture} by the
+ * callback of the driver, so no thread waits for the answer. The rows are mapped by the converter of the
+ * {@link CassandraOperations}, as the rows of the spring data queries are. The next page of the result is fetched only
+ * once the rows of the previous one are mapped. The failures are translated to the {@link DataAccessException}, as
+ * the failures of the synchronous calls are.
+ *
+ * @author tmurzenkov
+ */
+final class AsyncStatements {
+    private static final CassandraExceptionTranslator EXCEPTION_TRANSLATOR = new CassandraExceptionTranslator();
+
+    private AsyncStatements() {
+    }
+
+    /**
+     * Sends the statement.
+     *
+     * @param cassandraOperations {@link CassandraOperations}
+     * @param statement           {@link Statement}
+     * @return {@link CompletableFuture} of the first page of the {@link ResultSet}
+     */
+    static CompletableFuture<ResultSet> execute(CassandraOperations cassandraOperations, Statement statement) {
+        return toCompletableFuture(cassandraOperations.executeAsynchronously(statement));
+    }
+
+    /**
+     * Sends the statement and maps all the rows of its result.
+     *
+     * @param cassandraOperations {@link CassandraOperations}
+     * @param statement           {@link Statement}
+     * @param type                class of the entity the rows are mapped to
+     * @param <T>                 generic type
+     * @return {@link CompletableFuture} of the list of the entities in the order of the rows
+     */
+    static <T> CompletableFuture<List<T>> read(CassandraOperations cassandraOperations, Statement statement, Class<T> type) {
+        return execute(cassandraOperations, statement).thenCompose(resultSet -> readAll(cassandraOperations, resultSet, type,
+                new ArrayList<>()));
+    }
+
+    /**
+     * Checks whether the row of the given primary key exists.
+     *
+     * @param cassandraOperations {@link CassandraOperations}
+     * @param type                class of the entity
+     * @param id                  {@link MapId} by the property names of the entity
+     * @return {@link CompletableFuture} of true if it does
+     */
+    static CompletableFuture<Boolean> exists(CassandraOperations cassandraOperations, Class<?> type, MapId id) {
+        final CassandraPersistentEntity<?> entity = cassandraOperations.getConverter().getMappingContext().getPersistentEntity(type);
+        final Select select = select().from(entity.getTableName().toCql());
+        for (Map.Entry<String, ?> column : id.entrySet()) {
+            select.where(eq(entity.getPersistentProperty(column.getKey()).getColumnName().toCql(), cqlValue(column.getValue())));
+        }
+        select.limit(1);
+        return execute(cassandraOperations, select).thenApply(resultSet -> null != resultSet.one());
+    }
+
+    /**
+     * Converts the date to the date of the driver, the other values are bound as they are.
+     *
+     * @param value value of the column
+     * @return value to bind
+     */
+    static Object cqlValue(Object value) {
+        return value instanceof LocalDate
+                ? com.datastax.driver.core.LocalDate.fromDaysSinceEpoch((int) ((LocalDate) value).toEpochDay())
+                : value;
+    }
+
+    private static <T> CompletableFuture<List<T>> readAll(CassandraOperations cassandraOperations, ResultSet resultSet,
+                                                          Class<T> type, List<T> entities) {
+        for (int available = resultSet.getAvailableWithoutFetching(); available > 0; available--) {
+            entities.add(cassandraOperations.getConverter().read(type, resultSet.one()));
+        }
+        if (resultSet.isFullyFetched()) {
+            return completedFuture(entities);
+        }
+        return toCompletableFuture(resultSet.fetchMoreResults())
+                .thenCompose(nextPage -> readAll(cassandraOperations, nextPage, type, entities));
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> future) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        Futures.addCallback(future, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                result.completeExceptionally(translate(throwable));
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
+    }
+
+    private static Throwable translate(Throwable throwable) {
+        if (!(throwable instanceof RuntimeException)) {
+            return throwable;
+        }
+        final DataAccessException translated = EXCEPTION_TRANSLATOR.translateExceptionIfPossible((RuntimeException) throwable);
+        return null == translated ? throwable : translated;
+    }
+}
@@ -0,0 +1,67 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.BookingBatchDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cassandra.core.WriteOptions;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+
+/**
+ * {@link BookingBatchDao} implementation based on the logged batch of Cassandra, which applies all the inserts of the
+ * batch eventually even if the coordinator fails in the middle of it. Every insert keeps the TTL of its own. The batch
+ * is written at the local quorum, the outbox relay reads the events at the same level, so it never reads a replica
+ * the acknowledged event has not reached.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(NOT_IN_MEMORY)
+public class BookingBatchDaoImpl implements BookingBatchDao {
+    /**
+     * Consistency level the events of the outbox are written and read at.
+     */
+    public static final ConsistencyLevel OUTBOX_CONSISTENCY = ConsistencyLevel.LOCAL_QUORUM;
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public void insertBooking(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate, BookingEvent event,
+                              int bookingTtlSeconds, int eventTtlSeconds) {
+        cassandraOperations.execute(batch(guestAndDate, hotelAndDate, event, bookingTtlSeconds, eventTtlSeconds));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertBookingAsync(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate,
+                                                      BookingEvent event, int bookingTtlSeconds, int eventTtlSeconds) {
+        return AsyncStatements.execute(cassandraOperations, batch(guestAndDate, hotelAndDate, event, bookingTtlSeconds, eventTtlSeconds))
+                .thenApply(resultSet -> null);
+    }
+
+    private Statement batch(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate, BookingEvent event,
+                            int bookingTtlSeconds, int eventTtlSeconds) {
+        return QueryBuilder.batch(insert(guestAndDate, bookingTtlSeconds), insert(hotelAndDate, bookingTtlSeconds),
+                insert(event, eventTtlSeconds)).setConsistencyLevel(OUTBOX_CONSISTENCY);
+    }
+
+    private Insert insert(Object entity, int ttlSeconds) {
+        final WriteOptions writeOptions = new WriteOptions();
+        if (ttlSeconds > 0) {
+            writeOptions.setTtl(ttlSeconds);
+        }
+        return CassandraTemplate.createInsertQuery(cassandraOperations.getTableName(entity.getClass()).toCql(), entity,
+                writeOptions, cassandraOperations.getConverter());
+    }
+}
@@ -0,0 +1,39 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.BookingOutboxDao;
+import com.dataart.tmurzenkov.cassandra.dao.BookingOutboxDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.dao.impl.BookingBatchDaoImpl.OUTBOX_CONSISTENCY;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+/**
+ * {@link BookingOutboxDaoCustom} implementation. Picked up by spring as the custom part of the {@link BookingOutboxDao}
+ * by its name, so it is not a component of its own and exists only along with the Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class BookingOutboxDaoImpl implements BookingOutboxDaoCustom {
+    private static final String TABLE = "booking_outbox";
+    private static final String BUCKET = "bucket";
+    private static final String EVENT_ID = "event_id";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public List<BookingEvent> findEventsAfter(long bucket, UUID after, UUID upTo, int limit) {
+        final Select select = select().from(TABLE);
+        select.where(eq(BUCKET, bucket)).and(gt(EVENT_ID, after)).and(lte(EVENT_ID, upTo));
+        select.limit(limit).setConsistencyLevel(OUTBOX_CONSISTENCY);
+        return cassandraOperations.select(select, BookingEvent.class);
+    }
+}
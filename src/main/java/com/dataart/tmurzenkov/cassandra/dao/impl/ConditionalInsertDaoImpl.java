@@ -0,0 +1,31 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
+import com.datastax.driver.core.querybuilder.Insert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.stereotype.Repository;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+import static org.springframework.data.cassandra.core.CassandraTemplate.createInsertQuery;
+
+/**
+ * {@link ConditionalInsertDao} implementation based on the lightweight transactions of Cassandra.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(NOT_IN_MEMORY)
+public class ConditionalInsertDaoImpl implements ConditionalInsertDao {
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public <T> boolean insertIfNotExists(T entity) {
+        final String tableName = cassandraOperations.getTableName(entity.getClass()).toCql();
+        final Insert insert = createInsertQuery(tableName, entity, null, cassandraOperations.getConverter());
+        insert.ifNotExists();
+        return cassandraOperations.getResultSetUninterruptibly(cassandraOperations.executeAsynchronously(insert)).wasApplied();
+    }
+}
@@ -0,0 +1,42 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.ExpiringInsertDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cassandra.core.WriteOptions;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+import static org.springframework.data.cassandra.core.CassandraTemplate.createInsertQuery;
+
+/**
+ * {@link ExpiringInsertDao} implementation based on the per row TTL of Cassandra.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(NOT_IN_MEMORY)
+public class ExpiringInsertDaoImpl implements ExpiringInsertDao {
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public <T> T insertWithTtl(T entity, int ttlSeconds) {
+        final WriteOptions writeOptions = new WriteOptions();
+        writeOptions.setTtl(ttlSeconds);
+        return cassandraOperations.insert(entity, writeOptions);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> insertWithTtlAsync(T entity, int ttlSeconds) {
+        final WriteOptions writeOptions = new WriteOptions();
+        if (ttlSeconds > 0) {
+            writeOptions.setTtl(ttlSeconds);
+        }
+        return AsyncStatements.execute(cassandraOperations, createInsertQuery(cassandraOperations.getTableName(entity.getClass()).toCql(),
+                entity, writeOptions, cassandraOperations.getConverter())).thenApply(resultSet -> entity);
+    }
+}
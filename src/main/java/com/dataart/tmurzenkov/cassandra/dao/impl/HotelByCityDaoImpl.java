@@ -0,0 +1,34 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+/**
+ * {@link HotelByCityDaoCustom} implementation. Picked up by spring as the custom part of the {@link HotelByCityDao} by
+ * its name, so it is not a component of its own and exists only along with the Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class HotelByCityDaoImpl implements HotelByCityDaoCustom {
+    private static final String TABLE = "hotels_by_city";
+    private static final String CITY_NAME = "city_name";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public CompletableFuture<List<HotelByCity>> findAllHotelIdsInTheCityAsync(String cityName) {
+        final Select select = select().from(TABLE);
+        select.where(eq(CITY_NAME, cityName));
+        return AsyncStatements.read(cassandraOperations, select, HotelByCity.class);
+    }
+}
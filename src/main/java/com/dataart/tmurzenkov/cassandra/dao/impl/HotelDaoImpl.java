@@ -0,0 +1,44 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+/**
+ * {@link HotelDaoCustom} implementation. Picked up by spring as the custom part of the {@link HotelDao} by its name,
+ * so it is not a component of its own and exists only along with the Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class HotelDaoImpl implements HotelDaoCustom {
+    private static final String TABLE = "hotels";
+    private static final String HOTEL_ID = "hotel_id";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public CompletableFuture<Hotel> findOneAsync(UUID hotelId) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).limit(1);
+        return AsyncStatements.read(cassandraOperations, select, Hotel.class)
+                .thenApply(hotels -> hotels.isEmpty() ? null : hotels.get(0));
+    }
+
+    @Override
+    public CompletableFuture<List<Hotel>> findHotelInformationByIdsAsync(List<UUID> hotelIds) {
+        final Select select = select().from(TABLE);
+        select.where(in(HOTEL_ID, hotelIds));
+        return AsyncStatements.read(cassandraOperations, select, Hotel.class);
+    }
+}
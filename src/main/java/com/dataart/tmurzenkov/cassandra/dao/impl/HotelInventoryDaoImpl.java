@@ -0,0 +1,60 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelInventoryDao;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+
+/**
+ * {@link HotelInventoryDao} implementation based on the counter column of the hotel_inventory table.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(NOT_IN_MEMORY)
+public class HotelInventoryDaoImpl implements HotelInventoryDao {
+    private static final String TABLE = "hotel_inventory";
+    private static final String HOTEL_ID = "hotel_id";
+    private static final String ROOMS = "rooms";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    /**
+     * Creates the dao the {@link CassandraOperations} are injected into.
+     */
+    public HotelInventoryDaoImpl() {
+    }
+
+    /**
+     * Creates the dao outside the application context.
+     *
+     * @param cassandraOperations {@link CassandraOperations} of the hotel keyspace
+     */
+    public HotelInventoryDaoImpl(CassandraOperations cassandraOperations) {
+        this.cassandraOperations = cassandraOperations;
+    }
+
+    @Override
+    public long countRooms(UUID hotelId) {
+        final Select select = select(ROOMS).from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId));
+        final Row row = cassandraOperations.query(select).one();
+        return null == row ? 0 : row.getLong(ROOMS);
+    }
+
+    @Override
+    public void addRooms(UUID hotelId, long rooms) {
+        cassandraOperations.execute(update(TABLE).with(incr(ROOMS, rooms)).where(eq(HOTEL_ID, hotelId)));
+    }
+}
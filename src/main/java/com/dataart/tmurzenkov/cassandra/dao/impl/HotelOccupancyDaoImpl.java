@@ -0,0 +1,154 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.NOT_IN_MEMORY;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+
+/**
+ * {@link HotelOccupancyDao} implementation, the compare and set is the lightweight transaction on the rooms blob: the
+ * insert if not exists of the first booking of the night, the update if the rooms are unchanged of the others. A
+ * failed transaction returns the current rooms, so the retry needs no read.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(NOT_IN_MEMORY)
+public class HotelOccupancyDaoImpl implements HotelOccupancyDao {
+    private static final String TABLE = "hotel_occupancy";
+    private static final String HOTEL_ID = "hotel_id";
+    private static final String DATE = "date";
+    private static final String ROOMS = "rooms";
+    private static final String BOOKED = "booked";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    /**
+     * Creates the dao the {@link CassandraOperations} are injected into.
+     */
+    public HotelOccupancyDaoImpl() {
+    }
+
+    /**
+     * Creates the dao outside the application context.
+     *
+     * @param cassandraOperations {@link CassandraOperations} of the hotel keyspace
+     */
+    public HotelOccupancyDaoImpl(CassandraOperations cassandraOperations) {
+        this.cassandraOperations = cassandraOperations;
+    }
+
+    @Override
+    public HotelOccupancy findOccupancy(UUID hotelId, LocalDate date) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(eq(DATE, cqlDate(date)));
+        return cassandraOperations.selectOne(select, HotelOccupancy.class);
+    }
+
+    @Override
+    public CompletableFuture<HotelOccupancy> findOccupancyAsync(UUID hotelId, LocalDate date) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(eq(DATE, cqlDate(date)));
+        return AsyncStatements.read(cassandraOperations, select, HotelOccupancy.class)
+                .thenApply(occupancies -> occupancies.isEmpty() ? null : occupancies.get(0));
+    }
+
+    @Override
+    public List<HotelOccupancy> findAllForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(gte(DATE, cqlDate(start))).and(lte(DATE, cqlDate(end)));
+        return cassandraOperations.select(select, HotelOccupancy.class);
+    }
+
+    @Override
+    public CompletableFuture<List<HotelOccupancy>> findAllForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start, LocalDate end) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(gte(DATE, cqlDate(start))).and(lte(DATE, cqlDate(end)));
+        return AsyncStatements.read(cassandraOperations, select, HotelOccupancy.class);
+    }
+
+    @Override
+    public SortedMap<LocalDate, Integer> countBookedRooms(UUID hotelId, LocalDate start, LocalDate end) {
+        final Select select = select(DATE, BOOKED).from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(gte(DATE, cqlDate(start))).and(lte(DATE, cqlDate(end)));
+        final SortedMap<LocalDate, Integer> bookedRooms = new TreeMap<>();
+        for (Row row : cassandraOperations.query(select)) {
+            bookedRooms.put(LocalDate.ofEpochDay(row.getDate(DATE).getDaysSinceEpoch()), row.getInt(BOOKED));
+        }
+        return bookedRooms;
+    }
+
+    @Override
+    public HotelOccupancy compareAndSet(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds) {
+        final Statement statement = compareAndSetStatement(expected, updated, ttlSeconds);
+        return written(updated, cassandraOperations.getResultSetUninterruptibly(cassandraOperations.executeAsynchronously(statement)));
+    }
+
+    @Override
+    public CompletableFuture<HotelOccupancy> compareAndSetAsync(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds) {
+        return AsyncStatements.execute(cassandraOperations, compareAndSetStatement(expected, updated, ttlSeconds))
+                .thenApply(resultSet -> written(updated, resultSet));
+    }
+
+    private static Statement compareAndSetStatement(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds) {
+        return null == expected
+                ? insertInto(TABLE)
+                .value(HOTEL_ID, updated.getId())
+                .value(DATE, cqlDate(updated.getDate()))
+                .value(ROOMS, updated.getRooms())
+                .value(BOOKED, updated.getBooked())
+                .ifNotExists()
+                .using(ttl(ttlSeconds))
+                : update(TABLE)
+                .using(ttl(ttlSeconds))
+                .with(set(ROOMS, updated.getRooms())).and(set(BOOKED, updated.getBooked()))
+                .where(eq(HOTEL_ID, updated.getId())).and(eq(DATE, cqlDate(updated.getDate())))
+                .onlyIf(eq(ROOMS, expected.getRooms()));
+    }
+
+    /**
+     * Returns the updated occupancy if the transaction was applied, otherwise the current one it has seen.
+     */
+    private static HotelOccupancy written(HotelOccupancy updated, ResultSet resultSet) {
+        if (resultSet.wasApplied()) {
+            return updated;
+        }
+        final Row row = resultSet.one();
+        if (null == row || !row.getColumnDefinitions().contains(ROOMS)) {
+            return null;
+        }
+        final HotelOccupancy current = new HotelOccupancy();
+        current.setId(updated.getId());
+        current.setDate(updated.getDate());
+        current.setBookedRooms(BitSet.valueOf(row.getBytes(ROOMS)));
+        return current;
+    }
+
+    private static com.datastax.driver.core.LocalDate cqlDate(LocalDate date) {
+        return com.datastax.driver.core.LocalDate.fromDaysSinceEpoch((int) date.toEpochDay());
+    }
+}
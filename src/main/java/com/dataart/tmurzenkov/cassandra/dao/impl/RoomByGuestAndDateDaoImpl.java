@@ -0,0 +1,27 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RoomByGuestAndDateDaoCustom} implementation. Picked up by spring as the custom part of the
+ * {@link RoomByGuestAndDateDao} by its name, so it is not a component of its own and exists only along with the
+ * Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class RoomByGuestAndDateDaoImpl implements RoomByGuestAndDateDaoCustom {
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(MapId id) {
+        return AsyncStatements.exists(cassandraOperations, RoomByGuestAndDate.class, id);
+    }
+}
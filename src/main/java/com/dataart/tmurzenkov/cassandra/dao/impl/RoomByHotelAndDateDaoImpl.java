@@ -0,0 +1,54 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.dao.impl.AsyncStatements.cqlValue;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+/**
+ * {@link RoomByHotelAndDateDaoCustom} implementation. Picked up by spring as the custom part of the
+ * {@link RoomByHotelAndDateDao} by its name, so it is not a component of its own and exists only along with the
+ * Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class RoomByHotelAndDateDaoImpl implements RoomByHotelAndDateDaoCustom {
+    private static final String TABLE = "room_by_hotel_and_month";
+    private static final String LEGACY_TABLE = "room_by_hotel_and_date";
+    private static final String HOTEL_ID = "hotel_id";
+    private static final String MONTH = "month";
+    private static final String DATE = "date";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public CompletableFuture<Set<RoomByHotelAndDate>> findAllRoomsForHotelIdAndMonthAsync(UUID hotelId, LocalDate month,
+                                                                                         LocalDate start, LocalDate end) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(eq(MONTH, cqlValue(month)))
+                .and(gte(DATE, cqlValue(start))).and(lte(DATE, cqlValue(end)));
+        return AsyncStatements.read(cassandraOperations, select, RoomByHotelAndDate.class).thenApply(LinkedHashSet::new);
+    }
+
+    @Override
+    public CompletableFuture<Set<RoomByHotelAndDate>> findAllLegacyRoomsForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start,
+                                                                                                LocalDate end) {
+        final Select select = select().from(LEGACY_TABLE);
+        select.where(eq(HOTEL_ID, hotelId)).and(gte(DATE, cqlValue(start))).and(lte(DATE, cqlValue(end)));
+        return AsyncStatements.read(cassandraOperations, select, RoomByHotelAndDate.class).thenApply(LinkedHashSet::new);
+    }
+}
@@ -0,0 +1,113 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.dataart.tmurzenkov.cassandra.util.DateUtils.firstDayOfMonth;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.join;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Reads the booked rooms of a period from the month buckets of the {@link RoomByHotelAndDateDao}. The period is split
+ * into one read per month, the first month is read by the calling thread and the others in parallel by the bucket read
+ * executor, the results are merged in the date order.
+ * <p>
+ * While the rows of the room_by_hotel_and_date table are migrated to the month buckets, the legacy reads are enabled by
+ * rooms.legacy.reads=true and the rows of the old table are merged in as well, so the bookings made before the
+ * upgrade are not lost until the migration completes.
+ * <p>
+ * The async variant sends the reads of all the months and of the legacy table at once without blocking any thread and
+ * merges them once all are answered.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class RoomByHotelAndDateRouter {
+    @Autowired
+    private RoomByHotelAndDateDao roomByHotelAndDateDao;
+    @Autowired
+    @Qualifier("bucketReadTaskExecutor")
+    private Executor bucketReadTaskExecutor;
+    @Value("${rooms.legacy.reads:false}")
+    private boolean legacyReads;
+
+    /**
+     * Finds all rooms for the give hotel id and date range, both ends inclusive.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return set of {@link RoomByHotelAndDate} in the date order
+     */
+    public Set<RoomByHotelAndDate> findAllRoomsForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            return emptySet();
+        }
+        final List<CompletableFuture<Set<RoomByHotelAndDate>>> otherMonths = new ArrayList<>();
+        for (LocalDate month = firstDayOfMonth(start).plusMonths(1); !month.isAfter(end); month = month.plusMonths(1)) {
+            final LocalDate bucket = month;
+            otherMonths.add(supplyAsync(() -> readMonth(hotelId, bucket, start, end), bucketReadTaskExecutor));
+        }
+        final Set<RoomByHotelAndDate> rooms = new LinkedHashSet<>(readMonth(hotelId, firstDayOfMonth(start), start, end));
+        for (CompletableFuture<Set<RoomByHotelAndDate>> month : otherMonths) {
+            rooms.addAll(join(month));
+        }
+        if (legacyReads) {
+            roomByHotelAndDateDao.findAllLegacyRoomsForHotelIdAndPeriod(hotelId, start, end)
+                    .forEach(room -> rooms.add(new RoomByHotelAndDate(room.getId(), room.getRoomNumber(), room.getDate())));
+        }
+        return rooms;
+    }
+
+    /**
+     * Finds all rooms for the give hotel id and date range, both ends inclusive, without blocking the calling thread.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return {@link CompletableFuture} of the set of {@link RoomByHotelAndDate} in the date order
+     */
+    public CompletableFuture<Set<RoomByHotelAndDate>> findAllRoomsForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start,
+                                                                                         LocalDate end) {
+        if (start.isAfter(end)) {
+            return completedFuture(emptySet());
+        }
+        final List<CompletableFuture<Set<RoomByHotelAndDate>>> reads = new ArrayList<>();
+        for (LocalDate month = firstDayOfMonth(start); !month.isAfter(end); month = month.plusMonths(1)) {
+            final LocalDate lastDay = month.plusMonths(1).minusDays(1);
+            reads.add(roomByHotelAndDateDao.findAllRoomsForHotelIdAndMonthAsync(hotelId, month,
+                    start.isAfter(month) ? start : month, end.isBefore(lastDay) ? end : lastDay));
+        }
+        if (legacyReads) {
+            reads.add(roomByHotelAndDateDao.findAllLegacyRoomsForHotelIdAndPeriodAsync(hotelId, start, end));
+        }
+        return allOf(reads.toArray(new CompletableFuture[reads.size()])).thenApply(none -> {
+            final Set<RoomByHotelAndDate> rooms = new LinkedHashSet<>();
+            reads.forEach(read -> read.join().forEach(room -> rooms.add(new RoomByHotelAndDate(room.getId(), room.getRoomNumber(),
+                    room.getDate()))));
+            return rooms;
+        });
+    }
+
+    private Set<RoomByHotelAndDate> readMonth(UUID hotelId, LocalDate month, LocalDate start, LocalDate end) {
+        final LocalDate lastDay = month.plusMonths(1).minusDays(1);
+        return roomByHotelAndDateDao.findAllRoomsForHotelIdAndMonth(hotelId, month,
+                start.isAfter(month) ? start : month, end.isBefore(lastDay) ? end : lastDay);
+    }
+}
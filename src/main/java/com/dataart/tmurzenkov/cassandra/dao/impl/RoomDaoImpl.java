@@ -0,0 +1,42 @@
+package com.dataart.tmurzenkov.cassandra.dao.impl;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomDaoCustom;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.datastax.driver.core.querybuilder.Select;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+/**
+ * {@link RoomDaoCustom} implementation. Picked up by spring as the custom part of the {@link RoomDao} by its name, so
+ * it is not a component of its own and exists only along with the Cassandra repositories.
+ *
+ * @author tmurzenkov
+ */
+public class RoomDaoImpl implements RoomDaoCustom {
+    private static final String TABLE = "room_by_hotel";
+    private static final String HOTEL_ID = "hotel_id";
+    @Autowired
+    private CassandraOperations cassandraOperations;
+
+    @Override
+    public CompletableFuture<Set<Room>> findAllRoomsByHotelIdAsync(UUID hotelId) {
+        final Select select = select().from(TABLE);
+        select.where(eq(HOTEL_ID, hotelId));
+        return AsyncStatements.read(cassandraOperations, select, Room.class).thenApply(LinkedHashSet::new);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(MapId id) {
+        return AsyncStatements.exists(cassandraOperations, Room.class, id);
+    }
+}
@@ -0,0 +1,206 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.MapId;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Base of the in-memory daos that replace the Cassandra repositories in the
+ * {@link com.dataart.tmurzenkov.cassandra.configuration.Profiles#IN_MEMORY} profile. The rows are kept the way the
+ * table keeps them: grouped by the partition key and sorted within the partition by the clustering columns, so the
+ * partition lookups and the range slices behave like the queries of hotel.cql . As in Cassandra, a write of an
+ * existing primary key overwrites the row and a primary key must not contain nulls. The entities are stored as they
+ * are given, without copying.
+ *
+ * @param <T> entity type
+ * @param <P> partition key type
+ * @author tmurzenkov
+ */
+public abstract class AbstractInMemoryDao<T extends BasicEntity, P> implements CassandraRepository<T> {
+    private final ConcurrentMap<P, ConcurrentSkipListMap<T, T>> partitions = new ConcurrentHashMap<>();
+    private final Class<T> entityClass;
+    private final Function<T, P> partitionKey;
+    private final Comparator<T> clusteringOrder;
+
+    /**
+     * Creates the dao for the table with the given primary key.
+     *
+     * @param entityClass     class of the stored entity
+     * @param partitionKey    extracts the partition key of the row
+     * @param clusteringOrder orders the rows within the partition by the clustering columns
+     */
+    protected AbstractInMemoryDao(Class<T> entityClass, Function<T, P> partitionKey, Comparator<T> clusteringOrder) {
+        this.entityClass = entityClass;
+        this.partitionKey = partitionKey;
+        this.clusteringOrder = clusteringOrder;
+    }
+
+    /**
+     * Builds the entity that holds only the primary key columns of the given composite id.
+     *
+     * @param id {@link MapId} as returned by the {@link BasicEntity#getCompositeId()}
+     * @return entity to look up the row by
+     */
+    protected abstract T fromId(MapId id);
+
+    /**
+     * Returns the class of the stored entity.
+     *
+     * @return {@link Class}
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Inserts the row only if there is no row with the same primary key, as an insert with if not exists does.
+     *
+     * @param entity entity to insert
+     * @return true if the row has been inserted
+     */
+    public boolean insertIfNotExists(T entity) {
+        checkPrimaryKey(entity);
+        return null == partitions.computeIfAbsent(partitionKey.apply(entity), this::newPartition).putIfAbsent(entity, entity);
+    }
+
+    /**
+     * Replaces the row only if it is equal to the expected one, as an update with the conditions on all the regular
+     * columns does.
+     *
+     * @param expected row read before
+     * @param updated  row with the same primary key to write
+     * @return true if the row has been replaced
+     */
+    public boolean replace(T expected, T updated) {
+        checkPrimaryKey(updated);
+        final ConcurrentSkipListMap<T, T> rows = partitions.get(partitionKey.apply(expected));
+        return null != rows && rows.replace(expected, expected, updated);
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        checkPrimaryKey(entity);
+        partitions.computeIfAbsent(partitionKey.apply(entity), this::newPartition).put(entity, entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return insert(entity);
+    }
+
+    @Override
+    public <S extends T> Iterable<S> save(Iterable<S> entities) {
+        entities.forEach(this::insert);
+        return entities;
+    }
+
+    @Override
+    public T findOne(MapId id) {
+        final T key = fromId(id);
+        checkPrimaryKey(key);
+        final ConcurrentSkipListMap<T, T> rows = partitions.get(partitionKey.apply(key));
+        return null == rows ? null : rows.get(key);
+    }
+
+    @Override
+    public boolean exists(MapId id) {
+        return null != findOne(id);
+    }
+
+    @Override
+    public Iterable<T> findAll() {
+        return partitions.values().stream()
+                .flatMap(rows -> rows.values().stream())
+                .collect(toList());
+    }
+
+    @Override
+    public Iterable<T> findAll(Iterable<MapId> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(this::findOne)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    @Override
+    public long count() {
+        return partitions.values().stream().mapToLong(ConcurrentSkipListMap::size).sum();
+    }
+
+    @Override
+    public void delete(MapId id) {
+        delete(fromId(id));
+    }
+
+    @Override
+    public void delete(T entity) {
+        checkPrimaryKey(entity);
+        final ConcurrentSkipListMap<T, T> rows = partitions.get(partitionKey.apply(entity));
+        if (null != rows) {
+            rows.remove(entity);
+        }
+    }
+
+    @Override
+    public void delete(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        partitions.clear();
+    }
+
+    /**
+     * Returns the rows of the partition in the clustering order.
+     *
+     * @param key partition key
+     * @return rows of the partition, empty if there is no such partition
+     */
+    protected Collection<T> partition(P key) {
+        final ConcurrentSkipListMap<T, T> rows = partitions.get(key);
+        return null == rows ? emptyList() : rows.values();
+    }
+
+    /**
+     * Returns the rows of the partition between the given clustering keys, both inclusive, in the clustering order.
+     *
+     * @param key  partition key
+     * @param from entity holding the lowest clustering key of the slice
+     * @param to   entity holding the highest clustering key of the slice
+     * @return rows of the slice, empty if the lowest key is after the highest one
+     */
+    protected Collection<T> slice(P key, T from, T to) {
+        final ConcurrentSkipListMap<T, T> rows = partitions.get(key);
+        if (null == rows || clusteringOrder.compare(from, to) > 0) {
+            return emptyList();
+        }
+        return rows.subMap(from, true, to, true).values();
+    }
+
+    private ConcurrentSkipListMap<T, T> newPartition(P key) {
+        return new ConcurrentSkipListMap<>(clusteringOrder);
+    }
+
+    private void checkPrimaryKey(T entity) {
+        final MapId id = entity.getCompositeId();
+        if (id.containsValue(null)) {
+            throw new IllegalArgumentException(format("Primary key of the %s must not contain nulls: %s",
+                    entityClass.getSimpleName(), id));
+        }
+    }
+}
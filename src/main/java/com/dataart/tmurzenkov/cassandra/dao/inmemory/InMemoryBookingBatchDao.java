@@ -0,0 +1,43 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.BookingBatchDao;
+import com.dataart.tmurzenkov.cassandra.dao.ExpiringInsertDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link BookingBatchDao}, inserts the rows one by one into the in-memory daos of their entity classes. The
+ * in-memory inserts do not fail but for the null primary keys, the event is inserted last.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryBookingBatchDao implements BookingBatchDao {
+    @Autowired
+    private ExpiringInsertDao expiringInsertDao;
+
+    @Override
+    public void insertBooking(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate, BookingEvent event,
+                              int bookingTtlSeconds, int eventTtlSeconds) {
+        expiringInsertDao.insertWithTtl(guestAndDate, bookingTtlSeconds);
+        expiringInsertDao.insertWithTtl(hotelAndDate, bookingTtlSeconds);
+        expiringInsertDao.insertWithTtl(event, eventTtlSeconds);
+    }
+
+    @Override
+    public CompletableFuture<Void> insertBookingAsync(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate hotelAndDate,
+                                                      BookingEvent event, int bookingTtlSeconds, int eventTtlSeconds) {
+        insertBooking(guestAndDate, hotelAndDate, event, bookingTtlSeconds, eventTtlSeconds);
+        return completedFuture(null);
+    }
+}
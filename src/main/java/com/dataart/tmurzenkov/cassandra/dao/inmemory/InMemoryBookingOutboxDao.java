@@ -0,0 +1,51 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.BookingOutboxDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * In-memory {@link BookingOutboxDao}, the rows are partitioned by the bucket and clustered by the time of the event id
+ * as the timeuuid column of hotel.cql is.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryBookingOutboxDao extends AbstractInMemoryDao<BookingEvent, Long> implements BookingOutboxDao {
+    private static final Comparator<UUID> TIME_ORDER = comparing(UUID::timestamp).thenComparing(Comparator.naturalOrder());
+
+    /**
+     * Creates the dao partitioned by the bucket.
+     */
+    public InMemoryBookingOutboxDao() {
+        super(BookingEvent.class, BookingEvent::getBucket, comparing(BookingEvent::getEventId, TIME_ORDER));
+    }
+
+    @Override
+    public List<BookingEvent> findEventsAfter(long bucket, UUID after, UUID upTo, int limit) {
+        return partition(bucket).stream()
+                .filter(event -> TIME_ORDER.compare(event.getEventId(), after) > 0)
+                .filter(event -> TIME_ORDER.compare(event.getEventId(), upTo) <= 0)
+                .limit(limit)
+                .collect(toList());
+    }
+
+    @Override
+    protected BookingEvent fromId(MapId id) {
+        final BookingEvent event = new BookingEvent();
+        event.setBucket((Long) id.get("bucket"));
+        event.setEventId((UUID) id.get("eventId"));
+        return event;
+    }
+}
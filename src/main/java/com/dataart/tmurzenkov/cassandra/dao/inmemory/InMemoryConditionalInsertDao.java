@@ -0,0 +1,33 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.lang.String.format;
+
+/**
+ * In-memory {@link ConditionalInsertDao}, delegates to the in-memory dao of the entity class.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryConditionalInsertDao implements ConditionalInsertDao {
+    @Autowired
+    private List<AbstractInMemoryDao<?, ?>> daos;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> boolean insertIfNotExists(T entity) {
+        final AbstractInMemoryDao<?, ?> dao = daos.stream()
+                .filter(candidate -> candidate.getEntityClass() == entity.getClass())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(format("No in-memory dao for the %s", entity.getClass())));
+        return ((AbstractInMemoryDao<? super T, ?>) dao).insertIfNotExists(entity);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.ExpiringInsertDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link ExpiringInsertDao}, delegates to the in-memory dao of the entity class. The rows do not expire,
+ * the in-memory data does not outlive the process anyway.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryExpiringInsertDao implements ExpiringInsertDao {
+    @Autowired
+    private List<AbstractInMemoryDao<?, ?>> daos;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T insertWithTtl(T entity, int ttlSeconds) {
+        final AbstractInMemoryDao<?, ?> dao = daos.stream()
+                .filter(candidate -> candidate.getEntityClass() == entity.getClass())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(format("No in-memory dao for the %s", entity.getClass())));
+        ((AbstractInMemoryDao<BasicEntity, ?>) dao).insert((BasicEntity) entity);
+        return entity;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> insertWithTtlAsync(T entity, int ttlSeconds) {
+        return completedFuture(insertWithTtl(entity, ttlSeconds));
+    }
+}
@@ -0,0 +1,34 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.GuestDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+
+/**
+ * In-memory {@link GuestDao}, the guest table has no clustering columns, so a partition holds one row.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryGuestDao extends AbstractInMemoryDao<Guest, UUID> implements GuestDao {
+    /**
+     * Creates the dao partitioned by the guest id.
+     */
+    public InMemoryGuestDao() {
+        super(Guest.class, Guest::getId, (first, second) -> 0);
+    }
+
+    @Override
+    protected Guest fromId(MapId id) {
+        final Guest guest = new Guest();
+        guest.setId((UUID) id.get("id"));
+        return guest;
+    }
+}
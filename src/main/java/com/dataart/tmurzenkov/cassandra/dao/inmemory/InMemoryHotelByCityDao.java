@@ -0,0 +1,50 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link HotelByCityDao}, the rows are partitioned by the city name and clustered by the hotel id.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryHotelByCityDao extends AbstractInMemoryDao<HotelByCity, String> implements HotelByCityDao {
+    /**
+     * Creates the dao partitioned by the city name.
+     */
+    public InMemoryHotelByCityDao() {
+        super(HotelByCity.class, HotelByCity::getCityName, comparing(HotelByCity::getId));
+    }
+
+    @Override
+    public List<HotelByCity> findAllHotelIdsInTheCity(String cityName) {
+        return new ArrayList<>(partition(cityName));
+    }
+
+    @Override
+    public CompletableFuture<List<HotelByCity>> findAllHotelIdsInTheCityAsync(String cityName) {
+        return completedFuture(findAllHotelIdsInTheCity(cityName));
+    }
+
+    @Override
+    protected HotelByCity fromId(MapId id) {
+        final HotelByCity hotelByCity = new HotelByCity();
+        hotelByCity.setId((UUID) id.get("hotel_id"));
+        hotelByCity.setCityName((String) id.get("city_name"));
+        return hotelByCity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelByGeohashDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByGeohash;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+
+/**
+ * In-memory {@link HotelByGeohashDao}, the rows are partitioned by the geohash and clustered by the hotel id.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryHotelByGeohashDao extends AbstractInMemoryDao<HotelByGeohash, String> implements HotelByGeohashDao {
+    /**
+     * Creates the dao partitioned by the geohash.
+     */
+    public InMemoryHotelByGeohashDao() {
+        super(HotelByGeohash.class, HotelByGeohash::getGeohash, comparing(HotelByGeohash::getId));
+    }
+
+    @Override
+    public List<HotelByGeohash> findAllHotelsInTheCell(String geohash) {
+        return new ArrayList<>(partition(geohash));
+    }
+
+    @Override
+    protected HotelByGeohash fromId(MapId id) {
+        final HotelByGeohash hotelByGeohash = new HotelByGeohash();
+        hotelByGeohash.setId((UUID) id.get("hotel_id"));
+        hotelByGeohash.setGeohash((String) id.get("geohash"));
+        return hotelByGeohash;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * In-memory {@link HotelDao}, the rows are partitioned by the hotel id and clustered by the name.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryHotelDao extends AbstractInMemoryDao<Hotel, UUID> implements HotelDao {
+    /**
+     * Creates the dao partitioned by the hotel id.
+     */
+    public InMemoryHotelDao() {
+        super(Hotel.class, Hotel::getId, comparing(Hotel::getName));
+    }
+
+    @Override
+    public Hotel findOne(UUID hotelId) {
+        return partition(hotelId).stream().findFirst().orElse(null);
+    }
+
+    @Override
+    public List<Hotel> findHotelInformationByIds(List<UUID> hotelIds) {
+        return streamHotelInformationByIds(hotelIds).collect(toList());
+    }
+
+    @Override
+    public Stream<Hotel> streamHotelInformationByIds(List<UUID> hotelIds) {
+        return hotelIds.stream().distinct().flatMap(hotelId -> partition(hotelId).stream());
+    }
+
+    @Override
+    public CompletableFuture<Hotel> findOneAsync(UUID hotelId) {
+        return completedFuture(findOne(hotelId));
+    }
+
+    @Override
+    public CompletableFuture<List<Hotel>> findHotelInformationByIdsAsync(List<UUID> hotelIds) {
+        return completedFuture(findHotelInformationByIds(hotelIds));
+    }
+
+    @Override
+    protected Hotel fromId(MapId id) {
+        final Hotel hotel = new Hotel();
+        hotel.setId((UUID) id.get("id"));
+        hotel.setName((String) id.get("name"));
+        return hotel;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelInventoryDao;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+
+/**
+ * In-memory {@link HotelInventoryDao}, a counter per hotel.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryHotelInventoryDao implements HotelInventoryDao {
+    private final ConcurrentMap<UUID, LongAdder> rooms = new ConcurrentHashMap<>();
+
+    @Override
+    public long countRooms(UUID hotelId) {
+        final LongAdder counter = rooms.get(hotelId);
+        return null == counter ? 0 : counter.sum();
+    }
+
+    @Override
+    public void addRooms(UUID hotelId, long rooms) {
+        this.rooms.computeIfAbsent(hotelId, hotel -> new LongAdder()).add(rooms);
+    }
+}
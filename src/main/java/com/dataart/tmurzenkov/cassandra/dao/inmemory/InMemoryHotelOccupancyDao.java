@@ -0,0 +1,81 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link HotelOccupancyDao}, the occupancies are partitioned by the hotel id and clustered by the date. The
+ * compare and set is atomic per cell, the TTL is ignored.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryHotelOccupancyDao extends AbstractInMemoryDao<HotelOccupancy, UUID> implements HotelOccupancyDao {
+    /**
+     * Creates the dao partitioned by the hotel id.
+     */
+    public InMemoryHotelOccupancyDao() {
+        super(HotelOccupancy.class, HotelOccupancy::getId, comparing(HotelOccupancy::getDate));
+    }
+
+    @Override
+    public HotelOccupancy findOccupancy(UUID hotelId, LocalDate date) {
+        return findOne(new HotelOccupancy(hotelId, date, null).getCompositeId());
+    }
+
+    @Override
+    public List<HotelOccupancy> findAllForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end) {
+        return new ArrayList<>(slice(hotelId, new HotelOccupancy(hotelId, start, null), new HotelOccupancy(hotelId, end, null)));
+    }
+
+    @Override
+    public SortedMap<LocalDate, Integer> countBookedRooms(UUID hotelId, LocalDate start, LocalDate end) {
+        final SortedMap<LocalDate, Integer> bookedRooms = new TreeMap<>();
+        findAllForHotelIdAndPeriod(hotelId, start, end).forEach(night -> bookedRooms.put(night.getDate(), night.getBooked()));
+        return bookedRooms;
+    }
+
+    @Override
+    public HotelOccupancy compareAndSet(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds) {
+        if (null == expected ? insertIfNotExists(updated) : replace(expected, updated)) {
+            return updated;
+        }
+        return findOne(updated.getCompositeId());
+    }
+
+    @Override
+    public CompletableFuture<HotelOccupancy> findOccupancyAsync(UUID hotelId, LocalDate date) {
+        return completedFuture(findOccupancy(hotelId, date));
+    }
+
+    @Override
+    public CompletableFuture<List<HotelOccupancy>> findAllForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start, LocalDate end) {
+        return completedFuture(findAllForHotelIdAndPeriod(hotelId, start, end));
+    }
+
+    @Override
+    public CompletableFuture<HotelOccupancy> compareAndSetAsync(HotelOccupancy expected, HotelOccupancy updated, int ttlSeconds) {
+        return completedFuture(compareAndSet(expected, updated, ttlSeconds));
+    }
+
+    @Override
+    protected HotelOccupancy fromId(MapId id) {
+        return new HotelOccupancy((UUID) id.get("id"), (LocalDate) id.get("date"), null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.OutboxCheckpointDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.OutboxCheckpoint;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+
+/**
+ * In-memory {@link OutboxCheckpointDao}, one row per relay.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryOutboxCheckpointDao extends AbstractInMemoryDao<OutboxCheckpoint, String> implements OutboxCheckpointDao {
+    /**
+     * Creates the dao partitioned by the relay name.
+     */
+    public InMemoryOutboxCheckpointDao() {
+        super(OutboxCheckpoint.class, OutboxCheckpoint::getRelay, (first, second) -> 0);
+    }
+
+    @Override
+    protected OutboxCheckpoint fromId(MapId id) {
+        final OutboxCheckpoint checkpoint = new OutboxCheckpoint();
+        checkpoint.setRelay((String) id.get("relay"));
+        return checkpoint;
+    }
+}
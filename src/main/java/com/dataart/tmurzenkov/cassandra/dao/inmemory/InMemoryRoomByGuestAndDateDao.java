@@ -0,0 +1,55 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link RoomByGuestAndDateDao}, the rows are partitioned by the guest id and the booking date and clustered
+ * by the hotel id and the room number as the table of hotel.cql is, the descending order of the room number declared
+ * by the entity is not applied by the table.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryRoomByGuestAndDateDao extends AbstractInMemoryDao<RoomByGuestAndDate, List<Object>> implements RoomByGuestAndDateDao {
+    /**
+     * Creates the dao partitioned by the guest id and the booking date.
+     */
+    public InMemoryRoomByGuestAndDateDao() {
+        super(RoomByGuestAndDate.class, room -> asList(room.getId(), room.getBookingDate()),
+                comparing(RoomByGuestAndDate::getHotelId).thenComparing(RoomByGuestAndDate::getRoomNumber));
+    }
+
+    @Override
+    public List<RoomByGuestAndDate> getAllBookedRooms(UUID guestId, LocalDate bookingDate) {
+        return new ArrayList<>(partition(asList(guestId, bookingDate)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(MapId id) {
+        return completedFuture(exists(id));
+    }
+
+    @Override
+    protected RoomByGuestAndDate fromId(MapId id) {
+        final RoomByGuestAndDate room = new RoomByGuestAndDate((UUID) id.get("id"), (LocalDate) id.get("bookingDate"),
+                (Integer) id.get("roomNumber"));
+        room.setHotelId((UUID) id.get("hotelId"));
+        return room;
+    }
+}
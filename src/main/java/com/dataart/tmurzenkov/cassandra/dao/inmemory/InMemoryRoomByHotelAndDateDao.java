@@ -0,0 +1,70 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Integer.MIN_VALUE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link RoomByHotelAndDateDao}, the rows are partitioned by the hotel id and the month and clustered by the
+ * date and the room number, so the rooms of a period within the month are a single slice of the partition. There is no
+ * legacy table to migrate from.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryRoomByHotelAndDateDao extends AbstractInMemoryDao<RoomByHotelAndDate, List<Object>> implements RoomByHotelAndDateDao {
+    /**
+     * Creates the dao partitioned by the hotel id and the month.
+     */
+    public InMemoryRoomByHotelAndDateDao() {
+        super(RoomByHotelAndDate.class, room -> asList(room.getId(), room.getMonth()),
+                comparing(RoomByHotelAndDate::getDate).thenComparing(RoomByHotelAndDate::getRoomNumber));
+    }
+
+    @Override
+    public Set<RoomByHotelAndDate> findAllRoomsForHotelIdAndMonth(UUID hotelId, LocalDate month, LocalDate start, LocalDate end) {
+        return new LinkedHashSet<>(slice(asList(hotelId, month),
+                new RoomByHotelAndDate(hotelId, MIN_VALUE, start),
+                new RoomByHotelAndDate(hotelId, MAX_VALUE, end)));
+    }
+
+    @Override
+    public Set<RoomByHotelAndDate> findAllLegacyRoomsForHotelIdAndPeriod(UUID hotelId, LocalDate start, LocalDate end) {
+        return emptySet();
+    }
+
+    @Override
+    public CompletableFuture<Set<RoomByHotelAndDate>> findAllRoomsForHotelIdAndMonthAsync(UUID hotelId, LocalDate month,
+                                                                                         LocalDate start, LocalDate end) {
+        return completedFuture(findAllRoomsForHotelIdAndMonth(hotelId, month, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Set<RoomByHotelAndDate>> findAllLegacyRoomsForHotelIdAndPeriodAsync(UUID hotelId, LocalDate start,
+                                                                                                LocalDate end) {
+        return completedFuture(findAllLegacyRoomsForHotelIdAndPeriod(hotelId, start, end));
+    }
+
+    @Override
+    protected RoomByHotelAndDate fromId(MapId id) {
+        return new RoomByHotelAndDate((UUID) id.get("id"), (Integer) id.get("roomNumber"), (LocalDate) id.get("date"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.dataart.tmurzenkov.cassandra.dao.inmemory;
+
+import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.Profiles.IN_MEMORY;
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * In-memory {@link RoomDao}, the rows are partitioned by the hotel id and clustered by the room number.
+ *
+ * @author tmurzenkov
+ */
+@Repository
+@Profile(IN_MEMORY)
+public class InMemoryRoomDao extends AbstractInMemoryDao<Room, UUID> implements RoomDao {
+    /**
+     * Creates the dao partitioned by the hotel id.
+     */
+    public InMemoryRoomDao() {
+        super(Room.class, Room::getId, comparing(Room::getRoomNumber));
+    }
+
+    @Override
+    public Set<Room> findAllRoomsByHotelId(UUID hotelId) {
+        return new LinkedHashSet<>(partition(hotelId));
+    }
+
+    @Override
+    public Stream<Room> streamAllRoomsByHotelId(UUID hotelId) {
+        return partition(hotelId).stream();
+    }
+
+    @Override
+    public CompletableFuture<Set<Room>> findAllRoomsByHotelIdAsync(UUID hotelId) {
+        return completedFuture(findAllRoomsByHotelId(hotelId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(MapId id) {
+        return completedFuture(exists(id));
+    }
+
+    @Override
+    protected Room fromId(MapId id) {
+        return new Room((UUID) id.get("id"), (Integer) id.get("roomNumber"));
+    }
+}
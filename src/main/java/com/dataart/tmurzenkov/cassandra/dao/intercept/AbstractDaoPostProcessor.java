@@ -0,0 +1,78 @@
+package com.dataart.tmurzenkov.cassandra.dao.intercept;
+
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Wraps every dao of com.dataart.tmurzenkov.cassandra.dao, the Cassandra repositories as well as the in-memory ones,
+ * so the calls of the methods of its dao interface go through {@link #invoke(String, MethodInvocation)}. The
+ * repositories created by spring data are proxies already, the interceptor is added to them in front of the others.
+ * The post processors are applied in their order, so the interceptor of the later one is in front of the interceptor
+ * of the earlier one.
+ *
+ * @author tmurzenkov
+ */
+public abstract class AbstractDaoPostProcessor implements BeanPostProcessor, Ordered {
+    private static final String DAO_PACKAGE = ConditionalInsertDao.class.getPackage().getName();
+
+    /**
+     * Intercepts the call of the dao method.
+     *
+     * @param dao        simple name of the dao interface
+     * @param invocation {@link MethodInvocation}
+     * @return result of the call
+     * @throws Throwable the failure of the call
+     */
+    protected abstract Object invoke(String dao, MethodInvocation invocation) throws Throwable;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /**
+     * Finds the dao interface of com.dataart.tmurzenkov.cassandra.dao the given class implements.
+     *
+     * @param type class of the bean
+     * @return dao interface, null if the class implements none
+     */
+    public static Class<?> findDaoInterface(Class<?> type) {
+        return ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+                .filter(candidate -> DAO_PACKAGE.equals(candidate.getPackage().getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        final Class<?> daoInterface = findDaoInterface(bean.getClass());
+        if (null == daoInterface) {
+            return bean;
+        }
+        final String dao = daoInterface.getSimpleName();
+        final Set<String> daoMethods = stream(daoInterface.getMethods()).map(Method::getName).collect(toSet());
+        final MethodInterceptor interceptor = invocation -> daoMethods.contains(invocation.getMethod().getName())
+                ? invoke(dao, invocation)
+                : invocation.proceed();
+        if (bean instanceof Advised) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        final ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+}
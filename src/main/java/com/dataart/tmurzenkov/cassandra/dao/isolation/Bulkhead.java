@@ -0,0 +1,69 @@
+package com.dataart.tmurzenkov.cassandra.dao.isolation;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of the concurrent calls of the dao, so a slow table holds at most that many request threads and
+ * the other daos keep theirs. The call above the bound waits for the given time at most and is rejected then.
+ *
+ * @author tmurzenkov
+ */
+public class Bulkhead {
+    private final int maxCalls;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxCalls      number of the concurrent calls
+     * @param maxWaitMillis time the call above the bound waits for, 0 to reject it at once
+     */
+    public Bulkhead(int maxCalls, long maxWaitMillis) {
+        this.maxCalls = maxCalls;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxCalls);
+    }
+
+    /**
+     * Takes the place of the call. Every call let in must be released.
+     *
+     * @return true if let in
+     */
+    public boolean tryAcquire() {
+        boolean acquired = permits.tryAcquire();
+        if (!acquired && maxWaitMillis > 0) {
+            try {
+                acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!acquired) {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    /**
+     * Releases the place of the call.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxCalls() {
+        return maxCalls;
+    }
+
+    public int getInFlight() {
+        return maxCalls - permits.availablePermits();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,126 @@
+package com.dataart.tmurzenkov.cassandra.dao.isolation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops the calls of the dao after the given number of the failures in a row. The open circuit fails the calls at
+ * once for the open time, then lets a single probe call through: the circuit is closed if the probe succeeds and is
+ * opened again if it fails. The probe that fails otherwise than by the data base, e.g. by the validation of the
+ * arguments, still proves the data base answers, so it closes the circuit as well.
+ *
+ * @author tmurzenkov
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private volatile State state = State.CLOSED;
+    private volatile int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * Constructor.
+     *
+     * @param failureThreshold number of the failures in a row opening the circuit
+     * @param openMillis       time the open circuit fails the calls for
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Lets the call through if the circuit is closed or the call is the probe of the half open one. Every call let
+     * through must be followed by {@link #onSuccess()}, {@link #onFailure()} or {@link #onCancel()}.
+     *
+     * @return true if let through
+     */
+    public boolean tryAcquire() {
+        if (State.CLOSED == state) {
+            return true;
+        }
+        synchronized (this) {
+            if (State.OPEN == state && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (State.CLOSED == state || State.HALF_OPEN == state && !probing) {
+                probing = State.HALF_OPEN == state;
+                return true;
+            }
+        }
+        shortCircuited.increment();
+        return false;
+    }
+
+    /**
+     * Records the call that reached the data base.
+     */
+    public void onSuccess() {
+        if (State.CLOSED == state && 0 == failures) {
+            return;
+        }
+        synchronized (this) {
+            failures = 0;
+            if (State.HALF_OPEN == state) {
+                state = State.CLOSED;
+                probing = false;
+            }
+        }
+    }
+
+    /**
+     * Records the call failed by the data base.
+     */
+    public synchronized void onFailure() {
+        failures++;
+        if (State.HALF_OPEN == state || State.CLOSED == state && failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probing = false;
+            opened.increment();
+        }
+    }
+
+    /**
+     * Records the call given up by the caller before the data base answered, which tells nothing of the data base.
+     * The probe given up so lets the next call probe the circuit.
+     */
+    public synchronized void onCancel() {
+        if (State.HALF_OPEN == state) {
+            probing = false;
+        }
+    }
+
+    /**
+     * Returns the seconds left till the probe call.
+     *
+     * @return seconds, at least one
+     */
+    public synchronized long getRetryAfterSeconds() {
+        final long left = State.OPEN == state ? openNanos - (System.nanoTime() - openedAt) : 0;
+        return Math.max(1, (long) Math.ceil((double) left / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    /**
+     * States of the circuit.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,158 @@
+package com.dataart.tmurzenkov.cassandra.dao.isolation;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
+import com.dataart.tmurzenkov.cassandra.model.dto.DaoIsolationStatistics;
+import com.dataart.tmurzenkov.cassandra.model.exception.ServiceOverloadedException;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.unwrap;
+import static com.dataart.tmurzenkov.cassandra.util.StreamUtils.whenComplete;
+import static java.lang.String.format;
+
+/**
+ * Keeps the {@link Bulkhead} and the {@link CircuitBreaker} of every dao and applies them to the dao calls
+ * intercepted by the {@link DaoIsolationPostProcessor}. The timeouts, the unavailable replicas and the lost
+ * connections are the failures of the data base, the other exceptions are the answers of it. The failure after the
+ * deadline of the request passed is the timeout cut down to the deadline, so it is not counted either way, unless the
+ * request was writing, its statements are sent with the whole timeout. The call rejected by the bulkhead or the open
+ * circuit fails with the {@link ServiceOverloadedException} at once. The bounds are configured for all the daos and
+ * can be overridden for one by the property suffixed with the simple name of its interface, e.g.
+ * dao.bulkhead.max.calls.HotelDao=8 . The async call returning the {@link CompletableFuture} holds its place in the
+ * bulkhead and is counted by the circuit once its future completes, the caller's stages run after that. The call
+ * returning the {@link Stream} reads its rows page by page while the stream is consumed, so it holds its place till
+ * the stream is over and is counted by the failure of fetching the rows, if any. The streams of the daos are closed
+ * by their consumers, e.g. the {@link com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter}.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class DaoIsolation {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaoIsolation.class);
+    private static final int DEFAULT_MAX_CALLS = 32;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_OPEN_MILLIS = 5000;
+    private final ConcurrentMap<String, Guard> guards = new ConcurrentHashMap<>();
+    @Autowired(required = false)
+    private Environment environment;
+    @Value("${dao.isolation.enabled:true}")
+    private boolean enabled = true;
+    @Value("${dao.bulkhead.max.calls:32}")
+    private int maxCalls = DEFAULT_MAX_CALLS;
+    @Value("${dao.bulkhead.max.wait.millis:0}")
+    private long maxWaitMillis;
+    @Value("${dao.breaker.failure.threshold:5}")
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    @Value("${dao.breaker.open.millis:5000}")
+    private long openMillis = DEFAULT_OPEN_MILLIS;
+
+    /**
+     * Proceeds with the call if the bulkhead and the circuit of the dao let it through.
+     *
+     * @param dao        simple name of the dao interface
+     * @param invocation {@link MethodInvocation}
+     * @return result of the call
+     * @throws Throwable the failure of the call
+     * @throws ServiceOverloadedException if the call is rejected
+     */
+    public Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        final Guard guard = guards.computeIfAbsent(dao, this::newGuard);
+        if (!guard.bulkhead.tryAcquire()) {
+            throw new ServiceOverloadedException(format("%s has %d calls in progress already", dao, guard.bulkhead.getMaxCalls()), 1);
+        }
+        if (!guard.circuitBreaker.tryAcquire()) {
+            guard.bulkhead.release();
+            throw new ServiceOverloadedException(format("The calls of %s are stopped after its failures", dao),
+                    guard.circuitBreaker.getRetryAfterSeconds());
+        }
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            complete(dao, guard, e);
+            throw e;
+        }
+        if (result instanceof CompletableFuture) {
+            return ((CompletableFuture<?>) result).whenComplete((value, e) -> complete(dao, guard, null == e ? null : unwrap(e)));
+        }
+        if (result instanceof Stream) {
+            return whenComplete((Stream<?>) result, (fetchNanos, e) -> complete(dao, guard, e));
+        }
+        complete(dao, guard, null);
+        return result;
+    }
+
+    /**
+     * Returns the state of the daos called so far.
+     *
+     * @return {@link DaoIsolationStatistics} by the simple name of the dao interface
+     */
+    public Map<String, DaoIsolationStatistics> getStatistics() {
+        final Map<String, DaoIsolationStatistics> statistics = new TreeMap<>();
+        guards.forEach((dao, guard) -> statistics.put(dao, new DaoIsolationStatistics(guard.bulkhead.getMaxCalls(),
+                guard.bulkhead.getInFlight(), guard.bulkhead.getRejected(), guard.circuitBreaker.getState().name(),
+                guard.circuitBreaker.getOpened(), guard.circuitBreaker.getShortCircuited())));
+        return statistics;
+    }
+
+    /**
+     * Records the outcome of the call and gives its place in the bulkhead back.
+     */
+    private static void complete(String dao, Guard guard, Throwable failure) {
+        try {
+            if (!(failure instanceof TransientDataAccessException) && !(failure instanceof DataAccessResourceFailureException)) {
+                guard.circuitBreaker.onSuccess();
+            } else if (RequestDeadline.isExpired() && !RequestDeadline.isWriting()) {
+                guard.circuitBreaker.onCancel();
+            } else {
+                guard.circuitBreaker.onFailure();
+                if (CircuitBreaker.State.OPEN == guard.circuitBreaker.getState()) {
+                    LOGGER.warn("The calls of {} are stopped after '{}'", dao, failure.getMessage());
+                }
+            }
+        } finally {
+            guard.bulkhead.release();
+        }
+    }
+
+    private Guard newGuard(String dao) {
+        return new Guard(new Bulkhead(property("dao.bulkhead.max.calls", dao, Integer.class, maxCalls),
+                property("dao.bulkhead.max.wait.millis", dao, Long.class, maxWaitMillis)),
+                new CircuitBreaker(property("dao.breaker.failure.threshold", dao, Integer.class, failureThreshold),
+                        property("dao.breaker.open.millis", dao, Long.class, openMillis)));
+    }
+
+    private <T> T property(String name, String dao, Class<T> type, T defaultValue) {
+        return null == environment ? defaultValue : environment.getProperty(name + '.' + dao, type, defaultValue);
+    }
+
+    /**
+     * Bulkhead and circuit breaker of the dao.
+     */
+    private static final class Guard {
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker circuitBreaker;
+
+        private Guard(Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+            this.bulkhead = bulkhead;
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+}
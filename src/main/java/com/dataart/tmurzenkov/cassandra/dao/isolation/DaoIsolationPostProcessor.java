@@ -0,0 +1,34 @@
+package com.dataart.tmurzenkov.cassandra.dao.isolation;
+
+import com.dataart.tmurzenkov.cassandra.dao.intercept.AbstractDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.limit.LatencySamplingDaoPostProcessor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every dao of com.dataart.tmurzenkov.cassandra.dao, so its calls go through the {@link DaoIsolation}. The
+ * interceptor goes in front of the latency sampling and the fault injection, so the calls rejected by the bulkhead or
+ * the open circuit are not sampled by the concurrency limit as the fast calls of the dao.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class DaoIsolationPostProcessor extends AbstractDaoPostProcessor {
+    /**
+     * Order of the post processor, after the latency sampling.
+     */
+    public static final int ORDER = LatencySamplingDaoPostProcessor.ORDER + 1;
+    @Autowired
+    private DaoIsolation daoIsolation;
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        return daoIsolation.invoke(dao, invocation);
+    }
+}
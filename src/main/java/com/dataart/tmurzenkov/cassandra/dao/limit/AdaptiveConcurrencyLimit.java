@@ -0,0 +1,145 @@
+package com.dataart.tmurzenkov.cassandra.dao.limit;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.ConcurrencyLimitStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of the requests let in at once, adapted to the latency of the dao calls by additive increase and
+ * multiplicative decrease. A dao call slower than the target latency or failed by a timeout cuts the limit by the
+ * backoff ratio, once per target latency, so a burst of the slow calls of the same congestion counts once. Each call
+ * within the target grows the limit by 1 / limit, i.e. by one per limit calls, as long as at least half of the limit
+ * is used. The requests of the low priority are let in up to the share of the limit only, the rest of it is kept for
+ * the bookings.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class AdaptiveConcurrencyLimit {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimit.class);
+    private static final int DEFAULT_INITIAL_LIMIT = 64;
+    private static final int DEFAULT_MIN_LIMIT = 4;
+    private static final int DEFAULT_MAX_LIMIT = 512;
+    private static final long DEFAULT_TARGET_LATENCY_MILLIS = 100;
+    private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    private static final double DEFAULT_LOW_PRIORITY_SHARE = 0.75;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder shedPriority = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    @Value("${limit.enabled:true}")
+    private boolean enabled = true;
+    @Value("${limit.initial:64}")
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    @Value("${limit.min:4}")
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    @Value("${limit.max:512}")
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    @Value("${limit.target.latency.millis:100}")
+    private long targetLatencyMillis = DEFAULT_TARGET_LATENCY_MILLIS;
+    @Value("${limit.backoff.ratio:0.9}")
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    @Value("${limit.low.priority.share:0.75}")
+    private double lowPriorityShare = DEFAULT_LOW_PRIORITY_SHARE;
+    private volatile double limit = Double.NaN;
+    private long lastDecrease = -TimeUnit.DAYS.toMillis(1);
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Sets the clock the decreases are spaced by.
+     *
+     * @param clock {@link Clock}
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Lets the request in if the limit allows it. Every request let in must be released.
+     *
+     * @param priority whether the request may use the whole limit
+     * @return true if let in
+     */
+    public boolean tryAcquire(boolean priority) {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            admitted.increment();
+            return true;
+        }
+        final int allowed = (int) (priority ? getLimit() : Math.max(1d, getLimit() * lowPriorityShare));
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                (priority ? shedPriority : shed).increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * Releases the request let in.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Adapts the limit to the dao call.
+     *
+     * @param latencyNanos latency of the call
+     * @param timedOut     whether the call failed by the timeout of the data base
+     */
+    public synchronized void onSample(long latencyNanos, boolean timedOut) {
+        final double current = getLimit();
+        final long now = clock.millis();
+        if (timedOut || latencyNanos > TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis)) {
+            if (now - lastDecrease >= targetLatencyMillis) {
+                lastDecrease = now;
+                limit = Math.max(minLimit, current * backoffRatio);
+                decreases.increment();
+                LOGGER.debug("Decreased the concurrency limit to {} after the call of {} ns", limit, latencyNanos);
+            }
+        } else if (inFlight.get() * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1d / current);
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return number of the requests let in at once
+     */
+    public double getLimit() {
+        final double current = limit;
+        if (!Double.isNaN(current)) {
+            return current;
+        }
+        synchronized (this) {
+            if (Double.isNaN(limit)) {
+                limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+            }
+            return limit;
+        }
+    }
+
+    /**
+     * Returns the current limit and the requests let in and shed.
+     *
+     * @return {@link ConcurrencyLimitStatistics}
+     */
+    public ConcurrencyLimitStatistics getStatistics() {
+        return new ConcurrencyLimitStatistics(enabled, (int) getLimit(), inFlight.get(), admitted.sum(), shed.sum(),
+                shedPriority.sum(), decreases.sum());
+    }
+}
@@ -0,0 +1,62 @@
+package com.dataart.tmurzenkov.cassandra.dao.limit;
+
+import com.dataart.tmurzenkov.cassandra.dao.intercept.AbstractDaoPostProcessor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.unwrap;
+import static com.dataart.tmurzenkov.cassandra.util.StreamUtils.whenComplete;
+
+/**
+ * Wraps every dao of com.dataart.tmurzenkov.cassandra.dao, so the latency of its calls drives the
+ * {@link AdaptiveConcurrencyLimit}. Only the methods of the dao interface are timed, a call failed by the read or
+ * write timeout of the cluster counts as slow whatever its latency. The async call is timed till its future completes.
+ * The call returning the {@link Stream} is timed by the call and the fetching of its rows, the time the consumer of
+ * the stream takes between the rows, e.g. writing them to a slow client, is not the latency of the dao.
+ * The interceptor goes in front of the fault injection, so the faults injected by the faults profile are seen as the
+ * latency of the dao.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class LatencySamplingDaoPostProcessor extends AbstractDaoPostProcessor {
+    /**
+     * Order of the post processor, after the fault injection and before the isolation of the daos.
+     */
+    public static final int ORDER = 0;
+    @Autowired
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected Object invoke(String dao, MethodInvocation invocation) throws Throwable {
+        final long start = System.nanoTime();
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            concurrencyLimit.onSample(System.nanoTime() - start, e instanceof QueryTimeoutException);
+            throw e;
+        }
+        if (result instanceof CompletableFuture) {
+            return ((CompletableFuture<?>) result).whenComplete((value, e) ->
+                    concurrencyLimit.onSample(System.nanoTime() - start, unwrap(e) instanceof QueryTimeoutException));
+        }
+        if (result instanceof Stream) {
+            final long callNanos = System.nanoTime() - start;
+            return whenComplete((Stream<?>) result, (fetchNanos, e) ->
+                    concurrencyLimit.onSample(callNanos + fetchNanos, e instanceof QueryTimeoutException));
+        }
+        concurrencyLimit.onSample(System.nanoTime() - start, false);
+        return result;
+    }
+}
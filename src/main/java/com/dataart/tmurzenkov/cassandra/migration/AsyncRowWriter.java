@@ -0,0 +1,218 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cassandra.core.WriteOptions;
+import org.springframework.data.cassandra.convert.CassandraConverter;
+import org.springframework.data.cassandra.convert.CustomConversions;
+import org.springframework.data.cassandra.convert.MappingCassandraConverter;
+import org.springframework.data.cassandra.mapping.BasicCassandraMappingContext;
+import org.springframework.data.cassandra.mapping.SimpleUserTypeResolver;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.emptyList;
+import static org.springframework.data.cassandra.core.CassandraTemplate.createInsertQuery;
+
+/**
+ * Writes the rows of the offline tools into the hotel keyspace. The rows are mapped by the same spring data converter
+ * the daos use and written by asynchronous inserts, at most max in flight of them at a time: the caller is blocked on
+ * the {@link Semaphore} while the cluster is behind, so neither the heap nor the coordinators are flooded. The inserts
+ * are prepared once per distinct query and retried on failure, they are idempotent. The query builder inlines the
+ * numbers, so the tables keyed by the room number get a statement per room number, the statements beyond the first
+ * thousand are sent unprepared.
+ * <p>
+ * The booked room nights are written with the TTL of the {@link BookingRetention}, as the booking service writes them.
+ * The nights already past the retention are skipped.
+ *
+ * @author tmurzenkov
+ */
+public class AsyncRowWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRowWriter.class);
+    private static final int MAX_PREPARED_STATEMENTS = 1000;
+    private final Session session;
+    private final CassandraConverter converter;
+    private final BookingRetention bookingRetention;
+    private final ProtocolVersion protocolVersion;
+    private final CodecRegistry codecRegistry;
+    private final int maxInFlight;
+    private final int retries;
+    private final Semaphore inFlight;
+    private final Map<String, PreparedStatement> preparedStatements = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> writtenRows = new ConcurrentSkipListMap<>();
+    private final LongAdder retriedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder expiredRows = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param session          {@link Session} connected to the hotel keyspace
+     * @param converter        {@link CassandraConverter} mapping the entities
+     * @param bookingRetention {@link BookingRetention} of the application the booked nights expire by
+     * @param maxInFlight      maximum number of the concurrent inserts
+     * @param retries          number of the retries of a failed insert
+     */
+    public AsyncRowWriter(Session session, CassandraConverter converter, BookingRetention bookingRetention, int maxInFlight,
+                          int retries) {
+        this.session = session;
+        this.converter = converter;
+        this.bookingRetention = bookingRetention;
+        this.protocolVersion = session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+        this.codecRegistry = session.getCluster().getConfiguration().getCodecRegistry();
+        this.maxInFlight = maxInFlight;
+        this.retries = retries;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Starts the insert of the row, blocks while max in flight inserts are running.
+     *
+     * @param entity row to write
+     */
+    public void write(BasicEntity entity) {
+        final String table = converter.getMappingContext().getPersistentEntity(entity.getClass()).getTableName().toCql();
+        final int ttlSeconds;
+        try {
+            ttlSeconds = ttlSeconds(entity);
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Skipped the row of {} past the retention: {}", table, e.getMessage());
+            expiredRows.increment();
+            return;
+        }
+        final Statement statement = prepare(createInsertQuery(table, entity, writeOptions(ttlSeconds), converter));
+        statement.setIdempotent(true);
+        inFlight.acquireUninterruptibly();
+        execute(table, statement, retries);
+    }
+
+    /**
+     * Waits for the started inserts to complete.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    /**
+     * Returns the number of the written rows by table.
+     *
+     * @return {@link Map}
+     */
+    public Map<String, Long> getWrittenRows() {
+        final Map<String, Long> rows = new ConcurrentSkipListMap<>();
+        writtenRows.forEach((table, written) -> rows.put(table, written.sum()));
+        return rows;
+    }
+
+    public long getRetriedRows() {
+        return retriedRows.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    public long getExpiredRows() {
+        return expiredRows.sum();
+    }
+
+    private int ttlSeconds(BasicEntity entity) {
+        final LocalDate bookingDate;
+        if (entity instanceof RoomByGuestAndDate) {
+            bookingDate = ((RoomByGuestAndDate) entity).getBookingDate();
+        } else if (entity instanceof RoomByHotelAndDate) {
+            bookingDate = ((RoomByHotelAndDate) entity).getDate();
+        } else {
+            return 0;
+        }
+        return bookingRetention.ttlSecondsIfEnabled(bookingDate);
+    }
+
+    private Statement prepare(Insert insert) {
+        final ByteBuffer[] values = insert.getValues(protocolVersion, codecRegistry);
+        final String query = insert.getQueryString(codecRegistry);
+        if (null == values || !preparedStatements.containsKey(query) && preparedStatements.size() >= MAX_PREPARED_STATEMENTS) {
+            return insert;
+        }
+        final BoundStatement boundStatement = preparedStatements.computeIfAbsent(query, session::prepare).bind();
+        for (int index = 0; index < values.length; index++) {
+            boundStatement.setBytesUnsafe(index, values[index]);
+        }
+        return boundStatement;
+    }
+
+    private static WriteOptions writeOptions(int ttlSeconds) {
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+        final WriteOptions writeOptions = new WriteOptions();
+        writeOptions.setTtl(ttlSeconds);
+        return writeOptions;
+    }
+
+    private void execute(String table, Statement statement, int retriesLeft) {
+        Futures.addCallback(session.executeAsync(statement), new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                writtenRows.computeIfAbsent(table, key -> new LongAdder()).increment();
+                inFlight.release();
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                if (retriesLeft > 0) {
+                    retriedRows.increment();
+                    execute(table, statement, retriesLeft - 1);
+                    return;
+                }
+                LOGGER.warn("Cannot write the row into {}: {}", table, throwable.toString());
+                failedRows.increment();
+                inFlight.release();
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Builds the converter mapping the entities the same way the cassandra configuration of the application does.
+     *
+     * @param cluster  {@link Cluster} resolving the user types
+     * @param keyspace keyspace of the user types
+     * @return {@link CassandraConverter}
+     */
+    public static CassandraConverter converter(Cluster cluster, String keyspace) {
+        final CustomConversions customConversions = new CustomConversions(emptyList());
+        final BasicCassandraMappingContext mappingContext = new BasicCassandraMappingContext();
+        mappingContext.setCustomConversions(customConversions);
+        mappingContext.setSimpleTypeHolder(customConversions.getSimpleTypeHolder());
+        mappingContext.setUserTypeResolver(new SimpleUserTypeResolver(cluster, keyspace));
+        final MappingCassandraConverter converter = new MappingCassandraConverter(mappingContext);
+        converter.setCustomConversions(customConversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.dataart.tmurzenkov.cassandra.util.DateUtils.firstDayOfMonth;
+
+/**
+ * Reads the rooms of the room_by_hotel table and the booked rooms of the room_by_hotel_and_month table hotel by hotel,
+ * as the counters of the hotel_inventory table and the bitmaps of the hotel_occupancy table hold them. The hotels are
+ * the partitions of the room_by_hotel table, a hotel without rooms has no bookings.
+ *
+ * @author tmurzenkov
+ */
+class BookedRoomsReader {
+    private static final String SELECT_HOTELS = "select distinct hotel_id from room_by_hotel";
+    private static final String COUNT_ROOMS = "select count(*) from room_by_hotel where hotel_id = ?";
+    private static final String SELECT_BOOKED_ROOMS = "select date, room_number from room_by_hotel_and_month "
+            + "where hotel_id = ? and month = ? and date >= ? and date <= ?";
+    private final Session session;
+    private final int fetchSize;
+    private final PreparedStatement countRooms;
+    private final PreparedStatement selectBookedRooms;
+
+    /**
+     * Creates the reader.
+     *
+     * @param session   {@link Session} connected to the hotel keyspace
+     * @param fetchSize rows per page of the scans
+     */
+    BookedRoomsReader(Session session, int fetchSize) {
+        this.session = session;
+        this.fetchSize = fetchSize;
+        this.countRooms = session.prepare(COUNT_ROOMS);
+        this.selectBookedRooms = session.prepare(SELECT_BOOKED_ROOMS);
+    }
+
+    /**
+     * Counts the rooms of the hotel.
+     *
+     * @param hotelId {@link UUID}
+     * @return number of the rows of the hotel partition of the room_by_hotel table
+     */
+    long countRooms(UUID hotelId) {
+        return session.execute(countRooms.bind(hotelId)).one().getLong(0);
+    }
+
+    /**
+     * Passes the ids of all the hotels with rooms to the consumer.
+     *
+     * @param consumer of the hotel ids
+     */
+    void forEachHotel(Consumer<UUID> consumer) {
+        for (Row row : session.execute(new SimpleStatement(SELECT_HOTELS).setFetchSize(fetchSize))) {
+            consumer.accept(row.getUUID("hotel_id"));
+        }
+    }
+
+    /**
+     * Reads the booked rooms of the hotel for the date range, both ends inclusive, one month bucket after another.
+     *
+     * @param hotelId {@link UUID}
+     * @param start   {@link LocalDate}
+     * @param end     {@link LocalDate}
+     * @return booked room numbers by the night, the nights with no booked room are missing
+     */
+    SortedMap<LocalDate, BitSet> bookedRooms(UUID hotelId, LocalDate start, LocalDate end) {
+        final SortedMap<LocalDate, BitSet> bookedRooms = new TreeMap<>();
+        for (LocalDate month = firstDayOfMonth(start); !month.isAfter(end); month = month.plusMonths(1)) {
+            final ResultSet rows = session.execute(selectBookedRooms.bind(hotelId, cqlDate(month), cqlDate(start), cqlDate(end))
+                    .setFetchSize(fetchSize));
+            for (Row row : rows) {
+                final LocalDate date = LocalDate.ofEpochDay(row.getDate("date").getDaysSinceEpoch());
+                bookedRooms.computeIfAbsent(date, night -> new BitSet()).set(row.getInt("room_number"));
+            }
+        }
+        return bookedRooms;
+    }
+
+    private static com.datastax.driver.core.LocalDate cqlDate(LocalDate date) {
+        return com.datastax.driver.core.LocalDate.fromDaysSinceEpoch((int) date.toEpochDay());
+    }
+}
@@ -0,0 +1,125 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.cassandra.convert.CassandraConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Archives the bookings about to expire by the TTL of the bookings.retention.days. The bookings of the nights
+ * [today - retention - 1, today - retention - 1 + days ahead) are written as the JSON lines of the
+ * {@link RoomByGuestAndDate} and {@link RoomByHotelAndDate}, so the export is to be run at least every days ahead days,
+ * the expired rows are not read anymore. Both tables are read by one paged scan each and filtered by the night, neither
+ * of them is partitioned by the date alone. Configured by the system properties
+ * <ul>
+ * <li>archive.contactpoints - comma separated contact points, localhost</li>
+ * <li>archive.keyspace - keyspace, hotel</li>
+ * <li>archive.retention.days - retention of the bookings of the application, 365</li>
+ * <li>archive.days.ahead - number of the nights exported, 7</li>
+ * <li>archive.fetch.size - rows per page of the scan, 1000</li>
+ * <li>archive.file - file the rows are written to, bookings-&lt;first night&gt;.json</li>
+ * </ul>
+ * e.g. mvn compile exec:java -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.migration.ExpiringBookingsExport
+ *
+ * @author tmurzenkov
+ */
+public class ExpiringBookingsExport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpiringBookingsExport.class);
+    private static final String SELECT_GUEST_BOOKINGS = "select * from room_booked_by_guest_and_date";
+    private static final String SELECT_HOTEL_BOOKINGS = "select * from room_by_hotel_and_month";
+    private final Session session;
+    private final CassandraConverter converter;
+    private final int fetchSize;
+    private final ObjectWriter objectWriter = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build().writer();
+
+    /**
+     * Creates the export.
+     *
+     * @param session   {@link Session} connected to the hotel keyspace
+     * @param converter {@link CassandraConverter} reading the rows
+     * @param fetchSize rows per page of the scan
+     */
+    public ExpiringBookingsExport(Session session, CassandraConverter converter, int fetchSize) {
+        this.session = session;
+        this.converter = converter;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Runs the export configured by the system properties.
+     *
+     * @param args not used
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        final String keyspace = System.getProperty("archive.keyspace", "hotel");
+        final LocalDate from = LocalDate.now().minusDays(1 + intProperty("archive.retention.days", "365"));
+        final LocalDate to = from.plusDays(intProperty("archive.days.ahead", "7"));
+        try (Cluster cluster = Cluster.builder()
+                .addContactPoints(System.getProperty("archive.contactpoints", "localhost").split(","))
+                .build();
+             Session session = cluster.connect(keyspace);
+             Writer out = Files.newBufferedWriter(Paths.get(System.getProperty("archive.file", "bookings-" + from + ".json")), UTF_8)) {
+            final ExpiringBookingsExport export = new ExpiringBookingsExport(session,
+                    AsyncRowWriter.converter(cluster, keyspace), intProperty("archive.fetch.size", "1000"));
+            LOGGER.info("Exported {} bookings of the nights from {} till {}", export.export(from, to, out), from, to);
+        }
+    }
+
+    /**
+     * Writes the bookings of the nights from the first one inclusive till the last one exclusive.
+     *
+     * @param from first night
+     * @param to   night after the last one
+     * @param out  {@link Writer} of the JSON lines
+     * @return number of the written rows
+     * @throws IOException if the rows cannot be written
+     */
+    public long export(LocalDate from, LocalDate to, Writer out) throws IOException {
+        final BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+        final long rows = export(SELECT_GUEST_BOOKINGS, RoomByGuestAndDate.class, RoomByGuestAndDate::getBookingDate, from, to, writer)
+                + export(SELECT_HOTEL_BOOKINGS, RoomByHotelAndDate.class, RoomByHotelAndDate::getDate, from, to, writer);
+        writer.flush();
+        return rows;
+    }
+
+    private <T> long export(String query, Class<T> type, Function<T, LocalDate> night, LocalDate from, LocalDate to,
+                            BufferedWriter writer) throws IOException {
+        final ResultSet bookings = session.execute(new SimpleStatement(query).setFetchSize(fetchSize));
+        long rows = 0;
+        for (Row row : bookings) {
+            if (bookings.getAvailableWithoutFetching() == fetchSize / 2 && !bookings.isFullyFetched()) {
+                bookings.fetchMoreResults();
+            }
+            final T booking = converter.read(type, row);
+            final LocalDate date = night.apply(booking);
+            if (!date.isBefore(from) && date.isBefore(to)) {
+                writer.write(objectWriter.writeValueAsString(booking));
+                writer.newLine();
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,240 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelInventoryDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.dao.impl.HotelInventoryDaoImpl;
+import com.dataart.tmurzenkov.cassandra.dao.impl.HotelOccupancyDaoImpl;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Compares the room counter of the hotel_inventory table with the rooms of the room_by_hotel table and the occupancy
+ * bitmaps of the hotel_occupancy table with the booking rows of the room_by_hotel_and_month table, night by night of
+ * every hotel. The counter increment is not idempotent, a retried one counts the room twice, so a wrong counter is
+ * fixed by adding the difference with occupancy.repair=true. A booked room missing from the bitmap is an
+ * inconsistency, the room is seen as free by rooms.occupancy.reads=true, and is added by occupancy.repair=true. A room
+ * of the bitmap without the booking row is the state of a booking in progress as well as of a failed one, the bitmap
+ * is updated before the booking rows are written, so occupancy.repair=true removes it only if the booking row is still
+ * missing when the night is read again after the settle time. Configured by the system properties
+ * <ul>
+ * <li>occupancy.contactpoints - comma separated contact points, localhost</li>
+ * <li>occupancy.keyspace - keyspace, hotel</li>
+ * <li>occupancy.retention.days - bookings.retention.days of the application, 365</li>
+ * <li>occupancy.days.ahead - last night checked after today, 365</li>
+ * <li>occupancy.fetch.size - rows per page of the scans, 1000</li>
+ * <li>occupancy.threads - number of the hotels checked in parallel, 16</li>
+ * <li>occupancy.cas.attempts - compare and set attempts of a repair, 16</li>
+ * <li>occupancy.settle.millis - time a booking in progress takes to write its rows, 10000</li>
+ * <li>occupancy.repair - whether the missing rooms are added and the rooms without bookings removed, false</li>
+ * </ul>
+ * The nights checked are those not expired yet, from today - retention till today + days ahead.
+ * e.g. mvn compile exec:java -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.migration.HotelOccupancyCheck
+ *
+ * @author tmurzenkov
+ */
+public class HotelOccupancyCheck {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HotelOccupancyCheck.class);
+    private final BookedRoomsReader bookedRoomsReader;
+    private final HotelOccupancyDao hotelOccupancyDao;
+    private final HotelInventoryDao hotelInventoryDao;
+    private final BookingRetention bookingRetention;
+    private final int casAttempts;
+    private final long settleMillis;
+    private final LongAdder nights = new LongAdder();
+    private final LongAdder missingRooms = new LongAdder();
+    private final LongAdder extraRooms = new LongAdder();
+    private final LongAdder releasedRooms = new LongAdder();
+    private final LongAdder failedNights = new LongAdder();
+    private final LongAdder miscountedHotels = new LongAdder();
+
+    HotelOccupancyCheck(BookedRoomsReader bookedRoomsReader, HotelOccupancyDao hotelOccupancyDao,
+                        HotelInventoryDao hotelInventoryDao, BookingRetention bookingRetention, int casAttempts, long settleMillis) {
+        this.bookedRoomsReader = bookedRoomsReader;
+        this.hotelOccupancyDao = hotelOccupancyDao;
+        this.hotelInventoryDao = hotelInventoryDao;
+        this.bookingRetention = bookingRetention;
+        this.casAttempts = casAttempts;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Runs the check configured by the system properties, exits with 1 if an inconsistency is left.
+     *
+     * @param args not used
+     * @throws InterruptedException if interrupted while waiting for the check
+     */
+    public static void main(String[] args) throws InterruptedException {
+        run(Boolean.getBoolean("occupancy.repair"));
+    }
+
+    /**
+     * Runs the check configured by the system properties, exits with 1 if an inconsistency is left.
+     *
+     * @param repair whether the missing rooms are added and the rooms without bookings removed
+     * @throws InterruptedException if interrupted while waiting for the check
+     */
+    static void run(boolean repair) throws InterruptedException {
+        final String keyspace = System.getProperty("occupancy.keyspace", "hotel");
+        final int retentionDays = intProperty("occupancy.retention.days", "365");
+        final LocalDate from = LocalDate.now().minusDays(Math.max(0, retentionDays));
+        final LocalDate to = LocalDate.now().plusDays(intProperty("occupancy.days.ahead", "365"));
+        final ExecutorService executor = Executors.newFixedThreadPool(intProperty("occupancy.threads", "16"));
+        try (Cluster cluster = Cluster.builder()
+                .addContactPoints(System.getProperty("occupancy.contactpoints", "localhost").split(","))
+                .build();
+             Session session = cluster.connect(keyspace)) {
+            final CassandraTemplate cassandraTemplate = new CassandraTemplate(session, AsyncRowWriter.converter(cluster, keyspace));
+            final HotelOccupancyCheck check = new HotelOccupancyCheck(
+                    new BookedRoomsReader(session, intProperty("occupancy.fetch.size", "1000")),
+                    new HotelOccupancyDaoImpl(cassandraTemplate), new HotelInventoryDaoImpl(cassandraTemplate),
+                    new BookingRetention(retentionDays), intProperty("occupancy.cas.attempts", "16"),
+                    intProperty("occupancy.settle.millis", "10000"));
+            check.bookedRoomsReader.forEachHotel(hotelId -> executor.execute(() -> check.check(hotelId, from, to, repair)));
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            LOGGER.info("Checked {} nights from {} till {}: {} booked rooms missing, {} rooms without bookings, {} nights not repaired",
+                    check.getNights(), from, to, check.getMissingRooms(), check.getExtraRooms(), check.getFailedNights());
+            LOGGER.info("{} rooms without bookings removed, {} hotels had the wrong room counter", check.getReleasedRooms(),
+                    check.getMiscountedHotels());
+            if (check.getFailedNights() > 0 || !repair && check.getMissingRooms() + check.getMiscountedHotels() > 0) {
+                System.exit(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks the nights of the hotel for the date range, both ends inclusive.
+     *
+     * @param hotelId {@link UUID}
+     * @param from    {@link LocalDate}
+     * @param to      {@link LocalDate}
+     * @param repair  whether the missing rooms, the rooms without bookings and the wrong room counter are fixed
+     */
+    void check(UUID hotelId, LocalDate from, LocalDate to, boolean repair) {
+        final SortedMap<LocalDate, BitSet> unbooked = new TreeMap<>();
+        checkRooms(hotelId, repair);
+        final SortedMap<LocalDate, BitSet> booked = bookedRoomsReader.bookedRooms(hotelId, from, to);
+        final Map<LocalDate, BitSet> occupied = hotelOccupancyDao.findAllForHotelIdAndPeriod(hotelId, from, to).stream()
+                .collect(toMap(HotelOccupancy::getDate, HotelOccupancy::getBookedRooms));
+        final TreeSet<LocalDate> dates = new TreeSet<>(booked.keySet());
+        dates.addAll(occupied.keySet());
+        for (LocalDate date : dates) {
+            nights.increment();
+            final BitSet missing = difference(booked.get(date), occupied.get(date));
+            final BitSet extra = difference(occupied.get(date), booked.get(date));
+            missingRooms.add(missing.cardinality());
+            extraRooms.add(extra.cardinality());
+            if (!missing.isEmpty() || !extra.isEmpty()) {
+                LOGGER.warn("Hotel '{}' on {}: booked rooms {} are missing, rooms {} have no bookings", hotelId, date, missing, extra);
+            }
+            if (repair && !missing.isEmpty()) {
+                repair(hotelId, date, missing);
+            }
+            if (repair && !extra.isEmpty()) {
+                unbooked.put(date, extra);
+            }
+        }
+        if (!unbooked.isEmpty()) {
+            releaseUnbooked(hotelId, unbooked);
+        }
+    }
+
+    private void checkRooms(UUID hotelId, boolean repair) {
+        final long rooms = bookedRoomsReader.countRooms(hotelId);
+        final long counted = hotelInventoryDao.countRooms(hotelId);
+        if (rooms != counted) {
+            miscountedHotels.increment();
+            LOGGER.warn("Hotel '{}' has {} rooms, counted {}", hotelId, rooms, counted);
+            if (repair) {
+                hotelInventoryDao.addRooms(hotelId, rooms - counted);
+            }
+        }
+    }
+
+    private void repair(UUID hotelId, LocalDate date, BitSet missing) {
+        try {
+            hotelOccupancyDao.occupy(hotelId, date, missing, bookingRetention.ttlSecondsIfEnabled(date), casAttempts);
+        } catch (RuntimeException e) {
+            failedNights.increment();
+            LOGGER.error("Cannot repair the occupancy of the hotel '{}' on {}", hotelId, date, e);
+        }
+    }
+
+    private void releaseUnbooked(UUID hotelId, SortedMap<LocalDate, BitSet> unbooked) {
+        try {
+            Thread.sleep(settleMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedNights.add(unbooked.size());
+            return;
+        }
+        final SortedMap<LocalDate, BitSet> booked = bookedRoomsReader.bookedRooms(hotelId, unbooked.firstKey(), unbooked.lastKey());
+        unbooked.forEach((date, rooms) -> {
+            final BitSet stillUnbooked = difference(rooms, booked.get(date));
+            if (stillUnbooked.isEmpty()) {
+                return;
+            }
+            try {
+                hotelOccupancyDao.release(hotelId, date, stillUnbooked, bookingRetention.ttlSecondsIfEnabled(date), casAttempts);
+                releasedRooms.add(stillUnbooked.cardinality());
+            } catch (RuntimeException e) {
+                failedNights.increment();
+                LOGGER.error("Cannot remove the rooms without bookings from the occupancy of the hotel '{}' on {}", hotelId, date, e);
+            }
+        });
+    }
+
+    private static BitSet difference(BitSet bitmap, BitSet other) {
+        final BitSet difference = null == bitmap ? new BitSet() : (BitSet) bitmap.clone();
+        if (null != other) {
+            difference.andNot(other);
+        }
+        return difference;
+    }
+
+    long getNights() {
+        return nights.sum();
+    }
+
+    long getMissingRooms() {
+        return missingRooms.sum();
+    }
+
+    long getExtraRooms() {
+        return extraRooms.sum();
+    }
+
+    long getReleasedRooms() {
+        return releasedRooms.sum();
+    }
+
+    long getFailedNights() {
+        return failedNights.sum();
+    }
+
+    long getMiscountedHotels() {
+        return miscountedHotels.sum();
+    }
+}
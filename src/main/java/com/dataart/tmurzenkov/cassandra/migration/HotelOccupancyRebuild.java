@@ -0,0 +1,30 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+/**
+ * Builds the room counters of the hotel_inventory table from the room_by_hotel table and the occupancy bitmaps of the
+ * hotel_occupancy table from the booking rows of the room_by_hotel_and_month table. The upgrade goes as follows:
+ * <ol>
+ * <li>complete the {@link RoomByHotelAndDateMigration} if it is not done yet;</li>
+ * <li>create the hotel_inventory and hotel_occupancy tables of the hotel.cql;</li>
+ * <li>deploy the application with rooms.occupancy.reads=false, it counts the new rooms and marks the new bookings in
+ * the bitmaps;</li>
+ * <li>run the rebuild, the booked rooms are added to the bitmaps by the compare and set, so the concurrent bookings
+ * are not overwritten and it can be run again after a failure;</li>
+ * <li>run the {@link HotelOccupancyCheck} and set rooms.occupancy.reads=true.</li>
+ * </ol>
+ * It is the {@link HotelOccupancyCheck} with occupancy.repair=true, configured by the same system properties.
+ * e.g. mvn compile exec:java -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.migration.HotelOccupancyRebuild
+ *
+ * @author tmurzenkov
+ */
+public class HotelOccupancyRebuild {
+    /**
+     * Runs the rebuild configured by the system properties.
+     *
+     * @param args not used
+     * @throws InterruptedException if interrupted while waiting for the rebuild
+     */
+    public static void main(String[] args) throws InterruptedException {
+        HotelOccupancyCheck.run(true);
+    }
+}
@@ -0,0 +1,93 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+
+/**
+ * Copies the booked rooms of the room_by_hotel_and_date table, partitioned by the hotel only, into the month buckets
+ * of the room_by_hotel_and_month table. The upgrade goes as follows:
+ * <ol>
+ * <li>create the room_by_hotel_and_month table of the hotel.cql;</li>
+ * <li>deploy the application with rooms.legacy.reads=true, it books into the month buckets and reads both tables;</li>
+ * <li>run the migration, the rows are upserted, so it can be run again after a failure;</li>
+ * <li>set rooms.legacy.reads=false and drop the room_by_hotel_and_date table.</li>
+ * </ol>
+ * The old table is read by one paged scan, the next page is fetched while the current one is written by the
+ * {@link AsyncRowWriter} with bounded parallelism and the TTL of the retention. Configured by the system properties
+ * <ul>
+ * <li>migration.contactpoints - comma separated contact points, localhost</li>
+ * <li>migration.keyspace - keyspace, hotel</li>
+ * <li>migration.fetch.size - rows per page of the scan, 1000</li>
+ * <li>migration.max.in.flight - maximum number of the concurrent inserts, 256</li>
+ * <li>migration.retries - number of the retries of a failed insert, 3</li>
+ * <li>migration.retention.days - bookings.retention.days of the application, 365</li>
+ * </ul>
+ * e.g. mvn compile exec:java -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.migration.RoomByHotelAndDateMigration
+ *
+ * @author tmurzenkov
+ */
+public class RoomByHotelAndDateMigration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoomByHotelAndDateMigration.class);
+    private static final String SELECT_LEGACY_ROOMS = "select hotel_id, date, room_number from room_by_hotel_and_date";
+
+    /**
+     * Runs the migration configured by the system properties.
+     *
+     * @param args not used
+     * @throws InterruptedException if interrupted while waiting for the inserts
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final String keyspace = System.getProperty("migration.keyspace", "hotel");
+        try (Cluster cluster = Cluster.builder()
+                .addContactPoints(System.getProperty("migration.contactpoints", "localhost").split(","))
+                .build();
+             Session session = cluster.connect(keyspace)) {
+            final AsyncRowWriter writer = new AsyncRowWriter(session, AsyncRowWriter.converter(cluster, keyspace),
+                    new BookingRetention(intProperty("migration.retention.days", "365")),
+                    intProperty("migration.max.in.flight", "256"), intProperty("migration.retries", "3"));
+            final long rows = migrate(session, writer, intProperty("migration.fetch.size", "1000"));
+            LOGGER.info("Copied {} of {} rows into the month buckets, {} failed, {} past the retention skipped",
+                    rows - writer.getFailedRows() - writer.getExpiredRows(), rows, writer.getFailedRows(), writer.getExpiredRows());
+            if (writer.getFailedRows() > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Copies the rows of the legacy table into the month buckets and waits for the inserts to complete.
+     *
+     * @param session   {@link Session} connected to the hotel keyspace
+     * @param writer    {@link AsyncRowWriter} writing the rows
+     * @param fetchSize rows per page of the scan
+     * @return number of the read rows
+     * @throws InterruptedException if interrupted while waiting for the inserts
+     */
+    public static long migrate(Session session, AsyncRowWriter writer, int fetchSize) throws InterruptedException {
+        final ResultSet legacyRooms = session.execute(new SimpleStatement(SELECT_LEGACY_ROOMS).setFetchSize(fetchSize));
+        long rows = 0;
+        for (Row row : legacyRooms) {
+            if (legacyRooms.getAvailableWithoutFetching() == fetchSize / 2 && !legacyRooms.isFullyFetched()) {
+                legacyRooms.fetchMoreResults();
+            }
+            final LocalDate date = LocalDate.ofEpochDay(row.getDate("date").getDaysSinceEpoch());
+            writer.write(new RoomByHotelAndDate(row.getUUID("hotel_id"), row.getInt("room_number"), date));
+            if (++rows % fetchSize == 0) {
+                LOGGER.info("Read {} rows", rows);
+            }
+        }
+        writer.awaitCompletion();
+        return rows;
+    }
+}
@@ -0,0 +1,53 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Time the creation of the bean took at the startup.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "BeanStartup", description = "The time the creation of the bean took at the startup.")
+public class BeanStartup {
+    @ApiModelProperty(value = "Name of the bean. ")
+    private final String name;
+    @ApiModelProperty(value = "Milliseconds the creation of the bean took with the creation of its dependencies. ")
+    private final long millis;
+    @ApiModelProperty(value = "Milliseconds the creation of the bean itself took. ")
+    private final long selfMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param name       name of the bean
+     * @param millis     milliseconds with the dependencies
+     * @param selfMillis milliseconds of the bean itself
+     */
+    public BeanStartup(String name, long millis, long selfMillis) {
+        this.name = name;
+        this.millis = millis;
+        this.selfMillis = selfMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getSelfMillis() {
+        return selfMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanStartup{"
+                + "name='" + name + '\''
+                + ", millis=" + millis
+                + ", selfMillis=" + selfMillis
+                + '}';
+    }
+}
@@ -0,0 +1,72 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Hit/miss statistics of the in-memory cache.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "CacheStatistics", description = "The cache hit/miss statistics.")
+public class CacheStatistics {
+    @ApiModelProperty(value = "Number of lookups served from the cache. ")
+    private final long hits;
+    @ApiModelProperty(value = "Number of lookups that went to the data base. ")
+    private final long misses;
+    @ApiModelProperty(value = "Number of entries removed to keep the cache within its size limit. ")
+    private final long evictions;
+    @ApiModelProperty(value = "Number of entries currently held by the cache. ")
+    private final int size;
+
+    /**
+     * Constructor.
+     *
+     * @param hits      number of hits
+     * @param misses    number of misses
+     * @param evictions number of evictions
+     * @param size      current number of entries
+     */
+    public CacheStatistics(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Share of the lookups served from the cache.
+     *
+     * @return hit rate in range [0, 1], zero if there were no lookups yet
+     */
+    public double getHitRate() {
+        final long lookups = hits + misses;
+        return 0 == lookups ? 0d : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{"
+                + "hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + ", size=" + size
+                + '}';
+    }
+}
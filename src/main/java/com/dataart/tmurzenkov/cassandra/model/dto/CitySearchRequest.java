@@ -0,0 +1,86 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+import static com.dataart.tmurzenkov.cassandra.util.DateUtils.format;
+import static java.lang.String.format;
+
+/**
+ * Search request to rank the hotels of the city by the rooms free between the start and end dates.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "CitySearchRequest", description = "The city search request object.")
+public class CitySearchRequest {
+    @NotNull(message = "The city must not be null. ")
+    @ApiModelProperty(value = "The city name. ", required = true)
+    private final String city;
+    @NotNull(message = "The starting date cannot be null")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @ApiModelProperty(value = "The starting date to look from. ", required = true, dataType = "Date in format 'yyyy-MM-dd'. ")
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    @JsonSerialize(using = LocalDateSerializer.class)
+    private final LocalDate start;
+    @NotNull(message = "The ending date cannot be null")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @ApiModelProperty(value = "The ending date to look to. ", required = true, dataType = "Date in format 'yyyy-MM-dd'. ")
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    @JsonSerialize(using = LocalDateSerializer.class)
+    private final LocalDate end;
+
+    /**
+     * Default no arg constructor. All fields will be set to null.
+     */
+    public CitySearchRequest() {
+        this.city = null;
+        this.start = null;
+        this.end = null;
+    }
+
+    /**
+     * Build search request. Throw the {@link IllegalArgumentException} if start date is not before end date.
+     *
+     * @param city  {@link String} city name
+     * @param start {@link LocalDate}
+     * @param end   {@link LocalDate}
+     */
+    public CitySearchRequest(String city, LocalDate start, LocalDate end) {
+        if (!start.isBefore(end)) {
+            final String message = format("Start date '%s' must go before end date '%s'", format(start), format(end));
+            throw new IllegalArgumentException(message);
+        }
+        this.city = city;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "CitySearchRequest{"
+                + "city='" + city + '\''
+                + ", start=" + start
+                + ", end=" + end
+                + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * State of the adaptive concurrency limit and the numbers of the requests it let in and shed.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "ConcurrencyLimitStatistics", description = "The adaptive concurrency limit statistics.")
+public class ConcurrencyLimitStatistics {
+    @ApiModelProperty(value = "Whether the requests are shed once the limit is reached. ")
+    private final boolean enabled;
+    @ApiModelProperty(value = "Number of the requests let in at once. ")
+    private final int limit;
+    @ApiModelProperty(value = "Number of the requests in progress. ")
+    private final int inFlight;
+    @ApiModelProperty(value = "Number of the requests let in. ")
+    private final long admitted;
+    @ApiModelProperty(value = "Number of the low priority requests shed. ")
+    private final long shed;
+    @ApiModelProperty(value = "Number of the bookings shed. ")
+    private final long shedPriority;
+    @ApiModelProperty(value = "Number of the times the limit was decreased by the slow dao calls. ")
+    private final long decreases;
+
+    /**
+     * Constructor.
+     *
+     * @param enabled      whether the requests are shed
+     * @param limit        current limit
+     * @param inFlight     requests in progress
+     * @param admitted     requests let in
+     * @param shed         low priority requests shed
+     * @param shedPriority bookings shed
+     * @param decreases    decreases of the limit
+     */
+    public ConcurrencyLimitStatistics(boolean enabled, int limit, int inFlight, long admitted, long shed, long shedPriority,
+                                      long decreases) {
+        this.enabled = enabled;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.admitted = admitted;
+        this.shed = shed;
+        this.shedPriority = shedPriority;
+        this.decreases = decreases;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public long getShed() {
+        return shed;
+    }
+
+    public long getShedPriority() {
+        return shedPriority;
+    }
+
+    public long getDecreases() {
+        return decreases;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitStatistics{"
+                + "enabled=" + enabled
+                + ", limit=" + limit
+                + ", inFlight=" + inFlight
+                + ", admitted=" + admitted
+                + ", shed=" + shed
+                + ", shedPriority=" + shedPriority
+                + ", decreases=" + decreases
+                + '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * State of the bulkhead and the circuit breaker of the dao.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "DaoIsolationStatistics", description = "The bulkhead and circuit breaker statistics of the dao.")
+public class DaoIsolationStatistics {
+    @ApiModelProperty(value = "Number of the concurrent calls the bulkhead lets in. ")
+    private final int maxCalls;
+    @ApiModelProperty(value = "Number of the calls in progress. ")
+    private final int inFlight;
+    @ApiModelProperty(value = "Number of the calls rejected by the full bulkhead. ")
+    private final long rejected;
+    @ApiModelProperty(value = "State of the circuit: CLOSED, OPEN or HALF_OPEN. ")
+    private final String state;
+    @ApiModelProperty(value = "Number of the times the circuit was opened. ")
+    private final long opened;
+    @ApiModelProperty(value = "Number of the calls failed at once by the open circuit. ")
+    private final long shortCircuited;
+
+    /**
+     * Constructor.
+     *
+     * @param maxCalls       concurrent calls let in
+     * @param inFlight       calls in progress
+     * @param rejected       calls rejected by the bulkhead
+     * @param state          state of the circuit
+     * @param opened         times the circuit was opened
+     * @param shortCircuited calls failed by the open circuit
+     */
+    public DaoIsolationStatistics(int maxCalls, int inFlight, long rejected, String state, long opened, long shortCircuited) {
+        this.maxCalls = maxCalls;
+        this.inFlight = inFlight;
+        this.rejected = rejected;
+        this.state = state;
+        this.opened = opened;
+        this.shortCircuited = shortCircuited;
+    }
+
+    public int getMaxCalls() {
+        return maxCalls;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getOpened() {
+        return opened;
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited;
+    }
+
+    @Override
+    public String toString() {
+        return "DaoIsolationStatistics{"
+                + "maxCalls=" + maxCalls
+                + ", inFlight=" + inFlight
+                + ", rejected=" + rejected
+                + ", state=" + state
+                + ", opened=" + opened
+                + ", shortCircuited=" + shortCircuited
+                + '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import java.util.Map;
+
+/**
+ * Numbers of the requests with the deadline and of the work abandoned as the deadline passed.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "DeadlineStatistics", description = "The request deadline statistics.")
+public class DeadlineStatistics {
+    @ApiModelProperty(value = "Number of the requests handled with the deadline. ")
+    private final long requests;
+    @ApiModelProperty(value = "Number of the requests rejected as their deadline passed before they came. ")
+    private final long expiredOnArrival;
+    @ApiModelProperty(value = "Number of the requests completed after their deadline. ")
+    private final long completedLate;
+    @ApiModelProperty(value = "Number of the statements not sent to the data base as the deadline passed. ")
+    private final long abandonedStatements;
+    @ApiModelProperty(value = "Number of the dao calls not started as the deadline passed, by the dao name. ")
+    private final Map<String, Long> abandonedCalls;
+    @ApiModelProperty(value = "Number of the dao calls failed after the deadline passed during them, by the dao name. ")
+    private final Map<String, Long> timedOutCalls;
+
+    /**
+     * Constructor.
+     *
+     * @param requests            requests with the deadline
+     * @param expiredOnArrival    requests rejected on arrival
+     * @param completedLate       requests completed after the deadline
+     * @param abandonedStatements statements not sent
+     * @param abandonedCalls      dao calls not started by the dao name
+     * @param timedOutCalls       dao calls failed after the deadline by the dao name
+     */
+    public DeadlineStatistics(long requests, long expiredOnArrival, long completedLate, long abandonedStatements,
+                              Map<String, Long> abandonedCalls, Map<String, Long> timedOutCalls) {
+        this.requests = requests;
+        this.expiredOnArrival = expiredOnArrival;
+        this.completedLate = completedLate;
+        this.abandonedStatements = abandonedStatements;
+        this.abandonedCalls = abandonedCalls;
+        this.timedOutCalls = timedOutCalls;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getExpiredOnArrival() {
+        return expiredOnArrival;
+    }
+
+    public long getCompletedLate() {
+        return completedLate;
+    }
+
+    public long getAbandonedStatements() {
+        return abandonedStatements;
+    }
+
+    public Map<String, Long> getAbandonedCalls() {
+        return abandonedCalls;
+    }
+
+    public Map<String, Long> getTimedOutCalls() {
+        return timedOutCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadlineStatistics{"
+                + "requests=" + requests
+                + ", expiredOnArrival=" + expiredOnArrival
+                + ", completedLate=" + completedLate
+                + ", abandonedStatements=" + abandonedStatements
+                + ", abandonedCalls=" + abandonedCalls
+                + ", timedOutCalls=" + timedOutCalls
+                + '}';
+    }
+}
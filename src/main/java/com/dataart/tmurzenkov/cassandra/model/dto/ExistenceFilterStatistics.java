@@ -0,0 +1,71 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Lookup statistics of the existence filter.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "ExistenceFilterStatistics", description = "The existence filter lookup statistics.")
+public class ExistenceFilterStatistics {
+    @ApiModelProperty(value = "Number of existence checks. ")
+    private final long lookups;
+    @ApiModelProperty(value = "Number of checks answered as definitely absent by the filter. ")
+    private final long shortCircuited;
+    @ApiModelProperty(value = "Number of keys put after the records were inserted. ")
+    private final long insertions;
+    @ApiModelProperty(value = "Whether the filter is built from the data base. ")
+    private final boolean ready;
+
+    /**
+     * Constructor.
+     *
+     * @param lookups        number of checks
+     * @param shortCircuited number of checks answered without the data base
+     * @param insertions     number of put keys
+     * @param ready          whether the filter is built
+     */
+    public ExistenceFilterStatistics(long lookups, long shortCircuited, long insertions, boolean ready) {
+        this.lookups = lookups;
+        this.shortCircuited = shortCircuited;
+        this.insertions = insertions;
+        this.ready = ready;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited;
+    }
+
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Share of the checks answered as definitely absent.
+     *
+     * @return rate in range [0, 1], zero if there were no checks yet
+     */
+    public double getShortCircuitRate() {
+        return 0 == lookups ? 0d : (double) shortCircuited / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "ExistenceFilterStatistics{"
+                + "lookups=" + lookups
+                + ", shortCircuited=" + shortCircuited
+                + ", insertions=" + insertions
+                + ", ready=" + ready
+                + '}';
+    }
+}
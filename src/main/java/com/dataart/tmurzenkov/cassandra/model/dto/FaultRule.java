@@ -0,0 +1,152 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Describes the latency and the failures injected into the calls of a dao method. Every call draws its latency
+ * uniformly from the [min, max] range, or takes the slow latency with the slow probability, and fails with the
+ * timeout or the unavailable probability.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "FaultRule", description = "The latency and the failures injected into the dao calls.")
+public class FaultRule {
+    /**
+     * Matches every dao or every method of the dao.
+     */
+    public static final String ANY = "*";
+
+    @NotNull(message = "The dao must not be null. ")
+    @ApiModelProperty(value = "Simple name of the dao interface, e.g. HotelDao, or * for all daos", required = true)
+    private String dao;
+    @ApiModelProperty(value = "Name of the dao method, e.g. findOne, all methods of the dao if omitted")
+    private String method = ANY;
+    @Min(message = "The min latency must not be negative. ", value = 0)
+    @ApiModelProperty(value = "Lowest latency added to a call in milliseconds")
+    private long minLatencyMillis;
+    @Min(message = "The max latency must not be negative. ", value = 0)
+    @ApiModelProperty(value = "Highest latency added to a call in milliseconds")
+    private long maxLatencyMillis;
+    @DecimalMin(message = "The slow probability must be in range [0, 1]. ", value = "0")
+    @DecimalMax(message = "The slow probability must be in range [0, 1]. ", value = "1")
+    @ApiModelProperty(value = "Probability of a call to take the slow latency instead")
+    private double slowProbability;
+    @Min(message = "The slow latency must not be negative. ", value = 0)
+    @ApiModelProperty(value = "Latency of a slow call in milliseconds")
+    private long slowLatencyMillis;
+    @DecimalMin(message = "The timeout probability must be in range [0, 1]. ", value = "0")
+    @DecimalMax(message = "The timeout probability must be in range [0, 1]. ", value = "1")
+    @ApiModelProperty(value = "Probability of a call to fail with the read or write timeout")
+    private double timeoutProbability;
+    @Min(message = "The timeout must not be negative. ", value = 0)
+    @ApiModelProperty(value = "Time a call blocks before it fails with the timeout in milliseconds")
+    private long timeoutMillis;
+    @DecimalMin(message = "The unavailable probability must be in range [0, 1]. ", value = "0")
+    @DecimalMax(message = "The unavailable probability must be in range [0, 1]. ", value = "1")
+    @ApiModelProperty(value = "Probability of a call to fail at once because not enough replicas are alive")
+    private double unavailableProbability;
+    @ApiModelProperty(value = "Seed of the random draws to repeat the same sequence of faults, random if omitted")
+    private Long seed;
+
+    public String getDao() {
+        return dao;
+    }
+
+    public void setDao(String dao) {
+        this.dao = dao;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getMinLatencyMillis() {
+        return minLatencyMillis;
+    }
+
+    public void setMinLatencyMillis(long minLatencyMillis) {
+        this.minLatencyMillis = minLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public void setMaxLatencyMillis(long maxLatencyMillis) {
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public double getSlowProbability() {
+        return slowProbability;
+    }
+
+    public void setSlowProbability(double slowProbability) {
+        this.slowProbability = slowProbability;
+    }
+
+    public long getSlowLatencyMillis() {
+        return slowLatencyMillis;
+    }
+
+    public void setSlowLatencyMillis(long slowLatencyMillis) {
+        this.slowLatencyMillis = slowLatencyMillis;
+    }
+
+    public double getTimeoutProbability() {
+        return timeoutProbability;
+    }
+
+    public void setTimeoutProbability(double timeoutProbability) {
+        this.timeoutProbability = timeoutProbability;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public double getUnavailableProbability() {
+        return unavailableProbability;
+    }
+
+    public void setUnavailableProbability(double unavailableProbability) {
+        this.unavailableProbability = unavailableProbability;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "FaultRule{"
+                + "dao='" + dao + '\''
+                + ", method='" + method + '\''
+                + ", minLatencyMillis=" + minLatencyMillis
+                + ", maxLatencyMillis=" + maxLatencyMillis
+                + ", slowProbability=" + slowProbability
+                + ", slowLatencyMillis=" + slowLatencyMillis
+                + ", timeoutProbability=" + timeoutProbability
+                + ", timeoutMillis=" + timeoutMillis
+                + ", unavailableProbability=" + unavailableProbability
+                + ", seed=" + seed
+                + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Number of the rooms of the hotel free for every night of the period.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "HotelAvailability", description = "The number of the rooms free for the whole period.")
+public class HotelAvailability {
+    @ApiModelProperty(value = "The UUID representation of the hotel id. ")
+    private final UUID hotelId;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @ApiModelProperty(value = "The first night of the period. ", dataType = "Date in format 'yyyy-MM-dd'. ")
+    private final LocalDate start;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @ApiModelProperty(value = "The last night of the period. ", dataType = "Date in format 'yyyy-MM-dd'. ")
+    private final LocalDate end;
+    @ApiModelProperty(value = "Number of the rooms of the hotel. ")
+    private final long rooms;
+    @ApiModelProperty(value = "Number of the rooms free for every night of the period. ")
+    private final long freeRooms;
+
+    /**
+     * Constructor.
+     *
+     * @param hotelId   {@link UUID}
+     * @param start     first night, {@link LocalDate}
+     * @param end       last night, {@link LocalDate}
+     * @param rooms     number of the rooms of the hotel
+     * @param freeRooms number of the rooms free for every night
+     */
+    public HotelAvailability(UUID hotelId, LocalDate start, LocalDate end, long rooms, long freeRooms) {
+        this.hotelId = hotelId;
+        this.start = start;
+        this.end = end;
+        this.rooms = rooms;
+        this.freeRooms = Math.max(0, freeRooms);
+    }
+
+    public UUID getHotelId() {
+        return hotelId;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public long getRooms() {
+        return rooms;
+    }
+
+    public long getFreeRooms() {
+        return freeRooms;
+    }
+
+    /**
+     * Whether no room is free for the whole period.
+     *
+     * @return true if sold out
+     */
+    public boolean isSoldOut() {
+        return 0 == freeRooms;
+    }
+
+    @Override
+    public String toString() {
+        return "HotelAvailability{"
+                + "hotelId=" + hotelId
+                + ", start=" + start
+                + ", end=" + end
+                + ", rooms=" + rooms
+                + ", freeRooms=" + freeRooms
+                + '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Hotel found by the proximity search with its distance from the point of the search.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "NearbyHotel", description = "The hotel near the point of the search.")
+public class NearbyHotel {
+    @ApiModelProperty(value = "The hotel. ")
+    private final Hotel hotel;
+    @ApiModelProperty(value = "The great circle distance from the point of the search in kilometers. ")
+    private final double distanceKm;
+
+    /**
+     * Constructor.
+     *
+     * @param hotel      {@link Hotel}
+     * @param distanceKm distance from the point of the search in kilometers
+     */
+    public NearbyHotel(Hotel hotel, double distanceKm) {
+        this.hotel = hotel;
+        this.distanceKm = distanceKm;
+    }
+
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    @Override
+    public String toString() {
+        return "NearbyHotel{"
+                + "hotel=" + hotel
+                + ", distanceKm=" + distanceKm
+                + '}';
+    }
+}
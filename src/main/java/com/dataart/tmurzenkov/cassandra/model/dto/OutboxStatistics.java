@@ -0,0 +1,81 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Delivery statistics of the outbox relay.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "OutboxStatistics", description = "The outbox relay delivery statistics.")
+public class OutboxStatistics {
+    @ApiModelProperty(value = "Whether the relay runs on this instance. ")
+    private final boolean running;
+    @ApiModelProperty(value = "Number of events published since the start, the republished ones included. ")
+    private final long published;
+    @ApiModelProperty(value = "Number of batches published since the start. ")
+    private final long batches;
+    @ApiModelProperty(value = "Number of polls failed to read, publish or checkpoint the events. ")
+    private final long failures;
+    @ApiModelProperty(value = "Mean number of events published per second since the start. ")
+    private final double publishedPerSecond;
+    @ApiModelProperty(value = "Milliseconds since the creation time every event created before is published by, -1 if none. ")
+    private final long lagMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param running            whether the relay runs
+     * @param published          number of published events
+     * @param batches            number of published batches
+     * @param failures           number of failed polls
+     * @param publishedPerSecond mean number of events published per second
+     * @param lagMillis          age of the newest creation time every event created before is published by
+     */
+    public OutboxStatistics(boolean running, long published, long batches, long failures, double publishedPerSecond,
+                            long lagMillis) {
+        this.running = running;
+        this.published = published;
+        this.batches = batches;
+        this.failures = failures;
+        this.publishedPerSecond = publishedPerSecond;
+        this.lagMillis = lagMillis;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getPublishedPerSecond() {
+        return publishedPerSecond;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxStatistics{"
+                + "running=" + running
+                + ", published=" + published
+                + ", batches=" + batches
+                + ", failures=" + failures
+                + ", publishedPerSecond=" + publishedPerSecond
+                + ", lagMillis=" + lagMillis
+                + '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Search request to find the hotels nearest to the point.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "ProximitySearchRequest", description = "The proximity search request object.")
+public class ProximitySearchRequest {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    @NotNull(message = "The latitude must not be null. ")
+    @DecimalMin(value = "-90", message = "The latitude must not be less than -90. ")
+    @DecimalMax(value = "90", message = "The latitude must not be greater than 90. ")
+    @ApiModelProperty(value = "The latitude of the point in degrees. ", required = true)
+    private final Double latitude;
+    @NotNull(message = "The longitude must not be null. ")
+    @DecimalMin(value = "-180", message = "The longitude must not be less than -180. ")
+    @DecimalMax(value = "180", message = "The longitude must not be greater than 180. ")
+    @ApiModelProperty(value = "The longitude of the point in degrees. ", required = true)
+    private final Double longitude;
+    @Min(value = 1, message = "The limit must be positive. ")
+    @Max(value = MAX_LIMIT, message = "The limit must not be greater than 100. ")
+    @ApiModelProperty(value = "The number of the nearest hotels to find, 10 by default. ")
+    private final int limit;
+
+    /**
+     * Default no arg constructor. The coordinates will be set to null.
+     */
+    public ProximitySearchRequest() {
+        this.latitude = null;
+        this.longitude = null;
+        this.limit = DEFAULT_LIMIT;
+    }
+
+    /**
+     * Build search request.
+     *
+     * @param latitude  latitude in degrees
+     * @param longitude longitude in degrees
+     * @param limit     number of the nearest hotels to find
+     */
+    public ProximitySearchRequest(Double latitude, Double longitude, int limit) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.limit = limit;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "ProximitySearchRequest{"
+                + "latitude=" + latitude
+                + ", longitude=" + longitude
+                + ", limit=" + limit
+                + '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time the refresh of the context took by its phases and the beans slowest to create.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "StartupReport", description = "The time the startup of the context took.")
+public class StartupReport {
+    @ApiModelProperty(value = "Milliseconds the refresh of the context took. ")
+    private final long refreshMillis;
+    @ApiModelProperty(value = "Milliseconds by the phase of the startup, in the order the phases begun. ")
+    private final Map<String, Long> phases;
+    @ApiModelProperty(value = "Number of the beans created so far. ")
+    private final int beansCreated;
+    @ApiModelProperty(value = "Beans slowest to create. ")
+    private final List<BeanStartup> slowestBeans;
+
+    /**
+     * Constructor.
+     *
+     * @param refreshMillis milliseconds of the refresh
+     * @param phases        milliseconds by the phase
+     * @param beansCreated  number of the beans created
+     * @param slowestBeans  list of {@link BeanStartup}
+     */
+    public StartupReport(long refreshMillis, Map<String, Long> phases, int beansCreated, List<BeanStartup> slowestBeans) {
+        this.refreshMillis = refreshMillis;
+        this.phases = phases;
+        this.beansCreated = beansCreated;
+        this.slowestBeans = slowestBeans;
+    }
+
+    public long getRefreshMillis() {
+        return refreshMillis;
+    }
+
+    public Map<String, Long> getPhases() {
+        return phases;
+    }
+
+    public int getBeansCreated() {
+        return beansCreated;
+    }
+
+    public List<BeanStartup> getSlowestBeans() {
+        return slowestBeans;
+    }
+
+    @Override
+    public String toString() {
+        return "StartupReport{"
+                + "refreshMillis=" + refreshMillis
+                + ", phases=" + phases
+                + ", beansCreated=" + beansCreated
+                + ", slowestBeans=" + slowestBeans
+                + '}';
+    }
+}
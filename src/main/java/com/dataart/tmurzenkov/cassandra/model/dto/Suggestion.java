@@ -0,0 +1,104 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import java.util.UUID;
+
+/**
+ * City or hotel the typed prefix is completed to.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "Suggestion", description = "The city or the hotel the typed prefix is completed to.")
+public class Suggestion {
+    /**
+     * Type of the suggested city.
+     */
+    public static final String CITY = "city";
+    /**
+     * Type of the suggested hotel.
+     */
+    public static final String HOTEL = "hotel";
+    @ApiModelProperty(value = "The type of the suggestion, city or hotel. ")
+    private final String type;
+    @ApiModelProperty(value = "The name of the city or the hotel. ")
+    private final String name;
+    @ApiModelProperty(value = "The city of the suggestion. ")
+    private final String city;
+    @ApiModelProperty(value = "The id of the suggested hotel, absent for the city. ")
+    private final UUID hotelId;
+
+    /**
+     * Constructor.
+     *
+     * @param type    {@link #CITY} or {@link #HOTEL}
+     * @param name    name of the city or the hotel
+     * @param city    city of the suggestion
+     * @param hotelId id of the hotel, null for the city
+     */
+    public Suggestion(String type, String name, String city, UUID hotelId) {
+        this.type = type;
+        this.name = name;
+        this.city = city;
+        this.hotelId = hotelId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public UUID getHotelId() {
+        return hotelId;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{"
+                + "type=" + type
+                + ", name=" + name
+                + ", city=" + city
+                + ", hotelId=" + hotelId
+                + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Suggestion that = (Suggestion) o;
+
+        if (type != null ? !type.equals(that.type) : that.type != null) {
+            return false;
+        }
+        if (name != null ? !name.equals(that.name) : that.name != null) {
+            return false;
+        }
+        if (city != null ? !city.equals(that.city) : that.city != null) {
+            return false;
+        }
+        return hotelId != null ? hotelId.equals(that.hotelId) : that.hotelId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type != null ? type.hashCode() : 0;
+        result = 31 * result + (name != null ? name.hashCode() : 0);
+        result = 31 * result + (city != null ? city.hashCode() : 0);
+        result = 31 * result + (hotelId != null ? hotelId.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * Readiness of the instance and the steps of its startup warm-up done so far.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "WarmUpReport", description = "The readiness of the instance and its startup warm-up report.")
+public class WarmUpReport {
+    @ApiModelProperty(value = "Whether the warm-up is over and the instance is ready for the traffic. ")
+    private final boolean ready;
+    @ApiModelProperty(value = "Milliseconds the warm-up took, or takes so far. ")
+    private final long millis;
+    @ApiModelProperty(value = "Steps of the warm-up done so far. ")
+    private final List<WarmUpStep> steps;
+
+    /**
+     * Constructor.
+     *
+     * @param ready  whether the instance is ready
+     * @param millis milliseconds of the warm-up
+     * @param steps  list of {@link WarmUpStep}
+     */
+    public WarmUpReport(boolean ready, long millis, List<WarmUpStep> steps) {
+        this.ready = ready;
+        this.millis = millis;
+        this.steps = steps;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public List<WarmUpStep> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpReport{"
+                + "ready=" + ready
+                + ", millis=" + millis
+                + ", steps=" + steps
+                + '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.dataart.tmurzenkov.cassandra.model.dto;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+/**
+ * Step of the startup warm-up with the time it took.
+ *
+ * @author tmurzenkov
+ */
+@ApiModel(value = "WarmUpStep", description = "The step of the startup warm-up.")
+public class WarmUpStep {
+    @ApiModelProperty(value = "Name of the step. ")
+    private final String name;
+    @ApiModelProperty(value = "Milliseconds the step took. ")
+    private final long millis;
+    @ApiModelProperty(value = "Number of the calls made by the step. ")
+    private final int calls;
+    @ApiModelProperty(value = "Number of the calls failed. ")
+    private final int failures;
+
+    /**
+     * Constructor.
+     *
+     * @param name     name of the step
+     * @param millis   milliseconds the step took
+     * @param calls    calls made
+     * @param failures calls failed
+     */
+    public WarmUpStep(String name, long millis, int calls, int failures) {
+        this.name = name;
+        this.millis = millis;
+        this.calls = calls;
+        this.failures = failures;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpStep{"
+                + "name='" + name + '\''
+                + ", millis=" + millis
+                + ", calls=" + calls
+                + ", failures=" + failures
+                + '}';
+    }
+}
@@ -26,4 +26,8 @@ public class Address {
     private String postalCode;
     @Column(value = "country")
     private String country;
+    @Column(value = "latitude")
+    private Double latitude;
+    @Column(value = "longitude")
+    private Double longitude;
 }
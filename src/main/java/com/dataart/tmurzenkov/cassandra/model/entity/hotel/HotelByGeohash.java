@@ -0,0 +1,58 @@
+package com.dataart.tmurzenkov.cassandra.model.entity.hotel;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.cassandra.core.PrimaryKeyType;
+import org.springframework.data.cassandra.mapping.Column;
+import org.springframework.data.cassandra.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.mapping.Table;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.data.cassandra.repository.support.BasicMapId;
+
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.CELL_PRECISION;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.geohash;
+
+/**
+ * 'HotelsByGeohash' cassandra entity. The coordinates of the hotel are kept with its id, so the hotels of the cell
+ * are ranked by the distance without reading them.
+ *
+ * @author tmurzenkov
+ */
+@Data
+@NoArgsConstructor
+@Table("hotels_by_geohash")
+public class HotelByGeohash extends BasicEntity {
+    @PrimaryKeyColumn(name = "geohash", type = PrimaryKeyType.PARTITIONED)
+    private String geohash;
+    @PrimaryKeyColumn(name = "hotel_id", type = PrimaryKeyType.CLUSTERED)
+    private UUID id;
+    @Column(value = "latitude")
+    private double latitude;
+    @Column(value = "longitude")
+    private double longitude;
+
+    /**
+     * Create from {@link Hotel} with the coordinates.
+     *
+     * @param hotel {@link Hotel}
+     */
+    public HotelByGeohash(Hotel hotel) {
+        this.id = hotel.getId();
+        this.latitude = hotel.getAddress().getLatitude();
+        this.longitude = hotel.getAddress().getLongitude();
+        this.geohash = geohash(latitude, longitude, CELL_PRECISION);
+    }
+
+    @Override
+    public MapId getCompositeId() {
+        return BasicMapId.id("hotel_id", this.id).with("geohash", this.geohash);
+    }
+
+    @Override
+    public UUID getId() {
+        return this.id;
+    }
+}
@@ -0,0 +1,109 @@
+package com.dataart.tmurzenkov.cassandra.model.entity.outbox;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.mapping.CassandraType;
+import org.springframework.data.cassandra.mapping.Column;
+import org.springframework.data.cassandra.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.mapping.Table;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.data.cassandra.repository.support.BasicMapId;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.springframework.cassandra.core.PrimaryKeyType.CLUSTERED;
+import static org.springframework.cassandra.core.PrimaryKeyType.PARTITIONED;
+
+/**
+ * Booking event of the outbox. The events are bucketed by the minute they are created in and ordered by their time
+ * based id within the bucket, so the relay reads them in the order of their creation one bucket after another. The
+ * relay delivers an event at least once, the consumers drop the duplicates by the event id.
+ *
+ * @author tmurzenkov
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Table("booking_outbox")
+public class BookingEvent extends BasicEntity {
+    /**
+     * Type of the event of the new booking.
+     */
+    public static final String BOOKED = "booked";
+    /**
+     * Time span of the bucket of the outbox in milliseconds.
+     */
+    public static final long BUCKET_MILLIS = MINUTES.toMillis(1);
+    @PrimaryKeyColumn(name = "bucket", type = PARTITIONED)
+    private Long bucket;
+    @PrimaryKeyColumn(name = "event_id", type = CLUSTERED)
+    @CassandraType(type = DataType.Name.TIMEUUID)
+    private UUID eventId;
+    @Column("type")
+    private String type;
+    @Column("guest_id")
+    private UUID guestId;
+    @Column("hotel_id")
+    private UUID hotelId;
+    @Column("room_number")
+    private Integer roomNumber;
+    @Column("booking_date")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    @JsonSerialize(using = LocalDateSerializer.class)
+    private LocalDate bookingDate;
+    @Column("confirmation_number")
+    private String confirmationNumber;
+
+    /**
+     * Builds the event of the booking.
+     *
+     * @param booking {@link RoomByGuestAndDate} of the booking
+     * @param eventId time based id of the event, the bucket is derived from its time
+     */
+    public BookingEvent(RoomByGuestAndDate booking, UUID eventId) {
+        this.eventId = eventId;
+        this.bucket = bucketOf(UUIDs.unixTimestamp(eventId));
+        this.type = BOOKED;
+        this.guestId = booking.getId();
+        this.hotelId = booking.getHotelId();
+        this.roomNumber = booking.getRoomNumber();
+        this.bookingDate = booking.getBookingDate();
+        this.confirmationNumber = booking.getConfirmationNumber();
+    }
+
+    /**
+     * Finds the bucket of the time.
+     *
+     * @param epochMillis milliseconds since the epoch
+     * @return minutes since the epoch
+     */
+    public static long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS);
+    }
+
+    @Override
+    @JsonIgnore
+    public MapId getCompositeId() {
+        return BasicMapId.id("bucket", this.bucket).with("eventId", this.eventId);
+    }
+
+    @Override
+    @JsonIgnore
+    public UUID getId() {
+        return this.eventId;
+    }
+}
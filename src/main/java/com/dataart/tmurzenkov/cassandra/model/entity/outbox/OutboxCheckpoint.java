@@ -0,0 +1,60 @@
+package com.dataart.tmurzenkov.cassandra.model.entity.outbox;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.datastax.driver.core.DataType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.mapping.CassandraType;
+import org.springframework.data.cassandra.mapping.Column;
+import org.springframework.data.cassandra.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.mapping.Table;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.data.cassandra.repository.support.BasicMapId;
+
+import java.util.UUID;
+
+import static org.springframework.cassandra.core.PrimaryKeyType.PARTITIONED;
+
+/**
+ * Position of the relay in the outbox: the bucket it reads and the last event of the bucket it has delivered, none
+ * if it has not delivered any event of the bucket yet.
+ *
+ * @author tmurzenkov
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Table("booking_outbox_checkpoint")
+public class OutboxCheckpoint extends BasicEntity {
+    @PrimaryKeyColumn(name = "relay", type = PARTITIONED)
+    private String relay;
+    @Column("bucket")
+    private Long bucket;
+    @Column("event_id")
+    @CassandraType(type = DataType.Name.TIMEUUID)
+    private UUID eventId;
+
+    /**
+     * Constructor.
+     *
+     * @param relay   name of the relay
+     * @param bucket  bucket the relay reads
+     * @param eventId last delivered event of the bucket, null if none
+     */
+    public OutboxCheckpoint(String relay, Long bucket, UUID eventId) {
+        this.relay = relay;
+        this.bucket = bucket;
+        this.eventId = eventId;
+    }
+
+    @Override
+    public MapId getCompositeId() {
+        return BasicMapId.id("relay", this.relay);
+    }
+
+    @Override
+    public UUID getId() {
+        return this.eventId;
+    }
+}
@@ -0,0 +1,138 @@
+package com.dataart.tmurzenkov.cassandra.model.entity.room;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.mapping.Column;
+import org.springframework.data.cassandra.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.mapping.Table;
+import org.springframework.data.cassandra.repository.MapId;
+import org.springframework.data.cassandra.repository.support.BasicMapId;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static org.springframework.cassandra.core.PrimaryKeyType.CLUSTERED;
+import static org.springframework.cassandra.core.PrimaryKeyType.PARTITIONED;
+
+/**
+ * Booked rooms of the hotel for the night, the bit of the room number is set in the rooms bitmap. A period of the
+ * hotel is one slice of its partition, a cell per night, however many rooms are booked. The number of the booked
+ * rooms is written along with the bitmap, so it is read without the bitmap.
+ *
+ * @author tmurzenkov
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Table("hotel_occupancy")
+public class HotelOccupancy extends BasicEntity {
+    /**
+     * Highest room number the bitmap holds, bounds the cell to 8 KB.
+     */
+    public static final int MAX_ROOM_NUMBER = 65535;
+    @PrimaryKeyColumn(name = "hotel_id", type = PARTITIONED)
+    private UUID id;
+    @PrimaryKeyColumn(name = "date", type = CLUSTERED)
+    private LocalDate date;
+    @Column("rooms")
+    private ByteBuffer rooms;
+    @Column("booked")
+    private Integer booked;
+
+    /**
+     * Constructs the occupancy of the night with the given booked rooms.
+     *
+     * @param id    hotel id
+     * @param date  night, {@link LocalDate}
+     * @param rooms {@link BitSet} of the booked room numbers
+     */
+    public HotelOccupancy(UUID id, LocalDate date, BitSet rooms) {
+        this.id = id;
+        this.date = date;
+        setBookedRooms(rooms);
+    }
+
+    /**
+     * Returns the bitmap of the single room.
+     *
+     * @param roomNumber number of the room
+     * @return {@link BitSet} with the bit of the room set
+     * @throws IllegalArgumentException if the number cannot be held by the bitmap
+     */
+    public static BitSet roomBitmap(int roomNumber) {
+        if (roomNumber < 0 || roomNumber > MAX_ROOM_NUMBER) {
+            throw new IllegalArgumentException(format("Room number %d is out of 0..%d", roomNumber, MAX_ROOM_NUMBER));
+        }
+        final BitSet bitmap = new BitSet();
+        bitmap.set(roomNumber);
+        return bitmap;
+    }
+
+    /**
+     * Returns the booked room numbers.
+     *
+     * @return {@link BitSet}, empty if none is booked
+     */
+    @JsonIgnore
+    public BitSet getBookedRooms() {
+        return null == rooms ? new BitSet() : BitSet.valueOf(rooms);
+    }
+
+    /**
+     * Sets the booked room numbers and their number.
+     *
+     * @param bitmap {@link BitSet} of the booked room numbers, null for none
+     */
+    public void setBookedRooms(BitSet bitmap) {
+        this.rooms = null == bitmap ? null : ByteBuffer.wrap(bitmap.toByteArray());
+        this.booked = null == bitmap ? null : bitmap.cardinality();
+    }
+
+    /**
+     * Whether all the given rooms are booked.
+     *
+     * @param bitmap {@link BitSet} of the room numbers
+     * @return true if the bits of the rooms are set
+     */
+    public boolean isBooked(BitSet bitmap) {
+        final BitSet notBooked = (BitSet) bitmap.clone();
+        notBooked.andNot(getBookedRooms());
+        return notBooked.isEmpty();
+    }
+
+    /**
+     * Returns the occupancy of the same night with the given rooms booked as well.
+     *
+     * @param bitmap {@link BitSet} of the room numbers
+     * @return new {@link HotelOccupancy}
+     */
+    public HotelOccupancy withRooms(BitSet bitmap) {
+        final BitSet booked = getBookedRooms();
+        booked.or(bitmap);
+        return new HotelOccupancy(id, date, booked);
+    }
+
+    /**
+     * Returns the occupancy of the same night with the given rooms not booked.
+     *
+     * @param bitmap {@link BitSet} of the room numbers
+     * @return new {@link HotelOccupancy}, with the empty bitmap if no room is left
+     */
+    public HotelOccupancy withoutRooms(BitSet bitmap) {
+        final BitSet booked = getBookedRooms();
+        booked.andNot(bitmap);
+        return new HotelOccupancy(id, date, booked);
+    }
+
+    @Override
+    @JsonIgnore
+    public MapId getCompositeId() {
+        return BasicMapId.id("id", this.id).with("date", this.date);
+    }
+}
@@ -20,20 +20,25 @@ import org.springframework.data.cassandra.repository.support.BasicMapId;
 import java.time.LocalDate;
 import java.util.UUID;
 
+import static com.dataart.tmurzenkov.cassandra.util.DateUtils.firstDayOfMonth;
 import static org.springframework.cassandra.core.PrimaryKeyType.CLUSTERED;
 
 /**
- * RoomByHotelAndDate cassandra entity.
+ * RoomByHotelAndDate cassandra entity. The rows of a hotel are bucketed by the month of the date, so the partition of
+ * a hotel is bounded by a month of bookings instead of growing forever. The month is derived from the date.
  *
  * @author tmurzenkov
  */
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = false)
-@Table(value = "room_by_hotel_and_date")
+@Table(value = "room_by_hotel_and_month")
 public class RoomByHotelAndDate extends BasicEntity {
     @PrimaryKeyColumn(name = "hotel_id", type = PrimaryKeyType.PARTITIONED)
     private UUID id;
+    @PrimaryKeyColumn(name = "month", type = PrimaryKeyType.PARTITIONED)
+    @JsonIgnore
+    private LocalDate month;
     @PrimaryKeyColumn(name = "date", type = CLUSTERED)
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     @JsonDeserialize(using = LocalDateDeserializer.class)
@@ -53,7 +58,7 @@ public class RoomByHotelAndDate extends BasicEntity {
     public RoomByHotelAndDate(UUID id, Integer roomNumber, LocalDate localDate) {
         this.id = id;
         this.roomNumber = roomNumber;
-        this.date = localDate;
+        setDate(localDate);
     }
 
     /**
@@ -64,7 +69,7 @@ public class RoomByHotelAndDate extends BasicEntity {
     public RoomByHotelAndDate(BookingRequest bookingRequest) {
         this.id = bookingRequest.getHotelId();
         this.roomNumber = bookingRequest.getRoomNumber();
-        this.date = bookingRequest.getBookingDate();
+        setDate(bookingRequest.getBookingDate());
     }
 
     /**
@@ -76,11 +81,21 @@ public class RoomByHotelAndDate extends BasicEntity {
         this(roomByGuestAndDate.getHotelId(), roomByGuestAndDate.getRoomNumber(), roomByGuestAndDate.getBookingDate());
     }
 
+    /**
+     * Sets the date and its month bucket.
+     *
+     * @param date {@link LocalDate}
+     */
+    public void setDate(LocalDate date) {
+        this.date = date;
+        this.month = firstDayOfMonth(date);
+    }
 
     @Override
     @JsonIgnore
     public MapId getCompositeId() {
         return BasicMapId.id("id", this.id)
+                .with("month", this.month)
                 .with("date", this.date)
                 .with("roomNumber", this.roomNumber);
     }
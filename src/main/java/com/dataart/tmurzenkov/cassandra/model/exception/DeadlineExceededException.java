@@ -0,0 +1,29 @@
+package com.dataart.tmurzenkov.cassandra.model.exception;
+
+/**
+ * Exception that will be thrown when the work of the request is abandoned as its deadline passed.
+ *
+ * @author tmurzenkov
+ */
+public class DeadlineExceededException extends RuntimeException {
+    /**
+     * Constructs new exception from the given message.
+     *
+     * @param message {@link String}
+     * @see RuntimeException
+     */
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs new exception from the given message and the failure of the call cut by the deadline.
+     *
+     * @param message {@link String}
+     * @param cause   {@link Throwable}
+     * @see RuntimeException
+     */
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
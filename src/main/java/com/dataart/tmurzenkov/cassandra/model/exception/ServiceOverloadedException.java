@@ -0,0 +1,26 @@
+package com.dataart.tmurzenkov.cassandra.model.exception;
+
+/**
+ * Exception that will be thrown when the request is shed to keep the data base from the overload.
+ *
+ * @author tmurzenkov
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs new exception from the given message.
+     *
+     * @param message           {@link String}
+     * @param retryAfterSeconds seconds the client should wait for before the retry
+     * @see RuntimeException
+     */
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,6 +2,8 @@ package com.dataart.tmurzenkov.cassandra.service;
 
 import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service that is responsible to manage booking requests.
  *
@@ -17,6 +19,14 @@ public interface BookingService {
      */
     BookingRequest performBooking(BookingRequest bookingRequest);
 
+    /**
+     * Registers the booking request into the database without blocking the calling thread.
+     *
+     * @param bookingRequest instance of {@link BookingRequest}.
+     * @return {@link CompletableFuture} of the registered instance of {@link BookingRequest}
+     */
+    CompletableFuture<BookingRequest> performBookingAsync(BookingRequest bookingRequest);
+
     /**
      * Assigns the unique identifier for the particular instance o {@link BookingRequest}.
      *
@@ -1,8 +1,13 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
+import com.dataart.tmurzenkov.cassandra.model.dto.NearbyHotel;
+import com.dataart.tmurzenkov.cassandra.model.dto.ProximitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Hotel service.
@@ -26,4 +31,39 @@ public interface HotelService {
      * @return {@link List} of the {@link Hotel}
      */
     List<Hotel> findAllHotelsInTheCity(String city);
+
+    /**
+     * Finds all hotels by the given city name without blocking the calling thread.
+     *
+     * @param city {@link String} city name
+     * @return {@link CompletableFuture} of the {@link List} of the {@link Hotel}
+     */
+    CompletableFuture<List<Hotel>> findAllHotelsInTheCityAsync(String city);
+
+    /**
+     * Streams all hotels by the given city name. The stream must be closed by the caller.
+     *
+     * @param city {@link String} city name
+     * @return non empty {@link Stream} of the {@link Hotel}
+     */
+    Stream<Hotel> streamAllHotelsInTheCity(String city);
+
+    /**
+     * Finds the hotels nearest to the point of the search, the nearest first. The search radius is widened only as far
+     * as the cells to read stay within their bound, which is nearer to the poles, where the cells get narrower.
+     *
+     * @param searchRequest {@link ProximitySearchRequest}
+     * @return non empty {@link List} of the {@link NearbyHotel}
+     * @throws IllegalArgumentException if even the initial radius around the point takes too many cells
+     */
+    List<NearbyHotel> findHotelsNearby(ProximitySearchRequest searchRequest);
+
+    /**
+     * Completes the typed prefix to the names of the cities and the hotels, the cities first.
+     *
+     * @param prefix typed prefix of the name
+     * @param limit  max number of the suggestions
+     * @return {@link List} of the {@link Suggestion}, empty if nothing starts with the prefix
+     */
+    List<Suggestion> suggest(String prefix, int limit);
 }
@@ -1,11 +1,16 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
 
+import com.dataart.tmurzenkov.cassandra.model.dto.CitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.HotelAvailability;
 import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * RoomByHotelAndDate service.
@@ -28,4 +33,37 @@ public interface RoomService {
      * @return {@link Set} of {@link RoomByHotelAndDate}
      */
     Set<Room> findFreeRoomsInTheHotel(SearchRequest searchRequest);
+
+    /**
+     * Finds free rooms for the given hotel in the given time period without blocking the calling thread.
+     *
+     * @param searchRequest start time period {@link SearchRequest}
+     * @return {@link CompletableFuture} of the {@link Set} of {@link Room}
+     */
+    CompletableFuture<Set<Room>> findFreeRoomsInTheHotelAsync(SearchRequest searchRequest);
+
+    /**
+     * Streams free rooms for the given hotel in the given time period. The stream must be closed by the caller.
+     *
+     * @param searchRequest start time period {@link SearchRequest}
+     * @return non empty {@link Stream} of {@link Room}
+     */
+    Stream<Room> streamFreeRoomsInTheHotel(SearchRequest searchRequest);
+
+    /**
+     * Counts the rooms of the hotel free for every night of the given time period without reading the rooms.
+     *
+     * @param searchRequest start time period {@link SearchRequest}
+     * @return {@link HotelAvailability}, sold out if no room is free
+     */
+    HotelAvailability findAvailability(SearchRequest searchRequest);
+
+    /**
+     * Ranks the hotels of the city by the number of the rooms free for every night of the given time period, the sold
+     * out hotels go last.
+     *
+     * @param searchRequest city and time period {@link CitySearchRequest}
+     * @return non empty {@link List} of {@link HotelAvailability}, the most available first
+     */
+    List<HotelAvailability> rankHotelsInTheCity(CitySearchRequest searchRequest);
 }
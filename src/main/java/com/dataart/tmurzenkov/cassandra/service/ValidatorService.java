@@ -17,9 +17,18 @@ public interface ValidatorService<T extends BasicEntity> {
     void validateInfo(T entity);
 
     /**
-     * Should check if such record exists in db.
+     * Should check that the records the entity refers to exist in db. There is nothing to check by default.
      *
      * @param entity {@link BasicEntity}
      */
-    void checkIfExists(T entity);
+    default void checkReferences(T entity) {
+    }
+
+    /**
+     * Should throw the exception if the conditional insert of the entity was not applied, i.e. such record exists in db.
+     *
+     * @param entity   {@link BasicEntity}
+     * @param inserted whether the conditional insert was applied
+     */
+    void checkIfInserted(T entity, boolean inserted);
 }
@@ -2,11 +2,14 @@ package com.dataart.tmurzenkov.cassandra.service.impl;
 
 import com.dataart.tmurzenkov.cassandra.model.dto.ErrorDto;
 import com.dataart.tmurzenkov.cassandra.model.exception.AlreadyBookedException;
+import com.dataart.tmurzenkov.cassandra.model.exception.DeadlineExceededException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.model.exception.ServiceOverloadedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cassandra.support.exception.CassandraInvalidQueryException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -14,9 +17,11 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.ALREADY_BOOKED;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.DEADLINE_EXCEEDED;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.RECORD_ALREADY_EXISTS;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.RECORD_NOT_EXISTS;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.QUERY_EXECUTION_EXCEPTION;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.SERVICE_OVERLOADED;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.UNKNOWN_EXCEPTION;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.INVALID_PARAMETERS;
 
@@ -41,6 +46,8 @@ public class ExceptionInterceptor {
         String QUERY_EXECUTION_EXCEPTION = "QUERY_EXECUTION_EXCEPTION";
         String UNKNOWN_EXCEPTION = "UNKNOWN_EXCEPTION";
         String INVALID_PARAMETERS = "INVALID_PARAMETERS";
+        String SERVICE_OVERLOADED = "SERVICE_OVERLOADED";
+        String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
     }
 
     /**
@@ -76,6 +83,32 @@ public class ExceptionInterceptor {
         return logAndMake(e, HttpStatus.CONFLICT, ALREADY_BOOKED);
     }
 
+    /**
+     * Logs {@link ServiceOverloadedException} and transforms to {@link ResponseEntity} with {@link ErrorDto}.
+     *
+     * @param e {@link ServiceOverloadedException}
+     * @return {@link ResponseEntity} with status <code>HttpStatus.SERVICE_UNAVAILABLE</code> and the Retry-After header
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorDto> handle(ServiceOverloadedException e) {
+        LOGGER.warn(e.getMessage());
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ResponseEntity<>(new ErrorDto(e, SERVICE_OVERLOADED), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Logs {@link DeadlineExceededException} and transforms to {@link ResponseEntity} with {@link ErrorDto}.
+     *
+     * @param e {@link DeadlineExceededException}
+     * @return {@link ResponseEntity} with status <code>HttpStatus.GATEWAY_TIMEOUT</code>
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorDto> handle(DeadlineExceededException e) {
+        LOGGER.warn(e.getMessage());
+        return new ResponseEntity<>(new ErrorDto(e, DEADLINE_EXCEEDED), HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     /**
      * Logs {@link CassandraInvalidQueryException} and transforms to {@link ResponseEntity} with {@link ErrorDto}.
      *
@@ -0,0 +1,60 @@
+package com.dataart.tmurzenkov.cassandra.service.impl;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+
+/**
+ * Writes the entities as newline delimited JSON, one {@link org.springframework.hateoas.Resource} per line. Entities
+ * are taken from the stream one by one and written straight to the response, so the whole result is never held in
+ * memory.
+ *
+ * @author tmurzenkov
+ */
+@Service
+public class NdjsonResourceWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NdjsonResourceWriter.class);
+    private static final char LINE_SEPARATOR = '\n';
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Builds the response body that writes the given entities. The self links base uri is resolved on the calling
+     * thread, as the body itself is written asynchronously outside of the request context.
+     *
+     * @param assembler {@link ServiceResourceAssembler} bound to the controller
+     * @param entities  {@link Stream} of the entities, closed once the body is written
+     * @param <T>       {@link BasicEntity}
+     * @return {@link StreamingResponseBody}
+     */
+    public <T extends BasicEntity> StreamingResponseBody write(ServiceResourceAssembler<T, ?> assembler, Stream<T> entities) {
+        final String baseUri = assembler.resolveBaseUri();
+        final ObjectWriter writer = objectMapper.writer().without(FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            long written = 0;
+            try (Stream<T> source = entities;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream).disable(AUTO_CLOSE_TARGET)) {
+                generator.setRootValueSeparator(null);
+                final Iterator<T> iterator = source.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, assembler.toResource(iterator.next(), baseUri));
+                    generator.writeRaw(LINE_SEPARATOR);
+                    written++;
+                }
+            }
+            LOGGER.info("Streamed '{}' records", written);
+        };
+    }
+}
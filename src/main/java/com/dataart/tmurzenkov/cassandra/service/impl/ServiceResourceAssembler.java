@@ -1,18 +1,24 @@
 package com.dataart.tmurzenkov.cassandra.service.impl;
 
 import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceAssembler;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.stream.Collectors.toList;
 import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 
 /**
- * Assembles HATEOUS resources.
+ * Assembles HATEOUS resources. The bean itself is not bound to any controller, {@link #withController(Class)} returns
+ * the immutable assembler of the given controller, so the instance can be safely shared between the requests.
  *
  * @param <T> {@link BasicEntity}
  * @param <C> any controller class
@@ -20,17 +26,34 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Service
 public class ServiceResourceAssembler<T extends BasicEntity, C> implements ResourceAssembler<T, Resource<T>> {
-    private Class<?> controllerClass;
+    private final Class<?> controllerClass;
+    private final ConcurrentMap<Class<?>, ServiceResourceAssembler<T, C>> controllerAssemblers;
 
     /**
-     * Adds controller class to extract the base uri.
+     * Constructs the assembler that is not bound to any controller.
+     */
+    public ServiceResourceAssembler() {
+        this(null, new ConcurrentHashMap<>());
+    }
+
+    private ServiceResourceAssembler(Class<?> controllerClass,
+                                     ConcurrentMap<Class<?>, ServiceResourceAssembler<T, C>> controllerAssemblers) {
+        this.controllerClass = controllerClass;
+        this.controllerAssemblers = controllerAssemblers;
+    }
+
+    /**
+     * Returns the assembler that extracts the base uri from the given controller class.
      *
      * @param controllerClass controller class
-     * @return this
+     * @return assembler bound to the controller
      */
     public ServiceResourceAssembler<T, C> withController(Class<?> controllerClass) {
-        this.controllerClass = controllerClass;
-        return this;
+        if (controllerClass == this.controllerClass) {
+            return this;
+        }
+        return controllerAssemblers.computeIfAbsent(controllerClass,
+                controller -> new ServiceResourceAssembler<>(controller, controllerAssemblers));
     }
 
     /**
@@ -40,7 +63,7 @@ public class ServiceResourceAssembler<T extends BasicEntity, C> implements Resou
      * @return {@link List}
      */
     public List<Resource<T>> toResource(List<T> basicEntities) {
-        return basicEntities.stream().map(this::toResource).collect(toList());
+        return toResources(basicEntities);
     }
 
 
@@ -51,13 +74,51 @@ public class ServiceResourceAssembler<T extends BasicEntity, C> implements Resou
      * @return {@link List}
      */
     public List<Resource<T>> toResource(Set<T> basicEntities) {
-        return basicEntities.stream().map(this::toResource).collect(toList());
+        return toResources(basicEntities);
     }
 
     @Override
     public Resource<T> toResource(T basicEntity) {
-        Resource<T> resource = new Resource<>(basicEntity);
-        resource.add(linkTo(controllerClass).slash(basicEntity.getId()).withSelfRel());
+        return toResource(basicEntity, resolveBaseUri());
+    }
+
+    /**
+     * Resolves the base uri of the controller for the current request. The self link of every entity is the base uri
+     * followed by the entity id.
+     *
+     * @return {@link String} base uri
+     */
+    public String resolveBaseUri() {
+        return linkTo(controllerClass).toString();
+    }
+
+    /**
+     * Wraps the entity into {@link Resource} with the self link built from the already resolved base uri.
+     *
+     * @param basicEntity {@link BasicEntity}
+     * @param baseUri     {@link String} base uri returned by {@link #resolveBaseUri()}
+     * @return {@link Resource}
+     */
+    public Resource<T> toResource(T basicEntity, String baseUri) {
+        final Resource<T> resource = new Resource<>(basicEntity);
+        final UUID id = basicEntity.getId();
+        resource.add(new Link(null == id ? baseUri : baseUri + '/' + id));
         return resource;
     }
+
+    /**
+     * Transforms the entities to the list of {@link Resource} with the self links built from the already resolved base
+     * uri, so it can be called off the request thread.
+     *
+     * @param basicEntities {@link Collection}
+     * @param baseUri       {@link String} base uri returned by {@link #resolveBaseUri()}
+     * @return {@link List}
+     */
+    public List<Resource<T>> toResource(Collection<T> basicEntities, String baseUri) {
+        return basicEntities.stream().map(basicEntity -> toResource(basicEntity, baseUri)).collect(toList());
+    }
+
+    private List<Resource<T>> toResources(Collection<T> basicEntities) {
+        return toResource(basicEntities, resolveBaseUri());
+    }
 }
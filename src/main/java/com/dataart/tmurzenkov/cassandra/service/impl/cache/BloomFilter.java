@@ -0,0 +1,116 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Math.floorMod;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+import static java.lang.Math.round;
+
+/**
+ * Bloom filter over the 64 bit hashes of the keys. The bits are set with CAS, so the keys can be put concurrently with
+ * the lookups without any locking. The filter never forgets a key, it can only say that the key was definitely not put.
+ *
+ * @author tmurzenkov
+ */
+public class BloomFilter {
+    private static final double LN_2 = log(2);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER_1 = 0xFF51AFD7ED558CCDL;
+    private static final long MIX_MULTIPLIER_2 = 0xC4CEB9FE1A85EC53L;
+    private static final int MIX_SHIFT = 33;
+    private static final int WORD_INDEX_SHIFT = 6;
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    /**
+     * Constructs the filter sized to keep the given false positive rate up to the expected number of keys.
+     *
+     * @param expectedInsertions expected number of keys
+     * @param falsePositiveRate  false positive rate in range (0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be in range (0, 1)");
+        }
+        final long keys = max(1L, expectedInsertions);
+        final long words = max(1L, (long) Math.ceil(-keys * log(falsePositiveRate) / (LN_2 * LN_2) / Long.SIZE));
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The bloom filter is too large for " + expectedInsertions + " keys");
+        }
+        this.words = new AtomicLongArray((int) words);
+        this.bitSize = words * Long.SIZE;
+        this.hashFunctions = max(1, (int) round((double) bitSize / keys * LN_2));
+    }
+
+    /**
+     * Puts the key hash into the filter.
+     *
+     * @param hash 64 bit hash of the key
+     */
+    public void put(long hash) {
+        final long step = mix(hash) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(floorMod(hash + i * step, bitSize));
+        }
+    }
+
+    /**
+     * Checks the key hash.
+     *
+     * @param hash 64 bit hash of the key
+     * @return false if the key was definitely never put, true if it might have been put
+     */
+    public boolean mightContain(long hash) {
+        final long step = mix(hash) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            final long index = floorMod(hash + i * step, bitSize);
+            if ((words.get((int) (index >>> WORD_INDEX_SHIFT)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Mixes the bits of the value, so close values get unrelated hashes (the finalizer of MurmurHash3).
+     *
+     * @param value any value
+     * @return mixed value
+     */
+    public static long mix(long value) {
+        long hash = value;
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX_MULTIPLIER_1;
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX_MULTIPLIER_2;
+        return hash ^ (hash >>> MIX_SHIFT);
+    }
+
+    /**
+     * Combines the hash with the next value of the composite key.
+     *
+     * @param hash  hash of the previous values
+     * @param value next value
+     * @return combined hash
+     */
+    public static long combine(long hash, long value) {
+        return mix(hash * GOLDEN_GAMMA + value);
+    }
+
+    private void setBit(long index) {
+        final int word = (int) (index >>> WORD_INDEX_SHIFT);
+        final long mask = 1L << index;
+        long current = words.get(word);
+        while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+            current = words.get(word);
+        }
+    }
+}
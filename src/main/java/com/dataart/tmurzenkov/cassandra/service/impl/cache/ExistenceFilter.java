@@ -0,0 +1,169 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.ExistenceFilterStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Answers "definitely absent" for the keys that were never stored, so the existence check can be skipped. The answer
+ * is reliable only while every insert of the key goes through {@link #put(Object)}, the keys inserted by another
+ * instance or written to the data base directly are missed until the filter is rebuilt. The filter therefore answers
+ * the absent keys on its own only if it is authoritative, otherwise every key is looked up in the data base and the
+ * filter is not consulted at all. Until the filter is built from the data base every key might exist, i.e. all the
+ * checks go to the data base.
+ *
+ * @param <K> key type
+ * @author tmurzenkov
+ */
+public class ExistenceFilter<K> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExistenceFilter.class);
+    private final String name;
+    private final ToLongFunction<K> hashFunction;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter nextFilter;
+    private volatile boolean authoritative;
+
+    /**
+     * Constructor.
+     *
+     * @param name         name of the filter shown in the logs and metrics
+     * @param hashFunction 64 bit hash of the key
+     */
+    public ExistenceFilter(String name, ToLongFunction<K> hashFunction) {
+        this.name = name;
+        this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Sets whether the absent keys are answered without the data base.
+     *
+     * @param authoritative true if every insert of the key goes through {@link #put(Object)}
+     */
+    public void setAuthoritative(boolean authoritative) {
+        this.authoritative = authoritative;
+    }
+
+    /**
+     * Checks if the key is stored. The data base is asked unless the filter is authoritative and answers the key is
+     * absent.
+     *
+     * @param key       key to check
+     * @param storedKey looks the key up in the data base
+     * @return true if the key is stored
+     */
+    public boolean exists(K key, Predicate<K> storedKey) {
+        lookups.increment();
+        if (!authoritative || mightContain(key)) {
+            return storedKey.test(key);
+        }
+        shortCircuited.increment();
+        return false;
+    }
+
+    /**
+     * Checks if the key is stored as the {@link #exists(Object, Predicate)} does, the data base is asked without
+     * blocking the calling thread.
+     *
+     * @param key       key to check
+     * @param storedKey looks the key up in the data base
+     * @return {@link CompletableFuture} of true if the key is stored
+     */
+    public CompletableFuture<Boolean> existsAsync(K key, Function<K, CompletableFuture<Boolean>> storedKey) {
+        lookups.increment();
+        if (!authoritative || mightContain(key)) {
+            return storedKey.apply(key);
+        }
+        shortCircuited.increment();
+        return completedFuture(false);
+    }
+
+    /**
+     * Checks if the key might be stored in the data base.
+     *
+     * @param key key to check
+     * @return false if the key is definitely absent, true if the data base has to be asked
+     */
+    public boolean mightContain(K key) {
+        final BloomFilter current = filter;
+        return null == current || current.mightContain(hashFunction.applyAsLong(key));
+    }
+
+    /**
+     * Remembers the stored key. Must be called after the key is written to the data base.
+     *
+     * @param key stored key
+     */
+    public void put(K key) {
+        add(hashFunction.applyAsLong(key));
+        insertions.increment();
+    }
+
+    /**
+     * Builds the new filter from all the stored keys and replaces the current one. The keys put while the stored keys
+     * are read go to both filters. If the keys cannot be read the current filter is kept.
+     *
+     * @param storedKeys         all the keys stored in the data base
+     * @param expectedInsertions expected number of keys
+     * @param falsePositiveRate  false positive rate of the filter
+     */
+    public void rebuild(Iterable<K> storedKeys, long expectedInsertions, double falsePositiveRate) {
+        final BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+        nextFilter = next;
+        try {
+            long keys = 0;
+            for (K key : storedKeys) {
+                next.put(hashFunction.applyAsLong(key));
+                keys++;
+            }
+            filter = next;
+            LOGGER.info("Built the '{}' existence filter from '{}' keys: '{}' bits, '{}' hash functions",
+                    name, keys, next.getBitSize(), next.getHashFunctions());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cannot build the '{}' existence filter, all the checks go to the data base", name, e);
+        } finally {
+            nextFilter = null;
+        }
+    }
+
+    /**
+     * Returns the lookup statistics of the filter.
+     *
+     * @return {@link ExistenceFilterStatistics}
+     */
+    public ExistenceFilterStatistics getStatistics() {
+        return new ExistenceFilterStatistics(lookups.sum(), shortCircuited.sum(), insertions.sum(), null != filter);
+    }
+
+    /**
+     * Puts the hash into the current filter and into the one being built. The rebuild may replace the current filter
+     * between the two reads, the hash is put into the replacement then, otherwise it would be lost with the next filter.
+     */
+    private void add(long hash) {
+        BloomFilter current = filter;
+        while (true) {
+            if (null != current) {
+                current.put(hash);
+            }
+            final BloomFilter next = nextFilter;
+            if (null != next) {
+                next.put(hash);
+            }
+            final BloomFilter replaced = filter;
+            if (replaced == current) {
+                return;
+            }
+            current = replaced;
+        }
+    }
+}
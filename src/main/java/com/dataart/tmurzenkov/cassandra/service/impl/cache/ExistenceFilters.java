@@ -0,0 +1,138 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.ExistenceFilterStatistics;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.StreamSupport;
+
+import static com.dataart.tmurzenkov.cassandra.service.impl.cache.BloomFilter.combine;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Existence filters of the hotels and the rooms. The filters answer the absent keys on their own only if they are
+ * configured as authoritative, which is exact only while this instance is the only one that registers the hotels and
+ * the rooms: the hotels and the rooms inserted by the other instances or by the offline tools are missed until the
+ * next rebuild. Only then the filters are built from the table scan once the application context is started, rebuilt
+ * periodically and updated by the services after every insert. By default the filters are not authoritative, every
+ * check goes to the data base and the tables are never scanned for the filters.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class ExistenceFilters implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExistenceFilters.class);
+    private static final long DEFAULT_HOTELS_EXPECTED_INSERTIONS = 100000;
+    private static final long DEFAULT_ROOMS_EXPECTED_INSERTIONS = 1000000;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01d;
+    private static final long DEFAULT_REBUILD_MINUTES = 60;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExistenceFilter<UUID> hotels = new ExistenceFilter<>("hotels", ExistenceFilters::hash);
+    private final ExistenceFilter<Room> rooms = new ExistenceFilter<>("rooms", ExistenceFilters::hash);
+    @Value("${cache.existence.authoritative:false}")
+    private boolean authoritative;
+    @Value("${cache.existence.hotels.expected.insertions:100000}")
+    private long hotelsExpectedInsertions = DEFAULT_HOTELS_EXPECTED_INSERTIONS;
+    @Value("${cache.existence.rooms.expected.insertions:1000000}")
+    private long roomsExpectedInsertions = DEFAULT_ROOMS_EXPECTED_INSERTIONS;
+    @Value("${cache.existence.false.positive.rate:0.01}")
+    private double falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
+    @Value("${cache.existence.rebuild.minutes:60}")
+    private long rebuildMinutes = DEFAULT_REBUILD_MINUTES;
+    @Autowired
+    private HotelDao hotelDao;
+    @Autowired
+    private RoomDao roomDao;
+    private volatile ScheduledExecutorService scheduler;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        hotels.setAuthoritative(authoritative);
+        rooms.setAuthoritative(authoritative);
+        if (!authoritative) {
+            LOGGER.info("The existence filters are not authoritative, all the existence checks go to the data base");
+            return;
+        }
+        rebuild();
+        if (rebuildMinutes > 0 && scheduled.compareAndSet(false, true)) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                final Thread rebuild = new Thread(task, "existence-filters");
+                rebuild.setDaemon(true);
+                return rebuild;
+            });
+            scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, MINUTES);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        final ScheduledExecutorService current = scheduler;
+        if (null != current) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds both filters from the table scans. The filter that cannot be built is kept as is.
+     */
+    public void rebuild() {
+        LOGGER.info("Rebuilding the existence filters, authoritative: '{}'", authoritative);
+        hotels.rebuild(() -> StreamSupport.stream(hotelDao.findAll().spliterator(), false).map(Hotel::getId).iterator(),
+                hotelsExpectedInsertions, falsePositiveRate);
+        rooms.rebuild(roomDao.findAll(), roomsExpectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Returns the filter of the hotel ids.
+     *
+     * @return {@link ExistenceFilter}
+     */
+    public ExistenceFilter<UUID> hotels() {
+        return hotels;
+    }
+
+    /**
+     * Returns the filter of the rooms by the hotel id and the room number.
+     *
+     * @return {@link ExistenceFilter}
+     */
+    public ExistenceFilter<Room> rooms() {
+        return rooms;
+    }
+
+    /**
+     * Returns the lookup statistics of all the filters.
+     *
+     * @return statistics by the filter name
+     */
+    public Map<String, ExistenceFilterStatistics> getStatistics() {
+        final Map<String, ExistenceFilterStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("hotels", hotels.getStatistics());
+        statistics.put("rooms", rooms.getStatistics());
+        return statistics;
+    }
+
+    private static long hash(UUID id) {
+        return combine(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    private static long hash(Room room) {
+        return combine(hash(room.getId()), room.getRoomNumber());
+    }
+}
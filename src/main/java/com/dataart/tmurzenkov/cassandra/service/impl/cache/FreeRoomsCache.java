@@ -0,0 +1,150 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.CacheStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Caches the free rooms found for the {@link SearchRequest}. Every entry remembers the version of its hotel at the
+ * moment the rooms were read, the version is bumped each time the availability of the hotel changes. Entries of the
+ * older version are discarded lazily on the next lookup.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class FreeRoomsCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FreeRoomsCache.class);
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private final VersionCounter<UUID> hotelVersions = new VersionCounter<>();
+    private final ConcurrentMap<SearchRequest, VersionedRooms> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    @Value("${cache.freerooms.max.entries:10000}")
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /**
+     * Returns the cached free rooms for the given request if they are still actual, otherwise loads them with the
+     * given loader and caches the result. The hotel version is read before the loader is called, so a booking that
+     * lands during the load makes the stored entry stale right away.
+     *
+     * @param searchRequest {@link SearchRequest}
+     * @param loader        reads the free rooms from the data base
+     * @return {@link Set} of free {@link Room}s
+     */
+    public Set<Room> findFreeRooms(SearchRequest searchRequest, Function<SearchRequest, Set<Room>> loader) {
+        final long version = hotelVersions.current(searchRequest.getHotelId());
+        final Set<Room> cached = findCached(searchRequest, version);
+        return null != cached ? cached : store(searchRequest, version, loader.apply(searchRequest));
+    }
+
+    /**
+     * Returns the cached free rooms for the given request as the {@link #findFreeRooms(SearchRequest, Function)} does,
+     * the rooms loaded asynchronously are cached once they are read.
+     *
+     * @param searchRequest {@link SearchRequest}
+     * @param loader        reads the free rooms from the data base without blocking the calling thread
+     * @return {@link CompletableFuture} of the {@link Set} of free {@link Room}s
+     */
+    public CompletableFuture<Set<Room>> findFreeRoomsAsync(SearchRequest searchRequest,
+                                                           Function<SearchRequest, CompletableFuture<Set<Room>>> loader) {
+        final long version = hotelVersions.current(searchRequest.getHotelId());
+        final Set<Room> cached = findCached(searchRequest, version);
+        return null != cached
+                ? completedFuture(cached)
+                : loader.apply(searchRequest).thenApply(freeRooms -> store(searchRequest, version, freeRooms));
+    }
+
+    /**
+     * Marks all cached entries of the hotel as stale. Must be called after the change is written to the data base.
+     *
+     * @param hotelId {@link UUID}
+     */
+    public void invalidate(UUID hotelId) {
+        final long version = hotelVersions.increment(hotelId);
+        LOGGER.debug("Free rooms cache of the hotel '{}' moved to the version '{}'", hotelId, version);
+    }
+
+    /**
+     * Returns the hit/miss statistics of the cache.
+     *
+     * @return {@link CacheStatistics}
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private Set<Room> findCached(SearchRequest searchRequest, long version) {
+        final VersionedRooms cached = entries.get(searchRequest);
+        if (null != cached && cached.version == version) {
+            hits.increment();
+            return cached.rooms;
+        }
+        if (null != cached) {
+            entries.remove(searchRequest, cached);
+        }
+        misses.increment();
+        return null;
+    }
+
+    private Set<Room> store(SearchRequest searchRequest, long version, Set<Room> loadedRooms) {
+        final Set<Room> freeRooms = unmodifiableSet(loadedRooms);
+        makeRoomForNewEntry();
+        entries.put(searchRequest, new VersionedRooms(version, freeRooms));
+        return freeRooms;
+    }
+
+    private void makeRoomForNewEntry() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.entrySet().removeIf(entry -> isStale(entry.getKey(), entry.getValue()) && countEviction());
+        final Iterator<Map.Entry<SearchRequest, VersionedRooms>> iterator = entries.entrySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private boolean isStale(SearchRequest searchRequest, VersionedRooms versionedRooms) {
+        return versionedRooms.version != hotelVersions.current(searchRequest.getHotelId());
+    }
+
+    private boolean countEviction() {
+        evictions.increment();
+        return true;
+    }
+
+    /**
+     * Free rooms together with the hotel version they were read at.
+     *
+     * @author tmurzenkov
+     */
+    private static final class VersionedRooms {
+        private final long version;
+        private final Set<Room> rooms;
+
+        private VersionedRooms(long version, Set<Room> rooms) {
+            this.version = version;
+            this.rooms = rooms;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the values by the prefix of their text. The values are kept in the array sorted by the normalized text, so
+ * the values of the prefix are the range found by the binary search, and the first K of them are read in O(log n + K)
+ * without any lock. Every insert copies the array and publishes the copy, which suits the rare inserts and the frequent
+ * lookups. The value is stored once per normalized text, the equal values of the same text are not duplicated.
+ *
+ * @param <V> value type
+ * @author tmurzenkov
+ */
+public class PrefixIndex<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefixIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private final String name;
+    private final Function<V, String> textFunction;
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new Object[0]);
+    private List<V> putWhileRebuilt;
+
+    /**
+     * Constructor.
+     *
+     * @param name         name of the index shown in the logs
+     * @param textFunction text the value is found by
+     */
+    public PrefixIndex(String name, Function<V, String> textFunction) {
+        this.name = name;
+        this.textFunction = textFunction;
+    }
+
+    /**
+     * Normalizes the text for the lookup: drops the diacritics, the case and the extra whitespaces.
+     *
+     * @param text text to normalize
+     * @return normalized text, empty for null
+     */
+    public static String normalize(String text) {
+        if (null == text) {
+            return "";
+        }
+        final String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACES.matcher(withoutDiacritics.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the values the normalized text of which starts with the normalized prefix.
+     *
+     * @param prefix prefix of the text
+     * @param limit  max number of the values
+     * @return values in the order of their normalized text, empty for the empty prefix
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> find(String prefix, int limit) {
+        final String key = normalize(prefix);
+        final List<V> found = new ArrayList<>();
+        if (key.isEmpty()) {
+            return found;
+        }
+        final Snapshot current = snapshot;
+        for (int index = current.lowerBound(key); index < current.keys.length && found.size() < limit
+                && current.keys[index].startsWith(key); index++) {
+            found.add((V) current.values[index]);
+        }
+        return found;
+    }
+
+    /**
+     * Adds the value. Must be called after the value is written to the data base.
+     *
+     * @param value value to add
+     */
+    public void put(V value) {
+        synchronized (lock) {
+            snapshot = snapshot.with(normalize(textFunction.apply(value)), value);
+            if (null != putWhileRebuilt) {
+                putWhileRebuilt.add(value);
+            }
+        }
+    }
+
+    /**
+     * Builds the index from all the stored values and replaces the current one. The values put while the stored ones
+     * are read are added to the new index as well. If the values cannot be read the current index is kept.
+     *
+     * @param storedValues all the values stored in the data base
+     */
+    public void rebuild(Iterable<V> storedValues) {
+        final Rebuild rebuild = startRebuild();
+        try {
+            for (V value : storedValues) {
+                rebuild.add(value);
+            }
+            rebuild.finish();
+        } catch (RuntimeException e) {
+            rebuild.abandon();
+            LOGGER.warn("Cannot build the '{}' prefix index, the current one of '{}' entries is kept", name, snapshot.keys.length, e);
+        }
+    }
+
+    /**
+     * Starts building the index from the stored values, so several indexes can be built from one read of the data
+     * base. The values put from now on are added to the new index as well.
+     *
+     * @return {@link Rebuild} to add the stored values to
+     */
+    public Rebuild startRebuild() {
+        synchronized (lock) {
+            putWhileRebuilt = new ArrayList<>();
+        }
+        return new Rebuild();
+    }
+
+    /**
+     * Returns the number of the entries.
+     *
+     * @return number of the values in the index
+     */
+    public int size() {
+        return snapshot.keys.length;
+    }
+
+    private Object[] entry(V value) {
+        return new Object[]{normalize(textFunction.apply(value)), value};
+    }
+
+    /**
+     * Index being built from the stored values, replaces the current one once finished.
+     */
+    public final class Rebuild {
+        private final List<Object[]> entries = new ArrayList<>();
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds the stored value.
+         *
+         * @param value value read from the data base
+         */
+        public void add(V value) {
+            entries.add(entry(value));
+        }
+
+        /**
+         * Replaces the current index by the stored values and the values put since the rebuild started.
+         */
+        public void finish() {
+            synchronized (lock) {
+                putWhileRebuilt.forEach(value -> entries.add(entry(value)));
+                snapshot = Snapshot.of(entries);
+                putWhileRebuilt = null;
+            }
+            LOGGER.info("Built the '{}' prefix index of '{}' entries", name, snapshot.keys.length);
+        }
+
+        /**
+         * Keeps the current index, e.g. the stored values cannot be read.
+         */
+        public void abandon() {
+            synchronized (lock) {
+                putWhileRebuilt = null;
+            }
+        }
+    }
+
+    /**
+     * Immutable sorted entries, the keys and the values at the same index.
+     */
+    private static final class Snapshot {
+        private final String[] keys;
+        private final Object[] values;
+
+        private Snapshot(String[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private static Snapshot of(List<Object[]> entries) {
+            entries.sort(Comparator.comparing(entry -> (String) entry[0]));
+            final List<String> keys = new ArrayList<>(entries.size());
+            final List<Object> values = new ArrayList<>(entries.size());
+            int firstOfKey = 0;
+            for (Object[] entry : entries) {
+                final String key = (String) entry[0];
+                if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(key)) {
+                    firstOfKey = keys.size();
+                } else if (values.subList(firstOfKey, values.size()).contains(entry[1])) {
+                    continue;
+                }
+                keys.add(key);
+                values.add(entry[1]);
+            }
+            return new Snapshot(keys.toArray(new String[0]), values.toArray());
+        }
+
+        private Snapshot with(String key, Object value) {
+            final int index = upperBound(key);
+            for (int equal = index - 1; equal >= 0 && keys[equal].equals(key); equal--) {
+                if (values[equal].equals(value)) {
+                    return this;
+                }
+            }
+            final String[] nextKeys = Arrays.copyOf(keys, keys.length + 1);
+            final Object[] nextValues = Arrays.copyOf(values, values.length + 1);
+            System.arraycopy(keys, index, nextKeys, index + 1, keys.length - index);
+            System.arraycopy(values, index, nextValues, index + 1, values.length - index);
+            nextKeys[index] = key;
+            nextValues[index] = value;
+            return new Snapshot(nextKeys, nextValues);
+        }
+
+        /**
+         * Finds the index of the first key not less than the given one.
+         */
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Finds the index of the first key greater than the given one.
+         */
+        private int upperBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
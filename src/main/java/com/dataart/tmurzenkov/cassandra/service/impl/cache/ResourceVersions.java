@@ -0,0 +1,70 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+import static java.lang.Long.toHexString;
+import static java.lang.String.format;
+
+/**
+ * Keeps the version tokens of the data read by the polled endpoints: the hotels of the city and the rooms booked by
+ * the guest. A token has to be taken before the data is read and bumped after the data is written, so a write that
+ * lands in between makes the token of the read outdated. The versions live in memory only, the token carries the id
+ * of the instance, so the tags issued before a restart or by another node never match.
+ * <p>
+ * The versions are bumped only by the writes served by this instance, so the tags hold only with the sticky sessions:
+ * a client that keeps polling this instance after writing through another one gets not modified until this instance
+ * serves a write of the same city or guest. The load balancer has to route the reads and the writes of the client to
+ * the same instance, otherwise the polled endpoints have to be read without the entity tags.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class ResourceVersions {
+    private final String instanceId = toHexString(UUID.randomUUID().getMostSignificantBits());
+    private final VersionCounter<String> cityVersions = new VersionCounter<>();
+    private final VersionCounter<UUID> guestVersions = new VersionCounter<>();
+
+    /**
+     * Returns the weak entity tag of the hotels in the city.
+     *
+     * @param city city name
+     * @return weak entity tag
+     */
+    public String cityTag(String city) {
+        return tag("city", cityVersions.current(city));
+    }
+
+    /**
+     * Marks the hotels of the city as changed.
+     *
+     * @param city city name
+     */
+    public void cityChanged(String city) {
+        cityVersions.increment(city);
+    }
+
+    /**
+     * Returns the weak entity tag of the rooms booked by the guest.
+     *
+     * @param guestId {@link UUID}
+     * @return weak entity tag
+     */
+    public String guestTag(UUID guestId) {
+        return tag("guest", guestVersions.current(guestId));
+    }
+
+    /**
+     * Marks the rooms booked by the guest as changed.
+     *
+     * @param guestId {@link UUID}
+     */
+    public void guestChanged(UUID guestId) {
+        guestVersions.increment(guestId);
+    }
+
+    private String tag(String kind, long version) {
+        return format("W/\"%s-%s-%d\"", kind, instanceId, version);
+    }
+}
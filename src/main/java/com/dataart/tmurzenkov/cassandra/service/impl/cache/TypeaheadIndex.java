@@ -0,0 +1,100 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.dataart.tmurzenkov.cassandra.model.dto.Suggestion.CITY;
+import static com.dataart.tmurzenkov.cassandra.model.dto.Suggestion.HOTEL;
+
+/**
+ * Prefix indexes of the city names and the hotel names the typeahead is answered by. Both are built from one scan of
+ * the hotels by the {@link com.dataart.tmurzenkov.cassandra.warmup.StartupWarmUp} in its background thread, before
+ * the instance is ready, and are updated by the hotel service after every insert, so they are complete only while
+ * this instance is the only one that registers the hotels.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class TypeaheadIndex {
+    private final PrefixIndex<Suggestion> cities = new PrefixIndex<>("cities", Suggestion::getName);
+    private final PrefixIndex<Suggestion> hotels = new PrefixIndex<>("hotels", Suggestion::getName);
+    @Autowired
+    private HotelDao hotelDao;
+
+    /**
+     * Builds both indexes from one scan of the stored hotels. The hotels put while they are scanned are indexed as
+     * well. If the hotels cannot be read the current indexes are kept.
+     *
+     * @throws RuntimeException the failure of the scan
+     */
+    public void rebuild() {
+        final PrefixIndex<Suggestion>.Rebuild storedCities = cities.startRebuild();
+        final PrefixIndex<Suggestion>.Rebuild storedHotels = hotels.startRebuild();
+        try {
+            for (Hotel hotel : hotelDao.findAll()) {
+                addIfPresent(storedCities, city(hotel));
+                addIfPresent(storedHotels, hotel(hotel));
+            }
+        } catch (RuntimeException e) {
+            storedCities.abandon();
+            storedHotels.abandon();
+            throw e;
+        }
+        storedCities.finish();
+        storedHotels.finish();
+    }
+
+    /**
+     * Adds the city and the name of the stored hotel.
+     *
+     * @param hotel stored {@link Hotel}
+     */
+    public void put(Hotel hotel) {
+        final Suggestion city = city(hotel);
+        if (null != city) {
+            cities.put(city);
+        }
+        final Suggestion named = hotel(hotel);
+        if (null != named) {
+            hotels.put(named);
+        }
+    }
+
+    /**
+     * Completes the prefix to the cities first and to the hotels after them, each in the alphabetical order.
+     *
+     * @param prefix typed prefix
+     * @param limit  max number of the suggestions
+     * @return {@link List} of {@link Suggestion}
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        final List<Suggestion> suggestions = cities.find(prefix, limit);
+        if (suggestions.size() < limit) {
+            suggestions.addAll(hotels.find(prefix, limit - suggestions.size()));
+        }
+        return suggestions;
+    }
+
+    private static void addIfPresent(PrefixIndex<Suggestion>.Rebuild rebuild, Suggestion suggestion) {
+        if (null != suggestion) {
+            rebuild.add(suggestion);
+        }
+    }
+
+    private static Suggestion city(Hotel hotel) {
+        final String city = null == hotel.getAddress() ? null : hotel.getAddress().getCity();
+        return null == city ? null : new Suggestion(CITY, city, city, null);
+    }
+
+    private static Suggestion hotel(Hotel hotel) {
+        if (null == hotel.getName()) {
+            return null;
+        }
+        return new Suggestion(HOTEL, hotel.getName(), null == hotel.getAddress() ? null : hotel.getAddress().getCity(), hotel.getId());
+    }
+}
@@ -0,0 +1,36 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a monotonically increasing version number per key. Unknown keys are at version zero.
+ *
+ * @param <K> key type
+ * @author tmurzenkov
+ */
+public class VersionCounter<K> {
+    private final ConcurrentMap<K, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current version of the given key.
+     *
+     * @param key any key
+     * @return current version, zero if the key was never incremented
+     */
+    public long current(K key) {
+        final AtomicLong version = versions.get(key);
+        return null == version ? 0L : version.get();
+    }
+
+    /**
+     * Bumps the version of the given key.
+     *
+     * @param key any key
+     * @return the new version
+     */
+    public long increment(K key) {
+        return versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,22 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.outbox;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination the {@link OutboxRelay} publishes the booking events to.
+ *
+ * @author tmurzenkov
+ */
+public interface EventSink {
+    /**
+     * Publishes the events in the given order. The events are published by the time this method returns, the relay
+     * moves past them afterwards. A failed batch is published again, in part or in full, by the next attempt.
+     *
+     * @param events {@link List} of {@link BookingEvent} in the order of their creation
+     * @throws IOException if the events cannot be published
+     */
+    void publish(List<BookingEvent> events) throws IOException;
+}
@@ -0,0 +1,59 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.outbox;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends the events to the local file, one JSON object per line. The batch is forced to the disk before it counts as
+ * published, so no published event is lost by a crash of the host.
+ *
+ * @author tmurzenkov
+ */
+public class FileEventSink implements EventSink {
+    private static final byte NEW_LINE = '\n';
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor.
+     *
+     * @param file         file to append the events to, created if absent
+     * @param objectMapper {@link ObjectMapper} to write the events by
+     */
+    public FileEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<BookingEvent> events) throws IOException {
+        final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (BookingEvent event : events) {
+            lines.write(objectMapper.writeValueAsBytes(event));
+            lines.write(NEW_LINE);
+        }
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileEventSink{" + "file=" + file + '}';
+    }
+}
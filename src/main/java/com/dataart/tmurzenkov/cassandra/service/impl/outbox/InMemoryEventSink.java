@@ -0,0 +1,59 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.outbox;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.lang.String.format;
+
+/**
+ * Bounded in-memory queue of the events for the consumers within the process. A batch is queued whole or not at all:
+ * while the queue has no room for it the publishing fails, so the relay keeps the events in the outbox until the
+ * consumers catch up.
+ *
+ * @author tmurzenkov
+ */
+public class InMemoryEventSink implements EventSink {
+    private final int capacity;
+    private final BlockingQueue<BookingEvent> queue;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity max number of the queued events
+     */
+    public InMemoryEventSink(int capacity) {
+        this.capacity = capacity;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<BookingEvent> events) throws IOException {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IOException(format("No room for %d events in the queue of %d, %d events are queued",
+                    events.size(), capacity, queue.size()));
+        }
+        queue.addAll(events);
+    }
+
+    /**
+     * Takes the queued events out of the queue.
+     *
+     * @param maxEvents max number of the events to take
+     * @return {@link List} of {@link BookingEvent} in the order of their publishing, empty if none is queued
+     */
+    public List<BookingEvent> drain(int maxEvents) {
+        final List<BookingEvent> events = new ArrayList<>();
+        queue.drainTo(events, maxEvents);
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryEventSink{" + "capacity=" + capacity + '}';
+    }
+}
@@ -0,0 +1,246 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.outbox;
+
+import com.dataart.tmurzenkov.cassandra.dao.BookingOutboxDao;
+import com.dataart.tmurzenkov.cassandra.dao.OutboxCheckpointDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.OutboxStatistics;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.OutboxCheckpoint;
+import com.datastax.driver.core.utils.UUIDs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent.BUCKET_MILLIS;
+import static com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent.bucketOf;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.data.cassandra.repository.support.BasicMapId.id;
+
+/**
+ * Publishes the booking events of the outbox to the {@link EventSink} in the order of their creation. Every poll reads
+ * the buckets from the checkpoint on in batches, publishes a batch and only then moves the checkpoint past it, so a
+ * batch the relay failed to checkpoint is published again by the next poll: the delivery is at least once.
+ * <p>
+ * Only the events older than the settle time are read. An event is created before its batch is written, so the event
+ * written late by a slow request could otherwise be skipped by a relay which already read the newer ones. The settle
+ * time has to exceed the deadline of the booking and the clock skew of the instances. The batch that timed out may
+ * still be applied by its batch log later than that, so every poll also reads the events of the rescan time behind the
+ * checkpoint again and publishes the ones it has not published yet. The relay remembers the events it published
+ * within the rescan time in memory only, so after a restart the events of the rescan time are published again. An
+ * event written later than the rescan time after its creation is never published. The relay is meant to run on one
+ * instance, the relays of the same name on several instances publish the events several times.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class OutboxRelay implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String DEFAULT_NAME = "booking-events";
+    private static final long DEFAULT_POLL_MILLIS = 1000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_SETTLE_MILLIS = 10000;
+    private static final long DEFAULT_LOOKBACK_MINUTES = 60;
+    private static final long DEFAULT_RESCAN_MILLIS = 60000;
+    private static final UUID BEFORE_ANY_EVENT = UUIDs.startOf(0);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Set<UUID> recentlyPublished = new HashSet<>();
+    @Autowired
+    private BookingOutboxDao bookingOutboxDao;
+    @Autowired
+    private OutboxCheckpointDao outboxCheckpointDao;
+    @Autowired
+    private EventSink bookingEventSink;
+    @Value("${outbox.relay.enabled:false}")
+    private boolean enabled;
+    @Value("${outbox.relay.name:booking-events}")
+    private String name = DEFAULT_NAME;
+    @Value("${outbox.relay.poll.millis:1000}")
+    private long pollMillis = DEFAULT_POLL_MILLIS;
+    @Value("${outbox.relay.batch.size:100}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    @Value("${outbox.relay.settle.millis:10000}")
+    private long settleMillis = DEFAULT_SETTLE_MILLIS;
+    @Value("${outbox.relay.lookback.minutes:60}")
+    private long lookbackMinutes = DEFAULT_LOOKBACK_MINUTES;
+    @Value("${outbox.relay.rescan.millis:60000}")
+    private long rescanMillis = DEFAULT_RESCAN_MILLIS;
+    private Clock clock = Clock.systemUTC();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile OutboxCheckpoint checkpoint;
+    private volatile long startMillis = clock.millis();
+    private volatile long publishedUpToMillis = -1;
+
+    /**
+     * Starts the polls in the background thread once the context is refreshed for the first time.
+     *
+     * @param event {@link ContextRefreshedEvent}
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!enabled || !started.compareAndSet(false, true)) {
+            return;
+        }
+        startMillis = clock.millis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread relay = new Thread(task, "outbox-relay");
+            relay.setDaemon(true);
+            return relay;
+        });
+        scheduler.scheduleWithFixedDelay(this::relaySafely, pollMillis, pollMillis, MILLISECONDS);
+        LOGGER.info("Started the '{}' outbox relay to {}, polled every {} ms", name, bookingEventSink, pollMillis);
+    }
+
+    @Override
+    public void destroy() {
+        final ScheduledExecutorService current = scheduler;
+        if (null != current) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Publishes the settled events of the rescan time behind the checkpoint not published yet and then all the settled
+     * events after the checkpoint. Must not be called concurrently.
+     *
+     * @return number of the published events
+     * @throws IOException if the events cannot be published
+     */
+    public int relay() throws IOException {
+        final long settledMillis = clock.millis() - settleMillis;
+        final long lastBucket = bucketOf(settledMillis);
+        final UUID upTo = UUIDs.endOf(settledMillis);
+        OutboxCheckpoint current = null == checkpoint ? loadCheckpoint(settledMillis) : checkpoint;
+        final long rescanFromMillis = settledMillis - rescanMillis;
+        recentlyPublished.removeIf(eventId -> UUIDs.unixTimestamp(eventId) < rescanFromMillis);
+        int relayed = rescan(current, rescanFromMillis);
+        while (true) {
+            final UUID after = null == current.getEventId() ? BEFORE_ANY_EVENT : current.getEventId();
+            final List<BookingEvent> events = bookingOutboxDao.findEventsAfter(current.getBucket(), after, upTo, batchSize);
+            if (!events.isEmpty()) {
+                publish(events);
+                relayed += events.size();
+                current = saveCheckpoint(current.getBucket(), events.get(events.size() - 1).getEventId());
+            }
+            if (events.size() < batchSize) {
+                if (current.getBucket() >= lastBucket) {
+                    break;
+                }
+                current = saveCheckpoint(current.getBucket() + 1, null);
+            }
+        }
+        publishedUpToMillis = settledMillis;
+        return relayed;
+    }
+
+    /**
+     * Returns the delivery statistics of the relay.
+     *
+     * @return {@link OutboxStatistics}
+     */
+    public OutboxStatistics getStatistics() {
+        final long now = clock.millis();
+        final double seconds = Math.max(1, now - startMillis) / (double) SECONDS.toMillis(1);
+        final long upTo = publishedUpToMillis;
+        return new OutboxStatistics(null != scheduler, published.sum(), batches.sum(), failures.sum(),
+                published.sum() / seconds, upTo < 0 ? -1 : now - upTo);
+    }
+
+    /**
+     * Sets the clock the settle time and the statistics are measured by.
+     *
+     * @param clock {@link Clock}
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private void relaySafely() {
+        try {
+            final long start = System.nanoTime();
+            final int relayed = relay();
+            if (relayed > 0) {
+                LOGGER.info("Published {} booking events of the '{}' outbox in {} ms", relayed, name,
+                        NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            LOGGER.warn("Cannot publish the events of the '{}' outbox, retried by the next poll from {}", name, checkpoint, e);
+        }
+    }
+
+    /**
+     * Publishes the events from the given time up to the checkpoint which were written after the relay had passed them.
+     */
+    private int rescan(OutboxCheckpoint current, long fromMillis) throws IOException {
+        int rescued = 0;
+        for (long bucket = bucketOf(fromMillis); bucket <= current.getBucket(); bucket++) {
+            final UUID upTo = bucket < current.getBucket() ? UUIDs.endOf((bucket + 1) * BUCKET_MILLIS - 1)
+                    : null == current.getEventId() ? BEFORE_ANY_EVENT : current.getEventId();
+            UUID after = bucket == bucketOf(fromMillis) ? UUIDs.startOf(fromMillis) : BEFORE_ANY_EVENT;
+            List<BookingEvent> events;
+            do {
+                events = bookingOutboxDao.findEventsAfter(bucket, after, upTo, batchSize);
+                final List<BookingEvent> missed = events.stream()
+                        .filter(event -> !recentlyPublished.contains(event.getEventId()))
+                        .collect(toList());
+                if (!missed.isEmpty()) {
+                    publish(missed);
+                    rescued += missed.size();
+                }
+                after = events.isEmpty() ? after : events.get(events.size() - 1).getEventId();
+            } while (events.size() == batchSize);
+        }
+        if (rescued > 0) {
+            LOGGER.warn("Published {} events of the '{}' outbox written after the relay had passed them", rescued, name);
+        }
+        return rescued;
+    }
+
+    private void publish(List<BookingEvent> events) throws IOException {
+        bookingEventSink.publish(events);
+        published.add(events.size());
+        batches.increment();
+        events.forEach(event -> recentlyPublished.add(event.getEventId()));
+    }
+
+    private OutboxCheckpoint loadCheckpoint(long settledMillis) {
+        final OutboxCheckpoint stored = outboxCheckpointDao.findOne(id("relay", name));
+        if (null != stored) {
+            checkpoint = stored;
+            return stored;
+        }
+        final long startBucket = bucketOf(settledMillis - MINUTES.toMillis(lookbackMinutes));
+        LOGGER.info("No checkpoint of the '{}' outbox relay, starting {} minutes back from the bucket {}", name,
+                lookbackMinutes, startBucket);
+        checkpoint = new OutboxCheckpoint(name, startBucket, null);
+        return checkpoint;
+    }
+
+    private OutboxCheckpoint saveCheckpoint(long bucket, UUID eventId) {
+        final OutboxCheckpoint next = outboxCheckpointDao.save(new OutboxCheckpoint(name, bucket, eventId));
+        checkpoint = next;
+        return next;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dataart.tmurzenkov.cassandra.service.impl.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static java.lang.String.format;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Retention of the booked room nights. A booking is kept for bookings.retention.days after the night of the stay and
+ * expires by the TTL afterwards, the export of the expiring rows archives it before. The non positive retention keeps
+ * the bookings forever.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class BookingRetention {
+    private static final long MAX_TTL_SECONDS = 630720000L;
+    @Value("${bookings.retention.days:365}")
+    private int retentionDays;
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Creates the retention the days are injected into.
+     */
+    public BookingRetention() {
+    }
+
+    /**
+     * Creates the retention outside the application context.
+     *
+     * @param retentionDays days the bookings are kept after the night of the stay, non positive to keep them forever
+     */
+    public BookingRetention(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Whether the bookings expire.
+     *
+     * @return true if the bookings are written with the TTL
+     */
+    public boolean isEnabled() {
+        return retentionDays > 0;
+    }
+
+    /**
+     * Returns the TTL of the booking of the night if the bookings expire.
+     *
+     * @param bookingDate night of the stay
+     * @return seconds till the expiry, 0 if the bookings are kept forever
+     * @throws IllegalArgumentException if the night is past the retention or too far in the future for a TTL
+     */
+    public int ttlSecondsIfEnabled(LocalDate bookingDate) {
+        return isEnabled() ? ttlSeconds(bookingDate) : 0;
+    }
+
+    /**
+     * Returns the first day the booking of the night is no longer kept.
+     *
+     * @param bookingDate night of the stay
+     * @return {@link LocalDate} of the expiry, UTC
+     */
+    public LocalDate expiresOn(LocalDate bookingDate) {
+        return bookingDate.plusDays(1 + retentionDays);
+    }
+
+    /**
+     * Returns the TTL of the booking of the night.
+     *
+     * @param bookingDate night of the stay
+     * @return seconds till the start of the expiry day, UTC
+     * @throws IllegalArgumentException if the night is past the retention or too far in the future for a TTL
+     */
+    public int ttlSeconds(LocalDate bookingDate) {
+        final long ttl = Duration.between(clock.instant(), expiresOn(bookingDate).atStartOfDay(UTC).toInstant()).getSeconds();
+        if (ttl <= 0 || ttl > MAX_TTL_SECONDS) {
+            throw new IllegalArgumentException(format("Cannot book the night of '%s' kept for %d days", bookingDate, retentionDays));
+        }
+        return (int) ttl;
+    }
+
+    /**
+     * Sets the clock the TTL is computed from.
+     *
+     * @param clock {@link Clock}
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
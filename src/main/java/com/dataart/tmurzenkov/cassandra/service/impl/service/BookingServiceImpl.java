@@ -1,47 +1,149 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.service;
 
+import com.dataart.tmurzenkov.cassandra.dao.BookingBatchDao;
+import com.dataart.tmurzenkov.cassandra.dao.ExpiringInsertDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
 import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
 import com.dataart.tmurzenkov.cassandra.service.BookingService;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.datastax.driver.core.utils.UUIDs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.roomBitmap;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.callAsync;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.unwrap;
 import static java.lang.String.format;
 import static java.lang.String.valueOf;
+import static java.util.concurrent.TimeUnit.HOURS;
 
 /**
- * {@link BookingService} implementation.
+ * {@link BookingService} implementation. The room of the night is marked in the occupancy bitmap of the hotel before
+ * the booking rows are written, so a booking that could not be marked is not stored and a stored one is never seen as
+ * free by the occupancy reads. The room already marked by another booking is not booked again. If the booking rows
+ * cannot be written the room is removed from the bitmap again, unless the write timed out and may still be applied. A
+ * room left marked after all, e.g. the service died in between, is removed by the
+ * {@link com.dataart.tmurzenkov.cassandra.migration.HotelOccupancyCheck}. With the outbox enabled the booking rows are
+ * written in one batch with the event of the booking, which the
+ * {@link com.dataart.tmurzenkov.cassandra.service.impl.outbox.OutboxRelay} publishes downstream. The async booking
+ * takes the same steps by the async statements of the daos, each sent by the thread that completed the previous one.
  *
  * @author Taras_Murzenkov
  */
 @Service
 public class BookingServiceImpl implements BookingService {
     private static final Logger LOGGER = LoggerFactory.getLogger(GuestServiceImpl.class);
+    private static final int DEFAULT_OUTBOX_RETENTION_HOURS = 168;
     @Autowired
     private RoomDao roomDao;
     @Autowired
     private RoomByGuestAndDateDao roomByGuestAndDateDao;
     @Autowired
     private RoomByHotelAndDateDao roomByHotelAndDateDao;
+    @Autowired
+    private ExpiringInsertDao expiringInsertDao;
+    @Autowired
+    private BookingRetention bookingRetention;
+    @Autowired
+    private HotelOccupancyDao hotelOccupancyDao;
+    @Value("${rooms.occupancy.cas.attempts:16}")
+    private int occupancyAttempts;
+    @Autowired
+    private FreeRoomsCache freeRoomsCache;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private ExistenceFilters existenceFilters;
+    @Autowired
+    private BookingBatchDao bookingBatchDao;
+    @Value("${outbox.enabled:false}")
+    private boolean outboxEnabled;
+    @Value("${outbox.retention.hours:168}")
+    private int outboxRetentionHours = DEFAULT_OUTBOX_RETENTION_HOURS;
 
     @Override
     public BookingRequest performBooking(BookingRequest bookingRequest) {
         LOGGER.info("Going to perform booking with the following booking request '{}'", bookingRequest);
         validateBookingRequest(bookingRequest);
-        doInsertInGuestAndDate(bookingRequest);
-        doInsertInRoomByHotelAndDate(bookingRequest);
+        final int ttlSeconds = bookingRetention.ttlSecondsIfEnabled(bookingRequest.getBookingDate());
+        final RoomByGuestAndDate guestAndDate = new RoomByGuestAndDate(bookingRequest);
+        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
+        checkIfBooked(guestAndDate);
+        checkIfExists(roomByHotelAndDate);
+        final BitSet room = roomBitmap(bookingRequest.getRoomNumber());
+        if (!hotelOccupancyDao.occupy(bookingRequest.getHotelId(), bookingRequest.getBookingDate(), room, ttlSeconds,
+                occupancyAttempts)) {
+            throw new RecordExistsException(alreadyBookedMessage(guestAndDate));
+        }
+        guestAndDate.setConfirmationNumber(valueOf(generateConfirmationNumber(bookingRequest)));
+        try {
+            insertBooking(guestAndDate, roomByHotelAndDate, ttlSeconds);
+        } catch (RuntimeException e) {
+            if (isOutcomeUnknown(e)) {
+                LOGGER.warn("The booking '{}' may still be written, its room is kept in the occupancy", bookingRequest);
+            } else {
+                release(bookingRequest, room, ttlSeconds, e);
+            }
+            throw e;
+        }
+        freeRoomsCache.invalidate(bookingRequest.getHotelId());
+        resourceVersions.guestChanged(bookingRequest.getGuestId());
         return bookingRequest;
     }
 
+    /**
+     * Books the room as the {@link #performBooking(BookingRequest)} does by the async statements of the daos, so no
+     * thread waits for the answers. The booking and the room are looked up at once.
+     */
+    @Override
+    public CompletableFuture<BookingRequest> performBookingAsync(BookingRequest bookingRequest) {
+        LOGGER.info("Going to perform booking asynchronously with the following booking request '{}'", bookingRequest);
+        validateBookingRequest(bookingRequest);
+        final int ttlSeconds = bookingRetention.ttlSecondsIfEnabled(bookingRequest.getBookingDate());
+        final RoomByGuestAndDate guestAndDate = new RoomByGuestAndDate(bookingRequest);
+        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
+        final BitSet room = roomBitmap(bookingRequest.getRoomNumber());
+        return roomByGuestAndDateDao.existsAsync(guestAndDate.getCompositeId())
+                .thenCombine(roomExistsAsync(roomByHotelAndDate), (booked, roomExists) -> {
+                    if (booked) {
+                        throw new RecordExistsException(alreadyBookedMessage(guestAndDate));
+                    }
+                    if (!roomExists) {
+                        throw new RecordNotFoundException(roomNotFoundMessage(roomByHotelAndDate));
+                    }
+                    return bookingRequest;
+                })
+                .thenCompose(checked -> hotelOccupancyDao.occupyAsync(bookingRequest.getHotelId(), bookingRequest.getBookingDate(),
+                        room, ttlSeconds, occupancyAttempts))
+                .thenCompose(occupied -> {
+                    if (!occupied) {
+                        throw new RecordExistsException(alreadyBookedMessage(guestAndDate));
+                    }
+                    guestAndDate.setConfirmationNumber(valueOf(generateConfirmationNumber(bookingRequest)));
+                    return insertBookingAsync(bookingRequest, guestAndDate, roomByHotelAndDate, room, ttlSeconds);
+                });
+    }
+
     @Override
     public Integer generateConfirmationNumber(BookingRequest bookingRequest) {
         return bookingRequest.hashCode();
@@ -53,33 +155,111 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private void doInsertInGuestAndDate(final BookingRequest bookingRequest) {
-        final RoomByGuestAndDate guestAndDate = new RoomByGuestAndDate(bookingRequest);
-        checkIfBooked(guestAndDate);
-        guestAndDate.setConfirmationNumber(valueOf(generateConfirmationNumber(bookingRequest)));
-        roomByGuestAndDateDao.insert(guestAndDate);
+    private void insertBooking(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate roomByHotelAndDate, int ttlSeconds) {
+        if (outboxEnabled) {
+            bookingBatchDao.insertBooking(guestAndDate, roomByHotelAndDate, new BookingEvent(guestAndDate, UUIDs.timeBased()),
+                    ttlSeconds, (int) HOURS.toSeconds(outboxRetentionHours));
+        } else {
+            insert(guestAndDate, roomByGuestAndDateDao::insert, ttlSeconds);
+            insert(roomByHotelAndDate, roomByHotelAndDateDao::insert, ttlSeconds);
+        }
     }
 
-    private void doInsertInRoomByHotelAndDate(final BookingRequest bookingRequest) {
-        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
-        checkIfExists(roomByHotelAndDate);
-        roomByHotelAndDateDao.insert(roomByHotelAndDate);
+    /**
+     * Writes the booking rows, the room is removed from the occupancy again on the failure as by the synchronous
+     * booking.
+     */
+    private CompletableFuture<BookingRequest> insertBookingAsync(BookingRequest bookingRequest, RoomByGuestAndDate guestAndDate,
+                                                                 RoomByHotelAndDate roomByHotelAndDate, BitSet room, int ttlSeconds) {
+        final CompletableFuture<BookingRequest> booked = new CompletableFuture<>();
+        callAsync(() -> insertBookingAsync(guestAndDate, roomByHotelAndDate, ttlSeconds)).whenComplete((inserted, e) -> {
+            if (null == e) {
+                freeRoomsCache.invalidate(bookingRequest.getHotelId());
+                resourceVersions.guestChanged(bookingRequest.getGuestId());
+                booked.complete(bookingRequest);
+                return;
+            }
+            final Throwable failure = unwrap(e);
+            if (isOutcomeUnknown(failure)) {
+                LOGGER.warn("The booking '{}' may still be written, its room is kept in the occupancy", bookingRequest);
+                booked.completeExceptionally(failure);
+                return;
+            }
+            callAsync(() -> hotelOccupancyDao.releaseAsync(bookingRequest.getHotelId(), bookingRequest.getBookingDate(), room,
+                    ttlSeconds, occupancyAttempts)).whenComplete((released, releaseFailure) -> {
+                        if (null != releaseFailure) {
+                            LOGGER.error("Cannot remove the room of the failed booking '{}' from the occupancy", bookingRequest,
+                                    unwrap(releaseFailure));
+                            failure.addSuppressed(unwrap(releaseFailure));
+                        }
+                        booked.completeExceptionally(failure);
+                    });
+        });
+        return booked;
+    }
+
+    private CompletableFuture<?> insertBookingAsync(RoomByGuestAndDate guestAndDate, RoomByHotelAndDate roomByHotelAndDate,
+                                                    int ttlSeconds) {
+        if (outboxEnabled) {
+            return bookingBatchDao.insertBookingAsync(guestAndDate, roomByHotelAndDate,
+                    new BookingEvent(guestAndDate, UUIDs.timeBased()), ttlSeconds, (int) HOURS.toSeconds(outboxRetentionHours));
+        }
+        return expiringInsertDao.insertWithTtlAsync(guestAndDate, ttlSeconds)
+                .thenCompose(inserted -> expiringInsertDao.insertWithTtlAsync(roomByHotelAndDate, ttlSeconds));
+    }
+
+    private void release(BookingRequest bookingRequest, BitSet room, int ttlSeconds, RuntimeException cause) {
+        try {
+            hotelOccupancyDao.release(bookingRequest.getHotelId(), bookingRequest.getBookingDate(), room, ttlSeconds, occupancyAttempts);
+        } catch (RuntimeException e) {
+            LOGGER.error("Cannot remove the room of the failed booking '{}' from the occupancy", bookingRequest, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private <T> void insert(T row, Consumer<T> insertForever, int ttlSeconds) {
+        if (ttlSeconds > 0) {
+            expiringInsertDao.insertWithTtl(row, ttlSeconds);
+        } else {
+            insertForever.accept(row);
+        }
+    }
+
+    private static boolean isOutcomeUnknown(Throwable failure) {
+        for (Throwable cause = failure; null != cause; cause = cause.getCause()) {
+            if (cause instanceof WriteTimeoutException || cause instanceof OperationTimedOutException) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void checkIfBooked(RoomByGuestAndDate roomByGuestAndDate) {
-        final String exceptionMessage = format("The following room is already booked. Room number: '%s', hotel id: '%s'",
-                roomByGuestAndDate.getRoomNumber(), roomByGuestAndDate.getHotelId());
         if (roomByGuestAndDateDao.exists(roomByGuestAndDate.getCompositeId())) {
-            throw new RecordExistsException(exceptionMessage);
+            throw new RecordExistsException(alreadyBookedMessage(roomByGuestAndDate));
         }
     }
 
+    private static String alreadyBookedMessage(RoomByGuestAndDate roomByGuestAndDate) {
+        return format("The following room is already booked. Room number: '%s', hotel id: '%s'",
+                roomByGuestAndDate.getRoomNumber(), roomByGuestAndDate.getHotelId());
+    }
+
 
     private void checkIfExists(RoomByHotelAndDate roomByHotelAndDate) {
-        final String exceptionMessage = format("The following room does not exists. Room number: '%s', hotel id: '%s',",
-                roomByHotelAndDate.getRoomNumber(), roomByHotelAndDate.getId());
-        if (!roomDao.exists(new Room(roomByHotelAndDate).getCompositeId())) {
-            throw new RecordNotFoundException(exceptionMessage);
+        final Room room = new Room(roomByHotelAndDate);
+        if (!existenceFilters.rooms().exists(room, storedRoom -> roomDao.exists(storedRoom.getCompositeId()))) {
+            throw new RecordNotFoundException(roomNotFoundMessage(roomByHotelAndDate));
         }
     }
+
+    private CompletableFuture<Boolean> roomExistsAsync(RoomByHotelAndDate roomByHotelAndDate) {
+        return existenceFilters.rooms().existsAsync(new Room(roomByHotelAndDate),
+                storedRoom -> roomDao.existsAsync(storedRoom.getCompositeId()));
+    }
+
+    private static String roomNotFoundMessage(RoomByHotelAndDate roomByHotelAndDate) {
+        return format("The following room does not exists. Room number: '%s', hotel id: '%s',",
+                roomByHotelAndDate.getRoomNumber(), roomByHotelAndDate.getId());
+    }
 }
@@ -1,6 +1,6 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.service;
 
-import com.dataart.tmurzenkov.cassandra.dao.GuestDao;
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
 import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
@@ -30,7 +30,7 @@ import static java.util.stream.Collectors.toList;
 public class GuestServiceImpl implements GuestService {
     private static final Logger LOGGER = LoggerFactory.getLogger(GuestServiceImpl.class);
     @Autowired
-    private GuestDao guestDao;
+    private ConditionalInsertDao conditionalInsertDao;
     @Autowired
     private RoomByGuestAndDateDao roomByGuestAndDateDao;
     @Autowired
@@ -39,10 +39,9 @@ public class GuestServiceImpl implements GuestService {
     @Override
     public Guest registerNewGuest(Guest guest) {
         guestValidatorService.validateInfo(guest);
-        guestValidatorService.checkIfExists(guest);
-        final Guest savedGuestInfo = guestDao.insert(guest);
-        LOGGER.info("Successfully registered the new guest '{}'", savedGuestInfo);
-        return savedGuestInfo;
+        guestValidatorService.checkIfInserted(guest, conditionalInsertDao.insertIfNotExists(guest));
+        LOGGER.info("Successfully registered the new guest '{}'", guest);
+        return guest;
     }
 
     @Override
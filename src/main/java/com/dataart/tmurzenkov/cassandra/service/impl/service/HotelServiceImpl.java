@@ -1,24 +1,58 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.service;
 
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
 import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelByGeohashDao;
 import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.NearbyHotel;
+import com.dataart.tmurzenkov.cassandra.model.dto.ProximitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
+import com.dataart.tmurzenkov.cassandra.model.entity.Address;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByGeohash;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
 import com.dataart.tmurzenkov.cassandra.service.HotelService;
 import com.dataart.tmurzenkov.cassandra.service.ValidatorService;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.TypeaheadIndex;
+import com.dataart.tmurzenkov.cassandra.util.FutureUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.CELL_PRECISION;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.countCoveringCells;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.coveringCells;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.distanceKm;
 import static com.dataart.tmurzenkov.cassandra.util.StringUtils.isEmpty;
 import static com.dataart.tmurzenkov.cassandra.util.StringUtils.makeString;
+import static com.dataart.tmurzenkov.cassandra.util.StreamUtils.requireNonEmpty;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Map.Entry.comparingByValue;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Service to manage {@link Hotel}.
@@ -28,12 +62,39 @@ import static java.util.stream.Collectors.toList;
 @Service
 public class HotelServiceImpl implements HotelService {
     private static Logger LOGGER = LoggerFactory.getLogger(HotelServiceImpl.class);
+    private static final double DEFAULT_NEARBY_INITIAL_RADIUS_KM = 5;
+    private static final double DEFAULT_NEARBY_MAX_RADIUS_KM = 25;
+    private static final int DEFAULT_NEARBY_MAX_CELLS = 512;
+    private static final int DEFAULT_TYPEAHEAD_MAX_LIMIT = 50;
     @Autowired
     private HotelDao hotelDao;
     @Autowired
     private HotelByCityDao hotelByCityDao;
     @Autowired
+    private HotelByGeohashDao hotelByGeohashDao;
+    @Autowired
+    private ConditionalInsertDao conditionalInsertDao;
+    @Autowired
     private ValidatorService<Hotel> validatorService;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private ExistenceFilters existenceFilters;
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+    @Autowired
+    @Qualifier("fanOutTaskExecutor")
+    private Executor fanOutTaskExecutor;
+    @Value("${hotels.parallel.reads:false}")
+    private boolean parallelReads;
+    @Value("${hotels.nearby.initial.radius.km:5}")
+    private double nearbyInitialRadiusKm = DEFAULT_NEARBY_INITIAL_RADIUS_KM;
+    @Value("${hotels.nearby.max.radius.km:25}")
+    private double nearbyMaxRadiusKm = DEFAULT_NEARBY_MAX_RADIUS_KM;
+    @Value("${hotels.nearby.max.cells:512}")
+    private int nearbyMaxCells = DEFAULT_NEARBY_MAX_CELLS;
+    @Value("${hotels.typeahead.max.limit:50}")
+    private int typeaheadMaxLimit = DEFAULT_TYPEAHEAD_MAX_LIMIT;
 
     /**
      * Saves the hotel to the DB.
@@ -44,6 +105,9 @@ public class HotelServiceImpl implements HotelService {
     public Hotel addHotel(Hotel hotel) {
         doInsertInHotel(hotel);
         doInsertInHotelByCity(hotel);
+        doInsertInHotelByGeohash(hotel);
+        resourceVersions.cityChanged(hotel.getAddress().getCity());
+        typeaheadIndex.put(hotel);
         LOGGER.info("Successfully saved the new entity into the DB: '{}'", hotel);
         return hotel;
     }
@@ -54,31 +118,174 @@ public class HotelServiceImpl implements HotelService {
         return  doFindHotelsByTheirIds(city, hotelIds);
     }
 
+    /**
+     * Reads the ids of the hotels in the city and then the hotels by the async statements of the daos, so no thread
+     * waits for the answers. With the parallel reads the single partition statements of all the hotels are sent at
+     * once.
+     */
+    @Override
+    public CompletableFuture<List<Hotel>> findAllHotelsInTheCityAsync(String city) {
+        requireCity(city);
+        return hotelByCityDao.findAllHotelIdsInTheCityAsync(city)
+                .thenCompose(hotels -> readHotelsAsync(hotels.stream().map(HotelByCity::getId).collect(toList())))
+                .thenApply(hotelsForTheCity -> {
+                    if (hotelsForTheCity.isEmpty()) {
+                        throw hotelsNotFound(city);
+                    }
+                    LOGGER.info("Found the following hotels '{}' for the city '{}'", makeString(hotelsForTheCity), city);
+                    return hotelsForTheCity;
+                });
+    }
+
+    @Override
+    public Stream<Hotel> streamAllHotelsInTheCity(String city) {
+        List<UUID> hotelIds = doFindHotelIdsByCityName(city);
+        if (hotelIds.isEmpty()) {
+            throw hotelsNotFound(city);
+        }
+        LOGGER.info("Going to stream the hotels '{}' for the city '{}'", makeString(hotelIds), city);
+        return requireNonEmpty(hotelDao.streamHotelInformationByIds(hotelIds), () -> hotelsNotFound(city));
+    }
+
+    /**
+     * Reads the geohash cells covering the circle around the point in parallel and ranks their hotels by the distance.
+     * The circle starts at the initial radius and doubles up to the max one until it holds the hotels asked for, the
+     * cells read already are not read again. Only the hotels within the circle are ranked, as a nearer hotel may be in
+     * a cell not read yet.
+     */
+    @Override
+    public List<NearbyHotel> findHotelsNearby(ProximitySearchRequest searchRequest) {
+        final Map<UUID, Double> distances = new HashMap<>();
+        final Set<String> readCells = new HashSet<>();
+        double radiusKm = Math.min(nearbyInitialRadiusKm, nearbyMaxRadiusKm);
+        List<UUID> nearest = findNearest(searchRequest, radiusKm, distances, readCells);
+        while (nearest.size() < searchRequest.getLimit() && radiusKm < nearbyMaxRadiusKm) {
+            final double widerRadiusKm = Math.min(2 * radiusKm, nearbyMaxRadiusKm);
+            if (countCoveringCells(searchRequest.getLatitude(), searchRequest.getLongitude(), widerRadiusKm, CELL_PRECISION)
+                    > nearbyMaxCells) {
+                LOGGER.info("The search radius of the request '{}' is kept at {} km, wider takes more than {} cells",
+                        searchRequest, radiusKm, nearbyMaxCells);
+                break;
+            }
+            radiusKm = widerRadiusKm;
+            nearest = findNearest(searchRequest, radiusKm, distances, readCells);
+        }
+        final Map<UUID, Hotel> hotels = nearest.isEmpty() ? new HashMap<>()
+                : readHotels(nearest).stream().collect(toMap(Hotel::getId, identity(), (hotel, duplicate) -> hotel));
+        final List<NearbyHotel> nearbyHotels = nearest.stream()
+                .filter(hotels::containsKey)
+                .map(hotelId -> new NearbyHotel(hotels.get(hotelId), distances.get(hotelId)))
+                .collect(toList());
+        if (nearbyHotels.isEmpty()) {
+            throw new RecordNotFoundException(format("Cannot find hotels within %s km for the given request '%s'",
+                    radiusKm, searchRequest));
+        }
+        LOGGER.info("Found {} hotels within {} km in {} cells for the request '{}'", nearbyHotels.size(), radiusKm,
+                readCells.size(), searchRequest);
+        return nearbyHotels;
+    }
+
+    private List<UUID> findNearest(ProximitySearchRequest searchRequest, double radiusKm, Map<UUID, Double> distances,
+                                   Set<String> readCells) {
+        final double latitude = searchRequest.getLatitude();
+        final double longitude = searchRequest.getLongitude();
+        final Set<String> cells = coveringCells(latitude, longitude, radiusKm, CELL_PRECISION, nearbyMaxCells);
+        cells.removeAll(readCells);
+        readCells.addAll(cells);
+        readHotelsInTheCells(cells).forEach(hotel ->
+                distances.put(hotel.getId(), distanceKm(latitude, longitude, hotel.getLatitude(), hotel.getLongitude())));
+        return distances.entrySet().stream()
+                .filter(distance -> distance.getValue() <= radiusKm)
+                .sorted(comparingByValue())
+                .limit(searchRequest.getLimit())
+                .map(Map.Entry::getKey)
+                .collect(toList());
+    }
+
+    private List<HotelByGeohash> readHotelsInTheCells(final Collection<String> cells) {
+        final List<CompletableFuture<List<HotelByGeohash>>> hotels = cells.stream()
+                .map(cell -> supplyAsync(() -> hotelByGeohashDao.findAllHotelsInTheCell(cell), fanOutTaskExecutor))
+                .collect(toList());
+        return hotels.stream().map(FutureUtils::join).flatMap(List::stream).collect(toList());
+    }
+
     private List<UUID> doFindHotelIdsByCityName(final String city) {
+        requireCity(city);
+        return hotelByCityDao.findAllHotelIdsInTheCity(city).stream().map(HotelByCity::getId).collect(toList());
+    }
+
+    private static void requireCity(final String city) {
         if (isEmpty(city)) {
             throw new IllegalArgumentException("Cannot find the hotels for the empty city name");
         }
-        return hotelByCityDao.findAllHotelIdsInTheCity(city).stream().map(HotelByCity::getId).collect(toList());
     }
 
     private List<Hotel> doFindHotelsByTheirIds(final String city, final List<UUID> hotelIds) {
-        List<Hotel> hotelsForTheCity = hotelDao.findHotelInformationByIds(hotelIds);
+        List<Hotel> hotelsForTheCity = readHotels(hotelIds);
         if (hotelsForTheCity.isEmpty()) {
-            throw new RecordNotFoundException(format("Cannot find hotels for the given city '%s'", city));
+            throw hotelsNotFound(city);
         }
         LOGGER.info("Found the following hotels '{}' for the city '{}'", makeString(hotelsForTheCity), city);
         return hotelsForTheCity;
     }
 
+    private List<Hotel> readHotels(final List<UUID> hotelIds) {
+        return parallelReads ? readHotelsInParallel(hotelIds) : hotelDao.findHotelInformationByIds(hotelIds);
+    }
+
+    /**
+     * Reads every hotel by its own single partition query in the fan-out executor instead of the one multi partition
+     * query, which makes the coordinator wait for the slowest of the replicas. Pays off when the fan-out executor runs
+     * the virtual threads, as a blocked read then costs no platform thread.
+     */
+    private List<Hotel> readHotelsInParallel(final List<UUID> hotelIds) {
+        final List<CompletableFuture<Hotel>> hotels = hotelIds.stream().distinct()
+                .map(hotelId -> supplyAsync(() -> hotelDao.findOne(hotelId), fanOutTaskExecutor))
+                .collect(toList());
+        return hotels.stream().map(FutureUtils::join).filter(Objects::nonNull).collect(toList());
+    }
+
+    private CompletableFuture<List<Hotel>> readHotelsAsync(final List<UUID> hotelIds) {
+        if (hotelIds.isEmpty()) {
+            return completedFuture(emptyList());
+        }
+        if (!parallelReads) {
+            return hotelDao.findHotelInformationByIdsAsync(hotelIds);
+        }
+        final List<CompletableFuture<Hotel>> hotels = hotelIds.stream().distinct().map(hotelDao::findOneAsync).collect(toList());
+        return allOf(hotels.toArray(new CompletableFuture[hotels.size()]))
+                .thenApply(none -> hotels.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(toList()));
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > typeaheadMaxLimit) {
+            throw new IllegalArgumentException(format("The limit of the suggestions must be from 1 to %d, but was %d",
+                    typeaheadMaxLimit, limit));
+        }
+        return typeaheadIndex.suggest(prefix, limit);
+    }
+
+    private RecordNotFoundException hotelsNotFound(final String city) {
+        return new RecordNotFoundException(format("Cannot find hotels for the given city '%s'", city));
+    }
+
     private void doInsertInHotelByCity(final Hotel registeredHotel) {
         final HotelByCity hotelByCity = new HotelByCity(registeredHotel);
         hotelByCityDao.insert(hotelByCity);
     }
 
+    private void doInsertInHotelByGeohash(final Hotel registeredHotel) {
+        final Address address = registeredHotel.getAddress();
+        if (null != address.getLatitude() && null != address.getLongitude()) {
+            hotelByGeohashDao.insert(new HotelByGeohash(registeredHotel));
+        }
+    }
+
     private void doInsertInHotel(final Hotel hotel) {
         validatorService.validateInfo(hotel);
         LOGGER.info("Going to save the following entity into the DB: '{}'", hotel);
-        validatorService.checkIfExists(hotel);
-        hotelDao.insert(hotel);
+        validatorService.checkIfInserted(hotel, conditionalInsertDao.insertIfNotExists(hotel));
+        existenceFilters.hotels().put(hotel.getId());
     }
 }
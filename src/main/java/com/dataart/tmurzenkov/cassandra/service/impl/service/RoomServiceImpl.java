@@ -1,28 +1,54 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.service;
 
-import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelInventoryDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.dao.impl.RoomByHotelAndDateRouter;
+import com.dataart.tmurzenkov.cassandra.model.dto.CitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.HotelAvailability;
 import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
 import com.dataart.tmurzenkov.cassandra.service.RoomService;
 import com.dataart.tmurzenkov.cassandra.service.ValidatorService;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
+import com.dataart.tmurzenkov.cassandra.util.FutureUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 import static com.dataart.tmurzenkov.cassandra.util.CollectionUtils.difference;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.join;
 import static com.dataart.tmurzenkov.cassandra.util.StringUtils.makeString;
+import static com.dataart.tmurzenkov.cassandra.util.StreamUtils.requireNonEmpty;
 import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 /**
- * {@link RoomService} implementation.
+ * {@link RoomService} implementation. The booked rooms of a period are read from the booking rows or, with
+ * rooms.occupancy.reads=true once the hotel_occupancy table is rebuilt, from one occupancy bitmap per night. The
+ * availability of the hotels is then counted from the room counter and the booked room counts of the nights alone,
+ * the rooms themselves are read only when they are asked for.
  *
  * @author tmurzenkov
  */
@@ -30,45 +56,157 @@ import static java.util.stream.Collectors.toSet;
 public class RoomServiceImpl implements RoomService {
     private static final Logger LOGGER = LoggerFactory.getLogger(RoomServiceImpl.class);
     @Autowired
-    private RoomByHotelAndDateDao roomByHotelAndDateDao;
+    private RoomByHotelAndDateRouter roomByHotelAndDateRouter;
     @Autowired
     private RoomDao roomDao;
     @Autowired
     private ValidatorService<Room> validatorService;
+    @Autowired
+    private FreeRoomsCache freeRoomsCache;
+    @Autowired
+    private ConditionalInsertDao conditionalInsertDao;
+    @Autowired
+    private ExistenceFilters existenceFilters;
+    @Autowired
+    private HotelOccupancyDao hotelOccupancyDao;
+    @Autowired
+    private HotelInventoryDao hotelInventoryDao;
+    @Autowired
+    private HotelByCityDao hotelByCityDao;
+    @Autowired
+    @Qualifier("fanOutTaskExecutor")
+    private Executor fanOutTaskExecutor;
+    @Value("${rooms.occupancy.reads:false}")
+    private boolean occupancyReads;
 
     @Override
     public Room addRoomToHotel(Room room) {
         LOGGER.info("Going to add the new room to the hotel '{}'", room);
         validatorService.validateInfo(room);
-        validatorService.checkIfExists(room);
-        Room addedRoom = roomDao.insert(room);
-        LOGGER.info("Successfully added the new room to the hotel '{}'", addedRoom);
-        return addedRoom;
+        validatorService.checkReferences(room);
+        validatorService.checkIfInserted(room, conditionalInsertDao.insertIfNotExists(room));
+        hotelInventoryDao.addRooms(room.getId(), 1);
+        existenceFilters.rooms().put(room);
+        freeRoomsCache.invalidate(room.getId());
+        LOGGER.info("Successfully added the new room to the hotel '{}'", room);
+        return room;
     }
 
     @Override
     public Set<Room> findFreeRoomsInTheHotel(SearchRequest searchRequest) {
-        Set<Room> bookedRoomsInHotel = findAllRoomsBySearchRequest(searchRequest);
-        Set<Room> allRoomsInHotel = roomDao.findAllRoomsByHotelId(searchRequest.getHotelId());
-        Set<Room> freeRooms = findFreeRoomsInHotel(searchRequest, bookedRoomsInHotel, allRoomsInHotel);
+        Set<Room> freeRooms = freeRoomsCache.findFreeRooms(searchRequest, this::readFreeRoomsInHotel);
+        if (freeRooms.isEmpty()) {
+            throw freeRoomsNotFound(searchRequest);
+        }
         LOGGER.info("Found the following free rooms '{}'", makeString(freeRooms));
         return freeRooms;
     }
 
-    private Set<Room> findFreeRoomsInHotel(final SearchRequest searchRequest,
-                                           final Set<Room> bookedRoomsInHotel,
-                                           final Set<Room> allRoomsInHotel) {
-        Set<Room> freeRooms = difference(bookedRoomsInHotel, allRoomsInHotel);
-        if (freeRooms.isEmpty()) {
-            throw new RecordNotFoundException(format("No free rooms were found for the given request '%s'", searchRequest));
+    /**
+     * Reads the booked rooms and the rooms of the hotel by the async statements of the daos sent at once, so no thread
+     * waits for the answers.
+     */
+    @Override
+    public CompletableFuture<Set<Room>> findFreeRoomsInTheHotelAsync(SearchRequest searchRequest) {
+        return freeRoomsCache.findFreeRoomsAsync(searchRequest, this::readFreeRoomsInHotelAsync).thenApply(freeRooms -> {
+            if (freeRooms.isEmpty()) {
+                throw freeRoomsNotFound(searchRequest);
+            }
+            LOGGER.info("Found the following free rooms '{}'", makeString(freeRooms));
+            return freeRooms;
+        });
+    }
+
+    /**
+     * Streams the rooms of the hotel skipping the booked ones. Bypasses the {@link FreeRoomsCache}, as the cached
+     * entry would hold the whole result in memory.
+     *
+     * @param searchRequest start time period {@link SearchRequest}
+     * @return non empty {@link Stream} of {@link Room}
+     */
+    @Override
+    public Stream<Room> streamFreeRoomsInTheHotel(SearchRequest searchRequest) {
+        Set<Room> bookedRoomsInHotel = findAllRoomsBySearchRequest(searchRequest);
+        Stream<Room> freeRooms = roomDao.streamAllRoomsByHotelId(searchRequest.getHotelId())
+                .filter(room -> !bookedRoomsInHotel.contains(room));
+        return requireNonEmpty(freeRooms, () -> freeRoomsNotFound(searchRequest));
+    }
+
+    @Override
+    public HotelAvailability findAvailability(SearchRequest searchRequest) {
+        final HotelAvailability availability = countFreeRooms(searchRequest.getHotelId(), searchRequest.getStart(), searchRequest.getEnd());
+        LOGGER.info("Found the availability '{}'", availability);
+        return availability;
+    }
+
+    @Override
+    public List<HotelAvailability> rankHotelsInTheCity(CitySearchRequest searchRequest) {
+        final String city = searchRequest.getCity();
+        final List<CompletableFuture<HotelAvailability>> hotels = hotelByCityDao.findAllHotelIdsInTheCity(city).stream()
+                .map(hotel -> supplyAsync(() -> countFreeRooms(hotel.getId(), searchRequest.getStart(), searchRequest.getEnd()),
+                        fanOutTaskExecutor))
+                .collect(toList());
+        if (hotels.isEmpty()) {
+            throw new RecordNotFoundException(format("No hotels were found for the given request '%s'", searchRequest));
         }
-        return freeRooms;
+        return hotels.stream()
+                .map(FutureUtils::join)
+                .sorted(comparingLong(HotelAvailability::getFreeRooms).reversed())
+                .collect(toList());
     }
 
-    private Set<Room> findAllRoomsBySearchRequest(final SearchRequest searchRequest) {
+    /**
+     * Counts the rooms free for every night, i.e. the rooms of the hotel less the rooms booked for any of the nights.
+     * The rooms are counted by the hotel_inventory counter and the booked ones by the union of the hotel_occupancy
+     * bitmaps or, until they are rebuilt, by the rooms and the booking rows of the hotel.
+     */
+    private HotelAvailability countFreeRooms(UUID hotelId, LocalDate start, LocalDate end) {
+        final long rooms = occupancyReads ? hotelInventoryDao.countRooms(hotelId) : roomDao.findAllRoomsByHotelId(hotelId).size();
+        return new HotelAvailability(hotelId, start, end, rooms, rooms - findBookedRooms(hotelId, start, end).size());
+    }
+
+    /**
+     * Reads the booked rooms in the fan-out executor while the rooms of the hotel are read by the calling thread, as
+     * the reads are independent.
+     */
+    private Set<Room> readFreeRoomsInHotel(final SearchRequest searchRequest) {
+        CompletableFuture<Set<Room>> bookedRoomsInHotel = supplyAsync(() -> findAllRoomsBySearchRequest(searchRequest), fanOutTaskExecutor);
+        Set<Room> allRoomsInHotel = roomDao.findAllRoomsByHotelId(searchRequest.getHotelId());
+        return difference(join(bookedRoomsInHotel), allRoomsInHotel);
+    }
+
+    private CompletableFuture<Set<Room>> readFreeRoomsInHotelAsync(final SearchRequest searchRequest) {
         final UUID hotelId = searchRequest.getHotelId();
-        final LocalDate start = searchRequest.getStart();
-        final LocalDate end = searchRequest.getEnd();
-        return roomByHotelAndDateDao.findAllRoomsForHotelIdAndPeriod(hotelId, start, end).stream().map(Room::new).collect(toSet());
+        final CompletableFuture<Set<Room>> bookedRoomsInHotel = occupancyReads
+                ? hotelOccupancyDao.findAllForHotelIdAndPeriodAsync(hotelId, searchRequest.getStart(), searchRequest.getEnd())
+                .thenApply(nights -> toBookedRooms(hotelId, nights))
+                : roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriodAsync(hotelId, searchRequest.getStart(), searchRequest.getEnd())
+                .thenApply(RoomServiceImpl::toBookedRooms);
+        return roomDao.findAllRoomsByHotelIdAsync(hotelId).thenCombine(bookedRoomsInHotel,
+                (allRoomsInHotel, bookedRooms) -> difference(bookedRooms, allRoomsInHotel));
+    }
+
+    private RecordNotFoundException freeRoomsNotFound(final SearchRequest searchRequest) {
+        return new RecordNotFoundException(format("No free rooms were found for the given request '%s'", searchRequest));
+    }
+
+    private Set<Room> findAllRoomsBySearchRequest(final SearchRequest searchRequest) {
+        return findBookedRooms(searchRequest.getHotelId(), searchRequest.getStart(), searchRequest.getEnd());
+    }
+
+    private Set<Room> findBookedRooms(UUID hotelId, LocalDate start, LocalDate end) {
+        return occupancyReads
+                ? toBookedRooms(hotelId, hotelOccupancyDao.findAllForHotelIdAndPeriod(hotelId, start, end))
+                : toBookedRooms(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(hotelId, start, end));
+    }
+
+    private static Set<Room> toBookedRooms(UUID hotelId, List<HotelOccupancy> nights) {
+        final BitSet bookedRooms = new BitSet();
+        nights.forEach(night -> bookedRooms.or(night.getBookedRooms()));
+        return bookedRooms.stream().mapToObj(roomNumber -> new Room(hotelId, roomNumber)).collect(toSet());
+    }
+
+    private static Set<Room> toBookedRooms(Set<RoomByHotelAndDate> bookedNights) {
+        return bookedNights.stream().map(Room::new).collect(toSet());
     }
 }
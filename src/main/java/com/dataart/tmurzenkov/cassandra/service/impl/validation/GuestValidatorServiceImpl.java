@@ -1,10 +1,8 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.validation;
 
-import com.dataart.tmurzenkov.cassandra.dao.GuestDao;
 import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.service.ValidatorService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import static com.dataart.tmurzenkov.cassandra.util.StringUtils.isEmpty;
@@ -17,9 +15,6 @@ import static java.lang.String.format;
  */
 @Service
 public class GuestValidatorServiceImpl implements ValidatorService<Guest> {
-    @Autowired
-    private GuestDao guestDao;
-
     @Override
     public void validateInfo(Guest guest) {
         if (null == guest) {
@@ -37,10 +32,10 @@ public class GuestValidatorServiceImpl implements ValidatorService<Guest> {
     }
 
     @Override
-    public void checkIfExists(Guest guest) {
+    public void checkIfInserted(Guest guest, boolean inserted) {
         final String exceptionMessage = format("The guest information is already stored in DB. "
                 + "Guest id: '%s', name: '%s', surname: '%s'", guest.getId(), guest.getFirstName(), guest.getLastName());
-        if (guestDao.exists(guest.getCompositeId())) {
+        if (!inserted) {
             throw new RecordExistsException(exceptionMessage);
         }
     }
@@ -1,13 +1,13 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.validation;
 
-import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
 import com.dataart.tmurzenkov.cassandra.model.entity.Address;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.service.ValidatorService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.MAX_LATITUDE;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.MAX_LONGITUDE;
 import static com.dataart.tmurzenkov.cassandra.util.StringUtils.isEmpty;
 import static java.lang.String.format;
 
@@ -18,9 +18,6 @@ import static java.lang.String.format;
  */
 @Service
 public class HotelValidatorServiceImpl implements ValidatorService<Hotel> {
-    @Autowired
-    private HotelDao hotelDao;
-
     @Override
     public void validateInfo(Hotel hotel) {
         if (null == hotel) {
@@ -39,9 +36,9 @@ public class HotelValidatorServiceImpl implements ValidatorService<Hotel> {
     }
 
     @Override
-    public void checkIfExists(Hotel hotel) {
+    public void checkIfInserted(Hotel hotel, boolean inserted) {
         final String message = format("Such hotel information is already added to the data base '%s'", hotel);
-        if (hotelDao.exists(hotel.getCompositeId())) {
+        if (!inserted) {
             throw new RecordExistsException(message);
         }
     }
@@ -59,5 +56,18 @@ public class HotelValidatorServiceImpl implements ValidatorService<Hotel> {
         if (isEmpty(address.getPostalCode())) {
             throw new IllegalArgumentException("Cannot add the hotel with empty postal code. ");
         }
+        validateCoordinates(address.getLatitude(), address.getLongitude());
+    }
+
+    private void validateCoordinates(Double latitude, Double longitude) {
+        if (null == latitude && null == longitude) {
+            return;
+        }
+        if (null == latitude || null == longitude) {
+            throw new IllegalArgumentException("Cannot add the hotel with only one of the coordinates. ");
+        }
+        if (Math.abs(latitude) > MAX_LATITUDE || Math.abs(longitude) > MAX_LONGITUDE) {
+            throw new IllegalArgumentException(format("Cannot add the hotel with invalid coordinates %s, %s. ", latitude, longitude));
+        }
     }
 }
@@ -1,15 +1,16 @@
 package com.dataart.tmurzenkov.cassandra.service.impl.validation;
 
 import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
-import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
 import com.dataart.tmurzenkov.cassandra.service.ValidatorService;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.MAX_ROOM_NUMBER;
 import static java.lang.String.format;
 
 /**
@@ -22,7 +23,7 @@ public class RoomValidatorServiceImpl implements ValidatorService<Room> {
     @Autowired
     private HotelDao hotelDao;
     @Autowired
-    private RoomDao roomDao;
+    private ExistenceFilters existenceFilters;
 
     @Override
     public void validateInfo(final Room roomByHotelAndDate) {
@@ -39,15 +40,23 @@ public class RoomValidatorServiceImpl implements ValidatorService<Room> {
             throw new IllegalArgumentException(
                     format("Cannot add the the room with number '%d'. ", roomByHotelAndDate.getRoomNumber()));
         }
+        if (roomByHotelAndDate.getRoomNumber() < 0 || roomByHotelAndDate.getRoomNumber() > MAX_ROOM_NUMBER) {
+            throw new IllegalArgumentException(format("Cannot add the the room with number '%d'. The room number must be within 1..%d. ",
+                    roomByHotelAndDate.getRoomNumber(), MAX_ROOM_NUMBER));
+        }
     }
 
     @Override
-    public void checkIfExists(final Room room) {
-        if (null == hotelDao.findOne(room.getId())) {
+    public void checkReferences(final Room room) {
+        if (!existenceFilters.hotels().exists(room.getId(), hotelId -> null != hotelDao.findOne(hotelId))) {
             final String cannotFindHotel = format("Cannot find the hotel for the given hotel id '%s'", room.getId());
             throw new RecordNotFoundException(cannotFindHotel);
         }
-        if (roomDao.exists(room.getCompositeId())) {
+    }
+
+    @Override
+    public void checkIfInserted(final Room room, final boolean inserted) {
+        if (!inserted) {
             throw new RecordExistsException(format("The room is already inserted in DB. Room info '%s'", room));
         }
     }
@@ -19,4 +19,14 @@ public interface DateUtils {
     static String format(LocalDate date) {
         return ofPattern("yyyy-MM-dd").format(date);
     }
+
+    /**
+     * Returns the first day of the month of the given {@link LocalDate}, the month bucket of the date.
+     *
+     * @param date {@link LocalDate}, may be null
+     * @return first day of the month or null for the null date
+     */
+    static LocalDate firstDayOfMonth(LocalDate date) {
+        return null == date ? null : date.withDayOfMonth(1);
+    }
 }
@@ -0,0 +1,55 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+
+/**
+ * Iterator counting the nanos the elements of the source iterator are fetched for. Calls back with them once the
+ * source has no more elements or fetching one failed.
+ *
+ * @param <T> generic type
+ * @author tmurzenkov
+ */
+final class FetchTimingIterator<T> implements Iterator<T> {
+    private final Iterator<T> source;
+    private final BiConsumer<Long, Throwable> onComplete;
+    private long fetchNanos;
+
+    FetchTimingIterator(Iterator<T> source, BiConsumer<Long, Throwable> onComplete) {
+        this.source = source;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public boolean hasNext() {
+        final long start = System.nanoTime();
+        try {
+            final boolean hasNext = source.hasNext();
+            fetchNanos += System.nanoTime() - start;
+            if (!hasNext) {
+                onComplete.accept(fetchNanos, null);
+            }
+            return hasNext;
+        } catch (RuntimeException e) {
+            onComplete.accept(fetchNanos + System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public T next() {
+        final long start = System.nanoTime();
+        try {
+            final T next = source.next();
+            fetchNanos += System.nanoTime() - start;
+            return next;
+        } catch (RuntimeException e) {
+            onComplete.accept(fetchNanos + System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    long getFetchNanos() {
+        return fetchNanos;
+    }
+}
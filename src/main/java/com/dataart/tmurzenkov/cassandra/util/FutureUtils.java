@@ -0,0 +1,71 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Future utils.
+ *
+ * @author tmurzenkov
+ */
+public interface FutureUtils {
+    /**
+     * Waits for the result of the future. The runtime exception the future completed with is rethrown as is, so the
+     * callers see the same exceptions as if the task was run by the calling thread.
+     *
+     * @param future {@link CompletableFuture}
+     * @param <T>    generic type
+     * @return result of the future
+     */
+    static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the future failed by the given exception.
+     *
+     * @param failure {@link Throwable}
+     * @param <T>     generic type
+     * @return {@link CompletableFuture}
+     */
+    static <T> CompletableFuture<T> failedFuture(final Throwable failure) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+
+    /**
+     * Starts the asynchronous call. The runtime exception the call throws before it returns its future is returned as
+     * the failed future, so the callers see the failures of the call the same way whenever they happen.
+     *
+     * @param call starts the asynchronous call
+     * @param <T>  generic type
+     * @return {@link CompletableFuture} of the call
+     */
+    static <T> CompletableFuture<T> callAsync(final Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns the exception the future completed with, without the {@link CompletionException} the dependent stages
+     * wrap it into.
+     *
+     * @param failure {@link Throwable} the stage completed with
+     * @return {@link Throwable}
+     */
+    static Throwable unwrap(final Throwable failure) {
+        return failure instanceof CompletionException && null != failure.getCause() ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,231 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.asin;
+import static java.lang.Math.cos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toDegrees;
+import static java.lang.Math.toRadians;
+import static java.lang.String.format;
+
+/**
+ * Geohash and distance utils. The geohash interleaves the bits of the longitude and the latitude, the longitude first,
+ * and encodes every 5 bits by a base 32 character, so the points of the same cell share the hash of its length.
+ *
+ * @author tmurzenkov
+ */
+public interface GeoUtils {
+    /**
+     * Mean radius of the Earth in kilometers.
+     */
+    double EARTH_RADIUS_KM = 6371.0088;
+    /**
+     * Length of the geohash of the cells of the hotels_by_geohash table, about 4.9 by 4.9 km at the equator.
+     */
+    int CELL_PRECISION = 5;
+    /**
+     * Greatest absolute latitude in degrees.
+     */
+    double MAX_LATITUDE = 90d;
+    /**
+     * Greatest absolute longitude in degrees.
+     */
+    double MAX_LONGITUDE = 180d;
+    /**
+     * Characters of the geohash by their 5 bits value.
+     */
+    String BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    /**
+     * Bits encoded by one character of the geohash.
+     */
+    int BITS_PER_CHARACTER = 5;
+
+    /**
+     * Encodes the point as the geohash of the given length.
+     *
+     * @param latitude  latitude in degrees
+     * @param longitude longitude in degrees
+     * @param precision number of characters of the geohash
+     * @return geohash of the cell the point is in
+     */
+    static String geohash(double latitude, double longitude, int precision) {
+        final double[] latitudeRange = {-MAX_LATITUDE, MAX_LATITUDE};
+        final double[] longitudeRange = {-MAX_LONGITUDE, MAX_LONGITUDE};
+        final StringBuilder geohash = new StringBuilder(precision);
+        boolean longitudeBit = true;
+        int bits = 0;
+        int character = 0;
+        while (geohash.length() < precision) {
+            character = (character << 1) | (longitudeBit ? halve(longitudeRange, longitude) : halve(latitudeRange, latitude));
+            longitudeBit = !longitudeBit;
+            bits++;
+            if (BITS_PER_CHARACTER == bits) {
+                geohash.append(BASE_32.charAt(character));
+                bits = 0;
+                character = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Finds the geohash cells of the given length the circle around the point overlaps. The cells of the bounding box
+     * of the circle are returned, so some of them may lie outside of the circle. The box spans more longitude the
+     * closer it is to a pole, up to the whole parallel, so the number of the cells is checked before they are listed.
+     *
+     * @param latitude  latitude of the center in degrees
+     * @param longitude longitude of the center in degrees
+     * @param radiusKm  radius of the circle in kilometers
+     * @param precision number of characters of the geohash
+     * @param maxCells  greatest number of the cells to list
+     * @return geohashes of the cells, the cell of the center first
+     * @throws IllegalArgumentException if the circle takes more than the max cells
+     */
+    static Set<String> coveringCells(double latitude, double longitude, double radiusKm, int precision, int maxCells) {
+        final long count = countCoveringCells(latitude, longitude, radiusKm, precision);
+        if (count > maxCells) {
+            throw new IllegalArgumentException(format("The circle of %s km around %s, %s takes %d geohash cells of %d characters, "
+                    + "more than %d", radiusKm, latitude, longitude, count, precision, maxCells));
+        }
+        final double[] latitudeRange = latitudeRange(latitude, radiusKm);
+        final double longitudeDelta = longitudeDelta(latitudeRange, radiusKm);
+        final Set<String> cells = new LinkedHashSet<>();
+        cells.add(geohash(latitude, longitude, precision));
+        for (double cellLatitude : steps(latitudeRange[0], latitudeRange[1], cellHeight(precision))) {
+            for (double cellLongitude : steps(longitude - longitudeDelta, longitude + longitudeDelta, cellWidth(precision))) {
+                cells.add(geohash(cellLatitude, normalizeLongitude(cellLongitude), precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Counts the geohash cells of the given length {@link #coveringCells} lists for the circle, without listing them.
+     *
+     * @param latitude  latitude of the center in degrees
+     * @param longitude longitude of the center in degrees
+     * @param radiusKm  radius of the circle in kilometers
+     * @param precision number of characters of the geohash
+     * @return upper bound of the number of the cells
+     */
+    static long countCoveringCells(double latitude, double longitude, double radiusKm, int precision) {
+        final double[] latitudeRange = latitudeRange(latitude, radiusKm);
+        final long rows = (long) Math.ceil((latitudeRange[1] - latitudeRange[0]) / cellHeight(precision)) + 1;
+        final long columns = (long) Math.ceil(2 * longitudeDelta(latitudeRange, radiusKm) / cellWidth(precision)) + 1;
+        return rows * min(columns, (long) Math.ceil(2 * MAX_LONGITUDE / cellWidth(precision)));
+    }
+
+    /**
+     * Finds the latitudes of the bounding box of the circle around the point.
+     *
+     * @param latitude latitude of the center in degrees
+     * @param radiusKm radius of the circle in kilometers
+     * @return min and max latitude in degrees
+     */
+    static double[] latitudeRange(double latitude, double radiusKm) {
+        final double latitudeDelta = toDegrees(radiusKm / EARTH_RADIUS_KM);
+        return new double[]{max(-MAX_LATITUDE, latitude - latitudeDelta), min(MAX_LATITUDE, latitude + latitudeDelta)};
+    }
+
+    /**
+     * Finds the half width of the bounding box of the circle, the width along its parallel nearest to a pole.
+     *
+     * @param latitudeRange min and max latitude of the bounding box in degrees
+     * @param radiusKm      radius of the circle in kilometers
+     * @return longitude from the center to the side of the box in degrees, 180 if the box takes the whole parallel
+     */
+    static double longitudeDelta(double[] latitudeRange, double radiusKm) {
+        final double widestParallel = cos(toRadians(max(abs(latitudeRange[0]), abs(latitudeRange[1]))));
+        return widestParallel <= 0 ? MAX_LONGITUDE
+                : min(MAX_LONGITUDE, toDegrees(radiusKm / (EARTH_RADIUS_KM * widestParallel)));
+    }
+
+    /**
+     * Returns the height of the geohash cell of the given length.
+     *
+     * @param precision number of characters of the geohash
+     * @return height in degrees of latitude
+     */
+    static double cellHeight(int precision) {
+        return 2 * MAX_LATITUDE / (1L << (BITS_PER_CHARACTER * precision / 2));
+    }
+
+    /**
+     * Returns the width of the geohash cell of the given length.
+     *
+     * @param precision number of characters of the geohash
+     * @return width in degrees of longitude
+     */
+    static double cellWidth(int precision) {
+        return 2 * MAX_LONGITUDE / (1L << ((BITS_PER_CHARACTER * precision + 1) / 2));
+    }
+
+    /**
+     * Computes the great circle distance between the points by the haversine formula.
+     *
+     * @param latitude       latitude of the first point in degrees
+     * @param longitude      longitude of the first point in degrees
+     * @param otherLatitude  latitude of the second point in degrees
+     * @param otherLongitude longitude of the second point in degrees
+     * @return distance in kilometers
+     */
+    static double distanceKm(double latitude, double longitude, double otherLatitude, double otherLongitude) {
+        final double latitudeSine = sin(toRadians(otherLatitude - latitude) / 2);
+        final double longitudeSine = sin(toRadians(otherLongitude - longitude) / 2);
+        final double haversine = latitudeSine * latitudeSine
+                + cos(toRadians(latitude)) * cos(toRadians(otherLatitude)) * longitudeSine * longitudeSine;
+        return 2 * EARTH_RADIUS_KM * asin(min(1d, sqrt(haversine)));
+    }
+
+    /**
+     * Narrows the range to the half the value is in.
+     *
+     * @param range lower and upper bound of the range, narrowed in place
+     * @param value value within the range
+     * @return 1 for the upper half, 0 for the lower one
+     */
+    static int halve(double[] range, double value) {
+        final double middle = (range[0] + range[1]) / 2;
+        if (value >= middle) {
+            range[0] = middle;
+            return 1;
+        }
+        range[1] = middle;
+        return 0;
+    }
+
+    /**
+     * Steps from the start to the end by the step no longer than the cell, so no cell in between is skipped.
+     *
+     * @param start first value
+     * @param end   last value
+     * @param step  size of the step
+     * @return the steps, the start and the end included
+     */
+    static double[] steps(double start, double end, double step) {
+        final int count = (int) Math.ceil((end - start) / step);
+        final double[] steps = new double[count + 1];
+        for (int index = 0; index < count; index++) {
+            steps[index] = start + index * step;
+        }
+        steps[count] = end;
+        return steps;
+    }
+
+    /**
+     * Wraps the longitude around the antimeridian.
+     *
+     * @param longitude longitude in degrees
+     * @return longitude between -180 inclusive and 180 exclusive
+     */
+    static double normalizeLongitude(double longitude) {
+        final double turn = 2 * MAX_LONGITUDE;
+        return ((longitude + MAX_LONGITUDE) % turn + turn) % turn - MAX_LONGITUDE;
+    }
+}
@@ -0,0 +1,63 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.stream.StreamSupport.stream;
+
+/**
+ * Stream utils.
+ *
+ * @author tmurzenkov
+ */
+public interface StreamUtils {
+    /**
+     * Checks that the stream has at least one element without consuming it. Only the first element is fetched, so for
+     * the streams backed by the driver result set only the first page is read.
+     *
+     * @param source            {@link Stream}
+     * @param exceptionSupplier supplies the exception to throw if the stream is empty
+     * @param <T>               generic type
+     * @return {@link Stream} with the same elements as the source stream
+     */
+    static <T> Stream<T> requireNonEmpty(final Stream<T> source, final Supplier<? extends RuntimeException> exceptionSupplier) {
+        final Iterator<T> iterator = source.iterator();
+        if (!iterator.hasNext()) {
+            source.close();
+            throw exceptionSupplier.get();
+        }
+        return stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(source::close);
+    }
+
+    /**
+     * Calls back once the stream is over: all its elements are fetched, fetching one failed or it is closed, whichever
+     * comes first. The callback is given the nanos the elements were fetched for, which leaves out the time the
+     * consumer took between them, and the exception fetching failed with or null.
+     *
+     * @param source     {@link Stream}
+     * @param onComplete called once with the nanos of fetching and the failure
+     * @param <T>        generic type
+     * @return {@link Stream} with the same elements as the source stream
+     */
+    static <T> Stream<T> whenComplete(final Stream<T> source, final BiConsumer<Long, Throwable> onComplete) {
+        final AtomicBoolean completed = new AtomicBoolean();
+        final BiConsumer<Long, Throwable> once = (nanos, failure) -> {
+            if (completed.compareAndSet(false, true)) {
+                onComplete.accept(nanos, failure);
+            }
+        };
+        final FetchTimingIterator<T> iterator = new FetchTimingIterator<>(source.iterator(), once);
+        return stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(() -> {
+            try {
+                source.close();
+            } finally {
+                once.accept(iterator.getFetchNanos(), null);
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+/**
+ * Reads the configuration of the offline tools from the system properties.
+ *
+ * @author tmurzenkov
+ */
+public interface SystemProperties {
+    /**
+     * Reads the long property.
+     *
+     * @param name         name of the property
+     * @param defaultValue value if the property is not set
+     * @return {@link Long}
+     */
+    static long longProperty(String name, String defaultValue) {
+        return Long.parseLong(System.getProperty(name, defaultValue));
+    }
+
+    /**
+     * Reads the int property.
+     *
+     * @param name         name of the property
+     * @param defaultValue value if the property is not set
+     * @return {@link Integer}
+     */
+    static int intProperty(String name, String defaultValue) {
+        return Integer.parseInt(System.getProperty(name, defaultValue));
+    }
+
+    /**
+     * Reads the double property.
+     *
+     * @param name         name of the property
+     * @param defaultValue value if the property is not set
+     * @return {@link Double}
+     */
+    static double doubleProperty(String name, String defaultValue) {
+        return Double.parseDouble(System.getProperty(name, defaultValue));
+    }
+}
@@ -0,0 +1,347 @@
+package com.dataart.tmurzenkov.cassandra.warmup;
+
+import com.dataart.tmurzenkov.cassandra.dao.intercept.AbstractDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.model.dto.CitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.WarmUpReport;
+import com.dataart.tmurzenkov.cassandra.model.dto.WarmUpStep;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.TypeaheadIndex;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON_VALUE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ROOMS_BY_GUEST_AND_DATE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_AVAILABILITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_AVAILABILITY_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.util.StringUtils.isEmpty;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.UUID.randomUUID;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Warms the instance up once the context is refreshed, so the first clients do not pay for the lazy initialization,
+ * and flips the readiness only then. The steps run one after another in the background thread:
+ * <ul>
+ * <li>connections - sends a few pings over every open connection of the driver pools, in the in-memory profile
+ * there is no cluster to connect to</li>
+ * <li>typeahead index - builds the {@link TypeaheadIndex} from one scan of the hotels, off the thread refreshing the
+ * context. With the warm-up disabled it is the only step run, the instance is ready meanwhile</li>
+ * <li>dao queries - calls every find, get, count and stream method of the daos once with the synthetic ids, dates,
+ * names and lists of ids, so the statements, the mapping and the codecs of every query are set up</li>
+ * <li>endpoints - sends the search requests of the synthetic data to the instance at warmup.base.url, both JSON and
+ * newline delimited JSON ones, warmup.requests rounds of them, so the message converters, the links and the JIT are
+ * warmed through the whole stack. Skipped if the url is not set, the instance is waited for warmup.server.wait.millis
+ * to accept the connections</li>
+ * </ul>
+ * The failed calls are counted, not fatal, as the synthetic data is not found anyway.
+ *
+ * @author tmurzenkov
+ */
+@Component
+public class StartupWarmUp implements ApplicationListener<ContextRefreshedEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupWarmUp.class);
+    private static final String PING = "SELECT release_version FROM system.local";
+    private static final int PINGS_PER_CONNECTION = 4;
+    private static final int DEFAULT_REQUESTS = 20;
+    private static final long DEFAULT_SERVER_WAIT_MILLIS = 60000;
+    private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+    private static final long CONNECT_RETRY_MILLIS = 500;
+    private static final String READ_METHOD = "(find|get|count|stream).*";
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final List<WarmUpStep> steps = new CopyOnWriteArrayList<>();
+    private volatile boolean ready;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long millis;
+    @Autowired(required = false)
+    private Session session;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired(required = false)
+    private TypeaheadIndex typeaheadIndex;
+    @Value("${warmup.enabled:true}")
+    private boolean enabled = true;
+    @Value("${warmup.base.url:}")
+    private String baseUrl = "";
+    @Value("${warmup.requests:20}")
+    private int requests = DEFAULT_REQUESTS;
+    @Value("${warmup.server.wait.millis:60000}")
+    private long serverWaitMillis = DEFAULT_SERVER_WAIT_MILLIS;
+
+    /**
+     * Starts the warm-up in the background thread once the context is refreshed for the first time.
+     *
+     * @param event {@link ContextRefreshedEvent}
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        if (!enabled) {
+            ready = true;
+            inBackground(() -> step("typeahead index", this::buildTypeaheadIndex));
+            return;
+        }
+        inBackground(() -> warmUp(event.getApplicationContext()));
+    }
+
+    /**
+     * Runs the steps of the warm-up and flips the readiness.
+     *
+     * @param context {@link ApplicationContext} of the daos
+     */
+    public void warmUp(ApplicationContext context) {
+        startNanos = System.nanoTime();
+        step("connections", this::warmUpConnections);
+        step("typeahead index", this::buildTypeaheadIndex);
+        step("dao queries", counts -> warmUpDaos(context, counts));
+        step("endpoints", this::warmUpEndpoints);
+        millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        ready = true;
+        LOGGER.info("Warmed up in {} ms: {}", millis, steps);
+    }
+
+    /**
+     * Is the instance ready? True once the warm-up is over.
+     *
+     * @return true if it is
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the readiness and the steps of the warm-up done so far.
+     *
+     * @return {@link WarmUpReport}
+     */
+    public WarmUpReport getReport() {
+        final long elapsedMillis = ready ? millis : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new WarmUpReport(ready, elapsedMillis, unmodifiableList(new ArrayList<>(steps)));
+    }
+
+    private static void inBackground(Runnable task) {
+        final Thread warmUp = new Thread(task, "warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private void step(String name, Step step) {
+        final long start = System.nanoTime();
+        final Counts counts = new Counts();
+        try {
+            step.run(counts);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            counts.failures++;
+            LOGGER.warn("Warm-up step '{}' failed", name, e);
+        }
+        steps.add(new WarmUpStep(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), counts.calls, counts.failures));
+    }
+
+    private void warmUpConnections(Counts counts) {
+        if (null == session) {
+            return;
+        }
+        final Session.State state = session.getState();
+        int connections = 0;
+        for (Host host : state.getConnectedHosts()) {
+            connections += state.getOpenConnections(host);
+        }
+        final List<ResultSetFuture> pings = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, connections) * PINGS_PER_CONNECTION; i++) {
+            pings.add(session.executeAsync(PING));
+        }
+        for (ResultSetFuture ping : pings) {
+            counts.calls++;
+            try {
+                ping.getUninterruptibly();
+            } catch (DriverException e) {
+                counts.failures++;
+                LOGGER.debug("Warm-up ping failed", e);
+            }
+        }
+    }
+
+    private void buildTypeaheadIndex(Counts counts) {
+        if (null == typeaheadIndex) {
+            return;
+        }
+        counts.calls++;
+        typeaheadIndex.rebuild();
+    }
+
+    private void warmUpDaos(ApplicationContext context, Counts counts) throws IllegalAccessException {
+        for (String name : context.getBeanNamesForType(Object.class, false, false)) {
+            final Class<?> type = context.getType(name);
+            final Class<?> dao = null == type ? null : AbstractDaoPostProcessor.findDaoInterface(type);
+            if (null == dao) {
+                continue;
+            }
+            final Object bean = context.getBean(name);
+            for (Method method : dao.getDeclaredMethods()) {
+                final Object[] arguments = isRead(method) ? syntheticArguments(method) : null;
+                if (null == arguments) {
+                    continue;
+                }
+                counts.calls++;
+                try {
+                    final Object result = method.invoke(bean, arguments);
+                    if (result instanceof Stream) {
+                        try (Stream<?> stream = (Stream<?>) result) {
+                            stream.count();
+                        }
+                    }
+                } catch (InvocationTargetException e) {
+                    counts.failures++;
+                    LOGGER.debug("Warm-up call of {}.{} failed", dao.getSimpleName(), method.getName(), e.getCause());
+                }
+            }
+        }
+    }
+
+    private void warmUpEndpoints(Counts counts) throws IOException, InterruptedException {
+        if (isEmpty(baseUrl)) {
+            return;
+        }
+        final LocalDate today = LocalDate.now();
+        final byte[] search = objectMapper.writeValueAsBytes(new SearchRequest(today, today.plusDays(1), randomUUID()));
+        final byte[] citySearch = objectMapper.writeValueAsBytes(new CitySearchRequest("warm-up", today, today.plusDays(1)));
+        final String hotelsInTheCity = new UriTemplate(HOTELS_IN_THE_CITY).expand("warm-up").toString();
+        final String roomsByGuest = new UriTemplate(ROOMS_BY_GUEST_AND_DATE).expand(randomUUID(), today).toString();
+        awaitServer();
+        for (int round = 0; round < requests; round++) {
+            send(counts, "GET", hotelsInTheCity, APPLICATION_JSON_VALUE, null);
+            send(counts, "GET", hotelsInTheCity, APPLICATION_NDJSON_VALUE, null);
+            send(counts, "GET", roomsByGuest, APPLICATION_JSON_VALUE, null);
+            send(counts, "POST", GET_FREE_ROOMS, APPLICATION_JSON_VALUE, search);
+            send(counts, "POST", GET_FREE_ROOMS, APPLICATION_NDJSON_VALUE, search);
+            send(counts, "POST", GET_AVAILABILITY, APPLICATION_JSON_VALUE, search);
+            send(counts, "POST", GET_AVAILABILITY_IN_THE_CITY, APPLICATION_JSON_VALUE, citySearch);
+        }
+    }
+
+    private void awaitServer() throws IOException, InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(serverWaitMillis);
+        while (true) {
+            try {
+                ((HttpURLConnection) new URL(baseUrl).openConnection()).getResponseCode();
+                return;
+            } catch (ConnectException e) {
+                if (System.nanoTime() - deadline >= 0) {
+                    throw e;
+                }
+                Thread.sleep(CONNECT_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void send(Counts counts, String method, String path, String accept, byte[] body) {
+        counts.calls++;
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setConnectTimeout(REQUEST_TIMEOUT_MILLIS);
+            connection.setReadTimeout(REQUEST_TIMEOUT_MILLIS);
+            connection.setRequestMethod(method);
+            connection.setRequestProperty(ACCEPT, accept);
+            if (null != body) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+                try (OutputStream outputStream = connection.getOutputStream()) {
+                    outputStream.write(body);
+                }
+            }
+            final int status = connection.getResponseCode();
+            try (InputStream inputStream = status >= BAD_REQUEST.value() ? connection.getErrorStream() : connection.getInputStream()) {
+                if (null != inputStream) {
+                    StreamUtils.drain(inputStream);
+                }
+            }
+            if (status >= INTERNAL_SERVER_ERROR.value()) {
+                counts.failures++;
+            }
+        } catch (IOException e) {
+            counts.failures++;
+            LOGGER.debug("Warm-up request {} {} failed", method, path, e);
+        }
+    }
+
+    private static boolean isRead(Method method) {
+        return !Modifier.isStatic(method.getModifiers()) && method.getName().matches(READ_METHOD);
+    }
+
+    private static Object[] syntheticArguments(Method method) {
+        final Class<?>[] types = method.getParameterTypes();
+        final Object[] arguments = new Object[types.length];
+        final LocalDate today = LocalDate.now();
+        for (int index = 0; index < types.length; index++) {
+            if (UUID.class == types[index]) {
+                arguments[index] = randomUUID();
+            } else if (LocalDate.class == types[index]) {
+                arguments[index] = today;
+            } else if (String.class == types[index]) {
+                arguments[index] = "warm-up";
+            } else if (List.class == types[index]) {
+                arguments[index] = singletonList(randomUUID());
+            } else {
+                return null;
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Step of the warm-up counting its calls.
+     */
+    private interface Step {
+        void run(Counts counts) throws Exception;
+    }
+
+    /**
+     * Calls made and failed by the step.
+     */
+    private static final class Counts {
+        private int calls;
+        private int failures;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineEnforcement;
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.DeadlineFilter.REQUEST_DEADLINE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.DEADLINE_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.DEADLINE_EXCEEDED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link DeadlineFilter}.
+ *
+ * @author tmurzenkov
+ */
+public class DeadlineFilterTest {
+    private final DeadlineEnforcement deadlineEnforcement = new DeadlineEnforcement();
+    private final DeadlineFilter sut = new DeadlineFilter();
+    private final AtomicLong remainingMillis = new AtomicLong(-1);
+    private final FilterChain filterChain = (servletRequest, servletResponse) -> remainingMillis.set(RequestDeadline.getRemainingMillis());
+
+    /**
+     * Gives the requests 2 seconds, the bookings 10 and the metrics no deadline.
+     */
+    @Before
+    public void init() {
+        setField(sut, "deadlineEnforcement", deadlineEnforcement);
+        setField(sut, "objectMapper", new ObjectMapper());
+        setField(sut, "defaultBudgetMillis", 2000L);
+        sut.setEndpointBudgets("/api/get/metrics=0, /api/add=5000, " + ADD_BOOKING + "=10000");
+    }
+
+    @Test
+    public void shouldRejectTheRequestComeAfterItsDeadline() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", GET_FREE_ROOMS);
+        request.addHeader(REQUEST_DEADLINE, String.valueOf(System.currentTimeMillis() - 1));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final MockFilterChain mockFilterChain = new MockFilterChain();
+
+        sut.doFilter(request, response, mockFilterChain);
+
+        assertEquals(504, response.getStatus());
+        assertTrue(response.getContentAsString().contains(DEADLINE_EXCEEDED));
+        assertEquals(null, mockFilterChain.getRequest());
+        assertEquals(1, deadlineEnforcement.getStatistics().getExpiredOnArrival());
+    }
+
+    @Test
+    public void shouldGiveTheRequestTheTimeLeftTillItsDeadline() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", ADD_BOOKING);
+        request.addHeader(REQUEST_DEADLINE, String.valueOf(System.currentTimeMillis() + 500));
+
+        sut.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertTrue(String.valueOf(remainingMillis.get()), remainingMillis.get() > 0 && remainingMillis.get() <= 500);
+        assertFalse(RequestDeadline.isSet());
+        assertEquals(1, deadlineEnforcement.getStatistics().getRequests());
+    }
+
+    @Test
+    public void shouldGiveTheRequestWithoutTheHeaderTheBudgetOfItsEndpoint() throws Exception {
+        final MockHttpServletRequest booking = new MockHttpServletRequest("POST", ADD_BOOKING);
+        booking.addHeader(REQUEST_DEADLINE, "soon");
+        sut.doFilter(booking, new MockHttpServletResponse(), filterChain);
+        assertTrue(String.valueOf(remainingMillis.get()), remainingMillis.get() > 5000 && remainingMillis.get() <= 10000);
+
+        sut.doFilter(new MockHttpServletRequest("POST", GET_FREE_ROOMS), new MockHttpServletResponse(), filterChain);
+        assertTrue(String.valueOf(remainingMillis.get()), remainingMillis.get() > 0 && remainingMillis.get() <= 2000);
+
+        sut.doFilter(new MockHttpServletRequest("GET", DEADLINE_METRICS), new MockHttpServletResponse(), filterChain);
+        assertEquals(Long.MAX_VALUE, remainingMillis.get());
+        assertEquals(2, deadlineEnforcement.getStatistics().getRequests());
+    }
+}
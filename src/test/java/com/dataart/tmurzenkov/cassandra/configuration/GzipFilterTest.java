@@ -0,0 +1,204 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.GzipFilter.DEFAULT_MIN_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.VARY;
+
+/**
+ * UTs for the {@link GzipFilter}.
+ *
+ * @author tmurzenkov
+ */
+public class GzipFilterTest {
+    private final GzipFilter sut = new GzipFilter();
+
+    @Test
+    public void shouldCompressLargeBody() throws Exception {
+        final byte[] body = body(DEFAULT_MIN_SIZE * 10);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sut.doFilter(gzipRequest(), response, new MockFilterChain(new BodyServlet(body)));
+
+        assertEquals("gzip", response.getHeader(CONTENT_ENCODING));
+        assertEquals(ACCEPT_ENCODING, response.getHeader(VARY));
+        assertTrue(response.getContentAsByteArray().length < body.length);
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void shouldNotCompressSmallBody() throws Exception {
+        final byte[] body = body(DEFAULT_MIN_SIZE - 1);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sut.doFilter(gzipRequest(), response, new MockFilterChain(new BodyServlet(body)));
+
+        assertNull(response.getHeader(CONTENT_ENCODING));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldNotCompressIfClientDoesNotAcceptGzip() throws Exception {
+        final byte[] body = body(DEFAULT_MIN_SIZE * 10);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sut.doFilter(new MockHttpServletRequest("GET", "/"), response, new MockFilterChain(new BodyServlet(body)));
+
+        assertNull(response.getHeader(CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldNotCompressBodyWrittenInAsyncMode() throws Exception {
+        final byte[] body = body(DEFAULT_MIN_SIZE * 10);
+        final MockHttpServletRequest request = gzipRequest();
+        request.setAsyncSupported(true);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sut.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletRequest.startAsync();
+            servletResponse.getOutputStream().write(body);
+        });
+
+        assertNull(response.getHeader(CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldRegisterWriteListenerWithTheStreamOfTheContainer() throws Exception {
+        final byte[] body = body(DEFAULT_MIN_SIZE * 10);
+        final MockHttpServletRequest request = gzipRequest();
+        request.setAsyncSupported(true);
+        final NonBlockingResponse response = new NonBlockingResponse(new MockHttpServletResponse());
+
+        sut.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletRequest.startAsync();
+            final ServletOutputStream outputStream = servletResponse.getOutputStream();
+            outputStream.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    while (outputStream.isReady() && response.written < body.length) {
+                        outputStream.write(body, response.written, DEFAULT_MIN_SIZE);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable.getMessage());
+                }
+            });
+        });
+        response.writePossible(3, body.length);
+
+        assertNull(response.getHeader(CONTENT_ENCODING));
+        assertArrayEquals(body, ((MockHttpServletResponse) response.getResponse()).getContentAsByteArray());
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(ACCEPT_ENCODING, "gzip, deflate");
+        return request;
+    }
+
+    private static byte[] body(int size) {
+        final byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+
+    /**
+     * Response of a container which accepts the given number of writes every time the writes are possible.
+     */
+    private static final class NonBlockingResponse extends HttpServletResponseWrapper {
+        private int written;
+        private int ready;
+        private WriteListener writeListener;
+
+        NonBlockingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            final ServletOutputStream outputStream = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return ready > 0;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    writeListener = listener;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    assertTrue("Written while not ready", ready > 0);
+                    ready--;
+                    written += length;
+                    outputStream.write(bytes, offset, length);
+                }
+            };
+        }
+
+        void writePossible(int writes, int length) throws IOException {
+            while (written < length) {
+                ready = writes;
+                writeListener.onWritePossible();
+            }
+        }
+    }
+
+    /**
+     * Writes the given body with the content length, as the message converters do.
+     */
+    private static final class BodyServlet extends HttpServlet {
+        private final byte[] body;
+
+        BodyServlet(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            response.getOutputStream().flush();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.dao.limit.AdaptiveConcurrencyLimit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+
+import static com.dataart.tmurzenkov.cassandra.controller.uri.FaultUris.FAULTS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.MetricsUris.CONCURRENCY_LIMIT_METRICS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.ReadinessUris.READINESS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.SERVICE_OVERLOADED;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link LoadSheddingFilter}.
+ *
+ * @author tmurzenkov
+ */
+public class LoadSheddingFilterTest {
+    private final AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit();
+    private final LoadSheddingFilter sut = new LoadSheddingFilter();
+
+    /**
+     * Limits the requests to 4, 3 of them for the searches.
+     */
+    @Before
+    public void init() {
+        setField(concurrencyLimit, "initialLimit", 4);
+        setField(sut, "concurrencyLimit", concurrencyLimit);
+        setField(sut, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    public void shouldShedTheSearchesAboveTheirShareOfTheLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            concurrencyLimit.tryAcquire(false);
+        }
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final MockFilterChain filterChain = new MockFilterChain();
+
+        sut.doFilter(new MockHttpServletRequest("POST", GET_FREE_ROOMS), response, filterChain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains(SERVICE_OVERLOADED));
+        assertEquals(null, filterChain.getRequest());
+    }
+
+    @Test
+    public void shouldLetTheBookingInAndReleaseItsPlace() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            concurrencyLimit.tryAcquire(false);
+        }
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final MockFilterChain filterChain = new MockFilterChain();
+
+        sut.doFilter(new MockHttpServletRequest("POST", ADD_BOOKING), response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, concurrencyLimit.getStatistics().getAdmitted() - 3);
+        assertEquals(3, concurrencyLimit.getStatistics().getInFlight());
+    }
+
+    @Test
+    public void shouldNotShedNorCountTheReadinessTheMetricsAndTheAdminRequests() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            concurrencyLimit.tryAcquire(true);
+        }
+
+        for (String path : asList(READINESS, CONCURRENCY_LIMIT_METRICS, FAULTS)) {
+            final MockHttpServletResponse response = new MockHttpServletResponse();
+            final MockFilterChain filterChain = new MockFilterChain();
+
+            sut.doFilter(new MockHttpServletRequest("GET", path), response, filterChain);
+
+            assertEquals(200, response.getStatus());
+            assertEquals(path, ((MockHttpServletRequest) filterChain.getRequest()).getRequestURI());
+        }
+        assertEquals(4, concurrencyLimit.getStatistics().getAdmitted());
+        assertEquals(0, concurrencyLimit.getStatistics().getShed() + concurrencyLimit.getStatistics().getShedPriority());
+        assertEquals(4, concurrencyLimit.getStatistics().getInFlight());
+    }
+
+    @Test
+    public void shouldHoldThePlaceOfTheStreamedRequestUntilItIsCompleted() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", GET_FREE_ROOMS);
+        request.setAsyncSupported(true);
+        final FilterChain filterChain = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        sut.doFilter(request, new MockHttpServletResponse(), filterChain);
+        assertEquals(1, concurrencyLimit.getStatistics().getInFlight());
+
+        final MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+        asyncContext.complete();
+        assertEquals(0, concurrencyLimit.getStatistics().getInFlight());
+    }
+}
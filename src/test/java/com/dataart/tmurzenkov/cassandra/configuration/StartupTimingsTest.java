@@ -0,0 +1,89 @@
+package com.dataart.tmurzenkov.cassandra.configuration;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BeanStartup;
+import com.dataart.tmurzenkov.cassandra.model.dto.StartupReport;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.Map;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UTs for the {@link StartupTimings}.
+ *
+ * @author tmurzenkov
+ */
+public class StartupTimingsTest {
+    private static final long DEPENDENCY_MILLIS = 60;
+    private static final long DEPENDENT_MILLIS = 20;
+    private final StartupTimings sut = new StartupTimings();
+
+    @Test
+    public void shouldTimeTheBeansWithoutTheTimeOfTheirDependencies() {
+        final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addBeanPostProcessor(sut.getBeanTimer());
+        final RootBeanDefinition dependent = new RootBeanDefinition(Dependent.class);
+        dependent.setAutowireMode(RootBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+        beanFactory.registerBeanDefinition("dependent", dependent);
+        beanFactory.registerBeanDefinition("dependency", new RootBeanDefinition(Dependency.class));
+
+        beanFactory.preInstantiateSingletons();
+
+        final Map<String, BeanStartup> beans = sut.getReport(2).getSlowestBeans().stream().collect(toMap(BeanStartup::getName, identity()));
+        final BeanStartup dependency = beans.get("dependency");
+        final BeanStartup dependentStartup = beans.get("dependent");
+        assertTrue(dependency.toString(), dependency.getSelfMillis() >= DEPENDENCY_MILLIS);
+        assertTrue(dependentStartup.toString(), dependentStartup.getMillis() >= DEPENDENCY_MILLIS + DEPENDENT_MILLIS);
+        assertTrue(dependentStartup.toString(), dependentStartup.getSelfMillis() <= dependentStartup.getMillis() - dependency.getMillis());
+        assertEquals(2, sut.getReport(20).getBeansCreated());
+    }
+
+    @Test
+    public void shouldSumTheTimeOfThePhaseByItsName() {
+        sut.recordPhase("singletons", System.nanoTime() - 3_000_000);
+        sut.recordPhase("refresh listeners", System.nanoTime() - 1_000_000);
+        sut.recordPhase("singletons", System.nanoTime() - 2_000_000);
+        sut.recordRefresh(System.nanoTime() - 10_000_000);
+
+        final StartupReport report = sut.getReport(20);
+
+        assertTrue(report.toString(), report.getPhases().get("singletons") >= 5);
+        assertEquals("singletons", report.getPhases().keySet().iterator().next());
+        assertTrue(report.toString(), report.getRefreshMillis() >= 10);
+        assertEquals(0, report.getBeansCreated());
+    }
+
+    /**
+     * Bean slow to create.
+     */
+    public static class Dependency {
+        /**
+         * Constructor.
+         *
+         * @throws InterruptedException when interrupted
+         */
+        public Dependency() throws InterruptedException {
+            Thread.sleep(DEPENDENCY_MILLIS);
+        }
+    }
+
+    /**
+     * Bean slow to create, with the dependency slow to create.
+     */
+    public static class Dependent {
+        /**
+         * Constructor.
+         *
+         * @param dependency {@link Dependency}
+         * @throws InterruptedException when interrupted
+         */
+        public Dependent(Dependency dependency) throws InterruptedException {
+            Thread.sleep(DEPENDENT_MILLIS);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.dataart.tmurzenkov.cassandra.controller;
 
+import com.dataart.tmurzenkov.cassandra.configuration.SmileHttpMessageConverter;
 import com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor;
+import com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.bind.annotation.RestController;
 
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
+import static java.util.Collections.singletonList;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
 /**
@@ -16,9 +22,12 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
  * @author Taras_Murzenkov
  */
 class AbstractControllerUnitTest<T> {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileObjectMapper = new ObjectMapper(new SmileFactory());
 
     /**
-     * Inits {@link MockMvc} with {@link MappingJackson2HttpMessageConverter} and {@link LocalValidatorFactoryBean}.
+     * Inits {@link MockMvc} with {@link MappingJackson2HttpMessageConverter}, {@link SmileHttpMessageConverter}
+     * and {@link LocalValidatorFactoryBean}.
      *
      * @param controller any class that has annotation {@link org.springframework.web.bind.annotation.RestController}
      * @return {@link MockMvc}
@@ -29,12 +38,32 @@ class AbstractControllerUnitTest<T> {
             throw new RuntimeException("This test suite is solely designed for the rest controllers. ");
         }
         MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter = new MappingJackson2HttpMessageConverter();
-        ObjectMapper objectMapper = new ObjectMapper();
         mappingJackson2HttpMessageConverter.setObjectMapper(objectMapper);
+        MappingJackson2HttpMessageConverter ndjsonMessageConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        ndjsonMessageConverter.setSupportedMediaTypes(singletonList(APPLICATION_NDJSON));
         return standaloneSetup(controller)
                 .setControllerAdvice(new ExceptionInterceptor())
-                .setMessageConverters(mappingJackson2HttpMessageConverter)
+                .setMessageConverters(mappingJackson2HttpMessageConverter, ndjsonMessageConverter,
+                        new SmileHttpMessageConverter(smileObjectMapper))
                 .setValidator(new LocalValidatorFactoryBean())
                 .build();
     }
+
+    /**
+     * Makes the {@link NdjsonResourceWriter} use the same {@link ObjectMapper} as the message converters.
+     *
+     * @param ndjsonResourceWriter {@link NdjsonResourceWriter}
+     */
+    void initNdjsonWriter(NdjsonResourceWriter ndjsonResourceWriter) {
+        setField(ndjsonResourceWriter, "objectMapper", objectMapper);
+    }
+
+    /**
+     * Exposes the {@link ObjectMapper} of the Smile converter to encode the requests and decode the responses.
+     *
+     * @return {@link ObjectMapper}
+     */
+    ObjectMapper getSmileObjectMapper() {
+        return smileObjectMapper;
+    }
 }
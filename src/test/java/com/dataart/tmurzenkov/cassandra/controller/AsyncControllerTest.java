@@ -0,0 +1,238 @@
+package com.dataart.tmurzenkov.cassandra.controller;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.exception.AlreadyBookedException;
+import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingServiceImpl;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.HotelServiceImpl;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.RoomServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.hateoas.Resource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.GuestTestUtils.buildBookingRequest;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildHotels;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.HttpResponseTest.build;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildSetOfRooms;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.asJson;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.ALREADY_BOOKED;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.failedFuture;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * UTs for the {@link AsyncController}.
+ *
+ * @author tmurzenkov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncControllerTest extends AbstractControllerUnitTest<AsyncController> {
+    private static final String BASE_URI = "http://localhost";
+    @Mock
+    private HotelServiceImpl hotelServiceImpl;
+    @Mock
+    private RoomServiceImpl roomService;
+    @Mock
+    private BookingServiceImpl bookingService;
+    @Mock
+    private ServiceResourceAssembler<Hotel, Resource<Hotel>> hotelResourceAssembler;
+    @Mock
+    private ServiceResourceAssembler<Room, Resource<Room>> roomResourceAssembler;
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
+    @InjectMocks
+    private AsyncController sut;
+    private MockMvc mockMvc;
+
+    /**
+     * Inits {@link MockMvc}.
+     */
+    @Before
+    public void init() {
+        this.mockMvc = this.init(sut);
+    }
+
+    @Test
+    public void shouldFindAllHotelsForTheCityNameAsynchronously() throws Exception {
+        final String city = "London";
+        final List<Hotel> hotels = buildHotels();
+        final List<Resource<Hotel>> hotelResources = hotels.stream().map(Resource::new).collect(toList());
+
+        when(hotelServiceImpl.findAllHotelsInTheCityAsync(eq(city))).thenReturn(completedFuture(hotels));
+        when(hotelResourceAssembler.withController(eq(HotelController.class))).thenReturn(hotelResourceAssembler);
+        when(hotelResourceAssembler.resolveBaseUri()).thenReturn(BASE_URI);
+        when(hotelResourceAssembler.toResource(eq(hotels), eq(BASE_URI))).thenReturn(hotelResources);
+        final MvcResult mvcResult = mockMvc
+                .perform(get(ASYNC_HOTELS_IN_THE_CITY, city))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(ETAG, resourceVersions.cityTag(city)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isFound())
+                .andExpect(content().string(asJson(hotelResources)));
+    }
+
+    @Test
+    public void shouldLinkTheHotelsToTheRequestOffTheRequestThread() throws Exception {
+        final String city = "London";
+        final List<Hotel> hotels = buildHotels();
+        final ServiceResourceAssembler<Hotel, Class<HotelController>> assembler = new ServiceResourceAssembler<>();
+        final List<Resource<Hotel>> hotelResources = assembler.toResource(hotels, BASE_URI);
+        setField(sut, "hotelResourceAssembler", assembler);
+
+        when(hotelServiceImpl.findAllHotelsInTheCityAsync(eq(city))).thenReturn(completedFuture(hotels));
+        final MvcResult mvcResult = mockMvc
+                .perform(get(ASYNC_HOTELS_IN_THE_CITY, city))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isFound())
+                .andExpect(content().string(asJson(hotelResources)));
+    }
+
+    @Test
+    public void shouldNotReadHotelsForTheCityNameIfNotModified() throws Exception {
+        final String city = "London";
+
+        mockMvc
+                .perform(get(ASYNC_HOTELS_IN_THE_CITY, city).header(IF_NONE_MATCH, resourceVersions.cityTag(city)))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(hotelServiceImpl, never()).findAllHotelsInTheCityAsync(eq(city));
+    }
+
+    @Test
+    public void shouldFindFreeRoomsAsynchronously() throws Exception {
+        final UUID hotelId = UUID.randomUUID();
+        final SearchRequest searchRequest = new SearchRequest(LocalDate.now(), LocalDate.now().plusDays(1), hotelId);
+        final Set<Room> freeRooms = buildSetOfRooms(5, hotelId);
+        final List<Resource<Room>> roomResources = freeRooms.stream().map(Resource::new).collect(toList());
+
+        when(roomService.findFreeRoomsInTheHotelAsync(eq(searchRequest))).thenReturn(completedFuture(freeRooms));
+        when(roomResourceAssembler.withController(eq(RoomController.class))).thenReturn(roomResourceAssembler);
+        when(roomResourceAssembler.resolveBaseUri()).thenReturn(BASE_URI);
+        when(roomResourceAssembler.toResource(eq(freeRooms), eq(BASE_URI))).thenReturn(roomResources);
+        final MvcResult mvcResult = mockMvc
+                .perform(post(ASYNC_GET_FREE_ROOMS).content(asJson(searchRequest)).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isFound())
+                .andExpect(content().string(asJson(roomResources)));
+    }
+
+    @Test
+    public void shouldNotStartSearchOfFreeRoomsForInvalidRequest() throws Exception {
+        mockMvc
+                .perform(post(ASYNC_GET_FREE_ROOMS).content(asJson(new SearchRequest())).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldExecuteBookingRequestAsynchronously() throws Exception {
+        final BookingRequest bookingRequest = buildBookingRequest();
+
+        when(bookingService.performBookingAsync(eq(bookingRequest))).thenReturn(completedFuture(bookingRequest));
+        final MvcResult mvcResult = mockMvc
+                .perform(post(ASYNC_ADD_BOOKING).content(asJson(bookingRequest)).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(asJson(new Resource<>(bookingRequest))));
+    }
+
+    @Test
+    public void shouldAnswerWithConflictIfTheRoomIsAlreadyBooked() throws Exception {
+        final BookingRequest bookingRequest = buildBookingRequest();
+        final AlreadyBookedException exception = new AlreadyBookedException();
+
+        when(bookingService.performBookingAsync(eq(bookingRequest))).thenReturn(failedFuture(exception));
+        final MvcResult mvcResult = mockMvc
+                .perform(post(ASYNC_ADD_BOOKING).content(asJson(bookingRequest)).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(asJson(build(exception, ALREADY_BOOKED, CONFLICT).getBody())));
+    }
+
+    @Test
+    public void shouldLeaveTheRequestOpenTillTheBookingIsAnswered() throws Exception {
+        final BookingRequest bookingRequest = buildBookingRequest();
+        final CompletableFuture<BookingRequest> booking = new CompletableFuture<>();
+
+        when(bookingService.performBookingAsync(eq(bookingRequest))).thenReturn(booking);
+        final MvcResult mvcResult = mockMvc
+                .perform(post(ASYNC_ADD_BOOKING).content(asJson(bookingRequest)).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertFalse(mvcResult.getRequest().getAsyncContext().getResponse().isCommitted());
+        booking.complete(bookingRequest);
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(asJson(new Resource<>(bookingRequest))));
+    }
+
+    @Test
+    public void shouldAnswerWithConflictIfTheBookingIsRejectedBeforeTheFirstStatement() throws Exception {
+        final BookingRequest bookingRequest = buildBookingRequest();
+        final AlreadyBookedException exception = new AlreadyBookedException();
+
+        when(bookingService.performBookingAsync(eq(bookingRequest))).thenThrow(exception);
+        final MvcResult mvcResult = mockMvc
+                .perform(post(ASYNC_ADD_BOOKING).content(asJson(bookingRequest)).contentType(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(asJson(build(exception, ALREADY_BOOKED, CONFLICT).getBody())));
+    }
+}
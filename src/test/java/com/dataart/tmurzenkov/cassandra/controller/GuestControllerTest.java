@@ -4,12 +4,14 @@ import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.GuestServiceImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.hateoas.Resource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -31,12 +33,17 @@ import static java.lang.String.format;
 import static java.time.LocalDate.now;
 import static java.util.UUID.randomUUID;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -50,6 +57,8 @@ public class GuestControllerTest extends AbstractControllerUnitTest<GuestControl
     private GuestServiceImpl guestService;
     @Mock
     private ServiceResourceAssembler<Guest, Resource<Guest>> resourceAssembler;
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
     @InjectMocks
     private GuestController sut;
     private MockMvc mockMvc;
@@ -146,4 +155,28 @@ public class GuestControllerTest extends AbstractControllerUnitTest<GuestControl
                 .andExpect(status().isFound())
                 .andExpect(content().string(asJson(roomByHotelAndDates)));
     }
+
+    @Test
+    public void shouldNotReadBookedRoomsIfNotModified() throws Exception {
+        final UUID guestId = UUID.randomUUID();
+        final LocalDate bookingDate = now();
+        final List<RoomByHotelAndDate> roomByHotelAndDates = buildRooms(10);
+        when(guestService.findBookedRoomsForTheGuestIdAndDate(eq(guestId), eq(bookingDate))).thenReturn(roomByHotelAndDates);
+        final String eTag = mockMvc
+                .perform(get(ROOMS_BY_GUEST_AND_DATE, guestId, format(bookingDate)))
+                .andExpect(status().isFound())
+                .andExpect(header().string(ETAG, resourceVersions.guestTag(guestId)))
+                .andReturn().getResponse().getHeader(ETAG);
+        mockMvc
+                .perform(get(ROOMS_BY_GUEST_AND_DATE, guestId, format(bookingDate)).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        resourceVersions.guestChanged(guestId);
+        mockMvc
+                .perform(get(ROOMS_BY_GUEST_AND_DATE, guestId, format(bookingDate)).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isFound())
+                .andExpect(content().string(asJson(roomByHotelAndDates)));
+        verify(guestService, times(2)).findBookedRoomsForTheGuestIdAndDate(eq(guestId), eq(bookingDate));
+    }
 }
@@ -1,16 +1,25 @@
 package com.dataart.tmurzenkov.cassandra.controller;
 
+import com.dataart.tmurzenkov.cassandra.model.dto.NearbyHotel;
+import com.dataart.tmurzenkov.cassandra.model.dto.ProximitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.HotelServiceImpl;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.hateoas.Resource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,20 +29,38 @@ import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildHot
 import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildEmptyHotel;
 import static com.dataart.tmurzenkov.cassandra.TestUtils.HttpResponseTest.build;
 import static com.dataart.tmurzenkov.cassandra.TestUtils.asJson;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_SMILE;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.ADD_HOTEL;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_NEARBY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.TYPEAHEAD;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.QUERY_EXECUTION_EXCEPTION;
+import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.RECORD_NOT_EXISTS;
+import static java.lang.String.format;
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -47,6 +74,10 @@ public class HotelControllerTest extends AbstractControllerUnitTest<HotelControl
     private HotelServiceImpl hotelService;
     @Mock
     private ServiceResourceAssembler<Hotel, Resource<Hotel>> resourceAssembler;
+    @Spy
+    private NdjsonResourceWriter ndjsonResourceWriter = new NdjsonResourceWriter();
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
     @InjectMocks
     private HotelController sut;
     private MockMvc mockMvc;
@@ -57,6 +88,7 @@ public class HotelControllerTest extends AbstractControllerUnitTest<HotelControl
     @Before
     public void init() {
         this.mockMvc = this.init(sut);
+        initNdjsonWriter(ndjsonResourceWriter);
     }
 
     @Test
@@ -138,6 +170,7 @@ public class HotelControllerTest extends AbstractControllerUnitTest<HotelControl
         final List<Resource<Hotel>> hotelResources = hotels.stream().map(Resource::new).collect(toList());
 
         when(hotelService.findAllHotelsInTheCity(eq(city))).thenReturn(hotels);
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
         when(resourceAssembler.toResource(eq(hotels))).thenReturn(hotelResources);
         mockMvc
                 .perform(get(HOTELS_IN_THE_CITY, city).contentType(APPLICATION_JSON))
@@ -145,6 +178,85 @@ public class HotelControllerTest extends AbstractControllerUnitTest<HotelControl
                 .andExpect(content().string(asJson(hotelResources)));
     }
 
+    @Test
+    public void shouldNotReadHotelsForTheCityNameIfNotModified() throws Exception {
+        final String city = "London";
+        final List<Hotel> hotels = buildHotels();
+        final List<Resource<Hotel>> hotelResources = hotels.stream().map(Resource::new).collect(toList());
+
+        when(hotelService.findAllHotelsInTheCity(eq(city))).thenReturn(hotels);
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
+        when(resourceAssembler.toResource(eq(hotels))).thenReturn(hotelResources);
+        final String eTag = mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city))
+                .andExpect(status().isFound())
+                .andExpect(header().string(ETAG, resourceVersions.cityTag(city)))
+                .andExpect(header().string(VARY, ACCEPT))
+                .andReturn().getResponse().getHeader(ETAG);
+        mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, eTag))
+                .andExpect(header().string(VARY, ACCEPT))
+                .andExpect(content().string(""));
+
+        verify(hotelService, times(1)).findAllHotelsInTheCity(eq(city));
+    }
+
+    @Test
+    public void shouldReadHotelsForTheCityNameAgainAfterTheChange() throws Exception {
+        final String city = "London";
+        final List<Hotel> hotels = buildHotels();
+        final List<Resource<Hotel>> hotelResources = hotels.stream().map(Resource::new).collect(toList());
+        final String eTag = resourceVersions.cityTag(city);
+
+        when(hotelService.findAllHotelsInTheCity(eq(city))).thenReturn(hotels);
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
+        when(resourceAssembler.toResource(eq(hotels))).thenReturn(hotelResources);
+        resourceVersions.cityChanged(city);
+        mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isFound())
+                .andExpect(header().string(ETAG, resourceVersions.cityTag(city)))
+                .andExpect(content().string(asJson(hotelResources)));
+    }
+
+    @Test
+    public void shouldFindAllHotelsForTheCityNameInSmile() throws Exception {
+        final String city = "London";
+        final List<Hotel> hotels = buildHotels();
+        final List<Resource<Hotel>> hotelResources = hotels.stream().map(Resource::new).collect(toList());
+
+        when(hotelService.findAllHotelsInTheCity(eq(city))).thenReturn(hotels);
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
+        when(resourceAssembler.toResource(eq(hotels))).thenReturn(hotelResources);
+        final byte[] content = mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city).accept(APPLICATION_SMILE))
+                .andExpect(status().isFound())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        final List<Hotel> actualHotels = getSmileObjectMapper()
+                .readerFor(new TypeReference<List<Hotel>>() { })
+                .without(FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(content);
+        assertEquals(hotels, actualHotels);
+    }
+
+    @Test
+    public void shouldAddNewHotelSentInSmile() throws Exception {
+        final Hotel hotel = buildHotel(randomUUID());
+        final Resource<Hotel> hotelResource = new Resource<>(hotel);
+
+        when(hotelService.addHotel(eq(hotel))).thenReturn(hotel);
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
+        when(resourceAssembler.toResource(eq(hotel))).thenReturn(hotelResource);
+        mockMvc
+                .perform(post(ADD_HOTEL).content(getSmileObjectMapper().writeValueAsBytes(hotel)).contentType(APPLICATION_SMILE))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(asJson(hotelResource)));
+    }
+
     @Test
     public void shouldNotFindAllHotelsForTheEmptyCityName() throws Exception {
         final String city = "";
@@ -154,4 +266,85 @@ public class HotelControllerTest extends AbstractControllerUnitTest<HotelControl
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(""));
     }
+
+    @Test
+    public void shouldStreamAllHotelsForTheCityName() throws Exception {
+        final String city = "London";
+        final String baseUri = "http://localhost";
+        final List<Hotel> hotels = buildHotels();
+        final StringBuilder expectedContent = new StringBuilder();
+        for (Hotel hotel : hotels) {
+            expectedContent.append(asJson(new Resource<>(hotel))).append('\n');
+        }
+
+        when(hotelService.streamAllHotelsInTheCity(eq(city))).thenReturn(hotels.stream());
+        when(resourceAssembler.withController(eq(HotelController.class))).thenReturn(resourceAssembler);
+        when(resourceAssembler.resolveBaseUri()).thenReturn(baseUri);
+        when(resourceAssembler.toResource(any(Hotel.class), eq(baseUri))).thenAnswer(invocation -> new Resource<>(invocation.getArgument(0)));
+        final MvcResult mvcResult = mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city).accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isFound())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andReturn();
+        mvcResult.getAsyncResult();
+        assertEquals(expectedContent.toString(), mvcResult.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void shouldNotStreamHotelsForTheUnknownCityName() throws Exception {
+        final String city = "London";
+        final RuntimeException exception = new RecordNotFoundException(format("Cannot find hotels for the given city '%s'", city));
+
+        when(hotelService.streamAllHotelsInTheCity(eq(city))).thenThrow(exception);
+        mockMvc
+                .perform(get(HOTELS_IN_THE_CITY, city).accept(APPLICATION_NDJSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(asJson(build(exception, RECORD_NOT_EXISTS, NOT_FOUND).getBody())));
+    }
+
+    @Test
+    public void shouldFindHotelsNearThePoint() throws Exception {
+        final ProximitySearchRequest searchRequest = new ProximitySearchRequest(50.45, 30.52, 2);
+        final List<NearbyHotel> nearbyHotels = buildHotels().stream().map(hotel -> new NearbyHotel(hotel, 1.5)).collect(toList());
+
+        when(hotelService.findHotelsNearby(any(ProximitySearchRequest.class))).thenReturn(nearbyHotels);
+        mockMvc
+                .perform(post(HOTELS_NEARBY).content(asJson(searchRequest)).contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(asJson(nearbyHotels)));
+    }
+
+    @Test
+    public void shouldNotFindHotelsNearThePointOutOfRange() throws Exception {
+        final ProximitySearchRequest searchRequest = new ProximitySearchRequest(95d, 30.52, 2);
+
+        mockMvc
+                .perform(post(HOTELS_NEARBY).content(asJson(searchRequest)).contentType(APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(hotelService, times(0)).findHotelsNearby(any(ProximitySearchRequest.class));
+    }
+
+    @Test
+    public void shouldSuggestCitiesAndHotelsForThePrefix() throws Exception {
+        final List<Suggestion> suggestions = asList(new Suggestion(Suggestion.CITY, "London", "London", null),
+                new Suggestion(Suggestion.HOTEL, "Londoner", "London", randomUUID()));
+
+        when(hotelService.suggest(eq("lon"), eq(10))).thenReturn(suggestions);
+        mockMvc
+                .perform(get(TYPEAHEAD).param("prefix", "lon"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(asJson(suggestions)));
+    }
+
+    @Test
+    public void shouldNotSuggestForTheInvalidLimit() throws Exception {
+        final RuntimeException exception = new IllegalArgumentException("The limit of the suggestions must be from 1 to 50, but was 0");
+
+        when(hotelService.suggest(eq("lon"), eq(0))).thenThrow(exception);
+        mockMvc
+                .perform(get(TYPEAHEAD).param("prefix", "lon").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(asJson(build(exception, QUERY_EXECUTION_EXCEPTION, BAD_REQUEST).getBody())));
+    }
 }
@@ -1,8 +1,10 @@
 package com.dataart.tmurzenkov.cassandra.controller;
 
+import com.dataart.tmurzenkov.cassandra.model.dto.HotelAvailability;
 import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
+import com.dataart.tmurzenkov.cassandra.service.impl.NdjsonResourceWriter;
 import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.RoomServiceImpl;
 import org.junit.Before;
@@ -10,20 +12,29 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.hateoas.Resource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.dataart.tmurzenkov.cassandra.TestUtils.HttpResponseTest.build;
 import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildRoom;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildSetOfRooms;
 import static com.dataart.tmurzenkov.cassandra.TestUtils.asJson;
+import static com.dataart.tmurzenkov.cassandra.controller.media.MediaTypes.APPLICATION_NDJSON;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.ADD_ROOM;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_AVAILABILITY;
 import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.QUERY_EXECUTION_EXCEPTION;
 import static com.dataart.tmurzenkov.cassandra.service.impl.ExceptionInterceptor.Constants.RECORD_ALREADY_EXISTS;
 import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
@@ -32,6 +43,7 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -45,6 +57,8 @@ public class RoomControllerTest extends AbstractControllerUnitTest<RoomControlle
     private RoomServiceImpl roomService;
     @Mock
     private ServiceResourceAssembler<Room, Resource<Room>> serviceResourceAssembler;
+    @Spy
+    private NdjsonResourceWriter ndjsonResourceWriter = new NdjsonResourceWriter();
     @InjectMocks
     private RoomController sut;
     private MockMvc mockMvc;
@@ -55,6 +69,7 @@ public class RoomControllerTest extends AbstractControllerUnitTest<RoomControlle
     @Before
     public void init() {
         this.mockMvc = this.init(sut);
+        initNdjsonWriter(ndjsonResourceWriter);
     }
 
     @Test
@@ -124,4 +139,46 @@ public class RoomControllerTest extends AbstractControllerUnitTest<RoomControlle
                 .perform(post(GET_FREE_ROOMS).content(asJson(searchRequest)).contentType(APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void shouldStreamFreeRooms() throws Exception {
+        final UUID hotelId = UUID.randomUUID();
+        final String baseUri = "http://localhost";
+        final SearchRequest searchRequest = new SearchRequest(LocalDate.now(), LocalDate.now().plusDays(1), hotelId);
+        final Set<Room> freeRooms = buildSetOfRooms(5, hotelId);
+        final StringBuilder expectedContent = new StringBuilder();
+        for (Room room : freeRooms) {
+            expectedContent.append(asJson(new Resource<>(room))).append('\n');
+        }
+
+        when(roomService.streamFreeRoomsInTheHotel(any(SearchRequest.class))).thenReturn(freeRooms.stream());
+        when(serviceResourceAssembler.withController(eq(sut.getClass()))).thenReturn(serviceResourceAssembler);
+        when(serviceResourceAssembler.resolveBaseUri()).thenReturn(baseUri);
+        when(serviceResourceAssembler.toResource(any(Room.class), eq(baseUri))).thenAnswer(invocation -> new Resource<>(invocation.getArgument(0)));
+        final MvcResult mvcResult = mockMvc
+                .perform(post(GET_FREE_ROOMS).content(asJson(searchRequest)).contentType(APPLICATION_JSON).accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isFound())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andReturn();
+        mvcResult.getAsyncResult();
+        assertEquals(expectedContent.toString(), mvcResult.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void shouldFindTheAvailabilityOfTheHotel() throws Exception {
+        final UUID hotelId = UUID.randomUUID();
+        final SearchRequest searchRequest = new SearchRequest(LocalDate.now(), LocalDate.now().plusDays(1), hotelId);
+        final HotelAvailability availability = new HotelAvailability(hotelId, searchRequest.getStart(), searchRequest.getEnd(), 5, 0);
+
+        when(roomService.findAvailability(eq(searchRequest))).thenReturn(availability);
+
+        mockMvc
+                .perform(post(GET_AVAILABILITY).content(asJson(searchRequest)).contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(asJson(availability)));
+
+        verify(roomService).findAvailability(eq(searchRequest));
+        verify(roomService, never()).findFreeRoomsInTheHotel(any());
+    }
 }
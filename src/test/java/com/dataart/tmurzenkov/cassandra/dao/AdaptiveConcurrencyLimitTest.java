@@ -0,0 +1,165 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.limit.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.ZoneOffset.UTC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link AdaptiveConcurrencyLimit}.
+ *
+ * @author tmurzenkov
+ */
+public class AdaptiveConcurrencyLimitTest {
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int CAPACITY = 4;
+    private static final long SERVICE_MILLIS = 5;
+    private static final long DEADLINE_MILLIS = 40;
+    private static final long DURATION_MILLIS = 1500;
+    private final AdaptiveConcurrencyLimit sut = limit(10);
+
+    @Test
+    public void shouldKeepTheShareOfTheLimitForTheBookings() {
+        final List<Boolean> searches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            searches.add(sut.tryAcquire(false));
+        }
+
+        assertEquals(7, searches.stream().filter(Boolean::booleanValue).count());
+        assertTrue(sut.tryAcquire(true));
+        assertTrue(sut.tryAcquire(true));
+        assertTrue(sut.tryAcquire(true));
+        assertFalse(sut.tryAcquire(true));
+        assertEquals(3, sut.getStatistics().getShed());
+        assertEquals(1, sut.getStatistics().getShedPriority());
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitOncePerTheTargetLatency() {
+        setField(sut, "targetLatencyMillis", TimeUnit.SECONDS.toMillis(5));
+        sut.onSample(SLOW, false);
+        sut.onSample(SLOW, false);
+        sut.onSample(FAST, true);
+
+        assertEquals(9d, sut.getLimit(), 0.001d);
+        assertEquals(1, sut.getStatistics().getDecreases());
+    }
+
+    @Test
+    public void shouldIncreaseTheLimitOnlyWhenItIsUsed() {
+        sut.onSample(FAST, false);
+        assertEquals(10d, sut.getLimit(), 0.001d);
+
+        for (int i = 0; i < 6; i++) {
+            sut.tryAcquire(true);
+        }
+        for (int i = 0; i < 10; i++) {
+            sut.onSample(FAST, false);
+        }
+        assertEquals(11d, sut.getLimit(), 0.1d);
+    }
+
+    /**
+     * The data base serves 4 calls at once, 5 ms each, the client gives up after 40 ms. 64 clients without the limit
+     * wait in the queue longer than they would, so almost nothing they get is in time. With the limit the calls above
+     * the capacity are shed at once and the goodput stays close to the one of the clients the data base can serve.
+     * The calls are simulated millisecond by millisecond on the clock of the limit, so the test takes no wall time.
+     */
+    @Test
+    public void shouldKeepTheGoodputUnderTheOverload() {
+        final long underCapacity = goodput(limit(64), 4);
+        final long overloadedWithLimit = goodput(limit(64), 64);
+        final long overloadedWithoutLimit = goodput(null, 64);
+
+        final String goodputs = format(underCapacity, overloadedWithLimit, overloadedWithoutLimit);
+        assertTrue(goodputs, overloadedWithLimit * 2 > underCapacity);
+        assertTrue(goodputs, overloadedWithoutLimit * 2 < overloadedWithLimit);
+    }
+
+    private static String format(long underCapacity, long overloadedWithLimit, long overloadedWithoutLimit) {
+        return String.format("Goodput of 4 clients %d, of 64 clients with the limit %d, without the limit %d",
+                underCapacity, overloadedWithLimit, overloadedWithoutLimit);
+    }
+
+    /**
+     * Runs the clients for 1500 ms, each one calls again as soon as its call is completed and 1 ms after it is shed.
+     *
+     * @return number of the calls completed within the deadline
+     */
+    private static long goodput(AdaptiveConcurrencyLimit limit, int clients) {
+        final Deque<Call> queue = new ArrayDeque<>();
+        final Call[] served = new Call[CAPACITY];
+        final long[] nextCall = new long[clients];
+        long inTime = 0;
+        for (long now = 0; now < DURATION_MILLIS; now++) {
+            if (null != limit) {
+                limit.setClock(Clock.fixed(Instant.ofEpochMilli(now), UTC));
+            }
+            for (int server = 0; server < CAPACITY; server++) {
+                final Call call = served[server];
+                if (null != call && now - call.start >= call.waited + SERVICE_MILLIS) {
+                    final long latency = now - call.start;
+                    if (null != limit) {
+                        limit.onSample(TimeUnit.MILLISECONDS.toNanos(latency), false);
+                        limit.release();
+                    }
+                    inTime += latency <= DEADLINE_MILLIS ? 1 : 0;
+                    nextCall[call.client] = now;
+                    served[server] = null;
+                }
+            }
+            for (int client = 0; client < clients; client++) {
+                if (nextCall[client] != now) {
+                    continue;
+                }
+                if (null != limit && !limit.tryAcquire(false)) {
+                    nextCall[client] = now + 1;
+                } else {
+                    queue.add(new Call(client, now));
+                    nextCall[client] = -1;
+                }
+            }
+            for (int server = 0; server < CAPACITY && !queue.isEmpty(); server++) {
+                if (null == served[server]) {
+                    served[server] = queue.poll();
+                    served[server].waited = now - served[server].start;
+                }
+            }
+        }
+        return inTime;
+    }
+
+    private static AdaptiveConcurrencyLimit limit(int initial) {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit();
+        setField(limit, "initialLimit", initial);
+        setField(limit, "targetLatencyMillis", 20L);
+        return limit;
+    }
+
+    /**
+     * Call of the client queued or served by the data base.
+     */
+    private static final class Call {
+        private final int client;
+        private final long start;
+        private long waited;
+
+        private Call(int client, long start) {
+            this.client = client;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjectingDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjector;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomDao;
+import com.dataart.tmurzenkov.cassandra.dao.isolation.DaoIsolation;
+import com.dataart.tmurzenkov.cassandra.dao.isolation.DaoIsolationPostProcessor;
+import com.dataart.tmurzenkov.cassandra.model.dto.DaoIsolationStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.FaultRule;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.exception.ServiceOverloadedException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cassandra.support.exception.CassandraReadTimeoutException;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildRoom;
+import static java.util.Collections.emptySet;
+import static java.util.UUID.randomUUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link DaoIsolation} applied to the daos by the {@link DaoIsolationPostProcessor}, the daos are slowed
+ * down and failed by the {@link FaultInjector}.
+ *
+ * @author tmurzenkov
+ */
+public class DaoIsolationTest {
+    private static final long OPEN_MILLIS = 50;
+    private final UUID hotelId = randomUUID();
+    private final FaultInjector faultInjector = new FaultInjector();
+    private final DaoIsolation daoIsolation = new DaoIsolation();
+    private final DaoIsolationPostProcessor isolation = new DaoIsolationPostProcessor();
+    private RoomDao roomDao;
+    private HotelDao hotelDao;
+
+    /**
+     * Wraps the in-memory daos as the spring context does, the circuit is opened by 3 failures for 50 ms and the
+     * bulkhead lets 1 call in.
+     */
+    @Before
+    public void init() {
+        final FaultInjectingDaoPostProcessor faultInjecting = new FaultInjectingDaoPostProcessor();
+        setField(faultInjecting, "faultInjector", faultInjector);
+        setField(isolation, "daoIsolation", daoIsolation);
+        setField(daoIsolation, "failureThreshold", 3);
+        setField(daoIsolation, "openMillis", OPEN_MILLIS);
+        setField(daoIsolation, "maxCalls", 1);
+        roomDao = (RoomDao) isolation.postProcessAfterInitialization(
+                faultInjecting.postProcessAfterInitialization(new InMemoryRoomDao(), "roomDao"), "roomDao");
+        hotelDao = (HotelDao) isolation.postProcessAfterInitialization(
+                faultInjecting.postProcessAfterInitialization(new InMemoryHotelDao(), "hotelDao"), "hotelDao");
+        roomDao.insert(buildRoom(hotelId, 1));
+    }
+
+    @Test
+    public void shouldFailFastOnlyTheDaoFailedInARow() {
+        timeOut("RoomDao");
+        for (int i = 0; i < 3; i++) {
+            expect(CassandraReadTimeoutException.class);
+        }
+        faultInjector.clear();
+
+        expect(ServiceOverloadedException.class);
+        assertEquals(0, hotelDao.count());
+        final DaoIsolationStatistics statistics = daoIsolation.getStatistics().get("RoomDao");
+        assertEquals("OPEN", statistics.getState());
+        assertEquals(1, statistics.getShortCircuited());
+        assertEquals("CLOSED", daoIsolation.getStatistics().get("HotelDao").getState());
+    }
+
+    @Test
+    public void shouldCloseTheCircuitByTheSucceededProbe() throws InterruptedException {
+        openTheCircuit();
+        faultInjector.clear();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        assertEquals(1, roomDao.findAllRoomsByHotelId(hotelId).size());
+        assertEquals("CLOSED", daoIsolation.getStatistics().get("RoomDao").getState());
+    }
+
+    @Test
+    public void shouldOpenTheCircuitAgainByTheFailedProbe() throws InterruptedException {
+        openTheCircuit();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        expect(CassandraReadTimeoutException.class);
+        expect(ServiceOverloadedException.class);
+        assertEquals(2, daoIsolation.getStatistics().get("RoomDao").getOpened());
+    }
+
+    @Test
+    public void shouldRejectTheCallsAboveTheBulkheadOfTheDao() throws InterruptedException {
+        final FaultRule rule = rule("RoomDao");
+        rule.setMinLatencyMillis(OPEN_MILLIS * 4);
+        rule.setMaxLatencyMillis(OPEN_MILLIS * 4);
+        faultInjector.install(rule);
+        final Thread slowCall = new Thread(() -> roomDao.findAllRoomsByHotelId(hotelId));
+        slowCall.start();
+        while (0 == daoIsolation.getStatistics().get("RoomDao").getInFlight()) {
+            Thread.sleep(1);
+        }
+
+        expect(ServiceOverloadedException.class);
+        assertEquals(0, hotelDao.count());
+        slowCall.join();
+        assertEquals(1, daoIsolation.getStatistics().get("RoomDao").getRejected());
+        assertEquals("CLOSED", daoIsolation.getStatistics().get("RoomDao").getState());
+    }
+
+    @Test
+    public void shouldNotCountTheFailuresAfterTheDeadlineOfTheRequest() {
+        timeOut("RoomDao");
+        RequestDeadline.start(0);
+        try {
+            for (int i = 0; i < 5; i++) {
+                expect(CassandraReadTimeoutException.class);
+            }
+        } finally {
+            RequestDeadline.clear();
+        }
+
+        assertEquals("CLOSED", daoIsolation.getStatistics().get("RoomDao").getState());
+    }
+
+    @Test
+    public void shouldHoldThePlaceInTheBulkheadTillTheAsyncCallCompletes() {
+        final PendingRoomDao pendingRoomDao = new PendingRoomDao();
+        final RoomDao asyncRoomDao = (RoomDao) isolation.postProcessAfterInitialization(pendingRoomDao, "roomDao");
+
+        final CompletableFuture<Set<Room>> rooms = asyncRoomDao.findAllRoomsByHotelIdAsync(hotelId);
+        assertEquals(1, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+        expect(ServiceOverloadedException.class);
+        pendingRoomDao.rooms.complete(emptySet());
+
+        assertTrue(rooms.isDone());
+        assertEquals(0, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+        assertEquals(1, roomDao.findAllRoomsByHotelId(hotelId).size());
+    }
+
+    @Test
+    public void shouldCountTheFailureOfTheAsyncCallOnceItsFutureFails() {
+        for (int i = 0; i < 3; i++) {
+            final PendingRoomDao pendingRoomDao = new PendingRoomDao();
+            final RoomDao asyncRoomDao = (RoomDao) isolation.postProcessAfterInitialization(pendingRoomDao, "roomDao");
+            final CompletableFuture<Set<Room>> rooms = asyncRoomDao.findAllRoomsByHotelIdAsync(hotelId);
+            assertEquals("CLOSED", daoIsolation.getStatistics().get("RoomDao").getState());
+            pendingRoomDao.rooms.completeExceptionally(new CassandraReadTimeoutException(false, "Timed out", null));
+            assertTrue(rooms.isCompletedExceptionally());
+        }
+
+        assertEquals("OPEN", daoIsolation.getStatistics().get("RoomDao").getState());
+        expect(ServiceOverloadedException.class);
+    }
+
+    @Test
+    public void shouldHoldThePlaceInTheBulkheadTillTheStreamIsClosed() {
+        final Stream<Room> rooms = roomDao.streamAllRoomsByHotelId(hotelId);
+        assertEquals(1, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+        expect(ServiceOverloadedException.class);
+
+        rooms.close();
+        assertEquals(0, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+        assertEquals(1, roomDao.streamAllRoomsByHotelId(hotelId).count());
+        assertEquals(0, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+    }
+
+    @Test
+    public void shouldCountTheFailureOfFetchingTheRowsOfTheStream() {
+        final RoomDao failingRoomDao = (RoomDao) isolation.postProcessAfterInitialization(new FailingStreamRoomDao(), "roomDao");
+        for (int i = 0; i < 3; i++) {
+            try (Stream<Room> rooms = failingRoomDao.streamAllRoomsByHotelId(hotelId)) {
+                rooms.forEach(room -> fail("Fetching the rows must fail"));
+                fail("Fetching the rows must fail");
+            } catch (CassandraReadTimeoutException e) {
+                assertEquals(0, daoIsolation.getStatistics().get("RoomDao").getInFlight());
+            }
+        }
+
+        assertEquals("OPEN", daoIsolation.getStatistics().get("RoomDao").getState());
+    }
+
+    private void openTheCircuit() {
+        timeOut("RoomDao");
+        for (int i = 0; i < 3; i++) {
+            expect(CassandraReadTimeoutException.class);
+        }
+    }
+
+    private void timeOut(String dao) {
+        final FaultRule rule = rule(dao);
+        rule.setTimeoutProbability(1d);
+        faultInjector.install(rule);
+    }
+
+    private void expect(Class<? extends RuntimeException> failure) {
+        try {
+            roomDao.findAllRoomsByHotelId(hotelId);
+            fail("The call must fail with " + failure.getSimpleName());
+        } catch (RuntimeException e) {
+            assertTrue(e.toString(), failure.isInstance(e));
+        }
+    }
+
+    private static FaultRule rule(String dao) {
+        final FaultRule rule = new FaultRule();
+        rule.setDao(dao);
+        return rule;
+    }
+
+    /**
+     * Answers the async read of the rooms by the future completed by the test.
+     */
+    static class PendingRoomDao extends InMemoryRoomDao {
+        private final CompletableFuture<Set<Room>> rooms = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<Set<Room>> findAllRoomsByHotelIdAsync(UUID hotelId) {
+            return rooms;
+        }
+    }
+
+    /**
+     * Fails fetching the rows of the stream as the stream of the driver result set fails on the next page.
+     */
+    static class FailingStreamRoomDao extends InMemoryRoomDao {
+        @Override
+        public Stream<Room> streamAllRoomsByHotelId(UUID hotelId) {
+            return Stream.<Room>generate(() -> {
+                throw new CassandraReadTimeoutException(false, "Timed out fetching the next page", null);
+            });
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.deadline.DeadlineEnforcement;
+import com.dataart.tmurzenkov.cassandra.dao.deadline.RequestDeadline;
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjectingDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjector;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.FaultRule;
+import com.dataart.tmurzenkov.cassandra.model.exception.DeadlineExceededException;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cassandra.support.exception.CassandraReadTimeoutException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildRoom;
+import static java.util.Collections.singletonMap;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link DeadlineEnforcement} of the daos wrapped by the {@link DeadlineDaoPostProcessor} and of the
+ * wrapped session.
+ *
+ * @author tmurzenkov
+ */
+public class DeadlineEnforcementTest {
+    private static final String QUERY = "SELECT * FROM room WHERE hotel_id = ?";
+    private static final String INSERT = "INSERT INTO room (hotel_id, room_number) VALUES (1, 1) USING TTL ?";
+    private final UUID hotelId = randomUUID();
+    private final DeadlineEnforcement sut = new DeadlineEnforcement();
+
+    /**
+     * Clears the deadline of the test thread.
+     */
+    @After
+    public void clear() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void shouldAbandonTheDaoCallsOnceTheDeadlinePassed() {
+        final FaultInjector faultInjector = new FaultInjector();
+        final FaultRule rule = new FaultRule();
+        rule.setDao("RoomDao");
+        rule.setMinLatencyMillis(50);
+        rule.setMaxLatencyMillis(50);
+        faultInjector.install(rule);
+        final RoomDao roomDao = wrap(faultInjector, new InMemoryRoomDao());
+        roomDao.insert(buildRoom(hotelId, 1));
+        RequestDeadline.start(20);
+
+        assertEquals(1, roomDao.findAllRoomsByHotelId(hotelId).size());
+        try {
+            roomDao.findAllRoomsByHotelId(hotelId);
+            fail("The call must be abandoned");
+        } catch (DeadlineExceededException e) {
+            assertEquals(singletonMap("RoomDao", 1L), sut.getStatistics().getAbandonedCalls());
+        }
+    }
+
+    @Test
+    public void shouldFailTheCallTimedOutAfterTheDeadlineByTheDeadline() {
+        final FaultInjector faultInjector = new FaultInjector();
+        final FaultRule rule = new FaultRule();
+        rule.setDao("RoomDao");
+        rule.setTimeoutMillis(50);
+        rule.setTimeoutProbability(1d);
+        faultInjector.install(rule);
+        final RoomDao roomDao = wrap(faultInjector, new InMemoryRoomDao());
+
+        try {
+            roomDao.findAllRoomsByHotelId(hotelId);
+            fail("The call must time out");
+        } catch (CassandraReadTimeoutException e) {
+            assertTrue(sut.getStatistics().getTimedOutCalls().isEmpty());
+        }
+        RequestDeadline.start(20);
+        try {
+            roomDao.findAllRoomsByHotelId(hotelId);
+            fail("The call must time out");
+        } catch (DeadlineExceededException e) {
+            assertTrue(e.getCause() instanceof CassandraReadTimeoutException);
+            assertEquals(singletonMap("RoomDao", 1L), sut.getStatistics().getTimedOutCalls());
+        }
+    }
+
+    @Test
+    public void shouldCutTheReadTimeoutOfTheStatementsDownToTheDeadline() {
+        final Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+        when(session.getCluster().getConfiguration().getSocketOptions().getReadTimeoutMillis()).thenReturn(12000);
+        final Session wrapped = sut.wrap(session);
+        final ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+
+        RequestDeadline.start(500);
+        wrapped.executeAsync(QUERY, hotelId);
+
+        verify(session).executeAsync(statement.capture());
+        final int readTimeoutMillis = statement.getValue().getReadTimeoutMillis();
+        assertTrue(String.valueOf(readTimeoutMillis), readTimeoutMillis > 0 && readTimeoutMillis <= 500);
+    }
+
+    @Test
+    public void shouldNotSendTheStatementsAfterTheDeadline() {
+        final Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+        final Session wrapped = sut.wrap(session);
+        wrapped.execute(QUERY);
+        verify(session).execute(QUERY);
+
+        RequestDeadline.start(0);
+        try {
+            wrapped.execute(QUERY);
+            fail("The statement must not be sent");
+        } catch (DeadlineExceededException e) {
+            verify(session, never()).execute(any(Statement.class));
+            assertEquals(1, sut.getStatistics().getAbandonedStatements());
+        }
+    }
+
+    @Test
+    public void shouldCompleteTheWritesOfTheRequestOnceTheFirstOneStarted() {
+        final Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+        when(session.getCluster().getConfiguration().getSocketOptions().getReadTimeoutMillis()).thenReturn(12000);
+        when(session.execute(any(Statement.class))).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return null;
+        });
+        final ExpiringInsertDao expiringInsertDao = wrap(new SessionInsertDao(sut.wrap(session)));
+        final ArgumentCaptor<Statement> statements = ArgumentCaptor.forClass(Statement.class);
+
+        RequestDeadline.start(20);
+        expiringInsertDao.insertWithTtl(buildRoom(hotelId, 1), 60);
+        assertTrue(RequestDeadline.isExpired());
+        expiringInsertDao.insertWithTtl(buildRoom(hotelId, 2), 60);
+
+        verify(session, times(2)).execute(statements.capture());
+        for (Statement statement : statements.getAllValues()) {
+            assertEquals(Integer.MIN_VALUE, statement.getReadTimeoutMillis());
+        }
+        assertEquals(0, sut.getStatistics().getAbandonedStatements());
+        assertTrue(sut.getStatistics().getAbandonedCalls().isEmpty());
+    }
+
+    @Test
+    public void shouldAbandonTheFirstWriteAfterTheDeadline() {
+        final Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+        final ExpiringInsertDao expiringInsertDao = wrap(new SessionInsertDao(sut.wrap(session)));
+
+        RequestDeadline.start(0);
+        try {
+            expiringInsertDao.insertWithTtl(buildRoom(hotelId, 1), 60);
+            fail("The write must be abandoned");
+        } catch (DeadlineExceededException e) {
+            verify(session, never()).execute(any(Statement.class));
+            assertEquals(singletonMap("ExpiringInsertDao", 1L), sut.getStatistics().getAbandonedCalls());
+        }
+    }
+
+    private ExpiringInsertDao wrap(ExpiringInsertDao expiringInsertDao) {
+        final DeadlineDaoPostProcessor deadline = new DeadlineDaoPostProcessor();
+        setField(deadline, "deadlineEnforcement", sut);
+        return (ExpiringInsertDao) deadline.postProcessAfterInitialization(expiringInsertDao, "expiringInsertDao");
+    }
+
+    private RoomDao wrap(FaultInjector faultInjector, RoomDao roomDao) {
+        final FaultInjectingDaoPostProcessor faultInjecting = new FaultInjectingDaoPostProcessor();
+        setField(faultInjecting, "faultInjector", faultInjector);
+        final DeadlineDaoPostProcessor deadline = new DeadlineDaoPostProcessor();
+        setField(deadline, "deadlineEnforcement", sut);
+        return (RoomDao) deadline.postProcessAfterInitialization(faultInjecting.postProcessAfterInitialization(roomDao, "roomDao"), "roomDao");
+    }
+
+    /**
+     * Inserts the entity by one statement of the session.
+     */
+    static class SessionInsertDao implements ExpiringInsertDao {
+        private final Session session;
+
+        SessionInsertDao(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public <T> T insertWithTtl(T entity, int ttlSeconds) {
+            session.execute(new SimpleStatement(INSERT, ttlSeconds));
+            return entity;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> insertWithTtlAsync(T entity, int ttlSeconds) {
+            return completedFuture(insertWithTtl(entity, ttlSeconds));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjectingDaoPostProcessor;
+import com.dataart.tmurzenkov.cassandra.dao.fault.FaultInjector;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.FaultRule;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.cassandra.support.exception.CassandraInsufficientReplicasAvailableException;
+import org.springframework.cassandra.support.exception.CassandraReadTimeoutException;
+import org.springframework.cassandra.support.exception.CassandraWriteTimeoutException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildRoom;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * UTs for the {@link FaultInjector} applied to the daos by the {@link FaultInjectingDaoPostProcessor}.
+ *
+ * @author tmurzenkov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FaultInjectorTest {
+    private static final long LATENCY_MILLIS = 50;
+    private final UUID hotelId = randomUUID();
+    @Spy
+    private FaultInjector faultInjector = new FaultInjector();
+    @InjectMocks
+    private FaultInjectingDaoPostProcessor postProcessor;
+    private RoomDao roomDao;
+
+    /**
+     * Wraps the in-memory dao as the spring context does.
+     */
+    @Before
+    public void init() {
+        roomDao = (RoomDao) postProcessor.postProcessAfterInitialization(new InMemoryRoomDao(), "roomDao");
+        roomDao.insert(buildRoom(hotelId, 1));
+    }
+
+    @Test
+    public void shouldFailOnlyTheMethodOfTheRuleWithTranslatedReadTimeout() {
+        final FaultRule rule = rule("RoomDao", "findAllRoomsByHotelId");
+        rule.setTimeoutProbability(1d);
+        faultInjector.install(rule);
+
+        assertTrue(roomDao.exists(buildRoom(hotelId, 1).getCompositeId()));
+        try {
+            roomDao.findAllRoomsByHotelId(hotelId);
+            fail("The read must time out");
+        } catch (CassandraReadTimeoutException e) {
+            assertEquals(1, faultInjector.getRules().size());
+        }
+    }
+
+    @Test
+    public void shouldFailWritesWithWriteTimeout() {
+        final FaultRule rule = rule("RoomDao", FaultRule.ANY);
+        rule.setTimeoutProbability(1d);
+        faultInjector.install(rule);
+
+        try {
+            roomDao.insert(buildRoom(hotelId, 2));
+            fail("The write must time out");
+        } catch (CassandraWriteTimeoutException e) {
+            assertTrue(e.getCause() instanceof WriteTimeoutException);
+        }
+        faultInjector.clear();
+        roomDao.insert(buildRoom(hotelId, 2));
+        assertEquals(2, roomDao.count());
+    }
+
+    @Test
+    public void shouldDelayCallsByTheConfiguredLatency() {
+        final FaultRule rule = rule(FaultRule.ANY, FaultRule.ANY);
+        rule.setMinLatencyMillis(LATENCY_MILLIS);
+        rule.setMaxLatencyMillis(LATENCY_MILLIS);
+        faultInjector.install(rule);
+
+        final long start = System.nanoTime();
+        roomDao.findAllRoomsByHotelId(hotelId);
+
+        assertTrue(System.nanoTime() - start >= LATENCY_MILLIS * 1_000_000L);
+    }
+
+    @Test
+    public void shouldRepeatTheSameFaultsForTheSameSeed() {
+        final FaultRule rule = rule("RoomDao", "findAllRoomsByHotelId");
+        rule.setUnavailableProbability(0.5d);
+        rule.setSeed(42L);
+
+        faultInjector.install(rule);
+        final List<Boolean> first = outcomes();
+        faultInjector.install(rule);
+        final List<Boolean> second = outcomes();
+
+        assertEquals(first, second);
+        assertTrue(first.contains(true) && first.contains(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRuleWithMinLatencyAboveMax() {
+        final FaultRule rule = rule("RoomDao", FaultRule.ANY);
+        rule.setMinLatencyMillis(LATENCY_MILLIS);
+        faultInjector.install(rule);
+    }
+
+    private List<Boolean> outcomes() {
+        return IntStream.range(0, 50).mapToObj(call -> {
+            try {
+                roomDao.findAllRoomsByHotelId(hotelId);
+                return false;
+            } catch (CassandraInsufficientReplicasAvailableException e) {
+                return true;
+            }
+        }).collect(toList());
+    }
+
+    private static FaultRule rule(String dao, String method) {
+        final FaultRule rule = new FaultRule();
+        rule.setDao(dao);
+        rule.setMethod(method);
+        return rule;
+    }
+}
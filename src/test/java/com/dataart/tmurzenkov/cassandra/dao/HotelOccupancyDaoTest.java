@@ -0,0 +1,159 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.roomBitmap;
+import static java.util.UUID.randomUUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * UTs for the compare and set of the {@link HotelOccupancyDao} on the {@link InMemoryHotelOccupancyDao}.
+ *
+ * @author tmurzenkov
+ */
+public class HotelOccupancyDaoTest {
+    private static final int ATTEMPTS = 16;
+    private final UUID hotelId = randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private final InMemoryHotelOccupancyDao sut = spy(new InMemoryHotelOccupancyDao());
+
+    @Test
+    public void shouldAddTheRoomsToTheNightAndSkipTheBookedOnes() {
+        assertTrue(sut.occupy(hotelId, today, roomBitmap(3), 0, ATTEMPTS));
+        assertTrue(sut.occupy(hotelId, today, roomBitmap(7), 0, ATTEMPTS));
+        assertFalse(sut.occupy(hotelId, today, roomBitmap(3), 0, ATTEMPTS));
+
+        final BitSet expected = roomBitmap(3);
+        expected.set(7);
+        assertEquals(expected, sut.findOccupancy(hotelId, today).getBookedRooms());
+        assertEquals(Integer.valueOf(2), sut.countBookedRooms(hotelId, today, today.plusDays(1)).get(today));
+        verify(sut, times(2)).compareAndSet(any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldRetryAgainstTheOccupancyWrittenConcurrently() {
+        final HotelOccupancy concurrent = new HotelOccupancy(hotelId, today, roomBitmap(1));
+        doReturn(null).when(sut).findOccupancy(hotelId, today);
+        sut.compareAndSet(null, concurrent, 0);
+
+        assertTrue(sut.occupy(hotelId, today, roomBitmap(2), 0, ATTEMPTS));
+
+        final BitSet expected = roomBitmap(1);
+        expected.set(2);
+        assertEquals(expected, sut.findAllForHotelIdAndPeriod(hotelId, today, today).get(0).getBookedRooms());
+        verify(sut, times(3)).compareAndSet(any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldNotOccupyTheRoomBookedConcurrently() {
+        final HotelOccupancy concurrent = new HotelOccupancy(hotelId, today, roomBitmap(2));
+        doReturn(null).when(sut).findOccupancy(hotelId, today);
+        sut.compareAndSet(null, concurrent, 0);
+
+        assertFalse(sut.occupy(hotelId, today, roomBitmap(2), 0, ATTEMPTS));
+
+        assertEquals(roomBitmap(2), sut.findAllForHotelIdAndPeriod(hotelId, today, today).get(0).getBookedRooms());
+        verify(sut, times(2)).compareAndSet(any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldGiveUpWhenTheNightKeepsChanging() {
+        doReturn(new HotelOccupancy(hotelId, today, roomBitmap(1))).when(sut).compareAndSet(any(), any(), anyInt());
+
+        try {
+            sut.occupy(hotelId, today, roomBitmap(2), 0, ATTEMPTS);
+            fail("The night keeps changing");
+        } catch (IllegalStateException e) {
+            verify(sut, times(ATTEMPTS)).compareAndSet(any(), any(), anyInt());
+        }
+    }
+
+    @Test
+    public void shouldReleaseTheRoomsAndKeepTheOthers() {
+        sut.occupy(hotelId, today, roomBitmap(3), 0, ATTEMPTS);
+        sut.occupy(hotelId, today, roomBitmap(7), 0, ATTEMPTS);
+
+        sut.release(hotelId, today, roomBitmap(3), 0, ATTEMPTS);
+        sut.release(hotelId, today, roomBitmap(3), 0, ATTEMPTS);
+        sut.release(hotelId, today.plusDays(1), roomBitmap(3), 0, ATTEMPTS);
+
+        assertEquals(roomBitmap(7), sut.findOccupancy(hotelId, today).getBookedRooms());
+        assertEquals(null, sut.findOccupancy(hotelId, today.plusDays(1)));
+        verify(sut, times(3)).compareAndSet(any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldReleaseTheLastRoomToTheEmptyNight() {
+        sut.occupy(hotelId, today, roomBitmap(3), 0, ATTEMPTS);
+
+        sut.release(hotelId, today, roomBitmap(3), 0, ATTEMPTS);
+
+        assertEquals(new BitSet(), sut.findOccupancy(hotelId, today).getBookedRooms());
+        assertEquals(Integer.valueOf(0), sut.countBookedRooms(hotelId, today, today).get(today));
+    }
+
+    @Test
+    public void shouldKeepAllTheRoomsOccupiedConcurrently() throws InterruptedException {
+        final int threads = 8;
+        final int roomsPerThread = 50;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int firstRoom = thread * roomsPerThread;
+            final Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                for (int room = firstRoom; room < firstRoom + roomsPerThread; room++) {
+                    sut.occupy(hotelId, today, roomBitmap(room), 0, Integer.MAX_VALUE);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * roomsPerThread, sut.findOccupancy(hotelId, today).getBookedRooms().cardinality());
+    }
+
+    @Test
+    public void shouldSliceTheNightsOfTheHotel() {
+        for (int day = 0; day < 5; day++) {
+            sut.occupy(hotelId, today.plusDays(day), roomBitmap(day), 0, ATTEMPTS);
+        }
+        sut.occupy(randomUUID(), today.plusDays(1), roomBitmap(1), 0, ATTEMPTS);
+
+        final List<HotelOccupancy> nights = sut.findAllForHotelIdAndPeriod(hotelId, today.plusDays(1), today.plusDays(3));
+
+        assertEquals(3, nights.size());
+        assertEquals(today.plusDays(1), nights.get(0).getDate());
+        assertEquals(roomBitmap(3), nights.get(2).getBookedRooms());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomByGuestAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildHotel;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildRoom;
+import static java.util.Arrays.asList;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UTs for the in-memory daos of the {@link com.dataart.tmurzenkov.cassandra.configuration.Profiles#IN_MEMORY} profile.
+ *
+ * @author tmurzenkov
+ */
+public class InMemoryDaoTest {
+    private final UUID hotelId = randomUUID();
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    public void shouldSliceBookedRoomsByDateRangeInclusiveWithinTheMonth() {
+        final InMemoryRoomByHotelAndDateDao sut = new InMemoryRoomByHotelAndDateDao();
+        final LocalDate month = LocalDate.of(2017, 6, 1);
+        for (int days = 0; days < 10; days++) {
+            sut.insert(new RoomByHotelAndDate(hotelId, 1, month.plusDays(days)));
+            sut.insert(new RoomByHotelAndDate(hotelId, 2, month.plusDays(days)));
+        }
+        sut.insert(new RoomByHotelAndDate(randomUUID(), 1, month.plusDays(3)));
+        sut.insert(new RoomByHotelAndDate(hotelId, 1, month.plusMonths(1).plusDays(3)));
+
+        final Set<RoomByHotelAndDate> rooms = sut.findAllRoomsForHotelIdAndMonth(hotelId, month, month.plusDays(3), month.plusDays(5));
+
+        assertEquals(6, rooms.size());
+        assertTrue(rooms.stream().allMatch(room -> hotelId.equals(room.getId()) && month.equals(room.getMonth())));
+        assertTrue(rooms.contains(new RoomByHotelAndDate(hotelId, 2, month.plusDays(5))));
+        assertTrue(sut.findAllRoomsForHotelIdAndMonth(hotelId, month, month.plusDays(5), month.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    public void shouldOverwriteRowWithTheSamePrimaryKey() {
+        final InMemoryRoomDao sut = new InMemoryRoomDao();
+
+        sut.insert(buildRoom(hotelId, 1));
+        sut.insert(buildRoom(hotelId, 1));
+        sut.insert(buildRoom(hotelId, 2));
+
+        assertEquals(2, sut.count());
+        assertEquals(asList(1, 2), sut.streamAllRoomsByHotelId(hotelId).map(Room::getRoomNumber).collect(toList()));
+        assertTrue(sut.exists(buildRoom(hotelId, 2).getCompositeId()));
+        assertFalse(sut.exists(buildRoom(randomUUID(), 2).getCompositeId()));
+    }
+
+    @Test
+    public void shouldInsertOnlyIfThePrimaryKeyIsAbsent() {
+        final InMemoryHotelDao sut = new InMemoryHotelDao();
+        final Hotel hotel = buildHotel(hotelId);
+
+        assertTrue(sut.insertIfNotExists(hotel));
+        assertFalse(sut.insertIfNotExists(buildHotel(hotelId)));
+        assertEquals(hotel, sut.findOne(hotelId));
+        assertNull(sut.findOne(randomUUID()));
+    }
+
+    @Test
+    public void shouldOrderBookedRoomsOfTheGuestByHotelAndRoomNumber() {
+        final InMemoryRoomByGuestAndDateDao sut = new InMemoryRoomByGuestAndDateDao();
+        final UUID guestId = randomUUID();
+        for (int roomNumber = 3; roomNumber >= 1; roomNumber--) {
+            final RoomByGuestAndDate room = new RoomByGuestAndDate(guestId, today, roomNumber);
+            room.setHotelId(hotelId);
+            sut.insert(room);
+        }
+
+        final List<RoomByGuestAndDate> rooms = sut.getAllBookedRooms(guestId, today);
+
+        assertEquals(asList(1, 2, 3), rooms.stream().map(RoomByGuestAndDate::getRoomNumber).collect(toList()));
+        assertTrue(sut.getAllBookedRooms(guestId, today.plusDays(1)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPrimaryKeyWithNulls() {
+        new InMemoryRoomDao().insert(buildRoom(hotelId, null));
+    }
+}
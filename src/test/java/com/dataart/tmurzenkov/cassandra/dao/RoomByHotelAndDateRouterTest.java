@@ -0,0 +1,109 @@
+package com.dataart.tmurzenkov.cassandra.dao;
+
+import com.dataart.tmurzenkov.cassandra.dao.impl.RoomByHotelAndDateRouter;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static java.util.Collections.singleton;
+import static java.util.UUID.randomUUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link RoomByHotelAndDateRouter}.
+ *
+ * @author tmurzenkov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RoomByHotelAndDateRouterTest {
+    private static final LocalDate JUNE = LocalDate.of(2017, 6, 1);
+    private final UUID hotelId = randomUUID();
+    private final List<String> bucketReadThreads = new ArrayList<>();
+    @Spy
+    private InMemoryRoomByHotelAndDateDao roomByHotelAndDateDao = new InMemoryRoomByHotelAndDateDao();
+    @Mock
+    private Executor bucketReadTaskExecutor;
+    @InjectMocks
+    private RoomByHotelAndDateRouter sut;
+
+    /**
+     * Books room 1 of the hotel every day from May to August, runs the bucket reads on new threads.
+     */
+    @Before
+    public void init() {
+        for (LocalDate day = JUNE.minusMonths(1); day.isBefore(JUNE.plusMonths(3)); day = day.plusDays(1)) {
+            roomByHotelAndDateDao.insert(new RoomByHotelAndDate(hotelId, 1, day));
+        }
+        lenient().doAnswer(invocation -> {
+            final Thread thread = new Thread(invocation.<Runnable>getArgument(0));
+            bucketReadThreads.add(thread.getName());
+            thread.start();
+            return null;
+        }).when(bucketReadTaskExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void shouldReadThePeriodWithinTheMonthOnTheCallingThread() {
+        final List<RoomByHotelAndDate> rooms = new ArrayList<>(sut.findAllRoomsForHotelIdAndPeriod(hotelId, JUNE.plusDays(2), JUNE.plusDays(4)));
+
+        assertEquals(3, rooms.size());
+        assertEquals(JUNE.plusDays(2), rooms.get(0).getDate());
+        assertTrue(bucketReadThreads.isEmpty());
+    }
+
+    @Test
+    public void shouldSplitThePeriodIntoMonthBucketsReadInParallelAndMergeThemInTheDateOrder() {
+        final LocalDate start = JUNE.minusDays(3);
+        final LocalDate end = JUNE.plusMonths(2).plusDays(1);
+
+        final List<RoomByHotelAndDate> rooms = new ArrayList<>(sut.findAllRoomsForHotelIdAndPeriod(hotelId, start, end));
+
+        assertEquals(3 + 30 + 31 + 2, rooms.size());
+        for (int index = 0; index < rooms.size(); index++) {
+            assertEquals(start.plusDays(index), rooms.get(index).getDate());
+        }
+        assertEquals(3, bucketReadThreads.size());
+        verify(roomByHotelAndDateDao).findAllRoomsForHotelIdAndMonth(hotelId, JUNE.minusMonths(1), start, JUNE.minusDays(1));
+        verify(roomByHotelAndDateDao).findAllRoomsForHotelIdAndMonth(hotelId, JUNE, JUNE, JUNE.plusMonths(1).minusDays(1));
+        verify(roomByHotelAndDateDao).findAllRoomsForHotelIdAndMonth(hotelId, JUNE.plusMonths(2), JUNE.plusMonths(2), end);
+        verify(roomByHotelAndDateDao, never()).findAllLegacyRoomsForHotelIdAndPeriod(any(), any(), any());
+    }
+
+    @Test
+    public void shouldMergeTheLegacyRowsWhileTheyAreMigrated() {
+        final RoomByHotelAndDate legacyRoom = new RoomByHotelAndDate(hotelId, 2, JUNE.plusDays(1));
+        setField(sut, "legacyReads", true);
+        doReturn(singleton(legacyRoom)).when(roomByHotelAndDateDao)
+                .findAllLegacyRoomsForHotelIdAndPeriod(eq(hotelId), eq(JUNE), eq(JUNE.plusDays(1)));
+
+        assertEquals(3, sut.findAllRoomsForHotelIdAndPeriod(hotelId, JUNE, JUNE.plusDays(1)).size());
+        verify(roomByHotelAndDateDao, times(1)).findAllLegacyRoomsForHotelIdAndPeriod(hotelId, JUNE, JUNE.plusDays(1));
+    }
+
+    @Test
+    public void shouldReadNothingForTheReversedPeriod() {
+        assertTrue(sut.findAllRoomsForHotelIdAndPeriod(hotelId, JUNE.plusDays(1), JUNE).isEmpty());
+        verify(roomByHotelAndDateDao, never()).findAllRoomsForHotelIdAndMonth(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,150 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.Address;
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.lang.String.valueOf;
+
+/**
+ * Generates the data set of the {@link DatasetSpec} as the rows of the hotel keyspace: guests, hotels with their
+ * hotels_by_city rows, rooms and for every booked room night the rows of both booking tables, the same the booking
+ * service writes. The hotels are spread over the cities by the {@link ZipfDistribution}, the number of rooms of a
+ * hotel is uniform around the mean and every room night is booked with the probability of the occupancy by a random
+ * guest.
+ * <p>
+ * The rows are streamed to the consumer hotel by hotel, nothing but the spec is kept in memory, so the size of the
+ * data set is not limited by the heap. The ids are derived from the seed and the index of the hotel or the guest,
+ * so the same spec always produces the same data set and {@link #hotelId(int)} and {@link #guestId(int)} give the
+ * ids to query it.
+ *
+ * @author tmurzenkov
+ */
+public class DatasetGenerator {
+    private static final long VERSION_MASK = 0xFFFFFFFFFFFF0FFFL;
+    private static final long RANDOM_VERSION = 0x0000000000004000L;
+    private static final long IETF_VARIANT = 0x8000000000000000L;
+    private final DatasetSpec spec;
+    private final long hotelNamespace;
+    private final long guestNamespace;
+
+    /**
+     * Constructor.
+     *
+     * @param spec {@link DatasetSpec}
+     */
+    public DatasetGenerator(DatasetSpec spec) {
+        if (spec.getCities() <= 0 || spec.getHotels() <= 0 || spec.getRoomsPerHotel() <= 0 || spec.getGuests() <= 0
+                || spec.getDays() < 0 || spec.getOccupancy() < 0 || spec.getOccupancy() > 1) {
+            throw new IllegalArgumentException("Invalid data set spec " + spec);
+        }
+        this.spec = spec;
+        final Random namespaces = new Random(spec.getSeed());
+        this.hotelNamespace = namespaces.nextLong();
+        this.guestNamespace = namespaces.nextLong();
+    }
+
+    /**
+     * Streams the rows of the data set.
+     *
+     * @param sink consumer of the rows
+     */
+    public void generate(Consumer<BasicEntity> sink) {
+        for (int index = 0; index < spec.getGuests(); index++) {
+            sink.accept(buildGuest(index));
+        }
+        final Random random = new Random(spec.getSeed());
+        final ZipfDistribution cityDistribution = new ZipfDistribution(spec.getCities(), spec.getCityExponent());
+        for (int index = 0; index < spec.getHotels(); index++) {
+            final Hotel hotel = buildHotel(index, cityName(cityDistribution.sample(random)));
+            sink.accept(hotel);
+            sink.accept(new HotelByCity(hotel));
+            final int rooms = 1 + random.nextInt(2 * spec.getRoomsPerHotel() - 1);
+            for (int roomNumber = 1; roomNumber <= rooms; roomNumber++) {
+                sink.accept(new Room(hotel.getId(), roomNumber));
+            }
+            generateBookings(hotel.getId(), rooms, random, sink);
+        }
+    }
+
+    /**
+     * Returns the id of the hotel.
+     *
+     * @param index from 0 to the number of hotels - 1
+     * @return {@link UUID}
+     */
+    public UUID hotelId(int index) {
+        return id(hotelNamespace, index);
+    }
+
+    /**
+     * Returns the id of the guest.
+     *
+     * @param index from 0 to the number of guests - 1
+     * @return {@link UUID}
+     */
+    public UUID guestId(int index) {
+        return id(guestNamespace, index);
+    }
+
+    /**
+     * Returns the name of the city.
+     *
+     * @param rank rank of the city, 0 has the most hotels
+     * @return name of the city
+     */
+    public static String cityName(int rank) {
+        return "City " + rank;
+    }
+
+    private void generateBookings(UUID hotelId, int rooms, Random random, Consumer<BasicEntity> sink) {
+        for (int day = 0; day < spec.getDays(); day++) {
+            final LocalDate date = spec.getFirstDay().plusDays(day);
+            for (int roomNumber = 1; roomNumber <= rooms; roomNumber++) {
+                if (random.nextDouble() < spec.getOccupancy()) {
+                    final BookingRequest booking = new BookingRequest(guestId(random.nextInt(spec.getGuests())), hotelId, roomNumber, date);
+                    final RoomByGuestAndDate roomByGuestAndDate = new RoomByGuestAndDate(booking);
+                    roomByGuestAndDate.setConfirmationNumber(valueOf(booking.hashCode()));
+                    sink.accept(roomByGuestAndDate);
+                    sink.accept(new RoomByHotelAndDate(booking));
+                }
+            }
+        }
+    }
+
+    private Hotel buildHotel(int index, String city) {
+        final Address address = new Address();
+        address.setCity(city);
+        address.setStreet("Street " + index);
+        address.setCountry("Country");
+        final Hotel hotel = new Hotel();
+        hotel.setId(hotelId(index));
+        hotel.setName("Hotel " + index);
+        hotel.setPhone("+3-8-000-000-00-00");
+        hotel.setAddress(address);
+        return hotel;
+    }
+
+    private Guest buildGuest(int index) {
+        final Guest guest = new Guest();
+        guest.setId(guestId(index));
+        guest.setFirstName("First name " + index);
+        guest.setLastName("Last name " + index);
+        return guest;
+    }
+
+    private static UUID id(long namespace, long index) {
+        return new UUID(namespace & VERSION_MASK | RANDOM_VERSION, IETF_VARIANT | index);
+    }
+}
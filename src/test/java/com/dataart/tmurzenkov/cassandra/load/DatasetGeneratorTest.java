@@ -0,0 +1,110 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.BasicEntity;
+import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UTs for the {@link DatasetGenerator} and the {@link ZipfDistribution}.
+ *
+ * @author tmurzenkov
+ */
+public class DatasetGeneratorTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2017, 6, 1);
+
+    @Test
+    public void shouldGenerateTheSameDatasetForTheSameSeed() {
+        final List<BasicEntity> first = generate(spec(42));
+        final List<BasicEntity> second = generate(spec(42));
+        final List<BasicEntity> other = generate(spec(7));
+
+        assertEquals(first, second);
+        assertTrue(!first.equals(other));
+    }
+
+    @Test
+    public void shouldWriteEveryBookingIntoBothTablesOfExistingRoomsAndGuests() {
+        final DatasetSpec spec = spec(42);
+        final List<BasicEntity> rows = generate(spec);
+        final Set<Object> guestIds = rows(rows, Guest.class).stream().map(Guest::getId).collect(toSet());
+        final Set<String> rooms = rows(rows, Room.class).stream().map(room -> room.getId() + ":" + room.getRoomNumber()).collect(toSet());
+        final List<RoomByGuestAndDate> bookings = rows(rows, RoomByGuestAndDate.class);
+
+        assertEquals(spec.getGuests(), guestIds.size());
+        assertEquals(spec.getHotels(), rows(rows, Hotel.class).size());
+        assertEquals(spec.getHotels(), rows(rows, HotelByCity.class).size());
+        assertEquals(bookings.stream().map(RoomByHotelAndDate::new).collect(toList()), rows(rows, RoomByHotelAndDate.class));
+        assertTrue(bookings.stream().allMatch(booking -> guestIds.contains(booking.getId())
+                && rooms.contains(booking.getHotelId() + ":" + booking.getRoomNumber())
+                && !booking.getBookingDate().isBefore(FIRST_DAY)
+                && booking.getBookingDate().isBefore(FIRST_DAY.plusDays(spec.getDays()))));
+        assertEquals(spec.getOccupancy(), bookings.size() / (double) (rooms.size() * spec.getDays()), 0.02d);
+    }
+
+    @Test
+    public void shouldPutMostHotelsIntoTheLargestCities() {
+        final Map<String, Long> hotelsByCity = rows(generate(spec(42)), HotelByCity.class).stream()
+                .collect(groupingBy(HotelByCity::getCityName, counting()));
+
+        assertTrue(hotelsByCity.get(DatasetGenerator.cityName(0)) > hotelsByCity.getOrDefault(DatasetGenerator.cityName(9), 0L));
+    }
+
+    @Test
+    public void shouldDrawRanksWithZipfProbabilities() {
+        final ZipfDistribution sut = new ZipfDistribution(10, 1d);
+        final Random random = new Random(42);
+        final int draws = 100000;
+        final int[] counts = new int[10];
+
+        IntStream.range(0, draws).forEach(draw -> counts[sut.sample(random)]++);
+
+        assertEquals(2 * sut.probability(1), sut.probability(0), 1e-9);
+        for (int rank = 0; rank < counts.length; rank++) {
+            assertEquals(sut.probability(rank), counts[rank] / (double) draws, 0.01d);
+        }
+    }
+
+    private static DatasetSpec spec(long seed) {
+        final DatasetSpec spec = new DatasetSpec();
+        spec.setCities(10);
+        spec.setCityExponent(1d);
+        spec.setHotels(50);
+        spec.setRoomsPerHotel(10);
+        spec.setGuests(100);
+        spec.setFirstDay(FIRST_DAY);
+        spec.setDays(20);
+        spec.setOccupancy(0.7d);
+        spec.setSeed(seed);
+        return spec;
+    }
+
+    private static List<BasicEntity> generate(DatasetSpec spec) {
+        final List<BasicEntity> rows = new ArrayList<>();
+        new DatasetGenerator(spec).generate(rows::add);
+        return rows;
+    }
+
+    private static <T> List<T> rows(List<BasicEntity> rows, Class<T> type) {
+        return rows.stream().filter(row -> type == row.getClass()).map(type::cast).collect(toList());
+    }
+}
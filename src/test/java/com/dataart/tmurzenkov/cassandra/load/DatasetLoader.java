@@ -0,0 +1,104 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.migration.AsyncRowWriter;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.longProperty;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes the data set of the {@link DatasetGenerator} into the hotel keyspace by the {@link AsyncRowWriter}, so the
+ * rows are mapped, bounded in flight and retried as the migrations write them and the booked nights expire by the TTL
+ * of the retention of the application. The bookings generated past the retention are skipped.
+ * <p>
+ * The running instances see the loaded hotels and rooms in their existence filters after the next rebuild, until then
+ * the absent keys are looked up in the data base unless the filters are configured as authoritative.
+ * Configured by the system properties of the {@link DatasetSpec} and
+ * <ul>
+ * <li>dataset.contactpoints - comma separated contact points, localhost</li>
+ * <li>dataset.keyspace - keyspace, hotel</li>
+ * <li>dataset.max.in.flight - maximum number of the concurrent inserts, 256</li>
+ * <li>dataset.retries - number of the retries of a failed insert, 3</li>
+ * <li>dataset.retention.days - bookings.retention.days of the application, 365</li>
+ * <li>dataset.report.seconds - progress report interval, 10</li>
+ * </ul>
+ * e.g. mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.load.DatasetLoader
+ * -Ddataset.hotels=1000
+ *
+ * @author tmurzenkov
+ */
+public class DatasetLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetLoader.class);
+    private final AsyncRowWriter writer;
+
+    /**
+     * Constructor.
+     *
+     * @param writer {@link AsyncRowWriter} writing the rows
+     */
+    public DatasetLoader(AsyncRowWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Generates and writes the data set configured by the system properties.
+     *
+     * @param args not used
+     * @throws InterruptedException if interrupted while waiting for the inserts
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final DatasetSpec spec = DatasetSpec.fromSystemProperties();
+        final String keyspace = System.getProperty("dataset.keyspace", "hotel");
+        try (Cluster cluster = Cluster.builder()
+                .addContactPoints(System.getProperty("dataset.contactpoints", "localhost").split(","))
+                .build();
+             Session session = cluster.connect(keyspace)) {
+            final DatasetLoader loader = new DatasetLoader(new AsyncRowWriter(session, AsyncRowWriter.converter(cluster, keyspace),
+                    new BookingRetention(intProperty("dataset.retention.days", "365")),
+                    intProperty("dataset.max.in.flight", "256"), intProperty("dataset.retries", "3")));
+            LOGGER.info("Loading {}", spec);
+            if (loader.load(new DatasetGenerator(spec), longProperty("dataset.report.seconds", "10")) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Writes all the rows of the data set and waits for the inserts to complete.
+     *
+     * @param generator     {@link DatasetGenerator}
+     * @param reportSeconds progress report interval
+     * @return number of the rows that could not be written
+     * @throws InterruptedException if interrupted while waiting for the inserts
+     */
+    public long load(DatasetGenerator generator, long reportSeconds) throws InterruptedException {
+        final long start = System.nanoTime();
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> report(start), reportSeconds, reportSeconds, SECONDS);
+        try {
+            generator.generate(writer::write);
+            writer.awaitCompletion();
+        } finally {
+            reporter.shutdownNow();
+        }
+        report(start);
+        writer.getWrittenRows().forEach((table, rows) -> LOGGER.info("{}: {} rows", table, rows));
+        return writer.getFailedRows();
+    }
+
+    private void report(long start) {
+        final long rows = writer.getWrittenRows().values().stream().mapToLong(Long::longValue).sum();
+        final double seconds = Math.max(1, SECONDS.convert(System.nanoTime() - start, NANOSECONDS));
+        LOGGER.info("Written {} rows, {} rows/s, {} retried, {} failed, {} past the retention", rows, (long) (rows / seconds),
+                writer.getRetriedRows(), writer.getFailedRows(), writer.getExpiredRows());
+    }
+}
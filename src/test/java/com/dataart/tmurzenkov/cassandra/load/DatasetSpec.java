@@ -0,0 +1,142 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import java.time.LocalDate;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.doubleProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.longProperty;
+
+/**
+ * Shape of the data set built by the {@link DatasetGenerator}. The defaults describe a production sized hotel
+ * keyspace: 10k hotels in 500 cities, about 1M rooms, about 50M booked room nights and 5M guests.
+ *
+ * @author tmurzenkov
+ */
+public class DatasetSpec {
+    private int cities;
+    private double cityExponent;
+    private int hotels;
+    private int roomsPerHotel;
+    private int guests;
+    private LocalDate firstDay;
+    private int days;
+    private double occupancy;
+    private long seed;
+
+    /**
+     * Reads the spec from the system properties.
+     * <ul>
+     * <li>dataset.cities - number of cities, 500</li>
+     * <li>dataset.city.exponent - Zipf exponent of the number of hotels in a city, 1.0</li>
+     * <li>dataset.hotels - number of hotels, 10000</li>
+     * <li>dataset.rooms.per.hotel - mean number of rooms of a hotel, 100</li>
+     * <li>dataset.guests - number of guests, 5000000</li>
+     * <li>dataset.first.day - first day of the bookings, today</li>
+     * <li>dataset.days - number of days with bookings, 71</li>
+     * <li>dataset.occupancy - share of the booked room nights, 0.7</li>
+     * <li>dataset.seed - seed of the data set, 42</li>
+     * </ul>
+     *
+     * @return {@link DatasetSpec}
+     */
+    public static DatasetSpec fromSystemProperties() {
+        final DatasetSpec spec = new DatasetSpec();
+        spec.setCities(intProperty("dataset.cities", "500"));
+        spec.setCityExponent(doubleProperty("dataset.city.exponent", "1.0"));
+        spec.setHotels(intProperty("dataset.hotels", "10000"));
+        spec.setRoomsPerHotel(intProperty("dataset.rooms.per.hotel", "100"));
+        spec.setGuests(intProperty("dataset.guests", "5000000"));
+        spec.setFirstDay(LocalDate.parse(System.getProperty("dataset.first.day", LocalDate.now().toString())));
+        spec.setDays(intProperty("dataset.days", "71"));
+        spec.setOccupancy(doubleProperty("dataset.occupancy", "0.7"));
+        spec.setSeed(longProperty("dataset.seed", "42"));
+        return spec;
+    }
+
+    public int getCities() {
+        return cities;
+    }
+
+    public void setCities(int cities) {
+        this.cities = cities;
+    }
+
+    public double getCityExponent() {
+        return cityExponent;
+    }
+
+    public void setCityExponent(double cityExponent) {
+        this.cityExponent = cityExponent;
+    }
+
+    public int getHotels() {
+        return hotels;
+    }
+
+    public void setHotels(int hotels) {
+        this.hotels = hotels;
+    }
+
+    public int getRoomsPerHotel() {
+        return roomsPerHotel;
+    }
+
+    public void setRoomsPerHotel(int roomsPerHotel) {
+        this.roomsPerHotel = roomsPerHotel;
+    }
+
+    public int getGuests() {
+        return guests;
+    }
+
+    public void setGuests(int guests) {
+        this.guests = guests;
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public void setFirstDay(LocalDate firstDay) {
+        this.firstDay = firstDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public double getOccupancy() {
+        return occupancy;
+    }
+
+    public void setOccupancy(double occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetSpec{"
+                + "cities=" + cities
+                + ", cityExponent=" + cityExponent
+                + ", hotels=" + hotels
+                + ", roomsPerHotel=" + roomsPerHotel
+                + ", guests=" + guests
+                + ", firstDay=" + firstDay
+                + ", days=" + days
+                + ", occupancy=" + occupancy
+                + ", seed=" + seed
+                + '}';
+    }
+}
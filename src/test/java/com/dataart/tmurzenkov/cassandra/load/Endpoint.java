@@ -0,0 +1,44 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+/**
+ * Endpoints of the REST api driven by the {@link LoadGenerator}.
+ *
+ * @author tmurzenkov
+ */
+public enum Endpoint {
+    CITY("city"),
+    FREE_ROOMS("freerooms"),
+    BOOKING("booking"),
+    GUEST("guest"),
+    POPULATION("population");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the key of the endpoint in the load mix.
+     *
+     * @return key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Finds the endpoint by its key in the load mix.
+     *
+     * @param key key
+     * @return {@link Endpoint}
+     */
+    public static Endpoint byKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in the load mix: " + key);
+    }
+}
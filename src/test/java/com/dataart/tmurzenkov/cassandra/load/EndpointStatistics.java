@@ -0,0 +1,138 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Latency histogram and outcome counters of one {@link Endpoint}. The latencies are recorded in microseconds by the
+ * sending threads into the {@link Recorder}, the reporting thread takes the interval histograms and adds them up.
+ *
+ * @author tmurzenkov
+ */
+public class EndpointStatistics {
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_IN_MILLI = 1000d;
+    private static final double MEDIAN = 50d;
+    private static final double P90 = 90d;
+    private static final double P99 = 99d;
+    private static final double P999 = 99.9d;
+    private static final double P9999 = 99.99d;
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private Histogram interval;
+
+    /**
+     * Constructor.
+     *
+     * @param endpoint {@link Endpoint}
+     */
+    public EndpointStatistics(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Records the answered request. The 4xx answers are counted as rejected, e.g. the booking of an already booked
+     * room, the 5xx answers as failed.
+     *
+     * @param latencyNanos time from the intended start of the request to the answer
+     * @param status       http status of the answer
+     */
+    public void record(long latencyNanos, int status) {
+        recorder.recordValue(NANOSECONDS.toMicros(latencyNanos));
+        if (status >= INTERNAL_SERVER_ERROR.value()) {
+            failed.increment();
+        } else if (status >= BAD_REQUEST.value()) {
+            rejected.increment();
+        } else {
+            succeeded.increment();
+        }
+    }
+
+    /**
+     * Records the request that got no answer, e.g. because of a connection failure or a read timeout.
+     *
+     * @param latencyNanos time from the intended start of the request to the failure
+     */
+    public void recordFailure(long latencyNanos) {
+        recorder.recordValue(NANOSECONDS.toMicros(latencyNanos));
+        failed.increment();
+    }
+
+    /**
+     * Takes the latencies recorded since the previous call and adds them to the total. Must be called by one thread.
+     *
+     * @return latencies of the interval
+     */
+    public Histogram takeInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    /**
+     * Returns the latencies recorded by the {@link #takeInterval()} calls so far.
+     *
+     * @return {@link Histogram}
+     */
+    public Histogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Formats the interval line of the report.
+     *
+     * @param histogram latencies of the interval
+     * @param seconds   length of the interval
+     * @return line of the report
+     */
+    public String formatInterval(Histogram histogram, double seconds) {
+        return format("%-10s %8.1f req/s  p50 %9.3f ms  p99 %9.3f ms  max %9.3f ms",
+                endpoint.getKey(), histogram.getTotalCount() / seconds, millis(histogram, MEDIAN), millis(histogram, P99),
+                histogram.getMaxValue() / MICROS_IN_MILLI);
+    }
+
+    /**
+     * Formats the summary line of the report over the whole measured period.
+     *
+     * @param seconds length of the measured period
+     * @return line of the report
+     */
+    public String formatTotal(double seconds) {
+        return format("%-10s %8d req %8.1f req/s  p50 %9.3f  p90 %9.3f  p99 %9.3f  p99.9 %9.3f  p99.99 %9.3f  max %9.3f ms"
+                        + "  ok %d  4xx %d  failed %d",
+                endpoint.getKey(), total.getTotalCount(), total.getTotalCount() / seconds, millis(total, MEDIAN), millis(total, P90),
+                millis(total, P99), millis(total, P999), millis(total, P9999), total.getMaxValue() / MICROS_IN_MILLI,
+                succeeded.sum(), rejected.sum(), failed.sum());
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_IN_MILLI;
+    }
+}
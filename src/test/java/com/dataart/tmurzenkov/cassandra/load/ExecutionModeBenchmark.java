@@ -0,0 +1,243 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.configuration.VirtualThreads;
+import com.sun.management.OperatingSystemMXBean;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.dataart.tmurzenkov.cassandra.configuration.VirtualThreads.PLATFORM;
+import static com.dataart.tmurzenkov.cassandra.configuration.VirtualThreads.VIRTUAL;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.join;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.longProperty;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares the platform, the virtual and the async execution modes of the application by the concurrency they sustain,
+ * the throughput per core and the memory they take. Every request is modelled after the search of the free rooms: two independent blocking reads, one
+ * made by the request thread and one fanned out to the fan-out executor, each blocking its thread for the latency of
+ * the read. In the platform mode the requests run on the pool of the servlet container size and the fanned out reads
+ * on the pool of the fan-out executor size; in the virtual mode every request and every fanned out read runs on its
+ * own virtual thread. In the async mode the request thread sends both reads and is given back, the reads are
+ * answered by the timer of the I/O threads after their latency, as the async statements are answered by the I/O
+ * threads of the driver, and the request is over on the I/O thread answering the last of them. Each concurrency level is kept for the given time by a closed loop: a new request is submitted
+ * as soon as one is over. The latency is measured from the submission, so the time a request waits for a thread is
+ * counted, and the throughput counts the requests over within the time. The concurrency is sustained while the 99th
+ * percentile latency stays within the limit.
+ * <p>
+ * The virtual mode needs the JDK 21+, on the older JDKs it is skipped. Configured by the system properties, e.g.
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.load.ExecutionModeBenchmark
+ * <ul>
+ * <li>bench.modes - execution modes to compare, platform,virtual,async</li>
+ * <li>bench.concurrency - requests in flight by the level, 100,400,1600,6400,25600</li>
+ * <li>bench.seconds - seconds every level is kept, 10</li>
+ * <li>bench.read.millis - milliseconds every read blocks its thread, 10</li>
+ * <li>bench.request.threads - threads of the servlet container in the platform mode, 200</li>
+ * <li>bench.fanout.threads - threads of the fan-out executor in the platform mode, 16</li>
+ * <li>bench.io.threads - I/O threads answering the reads in the async mode, 2</li>
+ * <li>bench.max.p99.millis - 99th percentile latency the concurrency is sustained within, 100</li>
+ * </ul>
+ *
+ * @author tmurzenkov
+ */
+public class ExecutionModeBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionModeBenchmark.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MEDIAN = 50d;
+    private static final double TAIL_PERCENTILE = 99d;
+    private static final long BYTES_IN_MEGABYTE = 1024 * 1024;
+    private static final long KILOBYTES_IN_MEGABYTE = 1024;
+    private static final String ASYNC = "async";
+    private final String[] modes = System.getProperty("bench.modes", PLATFORM + "," + VIRTUAL + "," + ASYNC).split(",");
+    private final String[] concurrencyLevels = System.getProperty("bench.concurrency", "100,400,1600,6400,25600").split(",");
+    private final long seconds = longProperty("bench.seconds", "10");
+    private final long readMillis = longProperty("bench.read.millis", "10");
+    private final int requestThreads = intProperty("bench.request.threads", "200");
+    private final int fanOutThreads = intProperty("bench.fanout.threads", "16");
+    private final int ioThreads = intProperty("bench.io.threads", "2");
+    private final long maxP99Millis = longProperty("bench.max.p99.millis", "100");
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final int cores = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Runs the benchmark with the configuration of the system properties.
+     *
+     * @param args not used
+     * @throws Exception if the benchmark cannot be completed
+     */
+    public static void main(String[] args) throws Exception {
+        new ExecutionModeBenchmark().run();
+    }
+
+    /**
+     * Measures every concurrency level in every execution mode and reports the highest level sustained by the mode.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void run() throws InterruptedException {
+        LOGGER.info("Reads of {} ms, {} s per level, sustained within p99 of {} ms, {} cores, JDK {}",
+                readMillis, seconds, maxP99Millis, cores, System.getProperty("java.version"));
+        for (String mode : modes) {
+            if (VIRTUAL.equals(mode.trim()) && !VirtualThreads.isAvailable()) {
+                LOGGER.warn("The JDK runs no virtual threads, the virtual mode is skipped");
+                continue;
+            }
+            int sustained = 0;
+            for (String level : concurrencyLevels) {
+                final int concurrency = Integer.parseInt(level.trim());
+                if (measure(mode.trim(), concurrency)) {
+                    sustained = concurrency;
+                }
+            }
+            LOGGER.info("{}: max sustained concurrency {}", mode.trim(), sustained);
+        }
+    }
+
+    private boolean measure(String mode, int concurrency) throws InterruptedException {
+        final boolean virtual = VIRTUAL.equals(mode);
+        final boolean async = ASYNC.equals(mode);
+        final ExecutorService requestPool = virtual ? null : Executors.newFixedThreadPool(requestThreads);
+        final ExecutorService fanOutPool = virtual || async ? null : Executors.newFixedThreadPool(fanOutThreads);
+        final ScheduledExecutorService ioPool = async ? Executors.newScheduledThreadPool(ioThreads) : null;
+        final Executor requestExecutor = virtual ? perTask(VirtualThreads.factory("request-").get()) : requestPool;
+        final Executor fanOutExecutor = virtual ? perTask(VirtualThreads.factory("fan-out-").get()) : fanOutPool;
+        final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+        final AtomicLong completed = new AtomicLong();
+        final CountDownLatch drained = new CountDownLatch(concurrency);
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        threads.resetPeakThreadCount();
+        final long cpuAtStart = processCpuNanos();
+        final long end = System.nanoTime() + SECONDS.toNanos(seconds);
+        for (int i = 0; i < concurrency; i++) {
+            if (async) {
+                submitAsync(requestExecutor, ioPool, latency, completed, drained, end);
+            } else {
+                submit(requestExecutor, fanOutExecutor, latency, completed, drained, end);
+            }
+        }
+        drained.await();
+        final long cpuMicrosPerRequest = NANOSECONDS.toMicros(processCpuNanos() - cpuAtStart) / Math.max(1, completed.get() + concurrency);
+        final Histogram histogram = latency.getIntervalHistogram();
+        final long p99Millis = NANOSECONDS.toMillis(histogram.getValueAtPercentile(TAIL_PERCENTILE));
+        LOGGER.info("{} concurrency {}: {} requests/s, {} requests/s per core, cpu {} us per request, p50 {} ms, p99 {} ms, "
+                        + "peak platform threads {}, peak heap {} MB, resident {} MB",
+                mode, concurrency, completed.get() / seconds, completed.get() / seconds / cores, cpuMicrosPerRequest,
+                NANOSECONDS.toMillis(histogram.getValueAtPercentile(MEDIAN)), p99Millis,
+                threads.getPeakThreadCount(), peakHeapBytes() / BYTES_IN_MEGABYTE, residentMegabytes());
+        for (ExecutorService pool : new ExecutorService[]{requestPool, fanOutPool, ioPool}) {
+            if (null != pool) {
+                pool.shutdown();
+                pool.awaitTermination(seconds, SECONDS);
+            }
+        }
+        return p99Millis <= maxP99Millis;
+    }
+
+    private void submit(Executor requestExecutor, Executor fanOutExecutor, Recorder latency, AtomicLong completed,
+                        CountDownLatch drained, long end) {
+        final long submitted = System.nanoTime();
+        requestExecutor.execute(() -> {
+            final CompletableFuture<Void> fannedOut = supplyAsync(this::read, fanOutExecutor);
+            read();
+            join(fannedOut);
+            if (isNotOver(submitted, latency, completed, drained, end)) {
+                submit(requestExecutor, fanOutExecutor, latency, completed, drained, end);
+            }
+        });
+    }
+
+    private void submitAsync(Executor requestExecutor, ScheduledExecutorService ioPool, Recorder latency, AtomicLong completed,
+                             CountDownLatch drained, long end) {
+        final long submitted = System.nanoTime();
+        requestExecutor.execute(() -> readAsync(ioPool).thenCombine(readAsync(ioPool), (first, second) -> second).thenRun(() -> {
+            if (isNotOver(submitted, latency, completed, drained, end)) {
+                submitAsync(requestExecutor, ioPool, latency, completed, drained, end);
+            }
+        }));
+    }
+
+    /**
+     * Records the latency of the request over, a new one is submitted if the level is kept still.
+     */
+    private static boolean isNotOver(long submitted, Recorder latency, AtomicLong completed, CountDownLatch drained, long end) {
+        final long now = System.nanoTime();
+        latency.recordValue(now - submitted);
+        if (now < end) {
+            completed.incrementAndGet();
+            return true;
+        }
+        drained.countDown();
+        return false;
+    }
+
+    private CompletableFuture<Void> readAsync(ScheduledExecutorService ioPool) {
+        final CompletableFuture<Void> read = new CompletableFuture<>();
+        ioPool.schedule(() -> read.complete(null), readMillis, MILLISECONDS);
+        return read;
+    }
+
+    private Void read() {
+        try {
+            MILLISECONDS.sleep(readMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static Executor perTask(ThreadFactory threadFactory) {
+        return task -> threadFactory.newThread(task).start();
+    }
+
+    /**
+     * Reads the resident memory of the process, which counts the stacks of the platform threads unlike the heap.
+     */
+    private static long residentMegabytes() {
+        final File status = new File("/proc/self/status");
+        if (!status.exists()) {
+            return -1;
+        }
+        try {
+            return Files.readAllLines(status.toPath()).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / KILOBYTES_IN_MEGABYTE)
+                    .findFirst().orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long processCpuNanos() {
+        final java.lang.management.OperatingSystemMXBean system = ManagementFactory.getOperatingSystemMXBean();
+        return system instanceof OperatingSystemMXBean ? ((OperatingSystemMXBean) system).getProcessCpuTime() : 0;
+    }
+
+    private static long peakHeapBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> MemoryType.HEAP == pool.getType())
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+}
@@ -0,0 +1,224 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.doubleProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.intProperty;
+import static com.dataart.tmurzenkov.cassandra.util.SystemProperties.longProperty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Open-loop load generator for the REST api of a running instance. The requests of the {@link Workload} mix are sent
+ * at the fixed arrival rate whatever the response times are: a request is due every 1 / rate seconds and is handed to
+ * the pool of senders at its due time. The latency is measured from the due time, not from the moment a sender got to
+ * the request, so the time a request waits behind the slow ones is counted and the coordinated omission is avoided.
+ * The latencies are reported per endpoint by the {@link EndpointStatistics} every report interval and in total.
+ * <p>
+ * Configured by the system properties, e.g.
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dataart.tmurzenkov.cassandra.load.LoadGenerator
+ * -Dload.rate=500
+ * <ul>
+ * <li>load.url - base url of the instance, http://localhost:8080</li>
+ * <li>load.rate - requests per second, 100</li>
+ * <li>load.warmup.seconds - seconds of the load that are not measured, 10</li>
+ * <li>load.duration.seconds - seconds of the measured load, 60</li>
+ * <li>load.senders - threads sending the requests, 64</li>
+ * <li>load.mix - weights of the endpoints, city:20,freerooms:40,booking:20,guest:20</li>
+ * <li>load.populate - whether to register the data set first, true</li>
+ * <li>load.cities, load.hotels, load.rooms.per.hotel, load.guests - size of the data set, 10, 100, 20, 1000</li>
+ * <li>load.booking.days - days from today the searches and bookings are spread over, 30</li>
+ * <li>load.report.seconds - report interval, 5</li>
+ * <li>load.seed - seed of the request sequence, random if not set</li>
+ * <li>load.async - whether to send the searches and the bookings to the async endpoints, false</li>
+ * <li>load.server.cores - cores of the instance the throughput per core is reported by, the cores of this machine</li>
+ * <li>load.histogram.dir - directory to write the percentile distributions of the endpoints to, not written if not set</li>
+ * </ul>
+ *
+ * @author tmurzenkov
+ */
+public class LoadGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final double MICROS_IN_MILLI = 1000d;
+    private final String baseUrl = System.getProperty("load.url", "http://localhost:8080");
+    private final double rate = doubleProperty("load.rate", "100");
+    private final long warmupSeconds = longProperty("load.warmup.seconds", "10");
+    private final long durationSeconds = longProperty("load.duration.seconds", "60");
+    private final long reportSeconds = longProperty("load.report.seconds", "5");
+    private final int timeoutMillis = intProperty("load.timeout.millis", "30000");
+    private final boolean populate = Boolean.parseBoolean(System.getProperty("load.populate", "true"));
+    private final String histogramDir = System.getProperty("load.histogram.dir");
+    private final boolean async = Boolean.parseBoolean(System.getProperty("load.async", "false"));
+    private final int serverCores = intProperty("load.server.cores", String.valueOf(Runtime.getRuntime().availableProcessors()));
+    private final Random random = null == System.getProperty("load.seed") ? new Random() : new Random(longProperty("load.seed", null));
+    private final Workload workload = new Workload(intProperty("load.cities", "10"), intProperty("load.hotels", "100"),
+            intProperty("load.rooms.per.hotel", "20"), intProperty("load.guests", "1000"),
+            intProperty("load.booking.days", "30"),
+            Workload.parseMix(System.getProperty("load.mix", "city:20,freerooms:40,booking:20,guest:20")));
+    private final ExecutorService senders = Executors.newFixedThreadPool(intProperty("load.senders", "64"));
+    private final Map<Endpoint, EndpointStatistics> statistics = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Runs the load generator with the configuration of the system properties.
+     *
+     * @param args not used
+     * @throws Exception if the load cannot be completed
+     */
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator().run();
+    }
+
+    /**
+     * Registers the data set if configured, drives the load and reports the latencies.
+     *
+     * @throws Exception if the load cannot be completed
+     */
+    public void run() throws Exception {
+        workload.setAsync(async);
+        statistics.put(Endpoint.POPULATION, new EndpointStatistics(Endpoint.POPULATION));
+        workload.getEndpoints().forEach(endpoint -> statistics.put(endpoint, new EndpointStatistics(endpoint)));
+        try {
+            if (populate) {
+                populate();
+            }
+            drive();
+        } finally {
+            senders.shutdownNow();
+        }
+        report();
+    }
+
+    private void populate() throws InterruptedException {
+        final EndpointStatistics population = statistics.get(Endpoint.POPULATION);
+        for (List<LoadRequest> batch : workload.populationRequests()) {
+            final CountDownLatch sent = new CountDownLatch(batch.size());
+            batch.forEach(request -> senders.execute(() -> {
+                send(request, System.nanoTime(), population);
+                sent.countDown();
+            }));
+            sent.await();
+        }
+        LOGGER.info("Registered the data set: ok {}, 4xx {}, failed {}",
+                population.getSucceeded(), population.getRejected(), population.getFailed());
+        population.takeInterval();
+    }
+
+    private void drive() throws InterruptedException {
+        final long intervalNanos = (long) (SECONDS.toNanos(1) / rate);
+        final long start = System.nanoTime();
+        final long measurementStart = start + SECONDS.toNanos(warmupSeconds);
+        final long end = measurementStart + SECONDS.toNanos(durationSeconds);
+        LOGGER.info("Sending {} requests per second, {} s of warm up, {} s measured", rate, warmupSeconds, durationSeconds);
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(this::reportInterval, warmupSeconds + reportSeconds, reportSeconds, SECONDS);
+        for (long due = start; due < end; due += intervalNanos) {
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            final LoadRequest request = workload.next(random);
+            final EndpointStatistics target = due >= measurementStart ? statistics.get(request.getEndpoint()) : null;
+            final long dueTime = due;
+            senders.execute(() -> send(request, dueTime, target));
+        }
+        senders.shutdown();
+        if (!senders.awaitTermination(timeoutMillis, MILLISECONDS)) {
+            LOGGER.warn("Not all requests have been answered in {} ms after the end of the load", timeoutMillis);
+        }
+        reporter.shutdownNow();
+        reporter.awaitTermination(timeoutMillis, MILLISECONDS);
+    }
+
+    private void send(LoadRequest request, long dueTime, EndpointStatistics target) {
+        try {
+            final int status = execute(request);
+            if (null != target) {
+                target.record(System.nanoTime() - dueTime, status);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Request '{}' failed", request, e);
+            if (null != target) {
+                target.recordFailure(System.nanoTime() - dueTime);
+            }
+        }
+    }
+
+    private int execute(LoadRequest request) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request.getPath()).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setRequestMethod(request.getMethod().name());
+        connection.setRequestProperty(ACCEPT, APPLICATION_JSON_VALUE);
+        if (null != request.getBody()) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(request.getBody());
+            }
+        }
+        final int status = connection.getResponseCode();
+        try (InputStream inputStream = status >= BAD_REQUEST.value() ? connection.getErrorStream() : connection.getInputStream()) {
+            drain(inputStream);
+        }
+        return status;
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        if (null != inputStream) {
+            StreamUtils.drain(inputStream);
+        }
+    }
+
+    private void reportInterval() {
+        statistics.values().stream()
+                .filter(endpointStatistics -> Endpoint.POPULATION != endpointStatistics.getEndpoint())
+                .map(endpointStatistics -> endpointStatistics.formatInterval(endpointStatistics.takeInterval(), reportSeconds))
+                .forEach(LOGGER::info);
+    }
+
+    private void report() throws FileNotFoundException {
+        LOGGER.info("Latency from the due time of the request in ms over {} s at {} requests per second:", durationSeconds, rate);
+        long succeeded = 0;
+        for (EndpointStatistics endpointStatistics : statistics.values()) {
+            if (Endpoint.POPULATION == endpointStatistics.getEndpoint()) {
+                continue;
+            }
+            succeeded += endpointStatistics.getSucceeded();
+            endpointStatistics.takeInterval();
+            LOGGER.info(endpointStatistics.formatTotal(durationSeconds));
+            if (null != histogramDir) {
+                final File file = new File(histogramDir, endpointStatistics.getEndpoint().getKey() + ".hgrm");
+                try (PrintStream printStream = new PrintStream(file)) {
+                    endpointStatistics.getTotal().outputPercentileDistribution(printStream, MICROS_IN_MILLI);
+                }
+            }
+        }
+        LOGGER.info("Throughput of the {} endpoints: {} successful requests per second, {} per core of {}",
+                async ? "async" : "servlet", succeeded / durationSeconds,
+                String.format("%.1f", (double) succeeded / durationSeconds / serverCores), serverCores);
+    }
+}
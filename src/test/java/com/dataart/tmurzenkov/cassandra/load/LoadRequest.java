@@ -0,0 +1,55 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Http request sent by the {@link LoadGenerator}, the body is serialized once, when the request is generated.
+ *
+ * @author tmurzenkov
+ */
+public class LoadRequest {
+    private final Endpoint endpoint;
+    private final HttpMethod method;
+    private final String path;
+    private final byte[] body;
+
+    /**
+     * Constructor.
+     *
+     * @param endpoint {@link Endpoint}
+     * @param method   {@link HttpMethod}
+     * @param path     path with the expanded variables
+     * @param body     json body, null if the request has no body
+     */
+    public LoadRequest(Endpoint endpoint, HttpMethod method, String path, byte[] body) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadRequest{"
+                + "endpoint=" + endpoint
+                + ", method=" + method
+                + ", path='" + path + '\''
+                + '}';
+    }
+}
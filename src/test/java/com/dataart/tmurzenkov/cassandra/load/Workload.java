@@ -0,0 +1,215 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.Address;
+import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UriTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_GET_FREE_ROOMS;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.AsyncUris.ASYNC_HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_GUEST;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ROOMS_BY_GUEST_AND_DATE;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.ADD_HOTEL;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.HOTELS_IN_THE_CITY;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.ADD_ROOM;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+
+/**
+ * Data set and request mix of the {@link LoadGenerator}. The hotels, rooms and guests are generated up front, the
+ * population requests register them and the load requests search and book them, so the traffic is valid and hits
+ * the same code paths as the real clients do. The requests are built from the same dtos the controllers accept.
+ *
+ * @author tmurzenkov
+ */
+public class Workload {
+    private static final int MAX_STAY_DAYS = 7;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> cities;
+    private final List<Hotel> hotels;
+    private final List<Guest> guests;
+    private final int roomsPerHotel;
+    private final int bookingDays;
+    private final LocalDate firstDay;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private boolean async;
+
+    /**
+     * Generates the data set.
+     *
+     * @param cities        number of cities
+     * @param hotels        number of hotels, spread over the cities
+     * @param roomsPerHotel number of rooms in every hotel
+     * @param guests        number of guests
+     * @param bookingDays   number of days from today the searches and bookings are spread over
+     * @param mix           weights of the endpoints in the load
+     */
+    public Workload(int cities, int hotels, int roomsPerHotel, int guests, int bookingDays, Map<Endpoint, Integer> mix) {
+        this.cities = IntStream.range(0, cities).mapToObj(index -> "City " + index).collect(toList());
+        this.hotels = IntStream.range(0, hotels).mapToObj(index -> buildHotel(index, this.cities.get(index % cities))).collect(toList());
+        this.guests = IntStream.range(0, guests).mapToObj(Workload::buildGuest).collect(toList());
+        this.roomsPerHotel = roomsPerHotel;
+        this.bookingDays = bookingDays;
+        this.firstDay = LocalDate.now();
+        this.endpoints = mix.keySet().toArray(new Endpoint[mix.size()]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int index = 0; index < endpoints.length; index++) {
+            total += mix.get(endpoints[index]);
+            cumulativeWeights[index] = total;
+        }
+        if (0 == total) {
+            throw new IllegalArgumentException("The load mix must have at least one endpoint with a positive weight");
+        }
+    }
+
+    /**
+     * Parses the load mix, e.g. city:20,freerooms:40,booking:20,guest:20 .
+     *
+     * @param mix comma separated endpoint keys with their weights
+     * @return weights by {@link Endpoint}
+     */
+    public static Map<Endpoint, Integer> parseMix(String mix) {
+        final Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            final String[] keyAndWeight = entry.trim().split(":");
+            if (keyAndWeight.length != 2 || Integer.parseInt(keyAndWeight[1].trim()) < 0) {
+                throw new IllegalArgumentException("Invalid entry of the load mix: " + entry);
+            }
+            weights.put(Endpoint.byKey(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the requests registering the hotels, their rooms and the guests. The batches have to be sent one after
+     * another, the rooms of a hotel cannot be registered before the hotel, the requests of a batch in any order.
+     *
+     * @return batches of {@link LoadRequest}
+     */
+    public List<List<LoadRequest>> populationRequests() {
+        final List<LoadRequest> hotelRequests = hotels.stream()
+                .map(hotel -> request(Endpoint.POPULATION, POST, ADD_HOTEL, hotel))
+                .collect(toList());
+        final List<LoadRequest> roomAndGuestRequests = new ArrayList<>();
+        hotels.forEach(hotel -> IntStream.rangeClosed(1, roomsPerHotel)
+                .mapToObj(roomNumber -> request(Endpoint.POPULATION, POST, ADD_ROOM, new Room(hotel.getId(), roomNumber)))
+                .forEach(roomAndGuestRequests::add));
+        guests.forEach(guest -> roomAndGuestRequests.add(request(Endpoint.POPULATION, POST, ADD_GUEST, guest)));
+        return asList(hotelRequests, roomAndGuestRequests);
+    }
+
+    /**
+     * Sends the city search, the free rooms search and the booking to the endpoints of the
+     * {@link com.dataart.tmurzenkov.cassandra.controller.AsyncController} instead of the servlet ones.
+     *
+     * @param async whether to send them to the async endpoints
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Generates the next request of the mix.
+     *
+     * @param random {@link Random}
+     * @return {@link LoadRequest}
+     */
+    public LoadRequest next(Random random) {
+        final Endpoint endpoint = pickEndpoint(random);
+        final LocalDate day = firstDay.plusDays(random.nextInt(bookingDays));
+        switch (endpoint) {
+            case CITY:
+                return request(endpoint, GET, expand(async ? ASYNC_HOTELS_IN_THE_CITY : HOTELS_IN_THE_CITY, pick(cities, random)), null);
+            case FREE_ROOMS:
+                final SearchRequest searchRequest = new SearchRequest(day, day.plusDays(1 + random.nextInt(MAX_STAY_DAYS)),
+                        pick(hotels, random).getId());
+                return request(endpoint, POST, async ? ASYNC_GET_FREE_ROOMS : GET_FREE_ROOMS, searchRequest);
+            case BOOKING:
+                final BookingRequest bookingRequest = new BookingRequest(pick(guests, random).getId(), pick(hotels, random).getId(),
+                        1 + random.nextInt(roomsPerHotel), day);
+                return request(endpoint, POST, async ? ASYNC_ADD_BOOKING : ADD_BOOKING, bookingRequest);
+            default:
+                return request(endpoint, GET, expand(ROOMS_BY_GUEST_AND_DATE, pick(guests, random).getId(), day), null);
+        }
+    }
+
+    /**
+     * Returns the endpoints of the mix with a positive weight.
+     *
+     * @return {@link Endpoint}s the load requests are sent to
+     */
+    public List<Endpoint> getEndpoints() {
+        return IntStream.range(0, endpoints.length)
+                .filter(index -> cumulativeWeights[index] > (0 == index ? 0 : cumulativeWeights[index - 1]))
+                .mapToObj(index -> endpoints[index])
+                .collect(toList());
+    }
+
+    private Endpoint pickEndpoint(Random random) {
+        final int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (draw >= cumulativeWeights[index]) {
+            index++;
+        }
+        return endpoints[index];
+    }
+
+    private LoadRequest request(Endpoint endpoint, HttpMethod method, String path, Object body) {
+        try {
+            return new LoadRequest(endpoint, method, path, null == body ? null : objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the request body " + body, e);
+        }
+    }
+
+    private static String expand(String uri, Object... variables) {
+        return new UriTemplate(uri).expand(variables).toString();
+    }
+
+    private static <T> T pick(List<T> list, Random random) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private static Hotel buildHotel(int index, String city) {
+        final Address address = new Address();
+        address.setCity(city);
+        address.setStreet("Street " + index);
+        address.setCountry("Country");
+        final Hotel hotel = new Hotel();
+        hotel.setId(UUID.randomUUID());
+        hotel.setName("Hotel " + index);
+        hotel.setPhone("+3-8-000-000-00-00");
+        hotel.setAddress(address);
+        return hotel;
+    }
+
+    private static Guest buildGuest(int index) {
+        final Guest guest = new Guest();
+        guest.setId(UUID.randomUUID());
+        guest.setFirstName("First name " + index);
+        guest.setLastName("Last name " + index);
+        return guest;
+    }
+}
@@ -0,0 +1,80 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.dataart.tmurzenkov.cassandra.controller.uri.GuestUris.ADD_BOOKING;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.HotelUris.ADD_HOTEL;
+import static com.dataart.tmurzenkov.cassandra.controller.uri.RoomUris.GET_FREE_ROOMS;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpMethod.GET;
+
+/**
+ * UTs for the {@link Workload} of the {@link LoadGenerator}.
+ *
+ * @author tmurzenkov
+ */
+public class WorkloadTest {
+    private static final int REQUESTS = 10000;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldFollowTheWeightsOfTheMix() {
+        final Workload sut = new Workload(2, 4, 5, 10, 30, Workload.parseMix("city:1, freerooms:3, booking:0"));
+        final Random random = new Random(42);
+        final Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+
+        for (int request = 0; request < REQUESTS; request++) {
+            counts.merge(sut.next(random).getEndpoint(), 1, Integer::sum);
+        }
+
+        assertFalse(counts.containsKey(Endpoint.BOOKING));
+        assertEquals(asList(Endpoint.CITY, Endpoint.FREE_ROOMS), sut.getEndpoints());
+        assertEquals(0.25d, counts.get(Endpoint.CITY) / (double) REQUESTS, 0.02d);
+        assertEquals(0.75d, counts.get(Endpoint.FREE_ROOMS) / (double) REQUESTS, 0.02d);
+    }
+
+    @Test
+    public void shouldGenerateValidRequestBodies() throws Exception {
+        final Random random = new Random(42);
+        final LoadRequest search = new Workload(1, 1, 5, 1, 30, Workload.parseMix("freerooms:1")).next(random);
+        final LoadRequest booking = new Workload(1, 1, 5, 1, 30, Workload.parseMix("booking:1")).next(random);
+        final LoadRequest city = new Workload(1, 1, 5, 1, 30, Workload.parseMix("city:1")).next(random);
+
+        assertEquals(GET_FREE_ROOMS, search.getPath());
+        final SearchRequest searchRequest = objectMapper.readValue(search.getBody(), SearchRequest.class);
+        assertTrue(searchRequest.getEnd().isAfter(searchRequest.getStart()));
+        assertEquals(ADD_BOOKING, booking.getPath());
+        final BookingRequest bookingRequest = objectMapper.readValue(booking.getBody(), BookingRequest.class);
+        assertTrue(bookingRequest.getRoomNumber() >= 1 && bookingRequest.getRoomNumber() <= 5);
+        assertNotNull(bookingRequest.getGuestId());
+        assertEquals(GET, city.getMethod());
+        assertEquals("/api/get/City%200", city.getPath());
+    }
+
+    @Test
+    public void shouldRegisterHotelsBeforeTheirRooms() {
+        final List<List<LoadRequest>> batches = new Workload(2, 4, 5, 10, 30, Workload.parseMix("city:1")).populationRequests();
+
+        assertEquals(2, batches.size());
+        assertEquals(4, batches.get(0).size());
+        assertTrue(batches.get(0).stream().allMatch(request -> ADD_HOTEL.equals(request.getPath())));
+        assertEquals(4 * 5 + 10, batches.get(1).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownEndpointOfTheMix() {
+        Workload.parseMix("city:1,hotels:2");
+    }
+}
@@ -0,0 +1,56 @@
+package com.dataart.tmurzenkov.cassandra.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distribution over the ranks 0 .. n - 1: the probability of the rank k is proportional to 1 / (k + 1)^exponent,
+ * so a few ranks are drawn most of the time and the long tail rarely, as the sizes of the cities are.
+ *
+ * @author tmurzenkov
+ */
+public class ZipfDistribution {
+    private final double[] cumulativeProbabilities;
+
+    /**
+     * Constructor.
+     *
+     * @param size     number of the ranks
+     * @param exponent skew of the distribution, 0 is uniform
+     */
+    public ZipfDistribution(int size, double exponent) {
+        if (size <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("The Zipf distribution needs a positive size and a non negative exponent");
+        }
+        cumulativeProbabilities = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulativeProbabilities[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulativeProbabilities[rank] /= total;
+        }
+    }
+
+    /**
+     * Draws the rank.
+     *
+     * @param random {@link Random}
+     * @return rank from 0 to size - 1
+     */
+    public int sample(Random random) {
+        final int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulativeProbabilities.length - 1);
+    }
+
+    /**
+     * Returns the probability of the rank.
+     *
+     * @param rank from 0 to size - 1
+     * @return probability
+     */
+    public double probability(int rank) {
+        return cumulativeProbabilities[rank] - (0 == rank ? 0 : cumulativeProbabilities[rank - 1]);
+    }
+}
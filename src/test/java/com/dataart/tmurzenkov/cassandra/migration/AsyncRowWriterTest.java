@@ -0,0 +1,166 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.datastax.driver.core.ConsistencyLevel.LOCAL_ONE;
+import static com.datastax.driver.core.WriteType.SIMPLE;
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UTs for the {@link AsyncRowWriter}.
+ *
+ * @author tmurzenkov
+ */
+public class AsyncRowWriterTest {
+    private static final int ROOMS = 5;
+    private static final int RETENTION_DAYS = 30;
+    private final UUID hotelId = UUID.randomUUID();
+    private final Session session = mock(Session.class, Answers.RETURNS_DEEP_STUBS);
+    private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    private final LocalDate today = LocalDate.now(UTC);
+    private final BookingRetention bookingRetention = new BookingRetention(RETENTION_DAYS);
+    private AsyncRowWriter sut;
+
+    /**
+     * Stubs the session to prepare the inserts.
+     */
+    @Before
+    public void init() {
+        when(session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion()).thenReturn(ProtocolVersion.V4);
+        when(session.getCluster().getConfiguration().getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+        when(session.prepare(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.bind()).thenAnswer(invocation -> mock(BoundStatement.class));
+        bookingRetention.setClock(Clock.fixed(today.atStartOfDay(UTC).toInstant(), UTC));
+        sut = new AsyncRowWriter(session, AsyncRowWriter.converter(mock(Cluster.class), "hotel"), bookingRetention, 4, 1);
+    }
+
+    @Test
+    public void shouldPrepareEveryDistinctInsertOnceAndWriteAllRows() throws Exception {
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> completed(null));
+
+        for (int roomNumber = 1; roomNumber <= 2 * ROOMS; roomNumber++) {
+            sut.write(new Room(UUID.randomUUID(), 1 + roomNumber % ROOMS));
+        }
+        sut.awaitCompletion();
+
+        assertEquals(singletonMap("room_by_hotel", 2L * ROOMS), sut.getWrittenRows());
+        verify(session, times(ROOMS)).prepare(anyString());
+        verify(session, times(2 * ROOMS)).executeAsync(any(BoundStatement.class));
+    }
+
+    @Test
+    public void shouldRetryTheFailedInsertAndCountTheRowsThatFailedAgain() throws Exception {
+        final WriteTimeoutException timeout = new WriteTimeoutException(LOCAL_ONE, SIMPLE, 0, 1);
+        when(session.executeAsync(any(Statement.class)))
+                .thenAnswer(invocation -> completed(timeout))
+                .thenAnswer(invocation -> completed(null))
+                .thenAnswer(invocation -> completed(timeout));
+
+        sut.write(new Room(hotelId, 1));
+        sut.write(new Room(hotelId, 2));
+        sut.awaitCompletion();
+
+        assertEquals(singletonMap("room_by_hotel", 1L), sut.getWrittenRows());
+        assertEquals(2, sut.getRetriedRows());
+        assertEquals(1, sut.getFailedRows());
+    }
+
+    @Test
+    public void shouldWriteTheBookedNightsWithTheTtlOfTheRetention() throws Exception {
+        final ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+        when(session.executeAsync(statement.capture())).thenAnswer(invocation -> completed(null));
+        final RoomByGuestAndDate booking = new RoomByGuestAndDate(UUID.randomUUID(), today.plusDays(1), 1);
+        booking.setHotelId(hotelId);
+
+        sut.write(booking);
+        sut.write(new RoomByHotelAndDate(booking));
+        sut.awaitCompletion();
+
+        final String ttl = "USING TTL " + DAYS.toSeconds(2 + RETENTION_DAYS);
+        final List<String> queries = statement.getAllValues().stream()
+                .filter(insert -> !(insert instanceof BoundStatement))
+                .map(Object::toString)
+                .collect(toList());
+        mockingDetails(session).getInvocations().stream()
+                .filter(invocation -> "prepare".equals(invocation.getMethod().getName()))
+                .forEach(invocation -> queries.add(invocation.getArgument(0)));
+        assertEquals(2, queries.size());
+        queries.forEach(query -> assertTrue(query, query.contains(ttl)));
+        assertEquals(0, sut.getExpiredRows());
+    }
+
+    @Test
+    public void shouldSkipTheNightsPastTheRetention() throws Exception {
+        sut.write(new RoomByHotelAndDate(hotelId, 1, today.minusDays(RETENTION_DAYS + 1)));
+        sut.awaitCompletion();
+
+        assertEquals(1, sut.getExpiredRows());
+        verify(session, never()).executeAsync(any(Statement.class));
+    }
+
+    @Test
+    public void shouldNotExpireTheRowsOtherThanTheBookedNights() throws Exception {
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> completed(null));
+        final ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+
+        sut.write(new Room(hotelId, 1));
+        sut.awaitCompletion();
+
+        verify(session).prepare(query.capture());
+        assertFalse(query.getValue(), query.getValue().contains("TTL"));
+    }
+
+    private static ResultSetFuture completed(Throwable failure) throws Exception {
+        final ResultSetFuture future = mock(ResultSetFuture.class);
+        if (null == failure) {
+            when(future.get()).thenReturn(mock(ResultSet.class));
+        } else {
+            when(future.get()).thenThrow(new ExecutionException(failure));
+        }
+        when(future.isDone()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(future).addListener(any(Runnable.class), any(Executor.class));
+        return future;
+    }
+}
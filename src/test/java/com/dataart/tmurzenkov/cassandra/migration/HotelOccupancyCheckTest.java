@@ -0,0 +1,96 @@
+package com.dataart.tmurzenkov.cassandra.migration;
+
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelInventoryDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.roomBitmap;
+import static java.util.Collections.singletonMap;
+import static java.util.UUID.randomUUID;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UTs for the {@link HotelOccupancyCheck}.
+ *
+ * @author tmurzenkov
+ */
+public class HotelOccupancyCheckTest {
+    private final UUID hotelId = randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private final BookedRoomsReader bookedRoomsReader = mock(BookedRoomsReader.class);
+    private final InMemoryHotelOccupancyDao hotelOccupancyDao = new InMemoryHotelOccupancyDao();
+    private final InMemoryHotelInventoryDao hotelInventoryDao = new InMemoryHotelInventoryDao();
+    private final HotelOccupancyCheck sut = new HotelOccupancyCheck(bookedRoomsReader, hotelOccupancyDao, hotelInventoryDao,
+            new BookingRetention(0), 16, 0);
+
+    /**
+     * Books rooms 1 and 2 today and room 3 tomorrow, the bitmaps hold rooms 1 and 4 today and nothing tomorrow. The hotel
+     * has 5 rooms, counted twice.
+     */
+    @Before
+    public void init() {
+        final BitSet bookedToday = roomBitmap(1);
+        bookedToday.set(2);
+        final SortedMap<LocalDate, BitSet> bookedRooms = new TreeMap<>();
+        bookedRooms.put(today, bookedToday);
+        bookedRooms.put(today.plusDays(1), roomBitmap(3));
+        when(bookedRoomsReader.bookedRooms(hotelId, today, today.plusDays(1))).thenReturn(bookedRooms);
+        hotelOccupancyDao.occupy(hotelId, today, roomBitmap(1), 0, 1);
+        hotelOccupancyDao.occupy(hotelId, today, roomBitmap(4), 0, 1);
+        when(bookedRoomsReader.countRooms(hotelId)).thenReturn(5L);
+        hotelInventoryDao.addRooms(hotelId, 10);
+    }
+
+    @Test
+    public void shouldCountTheMissingAndTheExtraRoomsAndTheWrongCounterWithoutRepairing() {
+        sut.check(hotelId, today, today.plusDays(1), false);
+
+        assertEquals(2, sut.getNights());
+        assertEquals(2, sut.getMissingRooms());
+        assertEquals(1, sut.getExtraRooms());
+        assertEquals(1, sut.getMiscountedHotels());
+        assertEquals(null, hotelOccupancyDao.findOccupancy(hotelId, today.plusDays(1)));
+        assertEquals(10, hotelInventoryDao.countRooms(hotelId));
+    }
+
+    @Test
+    public void shouldAddTheMissingRoomsAndFixTheCounterAndRemoveTheRoomsWithoutBookings() {
+        when(bookedRoomsReader.bookedRooms(hotelId, today, today)).thenReturn(new TreeMap<>(singletonMap(today, roomBitmap(1))));
+
+        sut.check(hotelId, today, today.plusDays(1), true);
+
+        final BitSet expectedToday = roomBitmap(1);
+        expectedToday.set(2);
+        assertEquals(expectedToday, hotelOccupancyDao.findOccupancy(hotelId, today).getBookedRooms());
+        assertEquals(roomBitmap(3), hotelOccupancyDao.findOccupancy(hotelId, today.plusDays(1)).getBookedRooms());
+        assertEquals(1, sut.getReleasedRooms());
+        assertEquals(0, sut.getFailedNights());
+        assertEquals(5, hotelInventoryDao.countRooms(hotelId));
+    }
+
+    @Test
+    public void shouldKeepTheRoomOfTheBookingWrittenWhileSettling() {
+        final BitSet bookedToday = roomBitmap(1);
+        bookedToday.set(4);
+        when(bookedRoomsReader.bookedRooms(hotelId, today, today)).thenReturn(new TreeMap<>(singletonMap(today, bookedToday)));
+
+        sut.check(hotelId, today, today.plusDays(1), true);
+
+        final BitSet expectedToday = roomBitmap(1);
+        expectedToday.set(2);
+        expectedToday.set(4);
+        assertEquals(expectedToday, hotelOccupancyDao.findOccupancy(hotelId, today).getBookedRooms());
+        assertEquals(0, sut.getReleasedRooms());
+        assertEquals(0, sut.getFailedNights());
+    }
+}
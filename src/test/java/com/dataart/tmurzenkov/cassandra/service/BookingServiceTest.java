@@ -1,35 +1,64 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
+import com.dataart.tmurzenkov.cassandra.dao.BookingBatchDao;
+import com.dataart.tmurzenkov.cassandra.dao.ExpiringInsertDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
 import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingServiceImpl;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.cassandra.support.exception.CassandraWriteTimeoutException;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.roomBitmap;
+import static com.dataart.tmurzenkov.cassandra.util.FutureUtils.failedFuture;
+import static com.datastax.driver.core.ConsistencyLevel.LOCAL_QUORUM;
 import static java.lang.String.format;
 import static java.lang.String.valueOf;
 import static java.time.LocalDate.now;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.Collections.emptyList;
 import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
  * UTs for the {@link BookingServiceImpl}.
@@ -46,6 +75,20 @@ public class BookingServiceTest {
     private RoomByHotelAndDateDao roomByHotelAndDateDao;
     @Mock
     private RoomByGuestAndDateDao byGuestAndDateDao;
+    @Mock
+    private ExpiringInsertDao expiringInsertDao;
+    @Mock
+    private HotelOccupancyDao hotelOccupancyDao;
+    @Mock
+    private BookingBatchDao bookingBatchDao;
+    @Spy
+    private BookingRetention bookingRetention = new BookingRetention();
+    @Spy
+    private FreeRoomsCache freeRoomsCache = new FreeRoomsCache();
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
+    @Spy
+    private ExistenceFilters existenceFilters = new ExistenceFilters();
     @InjectMocks
     private BookingServiceImpl sut;
 
@@ -60,13 +103,165 @@ public class BookingServiceTest {
 
         when(byGuestAndDateDao.insert(any(RoomByGuestAndDate.class))).thenReturn(expectedRoomByGuestAndDate);
         when(roomDao.exists(eq(room.getCompositeId()))).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
 
         sut.performBooking(bookingRequest);
 
         verify(roomDao).exists(eq(room.getCompositeId()));
+        verify(hotelOccupancyDao).occupy(eq(bookingRequest.getHotelId()), eq(bookingRequest.getBookingDate()), eq(roomBitmap(roomNumber)),
+                eq(0), anyInt());
         verify(roomByHotelAndDateDao).insert(eq(roomByHotelAndDate));
         verify(byGuestAndDateDao).insert(eq(expectedRoomByGuestAndDate));
         verify(byGuestAndDateDao, never()).save(any(RoomByGuestAndDate.class));
+        verify(resourceVersions).guestChanged(eq(bookingRequest.getGuestId()));
+    }
+
+    @Test
+    public void shouldBookRoomWithTheTtlOfTheRetention() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
+        final int ttlSeconds = (int) DAYS.toSeconds(1 + 30);
+        setField(bookingRetention, "retentionDays", 30);
+        bookingRetention.setClock(Clock.fixed(bookingRequest.getBookingDate().atStartOfDay(UTC).toInstant(), UTC));
+        when(roomDao.exists(eq(new Room(roomByHotelAndDate).getCompositeId()))).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+
+        sut.performBooking(bookingRequest);
+
+        verify(hotelOccupancyDao).occupy(any(), any(), eq(roomBitmap(1)), eq(ttlSeconds), anyInt());
+        verify(expiringInsertDao).insertWithTtl(eq(roomByHotelAndDate), eq(ttlSeconds));
+        verify(expiringInsertDao).insertWithTtl(any(RoomByGuestAndDate.class), eq(ttlSeconds));
+        verify(roomByHotelAndDateDao, never()).insert(any(RoomByHotelAndDate.class));
+        verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+    }
+
+    @Test
+    public void shouldWriteTheBookingInOneBatchWithItsEventOfTheOutbox() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
+        final RoomByGuestAndDate roomByGuestAndDate = new RoomByGuestAndDate(bookingRequest);
+        final ArgumentCaptor<BookingEvent> event = ArgumentCaptor.forClass(BookingEvent.class);
+        roomByGuestAndDate.setConfirmationNumber(valueOf(bookingRequest.hashCode()));
+        setField(sut, "outboxEnabled", true);
+        when(roomDao.exists(eq(new Room(roomByHotelAndDate).getCompositeId()))).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+
+        sut.performBooking(bookingRequest);
+
+        verify(bookingBatchDao).insertBooking(eq(roomByGuestAndDate), eq(roomByHotelAndDate), event.capture(), eq(0),
+                eq((int) HOURS.toSeconds(168)));
+        assertEquals(BookingEvent.BOOKED, event.getValue().getType());
+        assertEquals(bookingRequest.getGuestId(), event.getValue().getGuestId());
+        assertEquals(bookingRequest.getHotelId(), event.getValue().getHotelId());
+        assertEquals(roomByGuestAndDate.getConfirmationNumber(), event.getValue().getConfirmationNumber());
+        assertEquals(BookingEvent.bucketOf(System.currentTimeMillis()), event.getValue().getBucket(), 1);
+        verify(roomByHotelAndDateDao, never()).insert(any(RoomByHotelAndDate.class));
+        verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+    }
+
+    @Test
+    public void shouldNotBookTheNightPastTheRetention() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        bookingRequest.setBookingDate(now().minusDays(10));
+        setField(bookingRetention, "retentionDays", 5);
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The night is past the retention");
+        } catch (IllegalArgumentException e) {
+            verify(expiringInsertDao, never()).insertWithTtl(any(), any(Integer.class));
+            verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+        }
+    }
+
+    @Test
+    public void shouldNotWriteTheBookingNotMarkedInTheOccupancy() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        when(roomDao.exists(any())).thenReturn(true);
+        doThrow(new IllegalStateException("Occupancy kept changing")).when(hotelOccupancyDao)
+                .occupy(any(), any(), any(), anyInt(), anyInt());
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The occupancy is not updated");
+        } catch (IllegalStateException e) {
+            verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+            verify(roomByHotelAndDateDao, never()).insert(any(RoomByHotelAndDate.class));
+            verify(resourceVersions, never()).guestChanged(any());
+        }
+    }
+
+    @Test
+    public void shouldRemoveTheRoomFromTheOccupancyIfTheBookingIsNotWritten() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final IllegalStateException failure = new IllegalStateException("Write timed out");
+        when(roomDao.exists(any())).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+        doThrow(failure).when(roomByHotelAndDateDao).insert(any(RoomByHotelAndDate.class));
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The booking is not written");
+        } catch (IllegalStateException e) {
+            assertEquals(failure, e);
+            verify(hotelOccupancyDao).release(eq(bookingRequest.getHotelId()), eq(bookingRequest.getBookingDate()), eq(roomBitmap(1)),
+                    eq(0), anyInt());
+            verify(resourceVersions, never()).guestChanged(any());
+        }
+    }
+
+    @Test
+    public void shouldNotBookTheRoomMarkedByAnotherBooking() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        when(roomDao.exists(any())).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(false);
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The room is booked by another guest");
+        } catch (RecordExistsException e) {
+            verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+            verify(roomByHotelAndDateDao, never()).insert(any(RoomByHotelAndDate.class));
+            verify(hotelOccupancyDao, never()).release(any(), any(), any(), anyInt(), anyInt());
+        }
+    }
+
+    @Test
+    public void shouldKeepTheRoomInTheOccupancyIfTheBatchMayStillBeApplied() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final CassandraWriteTimeoutException timeout = new CassandraWriteTimeoutException(WriteType.BATCH.name(), "Batch timed out",
+                new WriteTimeoutException(LOCAL_QUORUM, WriteType.BATCH, 1, 2));
+        setField(sut, "outboxEnabled", true);
+        when(roomDao.exists(any())).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+        doThrow(timeout).when(bookingBatchDao).insertBooking(any(), any(), any(), anyInt(), anyInt());
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The batch timed out");
+        } catch (CassandraWriteTimeoutException e) {
+            verify(hotelOccupancyDao, never()).release(any(), any(), any(), anyInt(), anyInt());
+        }
+    }
+
+    @Test
+    public void shouldRethrowTheWriteFailureIfTheRoomCannotBeRemovedFromTheOccupancy() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final IllegalStateException failure = new IllegalStateException("Batch timed out");
+        setField(sut, "outboxEnabled", true);
+        when(roomDao.exists(any())).thenReturn(true);
+        when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+        doThrow(failure).when(bookingBatchDao).insertBooking(any(), any(), any(), anyInt(), anyInt());
+        doThrow(new IllegalStateException("Occupancy kept changing")).when(hotelOccupancyDao)
+                .release(any(), any(), any(), anyInt(), anyInt());
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The booking is not written");
+        } catch (IllegalStateException e) {
+            assertEquals(failure, e);
+            assertEquals("Occupancy kept changing", e.getSuppressed()[0].getMessage());
+        }
     }
 
     @Test
@@ -94,6 +289,38 @@ public class BookingServiceTest {
         sut.performBooking(bookingRequest);
     }
 
+    @Test
+    public void shouldNotAskDataBaseForRoomAbsentInTheAuthoritativeExistenceFilter() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        existenceFilters.rooms().setAuthoritative(true);
+        existenceFilters.rooms().rebuild(emptyList(), 1000, 0.01d);
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The room is not in the existence filter");
+        } catch (RecordNotFoundException e) {
+            verify(roomDao, never()).exists(any());
+            verify(hotelOccupancyDao, never()).occupy(any(), any(), any(), anyInt(), anyInt());
+            verify(roomByHotelAndDateDao, never()).insert(any(RoomByHotelAndDate.class));
+            assertEquals(1, existenceFilters.rooms().getStatistics().getShortCircuited());
+        }
+    }
+
+    @Test
+    public void shouldAskDataBaseForRoomAbsentInTheExistenceFilter() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        existenceFilters.rooms().rebuild(emptyList(), 1000, 0.01d);
+
+        try {
+            sut.performBooking(bookingRequest);
+            fail("The room is stored neither in the filter nor in the data base");
+        } catch (RecordNotFoundException e) {
+            verify(roomDao).exists(any());
+            verify(hotelOccupancyDao, never()).occupy(any(), any(), any(), anyInt(), anyInt());
+            assertEquals(0, existenceFilters.rooms().getStatistics().getShortCircuited());
+        }
+    }
+
     @Test
     public void shouldThrowAlreadyBookedException() {
         final Integer roomNumber = 1;
@@ -112,6 +339,66 @@ public class BookingServiceTest {
         verify(byGuestAndDateDao, never()).save(any(RoomByGuestAndDate.class));
     }
 
+    @Test
+    public void shouldBookRoomAsynchronously() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final RoomByHotelAndDate roomByHotelAndDate = new RoomByHotelAndDate(bookingRequest);
+        final RoomByGuestAndDate roomByGuestAndDate = new RoomByGuestAndDate(bookingRequest);
+        roomByGuestAndDate.setConfirmationNumber(valueOf(bookingRequest.hashCode()));
+        stubTheAsyncLookUps(true);
+        when(expiringInsertDao.insertWithTtlAsync(any(), anyInt())).thenAnswer(invocation -> completedFuture(invocation.getArgument(0)));
+
+        assertEquals(bookingRequest, sut.performBookingAsync(bookingRequest).join());
+
+        verify(hotelOccupancyDao).occupyAsync(eq(bookingRequest.getHotelId()), eq(bookingRequest.getBookingDate()),
+                eq(roomBitmap(1)), eq(0), anyInt());
+        verify(expiringInsertDao).insertWithTtlAsync(eq(roomByGuestAndDate), eq(0));
+        verify(expiringInsertDao).insertWithTtlAsync(eq(roomByHotelAndDate), eq(0));
+        verify(roomDao, never()).exists(any());
+        verify(byGuestAndDateDao, never()).insert(any(RoomByGuestAndDate.class));
+        verify(resourceVersions).guestChanged(eq(bookingRequest.getGuestId()));
+    }
+
+    @Test
+    public void shouldNotBookTheRoomMarkedByAnotherBookingAsynchronously() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        stubTheAsyncLookUps(false);
+
+        try {
+            sut.performBookingAsync(bookingRequest).join();
+            fail("The room is booked by another guest");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RecordExistsException);
+            verify(expiringInsertDao, never()).insertWithTtlAsync(any(), anyInt());
+            verify(hotelOccupancyDao, never()).releaseAsync(any(), any(), any(), anyInt(), anyInt());
+        }
+    }
+
+    @Test
+    public void shouldRemoveTheRoomFromTheOccupancyIfTheAsyncBookingIsNotWritten() {
+        final BookingRequest bookingRequest = getBookingRequest(1);
+        final IllegalStateException failure = new IllegalStateException("Write failed");
+        stubTheAsyncLookUps(true);
+        when(expiringInsertDao.insertWithTtlAsync(any(), anyInt())).thenReturn(failedFuture(failure));
+        when(hotelOccupancyDao.releaseAsync(any(), any(), any(), anyInt(), anyInt())).thenReturn(completedFuture(null));
+
+        try {
+            sut.performBookingAsync(bookingRequest).join();
+            fail("The booking is not written");
+        } catch (CompletionException e) {
+            assertEquals(failure, e.getCause());
+            verify(hotelOccupancyDao).releaseAsync(eq(bookingRequest.getHotelId()), eq(bookingRequest.getBookingDate()),
+                    eq(roomBitmap(1)), eq(0), anyInt());
+            verify(resourceVersions, never()).guestChanged(any());
+        }
+    }
+
+    private void stubTheAsyncLookUps(boolean occupied) {
+        when(byGuestAndDateDao.existsAsync(any())).thenReturn(completedFuture(false));
+        when(roomDao.existsAsync(any())).thenReturn(completedFuture(true));
+        when(hotelOccupancyDao.occupyAsync(any(), any(), any(), anyInt(), anyInt())).thenReturn(completedFuture(occupied));
+    }
+
 
     private BookingRequest getBookingRequest(Integer roomNumber) {
         final UUID hotelId = randomUUID();
@@ -0,0 +1,186 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilter;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildSetOfRooms;
+import static java.util.Collections.emptyList;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link ExistenceFilter}.
+ *
+ * @author tmurzenkov
+ */
+public class ExistenceFilterTest {
+    private static final int KEYS = 10000;
+    private static final double FALSE_POSITIVE_RATE = 0.01d;
+    private final ExistenceFilters existenceFilters = new ExistenceFilters();
+
+    @Test
+    public void shouldAskDataBaseUntilTheFilterIsBuilt() {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+
+        assertTrue(sut.mightContain(randomUUID()));
+        assertFalse(sut.getStatistics().isReady());
+        assertEquals(0, sut.getStatistics().getShortCircuited());
+    }
+
+    @Test
+    public void shouldKeepAskingDataBaseIfTheFilterCannotBeBuilt() {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+
+        sut.rebuild(() -> {
+            throw new IllegalStateException("No host available");
+        }, KEYS, FALSE_POSITIVE_RATE);
+
+        assertTrue(sut.mightContain(randomUUID()));
+        assertFalse(sut.getStatistics().isReady());
+    }
+
+    @Test
+    public void shouldNeverAnswerAbsentForStoredRooms() {
+        final ExistenceFilter<Room> sut = existenceFilters.rooms();
+        final UUID hotelId = randomUUID();
+        final List<Room> storedRooms = IntStream.rangeClosed(1, KEYS / 2).mapToObj(number -> new Room(hotelId, number)).collect(toList());
+        sut.rebuild(storedRooms, KEYS, FALSE_POSITIVE_RATE);
+        final List<Room> insertedRooms = IntStream.rangeClosed(KEYS / 2 + 1, KEYS).mapToObj(number -> new Room(hotelId, number)).collect(toList());
+        insertedRooms.forEach(sut::put);
+
+        storedRooms.forEach(room -> assertTrue(sut.mightContain(room)));
+        insertedRooms.forEach(room -> assertTrue(sut.mightContain(room)));
+        assertEquals(0, sut.getStatistics().getShortCircuited());
+        assertEquals(KEYS / 2, sut.getStatistics().getInsertions());
+    }
+
+    @Test
+    public void shouldAskDataBaseForEveryKeyUnlessAuthoritative() {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+        final UUID storedByAnotherInstance = randomUUID();
+        sut.rebuild(emptyList(), KEYS, FALSE_POSITIVE_RATE);
+        final AtomicInteger lookups = new AtomicInteger();
+
+        assertTrue(sut.exists(storedByAnotherInstance, key -> lookups.incrementAndGet() > 0));
+        assertFalse(sut.exists(randomUUID(), key -> lookups.incrementAndGet() < 0));
+
+        assertEquals(2, lookups.get());
+        assertEquals(2, sut.getStatistics().getLookups());
+        assertEquals(0, sut.getStatistics().getShortCircuited());
+    }
+
+    @Test
+    public void shouldNotScanTheTablesUnlessAuthoritative() {
+        final HotelDao hotelDao = mock(HotelDao.class);
+        final RoomDao roomDao = mock(RoomDao.class);
+        setField(existenceFilters, "hotelDao", hotelDao);
+        setField(existenceFilters, "roomDao", roomDao);
+
+        existenceFilters.onApplicationEvent(null);
+        existenceFilters.destroy();
+
+        verify(hotelDao, never()).findAll();
+        verify(roomDao, never()).findAll();
+        assertFalse(existenceFilters.hotels().getStatistics().isReady());
+    }
+
+    @Test
+    public void shouldAnswerAbsentKeyWithoutDataBaseIfAuthoritative() {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+        sut.setAuthoritative(true);
+        sut.rebuild(emptyList(), KEYS, FALSE_POSITIVE_RATE);
+
+        assertFalse(sut.exists(randomUUID(), key -> {
+            throw new AssertionError("The data base is asked");
+        }));
+        assertEquals(1, sut.getStatistics().getShortCircuited());
+    }
+
+    @Test
+    public void shouldNotLoseKeysPutWhileTheFilterIsRebuilt() throws Exception {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+        sut.rebuild(emptyList(), KEYS, FALSE_POSITIVE_RATE);
+        final List<UUID> keys = IntStream.range(0, KEYS).mapToObj(i -> randomUUID()).collect(toList());
+        final List<UUID> storedKeys = new CopyOnWriteArrayList<>();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> puts = executorService.submit(() -> keys.forEach(key -> {
+                storedKeys.add(key);
+                sut.put(key);
+            }));
+            while (!puts.isDone()) {
+                sut.rebuild(() -> new ArrayList<>(storedKeys).iterator(), KEYS, FALSE_POSITIVE_RATE);
+            }
+            puts.get(10, SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        keys.forEach(key -> assertTrue(sut.mightContain(key)));
+    }
+
+    @Test
+    public void shouldKeepTheConfiguredFalsePositiveRate() {
+        final ExistenceFilter<UUID> sut = existenceFilters.hotels();
+        sut.setAuthoritative(true);
+        sut.rebuild(IntStream.range(0, KEYS).mapToObj(i -> randomUUID()).collect(toList()), KEYS, FALSE_POSITIVE_RATE);
+        final AtomicInteger dataBaseLookups = new AtomicInteger();
+
+        final int lookups = 100000;
+        IntStream.range(0, lookups).forEach(i -> sut.exists(randomUUID(), key -> dataBaseLookups.incrementAndGet() < 0));
+
+        final double falsePositiveRate = 1d - sut.getStatistics().getShortCircuitRate();
+        assertTrue("False positive rate " + falsePositiveRate, falsePositiveRate < FALSE_POSITIVE_RATE * 1.5);
+        assertEquals(lookups, sut.getStatistics().getLookups());
+        assertEquals(lookups - sut.getStatistics().getShortCircuited(), dataBaseLookups.get());
+    }
+
+    @Test
+    public void shouldNotLoseRoomsPutConcurrently() throws Exception {
+        final ExistenceFilter<Room> sut = existenceFilters.rooms();
+        sut.rebuild(emptyList(), KEYS, FALSE_POSITIVE_RATE);
+        final List<Room> rooms = IntStream.range(0, 8)
+                .mapToObj(i -> buildSetOfRooms(KEYS / 8, randomUUID()))
+                .flatMap(hotelRooms -> hotelRooms.stream())
+                .collect(toList());
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = IntStream.range(0, 8)
+                    .mapToObj(thread -> executorService.submit(() -> {
+                        for (int i = thread; i < rooms.size(); i += 8) {
+                            sut.put(rooms.get(i));
+                        }
+                    }))
+                    .collect(toList());
+            for (Future<?> future : futures) {
+                future.get(10, SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        rooms.forEach(room -> assertTrue(sut.mightContain(room)));
+    }
+}
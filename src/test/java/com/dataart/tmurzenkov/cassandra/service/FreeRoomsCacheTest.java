@@ -0,0 +1,209 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
+import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.dao.impl.RoomByHotelAndDateRouter;
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.CacheStatistics;
+import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
+import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingRetention;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.BookingServiceImpl;
+import com.dataart.tmurzenkov.cassandra.service.impl.service.RoomServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildSetOfRooms;
+import static com.dataart.tmurzenkov.cassandra.util.CollectionUtils.difference;
+import static java.util.Collections.emptySet;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link FreeRoomsCache} used by the {@link RoomServiceImpl} and invalidated by the {@link BookingServiceImpl}.
+ *
+ * @author tmurzenkov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FreeRoomsCacheTest {
+    private static final int ROOMS_IN_HOTEL = 20;
+    private final UUID hotelId = randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private final Set<RoomByHotelAndDate> bookedRooms = ConcurrentHashMap.newKeySet();
+    @Mock
+    private RoomDao roomDao;
+    @Mock
+    private RoomByHotelAndDateDao roomByHotelAndDateDao;
+    @Mock
+    private RoomByHotelAndDateRouter roomByHotelAndDateRouter;
+    @Mock
+    private RoomByGuestAndDateDao roomByGuestAndDateDao;
+    @Mock
+    private HotelOccupancyDao hotelOccupancyDao;
+    @Spy
+    private BookingRetention bookingRetention = new BookingRetention();
+    @Spy
+    private FreeRoomsCache freeRoomsCache = new FreeRoomsCache();
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
+    @Spy
+    private ExistenceFilters existenceFilters = new ExistenceFilters();
+    @InjectMocks
+    private RoomServiceImpl roomService;
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    /**
+     * Backs the mocked dao with the in-memory set of booked rooms and runs the fanned out reads on the calling thread.
+     */
+    @Before
+    public void init() {
+        setField(roomService, "fanOutTaskExecutor", (Executor) Runnable::run);
+        lenient().when(roomDao.findAllRoomsByHotelId(eq(hotelId))).thenAnswer(invocation -> buildSetOfRooms(ROOMS_IN_HOTEL, hotelId));
+        lenient().when(roomDao.exists(any())).thenReturn(true);
+        lenient().when(hotelOccupancyDao.occupy(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+        lenient().when(roomByHotelAndDateDao.insert(any(RoomByHotelAndDate.class))).thenAnswer(invocation -> {
+            final RoomByHotelAndDate room = invocation.getArgument(0);
+            bookedRooms.add(room);
+            return room;
+        });
+        lenient().when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(eq(hotelId), any(LocalDate.class), any(LocalDate.class)))
+                .thenAnswer(invocation -> {
+                    final LocalDate start = invocation.getArgument(1);
+                    final LocalDate end = invocation.getArgument(2);
+                    return bookedRooms.stream()
+                            .filter(room -> !room.getDate().isBefore(start) && !room.getDate().isAfter(end))
+                            .collect(toSet());
+                });
+    }
+
+    @Test
+    public void shouldServeRepeatedSearchFromCache() {
+        final SearchRequest searchRequest = new SearchRequest(today, today.plusDays(3), hotelId);
+
+        final Set<Room> first = roomService.findFreeRoomsInTheHotel(searchRequest);
+        final Set<Room> second = roomService.findFreeRoomsInTheHotel(searchRequest);
+
+        assertEquals(first, second);
+        verify(roomDao, times(1)).findAllRoomsByHotelId(eq(hotelId));
+        final CacheStatistics statistics = freeRoomsCache.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0.5d, statistics.getHitRate(), 0.0001d);
+    }
+
+    @Test
+    public void shouldDiscardEntryAfterBookingInTheSameHotel() {
+        final SearchRequest searchRequest = new SearchRequest(today, today.plusDays(3), hotelId);
+        assertTrue(roomService.findFreeRoomsInTheHotel(searchRequest).contains(new Room(hotelId, 1)));
+
+        bookingService.performBooking(new BookingRequest(randomUUID(), hotelId, 1, today.plusDays(1)));
+
+        assertFalse(roomService.findFreeRoomsInTheHotel(searchRequest).contains(new Room(hotelId, 1)));
+        verify(roomDao, times(2)).findAllRoomsByHotelId(eq(hotelId));
+    }
+
+    @Test
+    public void shouldKeepEntriesOfOtherHotelsAfterBooking() {
+        final SearchRequest searchRequest = new SearchRequest(today, today.plusDays(3), hotelId);
+        roomService.findFreeRoomsInTheHotel(searchRequest);
+
+        freeRoomsCache.invalidate(randomUUID());
+        roomService.findFreeRoomsInTheHotel(searchRequest);
+
+        verify(roomDao, times(1)).findAllRoomsByHotelId(eq(hotelId));
+    }
+
+    @Test
+    public void shouldMatchDataBaseWhenBookingsAndSearchesInterleave() {
+        final Random random = new Random(42);
+        final List<SearchRequest> searchRequests = IntStream.range(1, 6)
+                .mapToObj(days -> new SearchRequest(today.plusDays(days - 1), today.plusDays(days + 2), hotelId))
+                .collect(toList());
+
+        for (int step = 0; step < 500; step++) {
+            if (random.nextInt(4) == 0) {
+                final int roomNumber = 1 + random.nextInt(ROOMS_IN_HOTEL);
+                final LocalDate bookingDate = today.plusDays(random.nextInt(8));
+                bookingService.performBooking(new BookingRequest(randomUUID(), hotelId, roomNumber, bookingDate));
+            } else {
+                final SearchRequest searchRequest = searchRequests.get(random.nextInt(searchRequests.size()));
+                assertEquals(expectedFreeRooms(searchRequest), findFreeRoomsOrEmpty(searchRequest));
+            }
+        }
+        assertTrue(freeRoomsCache.getStatistics().getHits() > 0);
+    }
+
+    @Test
+    public void shouldNeverReturnRoomBookedBeforeTheSearchStarted() throws Exception {
+        final SearchRequest searchRequest = new SearchRequest(today, today.plusDays(1), hotelId);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = IntStream.rangeClosed(1, ROOMS_IN_HOTEL)
+                    .mapToObj(roomNumber -> executorService.submit(() -> {
+                        roomService.findFreeRoomsInTheHotel(searchRequest);
+                        bookingService.performBooking(new BookingRequest(randomUUID(), hotelId, roomNumber, today));
+                        assertFalse(findFreeRoomsOrEmpty(searchRequest).contains(new Room(hotelId, roomNumber)));
+                    }))
+                    .collect(toList());
+            for (Future<?> future : futures) {
+                future.get(10, SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertTrue(findFreeRoomsOrEmpty(searchRequest).isEmpty());
+    }
+
+    private Set<Room> expectedFreeRooms(SearchRequest searchRequest) {
+        final Set<Room> booked = bookedRooms.stream()
+                .filter(room -> !room.getDate().isBefore(searchRequest.getStart()) && !room.getDate().isAfter(searchRequest.getEnd()))
+                .map(Room::new)
+                .collect(toSet());
+        return difference(booked, buildSetOfRooms(ROOMS_IN_HOTEL, hotelId));
+    }
+
+    private Set<Room> findFreeRoomsOrEmpty(SearchRequest searchRequest) {
+        try {
+            return roomService.findFreeRoomsInTheHotel(searchRequest);
+        } catch (RecordNotFoundException e) {
+            return emptySet();
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
 import com.dataart.tmurzenkov.cassandra.dao.RoomByGuestAndDateDao;
-import com.dataart.tmurzenkov.cassandra.dao.GuestDao;
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
 import com.dataart.tmurzenkov.cassandra.model.entity.Guest;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
@@ -33,12 +33,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.when;
-import static org.mockito.Mockito.doNothing;
 
 /**
  * UTs for the {@link GuestServiceImpl}.
@@ -52,7 +50,7 @@ public class GuestServiceTest {
     @Mock
     private GuestValidatorServiceImpl validatorService;
     @Mock
-    private GuestDao guestDao;
+    private ConditionalInsertDao conditionalInsertDao;
 
     @Mock
     private RoomByGuestAndDateDao byGuestAndDateDao;
@@ -127,15 +125,15 @@ public class GuestServiceTest {
         expectedGuest.setFirstName("Test name");
         expectedGuest.setLastName("Test last name");
 
-        when(guestDao.insert(eq(expectedGuest))).thenReturn(expectedGuest);
-        doNothing().when(validatorService).checkIfExists(eq(expectedGuest));
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedGuest))).thenReturn(true);
+        doCallRealMethod().when(validatorService).checkIfInserted(eq(expectedGuest), eq(true));
         doCallRealMethod().when(validatorService).validateInfo(eq(expectedGuest));
 
         Guest actualGuest = sut.registerNewGuest(expectedGuest);
 
-        verify(guestDao).insert(eq(expectedGuest));
+        verify(conditionalInsertDao).insertIfNotExists(eq(expectedGuest));
         verify(validatorService).validateInfo(eq(expectedGuest));
-        verify(validatorService).checkIfExists(eq(expectedGuest));
+        verify(validatorService).checkIfInserted(eq(expectedGuest), eq(true));
         assertEquals(actualGuest, expectedGuest);
     }
 
@@ -150,13 +148,10 @@ public class GuestServiceTest {
                 + "Guest id: '%s', name: '%s', surname: '%s'", guestId, expectedGuest.getFirstName(), expectedGuest.getLastName());
         thrown.expect(RecordExistsException.class);
         thrown.expectMessage(exceptionMessage);
-        doThrow(new RecordExistsException(exceptionMessage)).when(validatorService).checkIfExists(eq(expectedGuest));
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedGuest))).thenReturn(false);
+        doCallRealMethod().when(validatorService).checkIfInserted(eq(expectedGuest), eq(false));
 
         sut.registerNewGuest(expectedGuest);
-
-        verify(validatorService).checkIfExists(eq(expectedGuest));
-        verify(guestDao).exists(eq(expectedGuest.getCompositeId()));
-        verify(guestDao, never()).insert(any());
     }
 
     private List<RoomByGuestAndDate> generateRooms(UUID guestId, LocalDate bookingDate, Integer roomsFound) {
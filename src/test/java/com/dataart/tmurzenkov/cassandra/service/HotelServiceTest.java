@@ -1,12 +1,22 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
 import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelByGeohashDao;
 import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelByGeohashDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.NearbyHotel;
+import com.dataart.tmurzenkov.cassandra.model.dto.ProximitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
 import com.dataart.tmurzenkov.cassandra.model.entity.Address;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
 import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByGeohash;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.TypeaheadIndex;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.HotelServiceImpl;
 import com.dataart.tmurzenkov.cassandra.service.impl.validation.HotelValidatorServiceImpl;
 import org.junit.Rule;
@@ -17,16 +27,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildAddress;
 import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildHotel;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.CELL_PRECISION;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.countCoveringCells;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -35,8 +56,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.never;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
  * UTs for the {@link HotelServiceImpl}.
@@ -53,10 +75,22 @@ public class HotelServiceTest {
     private HotelDao hotelDao;
     @Mock
     private HotelByCityDao hotelByCityDao;
+    @Mock
+    private HotelByGeohashDao hotelByGeohashDao;
+    @Mock
+    private ConditionalInsertDao conditionalInsertDao;
+    @Spy
+    private ResourceVersions resourceVersions = new ResourceVersions();
     @Captor
     private ArgumentCaptor<HotelByCity> hotelByCityArgumentCaptor;
     @Captor
     private ArgumentCaptor<Hotel> hotelArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<HotelByGeohash> hotelByGeohashArgumentCaptor;
+    @Spy
+    private ExistenceFilters existenceFilters = new ExistenceFilters();
+    @Spy
+    private TypeaheadIndex typeaheadIndex = new TypeaheadIndex();
     @InjectMocks
     private HotelServiceImpl sut;
 
@@ -67,14 +101,16 @@ public class HotelServiceTest {
         final Hotel expectedHotelToAdd = buildHotel(hotelId, hotelAddress);
         final HotelByCity expectedHotelByCity = new HotelByCity(expectedHotelToAdd);
 
-        when(hotelDao.insert(eq(expectedHotelToAdd))).thenReturn(expectedHotelToAdd);
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedHotelToAdd))).thenReturn(true);
         when(hotelByCityDao.insert(eq(expectedHotelByCity))).thenReturn(expectedHotelByCity);
 
         final Hotel actualHotelToAdd = sut.addHotel(expectedHotelToAdd);
 
-        verify(hotelDao).insert(hotelArgumentCaptor.capture());
+        verify(conditionalInsertDao).insertIfNotExists(hotelArgumentCaptor.capture());
         verify(hotelByCityDao).insert(hotelByCityArgumentCaptor.capture());
-        verify(validatorService).checkIfExists(eq(expectedHotelToAdd));
+        verify(validatorService).checkIfInserted(eq(expectedHotelToAdd), eq(true));
+        verify(hotelDao, never()).exists(any());
+        verify(resourceVersions).cityChanged(eq(hotelAddress.getCity()));
 
         final HotelByCity actualHotelByCity = hotelByCityArgumentCaptor.getValue();
         assertEquals(expectedHotelByCity, actualHotelByCity);
@@ -82,6 +118,91 @@ public class HotelServiceTest {
         assertEquals(hotelArgumentCaptor.getValue(), actualHotelToAdd);
     }
 
+    @Test
+    public void shouldStoreHotelWithCoordinatesInHotelByGeohashTable() {
+        final Hotel hotel = buildHotelAt(57.64911, 10.40744);
+
+        when(conditionalInsertDao.insertIfNotExists(eq(hotel))).thenReturn(true);
+
+        sut.addHotel(hotel);
+
+        verify(hotelByGeohashDao).insert(hotelByGeohashArgumentCaptor.capture());
+        assertEquals("u4pru", hotelByGeohashArgumentCaptor.getValue().getGeohash());
+        assertEquals(hotel.getId(), hotelByGeohashArgumentCaptor.getValue().getId());
+    }
+
+    @Test
+    public void shouldNotStoreHotelWithoutCoordinatesInHotelByGeohashTable() {
+        final Hotel hotel = buildHotel(UUID.randomUUID(), buildAddress());
+
+        when(conditionalInsertDao.insertIfNotExists(eq(hotel))).thenReturn(true);
+
+        sut.addHotel(hotel);
+
+        verify(hotelByGeohashDao, never()).insert(any(HotelByGeohash.class));
+    }
+
+    @Test
+    public void shouldRankTheHotelsNearThePointByTheDistance() {
+        final Hotel nearest = buildHotelAt(50.46, 30.52);
+        final Hotel second = buildHotelAt(50.42, 30.52);
+        final Hotel third = buildHotelAt(50.45, 30.60);
+        initNearbyHotels(nearest, second, third);
+
+        when(hotelDao.findHotelInformationByIds(eq(asList(nearest.getId(), second.getId()))))
+                .thenReturn(asList(second, nearest));
+
+        final List<NearbyHotel> nearbyHotels = sut.findHotelsNearby(new ProximitySearchRequest(50.45, 30.52, 2));
+
+        assertEquals(asList(nearest, second), nearbyHotels.stream().map(NearbyHotel::getHotel).collect(toList()));
+        assertEquals(1.1, nearbyHotels.get(0).getDistanceKm(), 0.05);
+        assertEquals(3.3, nearbyHotels.get(1).getDistanceKm(), 0.05);
+    }
+
+    @Test
+    public void shouldWidenTheRadiusOfTheSearchUpToTheMaxOne() {
+        final Hotel near = buildHotelAt(50.46, 30.52);
+        final Hotel farther = buildHotelAt(50.58, 30.52);
+        final Hotel beyondTheMaxRadius = buildHotelAt(50.95, 30.52);
+        initNearbyHotels(near, farther, beyondTheMaxRadius);
+
+        when(hotelDao.findHotelInformationByIds(eq(asList(near.getId(), farther.getId())))).thenReturn(asList(near, farther));
+
+        final List<NearbyHotel> nearbyHotels = sut.findHotelsNearby(new ProximitySearchRequest(50.45, 30.52, 10));
+
+        assertEquals(asList(near, farther), nearbyHotels.stream().map(NearbyHotel::getHotel).collect(toList()));
+    }
+
+    @Test
+    public void shouldNotWidenTheRadiusOfTheSearchBeyondTheMaxCells() {
+        final Hotel near = buildHotelAt(50.46, 30.52);
+        final Hotel farther = buildHotelAt(50.58, 30.52);
+        initNearbyHotels(near, farther);
+        setField(sut, "nearbyMaxCells", (int) countCoveringCells(50.45, 30.52, 5, CELL_PRECISION));
+
+        when(hotelDao.findHotelInformationByIds(eq(singletonList(near.getId())))).thenReturn(singletonList(near));
+
+        final List<NearbyHotel> nearbyHotels = sut.findHotelsNearby(new ProximitySearchRequest(50.45, 30.52, 10));
+
+        assertEquals(singletonList(near), nearbyHotels.stream().map(NearbyHotel::getHotel).collect(toList()));
+    }
+
+    @Test
+    public void shouldRejectTheSearchNearThePole() {
+        initNearbyHotels(buildHotelAt(89.99, 0));
+        thrown.expect(IllegalArgumentException.class);
+
+        sut.findHotelsNearby(new ProximitySearchRequest(89.99, 0d, 10));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoHotelsWereFoundWithinTheMaxRadius() {
+        initNearbyHotels(buildHotelAt(50.95, 30.52));
+        thrown.expect(RecordNotFoundException.class);
+
+        sut.findHotelsNearby(new ProximitySearchRequest(50.45, 30.52, 10));
+    }
+
     @Test
     public void shouldThrowExceptionIfSuchHotelExists() {
         final UUID hotelId = UUID.randomUUID();
@@ -89,14 +210,12 @@ public class HotelServiceTest {
         final Hotel expectedHotelToAdd = buildHotel(hotelId, hotelAddress);
         final String message = format("Such hotel information is already added to the data base '%s'", expectedHotelToAdd);
 
-        doThrow(new RecordExistsException(message)).when(validatorService).checkIfExists(eq(expectedHotelToAdd));
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedHotelToAdd))).thenReturn(false);
+        doCallRealMethod().when(validatorService).checkIfInserted(eq(expectedHotelToAdd), eq(false));
         thrown.expectMessage(message);
         thrown.expect(RecordExistsException.class);
 
         sut.addHotel(expectedHotelToAdd);
-
-        verify(hotelDao, never()).insert(any());
-        verify(hotelByCityDao).insert(any());
     }
 
     @Test
@@ -119,6 +238,80 @@ public class HotelServiceTest {
         assertTrue(expectedHotels.containsAll(actualAllHotelsInTheCity));
     }
 
+    @Test
+    public void shouldReadEveryHotelInTheCityByItselfWhenTheReadsAreParallel() {
+        final String cityName = "London";
+        final List<Hotel> expectedHotels = buildHotelList(cityName);
+        final AtomicInteger fannedOutReads = new AtomicInteger();
+        setField(sut, "parallelReads", true);
+        setField(sut, "fanOutTaskExecutor", (Executor) task -> {
+            fannedOutReads.incrementAndGet();
+            task.run();
+        });
+
+        when(hotelByCityDao.findAllHotelIdsInTheCity(eq(cityName))).thenReturn(buildHotelsByCity(expectedHotels));
+        expectedHotels.forEach(hotel -> when(hotelDao.findOne(eq(hotel.getId()))).thenReturn(hotel));
+
+        final List<Hotel> actualAllHotelsInTheCity = sut.findAllHotelsInTheCity(cityName);
+
+        verify(hotelDao, never()).findHotelInformationByIds(any());
+        assertEquals(expectedHotels, actualAllHotelsInTheCity);
+        assertEquals(expectedHotels.size(), fannedOutReads.get());
+    }
+
+    @Test
+    public void shouldSendTheReadsOfAllTheHotelsInTheCityAtOnceWhenTheSearchIsAsync() {
+        final String cityName = "London";
+        final List<Hotel> expectedHotels = buildHotelList(cityName);
+        final List<CompletableFuture<Hotel>> hotelReads = new ArrayList<>();
+        setField(sut, "parallelReads", true);
+
+        when(hotelByCityDao.findAllHotelIdsInTheCityAsync(eq(cityName))).thenReturn(completedFuture(buildHotelsByCity(expectedHotels)));
+        expectedHotels.forEach(hotel -> {
+            final CompletableFuture<Hotel> hotelRead = new CompletableFuture<>();
+            hotelReads.add(hotelRead);
+            when(hotelDao.findOneAsync(eq(hotel.getId()))).thenReturn(hotelRead);
+        });
+
+        final CompletableFuture<List<Hotel>> actualAllHotelsInTheCity = sut.findAllHotelsInTheCityAsync(cityName);
+        assertFalse(actualAllHotelsInTheCity.isDone());
+        for (int i = 0; i < expectedHotels.size(); i++) {
+            hotelReads.get(i).complete(expectedHotels.get(i));
+        }
+
+        verify(hotelDao, never()).findOne(any(UUID.class));
+        assertEquals(expectedHotels, actualAllHotelsInTheCity.join());
+    }
+
+    @Test
+    public void shouldStreamAllHotelsInTheCity() {
+        final String cityName = "London";
+        final List<Hotel> expectedHotels = buildHotelList(cityName);
+        final List<UUID> hotelIds = expectedHotels.stream().map(Hotel::getId).collect(toList());
+
+        when(hotelByCityDao.findAllHotelIdsInTheCity(eq(cityName))).thenReturn(buildHotelsByCity(expectedHotels));
+        when(hotelDao.streamHotelInformationByIds(eq(hotelIds))).thenReturn(expectedHotels.stream());
+
+        final List<Hotel> actualAllHotelsInTheCity = sut.streamAllHotelsInTheCity(cityName).collect(toList());
+
+        verify(hotelDao, never()).findHotelInformationByIds(any());
+        assertEquals(expectedHotels, actualAllHotelsInTheCity);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoHotelsWereStreamedInTheCity() {
+        final String cityName = "London";
+        final List<Hotel> expectedHotels = buildHotelList(cityName);
+        final List<UUID> hotelIds = expectedHotels.stream().map(Hotel::getId).collect(toList());
+
+        when(hotelByCityDao.findAllHotelIdsInTheCity(eq(cityName))).thenReturn(buildHotelsByCity(expectedHotels));
+        when(hotelDao.streamHotelInformationByIds(eq(hotelIds))).thenReturn(Stream.empty());
+        thrown.expectMessage(format("Cannot find hotels for the given city '%s'", cityName));
+        thrown.expect(RecordNotFoundException.class);
+
+        sut.streamAllHotelsInTheCity(cityName);
+    }
+
     @Test
     public void shouldThrowExceptionIfNoHotelsWereFoundInTheCity() {
         final String cityName = "London";
@@ -148,6 +341,27 @@ public class HotelServiceTest {
         sut.findAllHotelsInTheCity(cityName);
     }
 
+    @Test
+    public void shouldSuggestTheAddedHotelAndItsCity() {
+        final Hotel hotel = buildHotel(UUID.randomUUID(), buildAddress());
+
+        when(conditionalInsertDao.insertIfNotExists(eq(hotel))).thenReturn(true);
+
+        assertTrue(sut.suggest("hotel", 10).isEmpty());
+        sut.addHotel(hotel);
+
+        assertEquals(asList(new Suggestion(Suggestion.CITY, "City name", "City name", null)), sut.suggest("city", 10));
+        assertEquals(asList(new Suggestion(Suggestion.HOTEL, "Hotel name", "City name", hotel.getId())), sut.suggest("HOTEL N", 10));
+    }
+
+    @Test
+    public void shouldNotSuggestMoreThanTheMaxLimit() {
+        thrown.expectMessage("The limit of the suggestions must be from 1 to 50, but was 51");
+        thrown.expect(IllegalArgumentException.class);
+
+        sut.suggest("hotel", 51);
+    }
+
     private List<Hotel> buildHotelList(String cityName) {
         List<Hotel> hotels = new ArrayList<>();
         final Address address = new Address();
@@ -164,6 +378,20 @@ public class HotelServiceTest {
         return hotels;
     }
 
+    private Hotel buildHotelAt(double latitude, double longitude) {
+        final Address address = buildAddress();
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        return buildHotel(UUID.randomUUID(), address);
+    }
+
+    private void initNearbyHotels(Hotel... hotels) {
+        final InMemoryHotelByGeohashDao inMemoryHotelByGeohashDao = new InMemoryHotelByGeohashDao();
+        stream(hotels).map(HotelByGeohash::new).forEach(inMemoryHotelByGeohashDao::insert);
+        setField(sut, "hotelByGeohashDao", inMemoryHotelByGeohashDao);
+        setField(sut, "fanOutTaskExecutor", (Executor) Runnable::run);
+    }
+
     private List<HotelByCity> buildHotelsByCity(List<Hotel> hotels) {
         return hotels.stream().map(HotelByCity::new).collect(toList());
     }
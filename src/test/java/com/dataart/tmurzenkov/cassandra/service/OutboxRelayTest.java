@@ -0,0 +1,214 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryBookingOutboxDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryOutboxCheckpointDao;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent;
+import com.dataart.tmurzenkov.cassandra.model.entity.outbox.OutboxCheckpoint;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByGuestAndDate;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.EventSink;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.FileEventSink;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.InMemoryEventSink;
+import com.dataart.tmurzenkov.cassandra.service.impl.outbox.OutboxRelay;
+import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent.BUCKET_MILLIS;
+import static com.dataart.tmurzenkov.cassandra.model.entity.outbox.BookingEvent.bucketOf;
+import static java.time.ZoneOffset.UTC;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.data.cassandra.repository.support.BasicMapId.id;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link OutboxRelay}.
+ *
+ * @author tmurzenkov
+ */
+public class OutboxRelayTest {
+    private static final int BATCH_SIZE = 3;
+    private static final long BUCKET_START = bucketOf(System.currentTimeMillis()) * BUCKET_MILLIS;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private final InMemoryBookingOutboxDao bookingOutboxDao = new InMemoryBookingOutboxDao();
+    private final InMemoryOutboxCheckpointDao outboxCheckpointDao = new InMemoryOutboxCheckpointDao();
+    private final InMemoryEventSink sink = new InMemoryEventSink(100);
+    private final long now = BUCKET_START + SECONDS.toMillis(30);
+
+    /**
+     * Clears the outbox and the checkpoints.
+     */
+    @Before
+    public void init() {
+        bookingOutboxDao.deleteAll();
+        outboxCheckpointDao.deleteAll();
+    }
+
+    @Test
+    public void shouldPublishTheEventsOfAllTheBucketsInTheOrderOfTheirCreation() throws IOException {
+        final List<BookingEvent> events = IntStream.range(0, 7)
+                .mapToObj(index -> storeEvent(now - MINUTES.toMillis(3) + SECONDS.toMillis(20) * index))
+                .collect(toList());
+        final OutboxRelay sut = relay(sink);
+
+        assertEquals(7, sut.relay());
+        assertEquals(events, sink.drain(100));
+        assertEquals(0, sut.relay());
+        assertTrue(sink.drain(100).isEmpty());
+        assertEquals(7, sut.getStatistics().getPublished());
+        assertTrue(sut.getStatistics().getBatches() >= 3);
+    }
+
+    @Test
+    public void shouldNotPublishTheEventsWithinTheSettleTime() throws IOException {
+        final BookingEvent settled = storeEvent(now - SECONDS.toMillis(30));
+        final BookingEvent recent = storeEvent(now);
+        final OutboxRelay sut = relay(sink);
+        setField(sut, "settleMillis", SECONDS.toMillis(10));
+
+        sut.relay();
+        assertEquals(asList(settled), sink.drain(100));
+
+        setField(sut, "settleMillis", 0L);
+        sut.relay();
+        assertEquals(asList(recent), sink.drain(100));
+    }
+
+    @Test
+    public void shouldPublishTheFailedBatchAgain() throws IOException {
+        final List<BookingEvent> events = asList(storeEvent(now - SECONDS.toMillis(3)), storeEvent(now - SECONDS.toMillis(2)));
+        final AtomicInteger attempts = new AtomicInteger();
+        final OutboxRelay sut = relay(published -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("The disk is full");
+            }
+            sink.publish(published);
+        });
+
+        try {
+            sut.relay();
+            fail("The sink failed");
+        } catch (IOException e) {
+            assertTrue(sink.drain(100).isEmpty());
+        }
+        sut.relay();
+
+        assertEquals(events, sink.drain(100));
+    }
+
+    @Test
+    public void shouldResumeFromTheStoredCheckpoint() throws IOException {
+        final BookingEvent published = storeEvent(now - SECONDS.toMillis(3));
+        relay(sink).relay();
+        final BookingEvent next = storeEvent(now - SECONDS.toMillis(2));
+
+        relay(sink).relay();
+
+        assertEquals(asList(published, next), sink.drain(100));
+        final OutboxCheckpoint checkpoint = outboxCheckpointDao.findOne(id("relay", "booking-events"));
+        assertEquals(next.getEventId(), checkpoint.getEventId());
+    }
+
+    @Test
+    public void shouldPublishTheEventWrittenAfterTheRelayHadPassedIt() throws IOException {
+        final BookingEvent first = storeEvent(now - MINUTES.toMillis(3));
+        final BookingEvent passing = storeEvent(now - SECONDS.toMillis(1));
+        final OutboxRelay sut = relay(sink);
+        setField(sut, "rescanMillis", MINUTES.toMillis(1));
+        sut.relay();
+        final BookingEvent late = storeEvent(now - SECONDS.toMillis(2));
+        final BookingEvent next = storeEvent(now + SECONDS.toMillis(2));
+        sut.setClock(Clock.fixed(Instant.ofEpochMilli(now + SECONDS.toMillis(5)), UTC));
+
+        assertEquals(2, sut.relay());
+        assertEquals(0, sut.relay());
+
+        assertEquals(asList(first, passing, late, next), sink.drain(100));
+        assertEquals(next.getEventId(), outboxCheckpointDao.findOne(id("relay", "booking-events")).getEventId());
+    }
+
+    @Test
+    public void shouldNotPublishTheEventWrittenLaterThanTheRescanTime() throws IOException {
+        final BookingEvent published = storeEvent(now - MINUTES.toMillis(3));
+        final OutboxRelay sut = relay(sink);
+        setField(sut, "rescanMillis", MINUTES.toMillis(1));
+        sut.relay();
+        sut.setClock(Clock.fixed(Instant.ofEpochMilli(now + MINUTES.toMillis(3)), UTC));
+        final BookingEvent late = storeEvent(now - MINUTES.toMillis(1));
+        final BookingEvent next = storeEvent(now + MINUTES.toMillis(1));
+
+        sut.relay();
+
+        assertEquals(asList(published, next), sink.drain(100));
+        assertEquals(asList(late), bookingOutboxDao.findEventsAfter(bucketOf(now - MINUTES.toMillis(1)), UUIDs.startOf(0),
+                late.getEventId(), 100));
+    }
+
+    @Test
+    public void shouldFailToPublishIntoTheFullQueue() {
+        final InMemoryEventSink fullSink = new InMemoryEventSink(1);
+
+        try {
+            fullSink.publish(asList(storeEvent(now), storeEvent(now + 1)));
+            fail("The queue is full");
+        } catch (IOException e) {
+            assertTrue(fullSink.drain(1).isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldAppendTheEventsToTheFileOnePerLine() throws IOException {
+        final Path file = temporaryFolder.getRoot().toPath().resolve("booking-events.ndjson");
+        final FileEventSink fileSink = new FileEventSink(file, new ObjectMapper());
+        final BookingEvent first = storeEvent(now);
+        final BookingEvent second = storeEvent(now + 1);
+
+        fileSink.publish(asList(first));
+        fileSink.publish(asList(second));
+
+        final List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains(first.getEventId().toString()));
+        assertTrue(lines.get(1).contains(second.getEventId().toString()));
+        assertTrue(lines.get(1).contains("\"bookingDate\":\"" + second.getBookingDate() + "\""));
+    }
+
+    private OutboxRelay relay(EventSink eventSink) {
+        final OutboxRelay relay = new OutboxRelay();
+        setField(relay, "bookingOutboxDao", bookingOutboxDao);
+        setField(relay, "outboxCheckpointDao", outboxCheckpointDao);
+        setField(relay, "bookingEventSink", eventSink);
+        setField(relay, "batchSize", BATCH_SIZE);
+        setField(relay, "settleMillis", 0L);
+        setField(relay, "rescanMillis", 0L);
+        relay.setClock(Clock.fixed(Instant.ofEpochMilli(now), UTC));
+        return relay;
+    }
+
+    private BookingEvent storeEvent(long epochMillis) {
+        final RoomByGuestAndDate booking = new RoomByGuestAndDate(randomUUID(), LocalDate.now(), 1);
+        booking.setHotelId(randomUUID());
+        booking.setConfirmationNumber("42");
+        return bookingOutboxDao.insert(new BookingEvent(booking, UUIDs.startOf(epochMillis)));
+    }
+}
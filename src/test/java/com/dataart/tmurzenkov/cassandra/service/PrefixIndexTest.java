@@ -0,0 +1,88 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.PrefixIndex;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UTs for the {@link PrefixIndex}.
+ *
+ * @author tmurzenkov
+ */
+public class PrefixIndexTest {
+    private static final int VALUES = 10000;
+    private final PrefixIndex<String> sut = new PrefixIndex<>("names", Function.identity());
+
+    @Test
+    public void shouldFindValuesByThePrefixInTheOrderOfTheirText() {
+        sut.rebuild(asList("London", "Lisbon", "Lviv", "Los Angeles", "Kyiv"));
+
+        assertEquals(asList("Lisbon", "London", "Los Angeles"), sut.find("l", 3));
+        assertEquals(asList("London", "Los Angeles"), sut.find("Lo", 10));
+        assertEquals(singletonList("Kyiv"), sut.find("kyiv", 10));
+        assertTrue(sut.find("Paris", 10).isEmpty());
+        assertTrue(sut.find(" ", 10).isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreCaseDiacriticsAndExtraWhitespaces() {
+        sut.put("Zürich");
+        sut.put("Hotel  Crillon ");
+
+        assertEquals(singletonList("Zürich"), sut.find("ZUR", 10));
+        assertEquals(singletonList("Hotel  Crillon "), sut.find(" hotel cr", 10));
+    }
+
+    @Test
+    public void shouldNotDuplicateEqualValues() {
+        sut.rebuild(asList("Lviv", "Lviv"));
+        sut.put("Lviv");
+        sut.put("LVIV");
+
+        assertEquals(asList("Lviv", "LVIV"), sut.find("lv", 10));
+        assertEquals(2, sut.size());
+    }
+
+    @Test
+    public void shouldKeepTheIndexIfTheValuesCannotBeRead() {
+        sut.put("Lviv");
+
+        sut.rebuild(() -> {
+            throw new IllegalStateException("No host available");
+        });
+
+        assertEquals(singletonList("Lviv"), sut.find("lv", 10));
+    }
+
+    @Test
+    public void shouldFindEveryValuePutConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> puts = IntStream.range(0, VALUES)
+                    .mapToObj(number -> executor.submit(() -> sut.put(String.format("hotel %05d", number))))
+                    .collect(toList());
+            for (Future<?> put : puts) {
+                put.get(10, SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(VALUES, sut.size());
+        assertEquals(asList("hotel 00100", "hotel 00101"), sut.find("hotel 001", 2));
+        assertEquals(VALUES / 10, sut.find("hotel 09", VALUES).size());
+    }
+}
@@ -0,0 +1,49 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ResourceVersions;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * UTs for the {@link ResourceVersions}.
+ *
+ * @author tmurzenkov
+ */
+public class ResourceVersionsTest {
+    private final ResourceVersions sut = new ResourceVersions();
+
+    @Test
+    public void shouldChangeTheTagAfterTheLocalWrite() {
+        final UUID guestId = UUID.randomUUID();
+        final String cityTag = sut.cityTag("London");
+        final String guestTag = sut.guestTag(guestId);
+
+        sut.cityChanged("London");
+        sut.guestChanged(guestId);
+
+        assertNotEquals(cityTag, sut.cityTag("London"));
+        assertNotEquals(guestTag, sut.guestTag(guestId));
+        assertEquals(sut.cityTag("Paris"), sut.cityTag("Paris"));
+    }
+
+    @Test
+    public void shouldNotMatchTheTagsOfAnotherInstance() {
+        final ResourceVersions anotherInstance = new ResourceVersions();
+
+        assertNotEquals(anotherInstance.cityTag("London"), sut.cityTag("London"));
+    }
+
+    @Test
+    public void shouldNotSeeTheWritesServedByAnotherInstance() {
+        final ResourceVersions anotherInstance = new ResourceVersions();
+        final String tag = sut.cityTag("London");
+
+        anotherInstance.cityChanged("London");
+
+        assertEquals("The tags hold only with the sticky sessions", tag, sut.cityTag("London"));
+    }
+}
@@ -1,40 +1,71 @@
 package com.dataart.tmurzenkov.cassandra.service;
 
+import com.dataart.tmurzenkov.cassandra.dao.ConditionalInsertDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelByCityDao;
 import com.dataart.tmurzenkov.cassandra.dao.HotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelInventoryDao;
+import com.dataart.tmurzenkov.cassandra.dao.HotelOccupancyDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomByHotelAndDateDao;
 import com.dataart.tmurzenkov.cassandra.dao.RoomDao;
+import com.dataart.tmurzenkov.cassandra.dao.impl.RoomByHotelAndDateRouter;
+import com.dataart.tmurzenkov.cassandra.model.dto.CitySearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.BookingRequest;
+import com.dataart.tmurzenkov.cassandra.model.dto.HotelAvailability;
 import com.dataart.tmurzenkov.cassandra.model.dto.SearchRequest;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.HotelByCity;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
 import com.dataart.tmurzenkov.cassandra.model.entity.room.RoomByHotelAndDate;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordExistsException;
 import com.dataart.tmurzenkov.cassandra.model.exception.RecordNotFoundException;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.ExistenceFilters;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.FreeRoomsCache;
 import com.dataart.tmurzenkov.cassandra.service.impl.service.RoomServiceImpl;
 import com.dataart.tmurzenkov.cassandra.service.impl.validation.RoomValidatorServiceImpl;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.dataart.tmurzenkov.cassandra.TestUtils.GuestTestUtils.buildRoomsInHotelAndDate;
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.MAX_ROOM_NUMBER;
+import static com.dataart.tmurzenkov.cassandra.model.entity.room.HotelOccupancy.roomBitmap;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 
 /**
@@ -51,12 +82,34 @@ public class RoomServiceTest {
     @Mock
     private RoomByHotelAndDateDao roomByHotelAndDateDao;
     @Mock
+    private RoomByHotelAndDateRouter roomByHotelAndDateRouter;
+    @Mock
     private HotelDao hotelDao;
     @Mock
     private RoomDao roomDao;
+    @Mock
+    private ConditionalInsertDao conditionalInsertDao;
+    @Mock
+    private HotelOccupancyDao hotelOccupancyDao;
+    @Mock
+    private HotelInventoryDao hotelInventoryDao;
+    @Mock
+    private HotelByCityDao hotelByCityDao;
+    @Spy
+    private FreeRoomsCache freeRoomsCache = new FreeRoomsCache();
+    @Spy
+    private ExistenceFilters existenceFilters = new ExistenceFilters();
     @InjectMocks
     private RoomServiceImpl sut;
 
+    /**
+     * Runs the fanned out reads on the calling thread.
+     */
+    @Before
+    public void init() {
+        setField(sut, "fanOutTaskExecutor", (Executor) Runnable::run);
+    }
+
     @Test
     public void shouldAddNewRoomToHotel() {
         final UUID hotelId = UUID.randomUUID();
@@ -64,13 +117,16 @@ public class RoomServiceTest {
         final Room expectedRoom = new Room(hotelId, roomNumber);
 
         doNothing().when(validatorService).validateInfo(eq(expectedRoom));
-        doNothing().when(validatorService).checkIfExists(eq(expectedRoom));
-        when(roomDao.insert(eq(expectedRoom))).thenReturn(expectedRoom);
+        doNothing().when(validatorService).checkReferences(eq(expectedRoom));
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedRoom))).thenReturn(true);
 
         final Room actualAddedRoom = sut.addRoomToHotel(expectedRoom);
         verify(validatorService).validateInfo(eq(expectedRoom));
-        verify(validatorService).checkIfExists(eq(expectedRoom));
-        verify(roomDao).insert(eq(expectedRoom));
+        verify(validatorService).checkReferences(eq(expectedRoom));
+        verify(validatorService).checkIfInserted(eq(expectedRoom), eq(true));
+        verify(conditionalInsertDao).insertIfNotExists(eq(expectedRoom));
+        verify(hotelInventoryDao).addRooms(eq(hotelId), eq(1L));
+        verify(roomDao, never()).exists(any());
         assertEquals(expectedRoom, actualAddedRoom);
     }
 
@@ -87,7 +143,7 @@ public class RoomServiceTest {
         final Room actualRoomByHotelAndDate = sut.addRoomToHotel(expectedRoom);
 
         verify(roomByHotelAndDateDao, never()).insert(any());
-        verify(validatorService).checkIfExists(eq(expectedRoom));
+        verify(validatorService).checkReferences(eq(expectedRoom));
         assertEquals(expectedRoom, actualRoomByHotelAndDate);
     }
 
@@ -98,14 +154,15 @@ public class RoomServiceTest {
         final Room expectedRoom = new Room(hotelId, roomNumber);
         final String exceptionMessage = format("The room is already inserted in DB. Room info '%s'", expectedRoom);
 
-        doThrow(new RecordExistsException(exceptionMessage)).when(validatorService).checkIfExists(eq(expectedRoom));
+        when(conditionalInsertDao.insertIfNotExists(eq(expectedRoom))).thenReturn(false);
+        doCallRealMethod().when(validatorService).checkIfInserted(eq(expectedRoom), eq(false));
 
         thrown.expectMessage(exceptionMessage);
         thrown.expect(RecordExistsException.class);
         final Room actualRoomByHotelAndDate = sut.addRoomToHotel(expectedRoom);
 
         verify(roomByHotelAndDateDao, never()).insert(any());
-        verify(validatorService).checkIfExists(eq(expectedRoom));
+        verify(validatorService).checkIfInserted(eq(expectedRoom), eq(false));
         assertEquals(expectedRoom, actualRoomByHotelAndDate);
     }
 
@@ -154,6 +211,25 @@ public class RoomServiceTest {
         verify(roomByHotelAndDateDao, never()).insert(any());
     }
 
+    @Test
+    public void shouldNotAddNewRoomWithTheNumberTheOccupancyBitmapCannotHold() {
+        final UUID hotelId = UUID.randomUUID();
+        for (int roomNumber : new int[]{-1, MAX_ROOM_NUMBER + 1}) {
+            final Room room = new Room(hotelId, roomNumber);
+            doCallRealMethod().when(validatorService).validateInfo(eq(room));
+
+            try {
+                sut.addRoomToHotel(room);
+                fail(format("The room number %d is out of the bitmap", roomNumber));
+            } catch (IllegalArgumentException e) {
+                assertEquals(format("Cannot add the the room with number '%d'. The room number must be within 1..%d. ", roomNumber,
+                        MAX_ROOM_NUMBER), e.getMessage());
+            }
+        }
+
+        verify(conditionalInsertDao, never()).insertIfNotExists(any());
+    }
+
     @Test
     public void shouldThrowExceptionIfNoFreeRoomsWereFoundInTheHotel() {
         final UUID hotelId = UUID.randomUUID();
@@ -179,7 +255,7 @@ public class RoomServiceTest {
         Set<Room> allRooms = buildRoomsForHotel(hotelId, 6);
 
         when(roomDao.findAllRoomsByHotelId(eq(hotelId))).thenReturn(allRooms);
-        when(roomByHotelAndDateDao.findAllRoomsForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end)))
+        when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end)))
                 .thenReturn(roomsByHotelAndDate);
 
         final Set<Room> freeRoomsInTheHotel = sut.findFreeRoomsInTheHotel(searchRequest);
@@ -190,6 +266,185 @@ public class RoomServiceTest {
         assertTrue(freeRoomsInTheHotel.containsAll(allRooms));
     }
 
+    @Test
+    public void shouldFindFreeRoomsInTheHotelByTheOccupancyBitmaps() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(1);
+        final BitSet secondNight = roomBitmap(2);
+        secondNight.set(5);
+        setField(sut, "occupancyReads", true);
+        when(roomDao.findAllRoomsByHotelId(eq(hotelId))).thenReturn(buildRoomsForHotel(hotelId, 6));
+        when(hotelOccupancyDao.findAllForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end))).thenReturn(asList(
+                new HotelOccupancy(hotelId, start, roomBitmap(1)), new HotelOccupancy(hotelId, end, secondNight)));
+
+        final Set<Room> freeRoomsInTheHotel = sut.findFreeRoomsInTheHotel(new SearchRequest(start, end, hotelId));
+
+        assertEquals(Stream.of(3, 4, 6).map(roomNumber -> new Room(hotelId, roomNumber)).collect(toSet()), freeRoomsInTheHotel);
+        verify(roomByHotelAndDateRouter, never()).findAllRoomsForHotelIdAndPeriod(any(), any(), any());
+    }
+
+    @Test
+    public void shouldFindFreeRoomsInTheHotelAsynchronouslyByTheOccupancyBitmaps() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(1);
+        setField(sut, "occupancyReads", true);
+        when(roomDao.findAllRoomsByHotelIdAsync(eq(hotelId))).thenReturn(completedFuture(buildRoomsForHotel(hotelId, 3)));
+        when(hotelOccupancyDao.findAllForHotelIdAndPeriodAsync(eq(hotelId), eq(start), eq(end))).thenReturn(completedFuture(asList(
+                new HotelOccupancy(hotelId, start, roomBitmap(1)), new HotelOccupancy(hotelId, end, roomBitmap(3)))));
+
+        final Set<Room> freeRoomsInTheHotel = sut.findFreeRoomsInTheHotelAsync(new SearchRequest(start, end, hotelId)).join();
+
+        assertEquals(singleton(new Room(hotelId, 2)), freeRoomsInTheHotel);
+        verify(roomDao, never()).findAllRoomsByHotelId(any());
+        verify(hotelOccupancyDao, never()).findAllForHotelIdAndPeriod(any(), any(), any());
+    }
+
+    @Test
+    public void shouldFailTheAsyncSearchIfNoFreeRoomsWereFoundInTheHotel() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final SearchRequest searchRequest = new SearchRequest(start, start.plusDays(1), hotelId);
+        final Set<RoomByHotelAndDate> roomsByHotelAndDate = buildRoomsInHotelAndDate(hotelId, start, 3);
+        when(roomDao.findAllRoomsByHotelIdAsync(eq(hotelId)))
+                .thenReturn(completedFuture(roomsByHotelAndDate.stream().map(Room::new).collect(toSet())));
+        when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriodAsync(eq(hotelId), eq(start), eq(start.plusDays(1))))
+                .thenReturn(completedFuture(roomsByHotelAndDate));
+
+        try {
+            sut.findFreeRoomsInTheHotelAsync(searchRequest).join();
+            fail("All the rooms are booked");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RecordNotFoundException);
+        }
+    }
+
+    @Test
+    public void shouldStreamFreeRoomsInTheHotel() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(3);
+        final SearchRequest searchRequest = new SearchRequest(start, end, hotelId);
+        final Set<RoomByHotelAndDate> roomsByHotelAndDate = buildRoomsInHotelAndDate(hotelId, start, 3);
+        final Set<Room> allRooms = buildRoomsForHotel(hotelId, 6);
+
+        when(roomDao.streamAllRoomsByHotelId(eq(hotelId))).thenReturn(allRooms.stream());
+        when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end)))
+                .thenReturn(roomsByHotelAndDate);
+
+        final Set<Room> freeRoomsInTheHotel = sut.streamFreeRoomsInTheHotel(searchRequest).collect(toSet());
+        allRooms.removeAll(roomsByHotelAndDate.stream().map(Room::new).collect(toSet()));
+
+        assertEquals(allRooms, freeRoomsInTheHotel);
+        verify(roomDao, never()).findAllRoomsByHotelId(any());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoFreeRoomsWereStreamedInTheHotel() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final SearchRequest searchRequest = new SearchRequest(start, start.plusDays(3), hotelId);
+
+        when(roomDao.streamAllRoomsByHotelId(eq(hotelId))).thenReturn(Stream.empty());
+        thrown.expectMessage(format("No free rooms were found for the given request '%s'", searchRequest));
+        thrown.expect(RecordNotFoundException.class);
+
+        sut.streamFreeRoomsInTheHotel(searchRequest);
+    }
+
+    @Test
+    public void shouldFindTheHotelSoldOutByTheRoomsBookedOnDifferentNights() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(1);
+        setField(sut, "occupancyReads", true);
+        when(hotelInventoryDao.countRooms(eq(hotelId))).thenReturn(2L);
+        when(hotelOccupancyDao.findAllForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end))).thenReturn(asList(
+                new HotelOccupancy(hotelId, start, roomBitmap(1)), new HotelOccupancy(hotelId, end, roomBitmap(2))));
+
+        final HotelAvailability availability = sut.findAvailability(new SearchRequest(start, end, hotelId));
+
+        assertEquals(2, availability.getRooms());
+        assertEquals(0, availability.getFreeRooms());
+        assertTrue(availability.isSoldOut());
+        verify(roomDao, never()).findAllRoomsByHotelId(any());
+    }
+
+    @Test
+    public void shouldFindTheHotelSoldOutByTheBookingsOfDifferentRoomsOnDifferentNights() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(1);
+        final Set<RoomByHotelAndDate> bookedRooms = new HashSet<>(asList(
+                new RoomByHotelAndDate(new BookingRequest(UUID.randomUUID(), hotelId, 1, start)),
+                new RoomByHotelAndDate(new BookingRequest(UUID.randomUUID(), hotelId, 2, end))));
+        when(roomDao.findAllRoomsByHotelId(eq(hotelId))).thenReturn(buildRoomsForHotel(hotelId, 2));
+        when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end))).thenReturn(bookedRooms);
+
+        final HotelAvailability availability = sut.findAvailability(new SearchRequest(start, end, hotelId));
+
+        assertEquals(2, availability.getRooms());
+        assertTrue(availability.isSoldOut());
+    }
+
+    @Test
+    public void shouldCountTheFreeRoomsByTheBookingsUntilTheCountersAreRebuilt() {
+        final UUID hotelId = UUID.randomUUID();
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(3);
+        final Set<RoomByHotelAndDate> bookedRooms = buildRoomsInHotelAndDate(hotelId, start, 3);
+        bookedRooms.addAll(buildRoomsInHotelAndDate(hotelId, end, 1));
+        when(roomDao.findAllRoomsByHotelId(eq(hotelId))).thenReturn(buildRoomsForHotel(hotelId, 6));
+        when(roomByHotelAndDateRouter.findAllRoomsForHotelIdAndPeriod(eq(hotelId), eq(start), eq(end))).thenReturn(bookedRooms);
+
+        final HotelAvailability availability = sut.findAvailability(new SearchRequest(start, end, hotelId));
+
+        assertEquals(6, availability.getRooms());
+        assertEquals(3, availability.getFreeRooms());
+        assertFalse(availability.isSoldOut());
+        verify(hotelInventoryDao, never()).countRooms(any());
+    }
+
+    @Test
+    public void shouldRankTheHotelsInTheCityByTheFreeRooms() {
+        final LocalDate start = LocalDate.now();
+        final LocalDate end = start.plusDays(1);
+        final UUID soldOut = UUID.randomUUID();
+        final UUID empty = UUID.randomUUID();
+        setField(sut, "occupancyReads", true);
+        when(hotelByCityDao.findAllHotelIdsInTheCity(eq("Kharkiv"))).thenReturn(asList(hotelByCity(soldOut), hotelByCity(empty)));
+        when(hotelInventoryDao.countRooms(any())).thenReturn(4L);
+        final BitSet allRooms = new BitSet();
+        allRooms.set(1, 5);
+        when(hotelOccupancyDao.findAllForHotelIdAndPeriod(eq(soldOut), eq(start), eq(end)))
+                .thenReturn(asList(new HotelOccupancy(soldOut, end, allRooms)));
+        when(hotelOccupancyDao.findAllForHotelIdAndPeriod(eq(empty), eq(start), eq(end))).thenReturn(emptyList());
+
+        final List<HotelAvailability> ranking = sut.rankHotelsInTheCity(new CitySearchRequest("Kharkiv", start, end));
+
+        assertEquals(asList(empty, soldOut), ranking.stream().map(HotelAvailability::getHotelId).collect(toList()));
+        assertEquals(asList(4L, 0L), ranking.stream().map(HotelAvailability::getFreeRooms).collect(toList()));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoHotelsAreInTheCity() {
+        final LocalDate start = LocalDate.now();
+        final CitySearchRequest searchRequest = new CitySearchRequest("Kharkiv", start, start.plusDays(1));
+
+        thrown.expectMessage(format("No hotels were found for the given request '%s'", searchRequest));
+        thrown.expect(RecordNotFoundException.class);
+
+        sut.rankHotelsInTheCity(searchRequest);
+    }
+
+    private HotelByCity hotelByCity(final UUID hotelId) {
+        final HotelByCity hotelByCity = new HotelByCity();
+        hotelByCity.setId(hotelId);
+        hotelByCity.setCityName("Kharkiv");
+        return hotelByCity;
+    }
+
     private Set<Room> buildRoomsForHotel(final UUID hotelId, final int i) {
         return IntStream.range(1, i + 1).mapToObj(idx -> new Room(hotelId, idx)).collect(toSet());
     }
@@ -0,0 +1,104 @@
+package com.dataart.tmurzenkov.cassandra.service;
+
+import com.dataart.tmurzenkov.cassandra.controller.HotelController;
+import com.dataart.tmurzenkov.cassandra.controller.RoomController;
+import com.dataart.tmurzenkov.cassandra.model.entity.room.Room;
+import com.dataart.tmurzenkov.cassandra.service.impl.ServiceResourceAssembler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.RoomTestUtils.buildSetOfRooms;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * UTs for the {@link ServiceResourceAssembler}.
+ *
+ * @author tmurzenkov
+ */
+public class ServiceResourceAssemblerTest {
+    private final ServiceResourceAssembler<Room, Object> sut = new ServiceResourceAssembler<>();
+
+    /**
+     * Binds the mocked request, the links are built relatively to it.
+     */
+    @Before
+    public void init() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    /**
+     * Unbinds the mocked request.
+     */
+    @After
+    public void cleanUp() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldReturnTheSameAssemblerForTheSameController() {
+        final ServiceResourceAssembler<Room, Object> roomAssembler = sut.withController(RoomController.class);
+
+        assertSame(roomAssembler, sut.withController(RoomController.class));
+        assertSame(roomAssembler, roomAssembler.withController(RoomController.class));
+        assertNotSame(roomAssembler, sut.withController(HotelController.class));
+        assertSame(sut.withController(HotelController.class), roomAssembler.withController(HotelController.class));
+    }
+
+    @Test
+    public void shouldBuildTheSameSelfLinksAsTheLinkBuilder() {
+        final UUID hotelId = randomUUID();
+        final Set<Room> rooms = buildSetOfRooms(10, hotelId);
+        final Link expectedLink = linkTo(RoomController.class).slash(hotelId).withSelfRel();
+
+        final List<Resource<Room>> resources = sut.withController(RoomController.class).toResource(rooms);
+
+        assertEquals(rooms.size(), resources.size());
+        resources.forEach(resource -> assertEquals(expectedLink, resource.getId()));
+        assertEquals(expectedLink, sut.withController(RoomController.class).toResource(new Room(hotelId, 1)).getId());
+    }
+
+    @Test
+    public void shouldNotMixControllersOfConcurrentRequests() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Callable<Boolean>> tasks = IntStream.range(0, 200)
+                    .mapToObj(idx -> (Callable<Boolean>) () -> {
+                        final Class<?> controller = idx % 2 == 0 ? RoomController.class : HotelController.class;
+                        final ServiceResourceAssembler<Room, Object> assembler = sut.withController(controller);
+                        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+                        try {
+                            return assembler.resolveBaseUri().equals(linkTo(controller).toString());
+                        } finally {
+                            RequestContextHolder.resetRequestAttributes();
+                        }
+                    })
+                    .collect(toList());
+            for (Future<Boolean> future : executorService.invokeAll(tasks, 10, SECONDS)) {
+                assertEquals(true, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.dataart.tmurzenkov.cassandra.util;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.CELL_PRECISION;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.MAX_LONGITUDE;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.cellWidth;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.countCoveringCells;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.coveringCells;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.distanceKm;
+import static com.dataart.tmurzenkov.cassandra.util.GeoUtils.geohash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * UTs for the {@link GeoUtils}.
+ *
+ * @author tmurzenkov
+ */
+public class GeoUtilsTest {
+    private static final int MAX_CELLS = 512;
+
+    @Test
+    public void shouldEncodeThePointAsGeohash() {
+        assertEquals("u4pruydqqvj", geohash(57.64911, 10.40744, 11));
+        assertEquals("ezs42", geohash(42.6, -5.6, CELL_PRECISION));
+    }
+
+    @Test
+    public void shouldCoverTheCellsOfEveryPointWithinTheRadius() {
+        final double latitude = 50.45;
+        final double longitude = 30.52;
+        final double radiusKm = 7;
+
+        final Set<String> cells = coveringCells(latitude, longitude, radiusKm, CELL_PRECISION, MAX_CELLS);
+
+        assertEquals(geohash(latitude, longitude, CELL_PRECISION), cells.iterator().next());
+        for (double latitudeOffset = -0.06; latitudeOffset <= 0.06; latitudeOffset += 0.005) {
+            for (double longitudeOffset = -0.1; longitudeOffset <= 0.1; longitudeOffset += 0.005) {
+                final double pointLatitude = latitude + latitudeOffset;
+                final double pointLongitude = longitude + longitudeOffset;
+                if (distanceKm(latitude, longitude, pointLatitude, pointLongitude) <= radiusKm) {
+                    assertTrue(pointLatitude + ", " + pointLongitude, cells.contains(geohash(pointLatitude, pointLongitude, CELL_PRECISION)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldCoverTheCellsAcrossTheAntimeridian() {
+        final Set<String> cells = coveringCells(0, 179.99, 5, CELL_PRECISION, MAX_CELLS);
+
+        assertTrue(cells.contains(geohash(0, -179.99, CELL_PRECISION)));
+    }
+
+    @Test
+    public void shouldListNoMoreCellsThanCountedAtTheHighLatitude() {
+        final long count = countCoveringCells(88, 10, 25, CELL_PRECISION);
+
+        final Set<String> cells = coveringCells(88, 10, 25, CELL_PRECISION, (int) count);
+
+        assertTrue(count + " <= " + MAX_CELLS, count > MAX_CELLS);
+        assertTrue(cells.size() + " > " + count, cells.size() <= count);
+        assertTrue(cells.contains(geohash(88.1, 12, CELL_PRECISION)));
+    }
+
+    @Test
+    public void shouldRejectTheCircleAroundThePoleTakingTooManyCells() {
+        final double cellsOfTheParallel = 2 * MAX_LONGITUDE / cellWidth(CELL_PRECISION);
+        assertTrue(countCoveringCells(90, 0, 1, CELL_PRECISION) >= cellsOfTheParallel);
+        try {
+            coveringCells(-89.999, 0, 1, CELL_PRECISION, MAX_CELLS);
+            fail("The circle takes the whole parallel");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("more than " + MAX_CELLS));
+        }
+    }
+
+    @Test
+    public void shouldComputeTheGreatCircleDistance() {
+        assertEquals(0, distanceKm(50.45, 30.52, 50.45, 30.52), 1e-9);
+        assertEquals(111.2, distanceKm(0, 0, 1, 0), 0.1);
+        assertEquals(2133, distanceKm(50.45, 30.52, 51.5074, -0.1278), 10);
+    }
+}
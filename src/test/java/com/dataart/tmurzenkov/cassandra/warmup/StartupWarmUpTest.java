@@ -0,0 +1,121 @@
+package com.dataart.tmurzenkov.cassandra.warmup;
+
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryHotelOccupancyDao;
+import com.dataart.tmurzenkov.cassandra.dao.inmemory.InMemoryRoomDao;
+import com.dataart.tmurzenkov.cassandra.model.dto.Suggestion;
+import com.dataart.tmurzenkov.cassandra.model.dto.WarmUpReport;
+import com.dataart.tmurzenkov.cassandra.model.dto.WarmUpStep;
+import com.dataart.tmurzenkov.cassandra.model.entity.hotel.Hotel;
+import com.dataart.tmurzenkov.cassandra.service.impl.cache.TypeaheadIndex;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildAddress;
+import static com.dataart.tmurzenkov.cassandra.TestUtils.HotelTestUtils.buildHotel;
+import static com.dataart.tmurzenkov.cassandra.model.dto.Suggestion.CITY;
+import static com.dataart.tmurzenkov.cassandra.model.dto.Suggestion.HOTEL;
+import static java.util.UUID.randomUUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * UTs for the {@link StartupWarmUp}.
+ *
+ * @author tmurzenkov
+ */
+public class StartupWarmUpTest {
+    private final StartupWarmUp sut = new StartupWarmUp();
+    private final GenericApplicationContext context = new GenericApplicationContext();
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger hotelScans = new AtomicInteger();
+    private final TypeaheadIndex typeaheadIndex = new TypeaheadIndex();
+    private HttpServer server;
+
+    /**
+     * Registers the in-memory daos and starts the server counting the warm-up requests.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    @Before
+    public void init() throws IOException {
+        context.getBeanFactory().registerSingleton("roomDao", new InMemoryRoomDao());
+        context.getBeanFactory().registerSingleton("hotelDao", new InMemoryHotelDao());
+        context.getBeanFactory().registerSingleton("hotelOccupancyDao", new InMemoryHotelOccupancyDao());
+        context.refresh();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            served.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        setField(sut, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        setField(sut, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        setField(sut, "requests", 2);
+        final InMemoryHotelDao hotelDao = new InMemoryHotelDao() {
+            @Override
+            public Iterable<Hotel> findAll() {
+                hotelScans.incrementAndGet();
+                return super.findAll();
+            }
+        };
+        hotelDao.insert(buildHotel(randomUUID()));
+        setField(typeaheadIndex, "hotelDao", hotelDao);
+        setField(sut, "typeaheadIndex", typeaheadIndex);
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void stop() {
+        server.stop(0);
+        context.close();
+    }
+
+    @Test
+    public void shouldReportTheStepsAndFlipTheReadinessOnceWarmedUp() {
+        assertFalse(sut.getReport().isReady());
+
+        sut.warmUp(context);
+
+        final WarmUpReport report = sut.getReport();
+        assertTrue(report.isReady());
+        final List<WarmUpStep> steps = report.getSteps();
+        assertEquals(4, steps.size());
+        assertEquals("connections", steps.get(0).getName());
+        assertEquals(0, steps.get(0).getCalls());
+        assertEquals("typeahead index", steps.get(1).getName());
+        assertEquals(1, steps.get(1).getCalls());
+        assertEquals(0, steps.get(1).getFailures());
+        assertEquals("dao queries", steps.get(2).getName());
+        assertTrue(steps.get(2).getCalls() >= 7);
+        assertEquals(0, steps.get(2).getFailures());
+        assertEquals("endpoints", steps.get(3).getName());
+        assertEquals(14, steps.get(3).getCalls());
+        assertEquals(0, steps.get(3).getFailures());
+        assertEquals(15, served.get());
+    }
+
+    @Test
+    public void shouldBuildBothTypeaheadIndexesFromOneScanOfTheHotels() {
+        sut.warmUp(context);
+
+        assertEquals(1, hotelScans.get());
+        final List<Suggestion> suggestions = typeaheadIndex.suggest(buildAddress().getCity(), 10);
+        assertEquals(CITY, suggestions.get(0).getType());
+        assertEquals(HOTEL, typeaheadIndex.suggest("Hotel name", 10).get(0).getType());
+    }
+}